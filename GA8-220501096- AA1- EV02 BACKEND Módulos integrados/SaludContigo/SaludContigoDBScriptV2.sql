@@ -0,0 +1,30 @@
+-- -----------------------------------------------------
+-- Script V2: generador de IDs por bloques (pooled-lo)
+-- Se ejecuta sobre una base creada con SaludContigoDBScriptV1.sql
+-- -----------------------------------------------------
+USE `BaseDatosSaludContigo` ;
+
+
+-- -----------------------------------------------------
+-- Table `BaseDatosSaludContigo`.`Secuencias`
+-- Cada fila guarda el siguiente ID libre de una tabla; Hibernate reserva
+-- bloques de 50 IDs por consulta, lo que permite agrupar los INSERT en lotes JDBC.
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS `BaseDatosSaludContigo`.`Secuencias` (
+  `Nombre_Secuencia` VARCHAR(50) NOT NULL,
+  `Siguiente_Valor` BIGINT NOT NULL,
+  PRIMARY KEY (`Nombre_Secuencia`))
+ENGINE = InnoDB;
+
+
+-- -----------------------------------------------------
+-- Inserts `BaseDatosSaludContigo`.`Secuencias`
+-- El valor inicial continúa después del mayor ID existente
+-- -----------------------------------------------------
+INSERT IGNORE INTO Secuencias (Nombre_Secuencia, Siguiente_Valor) SELECT 'Administradores', COALESCE(MAX(IdAdministrador), 0) + 1 FROM Administradores;
+INSERT IGNORE INTO Secuencias (Nombre_Secuencia, Siguiente_Valor) SELECT 'Medicos', COALESCE(MAX(IdMedico), 0) + 1 FROM Medicos;
+INSERT IGNORE INTO Secuencias (Nombre_Secuencia, Siguiente_Valor) SELECT 'Pacientes', COALESCE(MAX(IdPaciente), 0) + 1 FROM Pacientes;
+INSERT IGNORE INTO Secuencias (Nombre_Secuencia, Siguiente_Valor) SELECT 'Citas_Medicas', COALESCE(MAX(IdCita), 0) + 1 FROM Citas_Medicas;
+INSERT IGNORE INTO Secuencias (Nombre_Secuencia, Siguiente_Valor) SELECT 'Examenes_Medicos', COALESCE(MAX(IdExamen), 0) + 1 FROM Examenes_Medicos;
+INSERT IGNORE INTO Secuencias (Nombre_Secuencia, Siguiente_Valor) SELECT 'Historias_Clinicas', COALESCE(MAX(IdHistoria), 0) + 1 FROM Historias_Clinicas;
+COMMIT;
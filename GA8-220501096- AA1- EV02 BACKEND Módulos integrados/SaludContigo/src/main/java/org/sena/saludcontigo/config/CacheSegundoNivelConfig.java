@@ -0,0 +1,88 @@
+package org.sena.saludcontigo.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.TypesafeConfigurator;
+import com.typesafe.config.Config;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.sena.saludcontigo.models.entity.Administrador;
+import org.sena.saludcontigo.models.entity.Medico;
+import org.sena.saludcontigo.models.entity.Paciente;
+import org.sena.saludcontigo.models.services.CambiosRemotos;
+import org.sena.saludcontigo.models.services.IResolucionDocumentoService.Persona;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import javax.cache.CacheManager;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Métricas de la caché de segundo nivel de Hibernate. Las regiones (médicos, pacientes, administradores,
+ * sus consultas por documento y las marcas de actualización de las tablas) son cachés JCache de Caffeine
+ * definidas con su tamaño y vencimiento en {@code application.conf}. Cada región publica
+ * {@code cache.gets} (hit/miss), {@code cache.puts}, {@code cache.evictions} y {@code cache.removals}
+ * con la etiqueta {@code cache} igual al nombre de la región. Los cambios de otras instancias llegan
+ * por el registro de cambios ({@link CambiosRemotos}).
+ */
+@Configuration
+public class CacheSegundoNivelConfig {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Bean
+    public MeterBinder cacheSegundoNivelMetrics() {
+        return registry -> {
+            SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+            if (!(sessionFactory.getCache().getRegionFactory() instanceof JCacheRegionFactory regionFactory)) {
+                return;
+            }
+            // Hibernate crea las regiones de consultas en su primer uso: se registran todas las definidas en la configuración
+            CacheManager cacheManager = regionFactory.getCacheManager();
+            Config config = TypesafeConfigurator.configSource().get(cacheManager.getURI(), cacheManager.getClassLoader());
+            for (String nombre : TypesafeConfigurator.cacheNames(config)) {
+                JCacheMetrics.monitor(registry, cacheManager.getCache(nombre));
+            }
+        };
+    }
+
+    /**
+     * Descarta de la caché los registros que cambiaron en otras instancias y los resultados de sus consultas
+     * por documento, que pueden apuntar a un documento cambiado o no incluir un registro nuevo
+     * @param cambios Cambios leídos del registro de cambios
+     */
+    @EventListener
+    public void cambiosRemotos(CambiosRemotos cambios) {
+        CacheImplementor cache = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getCache();
+        Set<Persona> personas = EnumSet.noneOf(Persona.class);
+        for (CambiosRemotos.Cambio cambio : cambios.cambios()) {
+            cache.evict(entidad(cambio.persona()), cambio.id());
+            personas.add(cambio.persona());
+        }
+        for (Persona persona : personas) {
+            cache.evictQueryRegion(regionDocumento(persona));
+        }
+    }
+
+    private static Class<?> entidad(Persona persona) {
+        return switch (persona) {
+            case PACIENTE -> Paciente.class;
+            case MEDICO -> Medico.class;
+            case ADMINISTRADOR -> Administrador.class;
+        };
+    }
+
+    private static String regionDocumento(Persona persona) {
+        return switch (persona) {
+            case PACIENTE -> "pacientes-documento";
+            case MEDICO -> "medicos-documento";
+            case ADMINISTRADOR -> "administradores-documento";
+        };
+    }
+}
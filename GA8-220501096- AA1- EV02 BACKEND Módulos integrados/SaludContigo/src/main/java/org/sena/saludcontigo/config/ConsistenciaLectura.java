@@ -0,0 +1,51 @@
+package org.sena.saludcontigo.config;
+
+/**
+ * Lectura de las propias escrituras dentro de una solicitud HTTP. Mientras la solicitud esté
+ * marcada, las transacciones de solo lectura usan la base primaria en lugar de una réplica.
+ * La marca se activa con la cabecera {@value #HEADER_LECTURA_PRIMARIA} o automáticamente tras
+ * la primera transacción de escritura de la solicitud. Fuera de una solicitud no tiene efecto.
+ */
+public final class ConsistenciaLectura {
+
+    public static final String HEADER_LECTURA_PRIMARIA = "X-Lectura-Primaria";
+
+    private static final ThreadLocal<boolean[]> SOLICITUD = new ThreadLocal<>();
+
+    private ConsistenciaLectura() {
+    }
+
+    /**
+     * Inicia el contexto de la solicitud actual
+     * @param primaria true para leer de la primaria desde el inicio
+     */
+    public static void iniciar(boolean primaria) {
+        SOLICITUD.set(new boolean[]{primaria});
+    }
+
+    /**
+     * Termina el contexto de la solicitud actual
+     */
+    public static void finalizar() {
+        SOLICITUD.remove();
+    }
+
+    /**
+     * Marca la solicitud actual para que sus lecturas siguientes usen la primaria
+     */
+    public static void registrarEscritura() {
+        boolean[] solicitud = SOLICITUD.get();
+        if (solicitud != null) {
+            solicitud[0] = true;
+        }
+    }
+
+    /**
+     * Indica si las lecturas de la solicitud actual deben usar la primaria
+     * @return true si la solicitud pidió leer de la primaria o ya escribió
+     */
+    public static boolean requierePrimaria() {
+        boolean[] solicitud = SOLICITUD.get();
+        return solicitud != null && solicitud[0];
+    }
+}
@@ -0,0 +1,28 @@
+package org.sena.saludcontigo.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Abre el contexto de {@link ConsistenciaLectura} durante cada solicitud HTTP
+ */
+@Component
+public class ConsistenciaLecturaFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ConsistenciaLectura.iniciar(Boolean.parseBoolean(request.getHeader(ConsistenciaLectura.HEADER_LECTURA_PRIMARIA)));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ConsistenciaLectura.finalizar();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.sena.saludcontigo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Base de datos primaria ({@code spring.datasource.*}) y réplicas de lectura
+ * ({@code saludcontigo.datasource.*}). El resto de la aplicación, incluidos JPA y Flyway,
+ * usa el DataSource enrutado.
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicasProperties.class)
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primariaDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public DataSourceEnrutado dataSourceEnrutado(HikariDataSource primariaDataSource, ReplicasProperties replicasProperties) {
+        return new DataSourceEnrutado(primariaDataSource, replicasProperties);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceEnrutado dataSourceEnrutado) {
+        return new LazyConnectionDataSourceProxy(dataSourceEnrutado);
+    }
+}
@@ -0,0 +1,226 @@
+package org.sena.saludcontigo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envía las transacciones de solo lectura ({@code @Transactional(readOnly = true)}) a una réplica
+ * disponible y todo lo demás a la primaria. Debe usarse detrás de un
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, que retrasa la conexión
+ * física hasta la primera sentencia, cuando la marca de solo lectura de la transacción ya existe.
+ * Las réplicas caídas o con un retraso mayor al permitido se excluyen hasta la siguiente verificación.
+ */
+public class DataSourceEnrutado extends AbstractDataSource implements InitializingBean, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourceEnrutado.class);
+
+    // Columnas de SHOW REPLICA STATUS (MySQL 8.0.22+) y SHOW SLAVE STATUS con el retraso en segundos
+    private static final String[] COLUMNAS_RETRASO = {"Seconds_Behind_Source", "Seconds_Behind_Master"};
+
+    private final DataSource primaria;
+
+    private final List<ReplicaLectura> replicas = new ArrayList<>();
+
+    private final ReplicasProperties.Seleccion seleccion;
+
+    private final Duration retrasoMaximo;
+
+    private final Duration intervaloVerificacion;
+
+    private final AtomicInteger siguiente = new AtomicInteger();
+
+    private ScheduledExecutorService verificador;
+
+    public DataSourceEnrutado(DataSource primaria, ReplicasProperties properties) {
+        this.primaria = primaria;
+        this.seleccion = properties.getSeleccion();
+        this.retrasoMaximo = properties.getRetrasoMaximo();
+        this.intervaloVerificacion = properties.getIntervaloVerificacion();
+        for (ReplicasProperties.Replica replica : properties.getReplicas()) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + (replicas.size() + 1));
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername());
+            dataSource.setPassword(replica.getPassword());
+            dataSource.setReadOnly(true);
+            dataSource.setConnectionTimeout(properties.getTiempoConexion().toMillis());
+            // El pool se crea aunque la réplica no responda; la verificación la habilita cuando vuelva
+            dataSource.setInitializationFailTimeout(-1);
+            String consultaRetraso = replica.getConsultaRetraso() != null
+                    ? replica.getConsultaRetraso()
+                    : properties.getConsultaRetraso();
+            replicas.add(new ReplicaLectura(dataSource, consultaRetraso));
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        verificarReplicas();
+        verificador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "verificador-replicas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalo = intervaloVerificacion.toMillis();
+        verificador.scheduleWithFixedDelay(this::verificarReplicas, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ConsistenciaLectura.requierePrimaria()) {
+            ReplicaLectura replica = seleccionar();
+            if (replica != null) {
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    log.warn("Réplica {} no disponible, se usa la primaria: {}", replica.nombre(), e.getMessage());
+                    replica.disponible = false;
+                }
+            }
+        } else if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            ConsistenciaLectura.registrarEscritura();
+        }
+        return primaria.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Las credenciales se definen en la configuración de cada base de datos");
+    }
+
+    /**
+     * Comprueba la conexión y el retraso de cada réplica y actualiza su disponibilidad
+     */
+    public void verificarReplicas() {
+        for (ReplicaLectura replica : replicas) {
+            boolean disponible;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                Long retraso = replica.consultaRetraso == null ? Long.valueOf(0) : retraso(connection, replica.consultaRetraso);
+                disponible = retraso != null && retraso <= retrasoMaximo.toSeconds();
+                if (!disponible && replica.disponible) {
+                    log.warn("Réplica {} excluida, retraso de replicación: {} s", replica.nombre(), retraso);
+                }
+            } catch (SQLException e) {
+                if (replica.disponible) {
+                    log.warn("Réplica {} excluida: {}", replica.nombre(), e.getMessage());
+                }
+                disponible = false;
+            } catch (RuntimeException e) {
+                log.warn("Error verificando la réplica {}", replica.nombre(), e);
+                disponible = false;
+            }
+            replica.disponible = disponible;
+        }
+    }
+
+    /**
+     * Cantidad de réplicas que reciben lecturas en este momento
+     * @return Réplicas disponibles
+     */
+    public int replicasDisponibles() {
+        return (int) replicas.stream().filter(r -> r.disponible).count();
+    }
+
+    @Override
+    public void close() {
+        if (verificador != null) {
+            verificador.shutdownNow();
+        }
+        replicas.forEach(r -> r.dataSource.close());
+    }
+
+    // Recorre las réplicas desde la siguiente en turno; con MENOS_OCUPADA elige la de menos conexiones activas
+    private ReplicaLectura seleccionar() {
+        int cantidad = replicas.size();
+        if (cantidad == 0) {
+            return null;
+        }
+        int inicio = Math.floorMod(siguiente.getAndIncrement(), cantidad);
+        ReplicaLectura elegida = null;
+        int menosActivas = Integer.MAX_VALUE;
+        for (int i = 0; i < cantidad; i++) {
+            ReplicaLectura replica = replicas.get((inicio + i) % cantidad);
+            if (!replica.disponible) {
+                continue;
+            }
+            if (seleccion == ReplicasProperties.Seleccion.ROUND_ROBIN) {
+                return replica;
+            }
+            int activas = replica.activas();
+            if (activas < menosActivas) {
+                elegida = replica;
+                menosActivas = activas;
+            }
+        }
+        return elegida;
+    }
+
+    // Retraso en segundos informado por la réplica, o nulo si la replicación está detenida
+    private static Long retraso(Connection connection, String consulta) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(consulta)) {
+            if (!rs.next()) {
+                return null;
+            }
+            Object valor = rs.getObject(columnaRetraso(rs.getMetaData()));
+            return valor == null ? null : new BigDecimal(valor.toString()).longValue();
+        }
+    }
+
+    private static int columnaRetraso(ResultSetMetaData metaData) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            for (String columna : COLUMNAS_RETRASO) {
+                if (columna.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                    return i;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static class ReplicaLectura {
+
+        private final HikariDataSource dataSource;
+
+        private final String consultaRetraso;
+
+        private volatile boolean disponible;
+
+        ReplicaLectura(HikariDataSource dataSource, String consultaRetraso) {
+            this.dataSource = dataSource;
+            this.consultaRetraso = consultaRetraso;
+        }
+
+        String nombre() {
+            return dataSource.getPoolName();
+        }
+
+        int activas() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package org.sena.saludcontigo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas ({@code @Scheduled}) de los servicios
+ */
+@Configuration
+@EnableScheduling
+public class ProgramacionConfig {
+}
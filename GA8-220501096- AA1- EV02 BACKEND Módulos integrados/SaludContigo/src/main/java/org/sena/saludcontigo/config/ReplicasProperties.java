@@ -0,0 +1,132 @@
+package org.sena.saludcontigo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réplicas de lectura de la base de datos ({@code saludcontigo.datasource.*}). Sin réplicas
+ * configuradas todas las transacciones usan {@code spring.datasource.url}.
+ */
+@ConfigurationProperties("saludcontigo.datasource")
+public class ReplicasProperties {
+
+    public enum Seleccion {
+        ROUND_ROBIN, MENOS_OCUPADA
+    }
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    private Seleccion seleccion = Seleccion.ROUND_ROBIN;
+
+    // Retraso máximo de replicación antes de dejar de enviar lecturas a una réplica
+    private Duration retrasoMaximo = Duration.ofSeconds(5);
+
+    private Duration intervaloVerificacion = Duration.ofSeconds(10);
+
+    // Tiempo máximo para obtener una conexión de una réplica antes de usar la primaria
+    private Duration tiempoConexion = Duration.ofSeconds(2);
+
+    // Consulta que informa el retraso en segundos; aplica a las réplicas que no definen la suya
+    private String consultaRetraso;
+
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private String consultaRetraso;
+
+        /**
+         * Métodos Getters y Setters
+         */
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public String getConsultaRetraso() {
+            return consultaRetraso;
+        }
+
+        public void setConsultaRetraso(String consultaRetraso) {
+            this.consultaRetraso = consultaRetraso;
+        }
+    }
+
+
+    /**
+     * Métodos Getters y Setters
+     */
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+
+    public Seleccion getSeleccion() {
+        return seleccion;
+    }
+
+    public void setSeleccion(Seleccion seleccion) {
+        this.seleccion = seleccion;
+    }
+
+    public Duration getRetrasoMaximo() {
+        return retrasoMaximo;
+    }
+
+    public void setRetrasoMaximo(Duration retrasoMaximo) {
+        this.retrasoMaximo = retrasoMaximo;
+    }
+
+    public Duration getIntervaloVerificacion() {
+        return intervaloVerificacion;
+    }
+
+    public void setIntervaloVerificacion(Duration intervaloVerificacion) {
+        this.intervaloVerificacion = intervaloVerificacion;
+    }
+
+    public Duration getTiempoConexion() {
+        return tiempoConexion;
+    }
+
+    public void setTiempoConexion(Duration tiempoConexion) {
+        this.tiempoConexion = tiempoConexion;
+    }
+
+    public String getConsultaRetraso() {
+        return consultaRetraso;
+    }
+
+    public void setConsultaRetraso(String consultaRetraso) {
+        this.consultaRetraso = consultaRetraso;
+    }
+}
@@ -1,21 +1,26 @@
 package org.sena.saludcontigo.controllers;
 
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.Administrador;
 import org.sena.saludcontigo.models.services.IAdministradorService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-@CrossOrigin(origins = {"http://localhost:4200", "*"})
+@CrossOrigin(origins = {"http://localhost:4200", "*"}, exposedHeaders = {CursorPaginacion.HEADER_NEXT_CURSOR, HttpHeaders.ETAG})
 @RestController
 @RequestMapping("/api")
 public class AdministradorRestController {
@@ -24,26 +29,55 @@ public class AdministradorRestController {
     private IAdministradorService administradorService;
 
     /**
-     * Obtiene todos los administradores
-     * @return Lista de administradores
+     * Obtiene los administradores paginados por cursor
+     * @param cursor Cursor opaco recibido en la cabecera {@value CursorPaginacion#HEADER_NEXT_CURSOR} de la página anterior
+     * @param limit Cantidad máxima de registros a devolver
+     * @return Respuesta HTTP con la página de los administradores
      */
     @GetMapping("/administradores")
-    @ResponseStatus(HttpStatus.OK)
-    public List<Administrador> index() {
-        return administradorService.findAll();
+    public ResponseEntity<?> index(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        List<Administrador> administradores;
+        Map<String, Object> response = new HashMap<>();
+
+        Long afterId;
+        try {
+            afterId = CursorPaginacion.decodificar(cursor);
+        } catch (IllegalArgumentException e) {
+            response.put("Message", e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+        int limite = CursorPaginacion.normalizarLimite(limit);
+
+        try {
+            administradores = administradorService.findPage(afterId, limite + 1);
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al realizar la consulta en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        return CursorPaginacion.pagina(administradores, limite, Administrador::getIdadministrador);
     }
 
     /**
      * Busca un administrador por su ID
      * @param id ID del administrador a buscar
+     * @param ifNoneMatch ETag conocida por el cliente; si sigue vigente se responde 304 sin cuerpo
      * @return Respuesta HTTP con el administrador encontrado
      */
     @GetMapping("/administradores/id/{id}")
-    public ResponseEntity<?> show(@PathVariable Long id) {
+    public ResponseEntity<?> show(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Administrador administrador = null;
         Map<String, Object> response = new HashMap<>();
 
         try {
+            if (ifNoneMatch != null) {
+                // Solo se consultan el ID y la versión: si la ETag sigue vigente no se carga ni se serializa la entidad
+                VersionDto version = administradorService.findVersionById(id);
+                if (version != null && EtiquetaEntidad.coincideDebil(ifNoneMatch, version.id(), version.version())) {
+                    return EtiquetaEntidad.noModificado(version.id(), version.version());
+                }
+            }
             administrador = administradorService.findById(id);
         } catch (DataAccessException e) {
             response.put("Message", "Error al lanzar la consulta en la Base de Datos");
@@ -56,7 +90,7 @@ public class AdministradorRestController {
             return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
         }
 
-        return new ResponseEntity<>(administrador, HttpStatus.OK);
+        return new ResponseEntity<>(administrador, EtiquetaEntidad.cabeceras(administrador.getIdadministrador(), administrador.getVersion()), HttpStatus.OK);
     }
 
     /**
@@ -80,6 +114,11 @@ public class AdministradorRestController {
         }
 
         try {
+            // El filtro de documentos responde sin consultar cuando el documento es nuevo
+            if (administradorService.existsByDocument(administrador.getNumeroDocumento())) {
+                response.put("Message", "El administrador con documento: ".concat(administrador.getNumeroDocumento()).concat(" ya existe en la base de datos"));
+                return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+            }
             newAdministrador = administradorService.save(administrador);
         } catch (DataAccessException e) {
             response.put("Message", "Error al realizar el insert en la Base de Datos");
@@ -97,11 +136,13 @@ public class AdministradorRestController {
      * @param administrador Objeto del administrador con los datos actualizados
      * @param result Resultados de la validación de los datos del administrador
      * @param id ID del administrador a actualizar
+     * @param ifMatch ETag de la versión que el cliente modificó; si ya no es la actual se responde 412
      * @return Respuesta HTTP con el resultado de la actualización del administrador
      */
     @PutMapping("/administradores/id/{id}")
-    public ResponseEntity<?> update(@Valid @RequestBody Administrador administrador, BindingResult result, @PathVariable Long id) {
-        Administrador currentAdministrador = administradorService.findById(id);
+    public ResponseEntity<?> update(@Valid @RequestBody Administrador administrador, BindingResult result, @PathVariable Long id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Administrador currentAdministrador;
         Administrador updatedAdministrador = null;
         Map<String, Object> response = new HashMap<>();
 
@@ -115,11 +156,17 @@ public class AdministradorRestController {
             return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
         }
 
+        currentAdministrador = administradorService.findById(id);
         if (currentAdministrador == null) {
             response.put("Message", "Error: no se pudo editar, el administrador ID: ".concat(id.toString().concat(" no existe en la base de datos")));
             return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
+        if (ifMatch != null && !EtiquetaEntidad.coincideFuerte(ifMatch, id, currentAdministrador.getVersion())) {
+            response.put("Message", "Error: no se pudo editar, el administrador ID: ".concat(id.toString().concat(" fue modificado por otra solicitud")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
+        }
+
         try {
             currentAdministrador.setNombres(administrador.getNombres());
             currentAdministrador.setApellidos(administrador.getApellidos());
@@ -139,6 +186,10 @@ public class AdministradorRestController {
 
             updatedAdministrador = administradorService.save(currentAdministrador);
 
+        } catch (OptimisticLockingFailureException e) {
+            // Otra solicitud actualizó el registro entre la lectura y la escritura
+            response.put("Message", "Error: no se pudo editar, el administrador ID: ".concat(id.toString().concat(" fue modificado por otra solicitud")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
         } catch (DataAccessException e) {
             response.put("Message", "Error al actualizar el administrador en la Base de Datos");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
@@ -147,7 +198,64 @@ public class AdministradorRestController {
 
         response.put("Message", "El administrador ha sido actualizado con éxito!!");
         response.put("Administrador", updatedAdministrador);
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+        return new ResponseEntity<>(response, EtiquetaEntidad.cabeceras(updatedAdministrador.getIdadministrador(), updatedAdministrador.getVersion()), HttpStatus.CREATED);
+    }
+
+    /**
+     * Actualiza parcialmente el administrador (JSON Merge Patch): solo se escriben los campos recibidos,
+     * con una sola sentencia UPDATE y sin consultar antes el registro
+     * @param cambios Campos a modificar; un valor nulo borra el campo si es opcional
+     * @param id ID del administrador a actualizar
+     * @param ifMatch ETag de la versión que el cliente modificó; la actualización solo se aplica si sigue siendo la actual
+     * @return Respuesta HTTP con el resultado de la actualización del administrador
+     */
+    @PatchMapping(value = "/administradores/id/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> patch(@RequestBody Map<String, Object> cambios, @PathVariable Long id,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Map<String, Object> response = new HashMap<>();
+
+        List<String> errors = new ArrayList<>();
+        Map<String, Object> valores = administradorService.convertirCambios(cambios, errors);
+        if (!errors.isEmpty()) {
+            response.put("Errors", errors);
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        Long version = null;
+        if (ifMatch != null && !EtiquetaEntidad.cualquiera(ifMatch)) {
+            version = EtiquetaEntidad.version(ifMatch, id);
+            if (version == null) {
+                response.put("Message", "Error: no se pudo editar, el administrador ID: ".concat(id.toString().concat(" fue modificado por otra solicitud")));
+                return new ResponseEntity<>(response, HttpStatus.PRECONDITION_FAILED);
+            }
+        }
+
+        int filas;
+        VersionDto actual = null;
+        try {
+            filas = administradorService.patch(id, version, valores);
+            if (filas == 0 && version != null) {
+                // Sin filas actualizadas: el registro no existe o su versión ya no es la indicada en If-Match
+                actual = administradorService.findVersionById(id);
+            }
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al actualizar el administrador en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if (actual != null) {
+            response.put("Message", "Error: no se pudo editar, el administrador ID: ".concat(id.toString().concat(" fue modificado por otra solicitud")));
+            return new ResponseEntity<>(response, HttpStatus.PRECONDITION_FAILED);
+        }
+        if (filas == 0) {
+            response.put("Message", "Error: no se pudo editar, el administrador ID: ".concat(id.toString().concat(" no existe en la base de datos")));
+            return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+        }
+
+        response.put("Message", "El administrador ha sido actualizado con éxito!!");
+        response.put("Campos", valores.keySet());
+        return new ResponseEntity<>(response, version == null ? new HttpHeaders() : EtiquetaEntidad.cabeceras(id, version + 1), HttpStatus.OK);
     }
 
     /**
@@ -177,14 +285,22 @@ public class AdministradorRestController {
     /**
      * Busca un administrador por su Documento
      * @param doc DOC del administrador a buscar
+     * @param ifNoneMatch ETag conocida por el cliente; si sigue vigente se responde 304 sin cuerpo
      * @return Respuesta HTTP con el administrador encontrado
      */
     @GetMapping("/administradores/doc/{doc}")
-    public ResponseEntity<?> showByDocument(@PathVariable String doc) {
+    public ResponseEntity<?> showByDocument(@PathVariable String doc, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Administrador administrador = null;
         Map<String, Object> response = new HashMap<>();
 
         try {
+            if (ifNoneMatch != null) {
+                // Solo se consultan el ID y la versión: si la ETag sigue vigente no se carga ni se serializa la entidad
+                VersionDto version = administradorService.findVersionByDocument(doc);
+                if (version != null && EtiquetaEntidad.coincideDebil(ifNoneMatch, version.id(), version.version())) {
+                    return EtiquetaEntidad.noModificado(version.id(), version.version());
+                }
+            }
             administrador = administradorService.findByDocument(doc);
         } catch (DataAccessException e) {
             response.put("Message", "Error al lanzar la consulta en la Base de Datos");
@@ -197,7 +313,7 @@ public class AdministradorRestController {
             return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
-        return new ResponseEntity<Administrador>(administrador, HttpStatus.OK);
+        return new ResponseEntity<Administrador>(administrador, EtiquetaEntidad.cabeceras(administrador.getIdadministrador(), administrador.getVersion()), HttpStatus.OK);
     }
 
     /**
@@ -205,10 +321,12 @@ public class AdministradorRestController {
      * @param administrador Objeto del administrador con los datos actualizados.
      * @param result Resultados de la validación de los datos del administrador.
      * @param doc Número de documento del administrador a actualizar.
+     * @param ifMatch ETag de la versión que el cliente modificó; si ya no es la actual se responde 412.
      * @return Respuesta HTTP con el resultado de la actualización del administrador.
      */
     @PutMapping("/administradores/doc/{doc}")
-    public ResponseEntity<?> updateByDocument(@Valid @RequestBody Administrador administrador, BindingResult result, @PathVariable String doc) {
+    public ResponseEntity<?> updateByDocument(@Valid @RequestBody Administrador administrador, BindingResult result, @PathVariable String doc,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Administrador currentAdministrador = administradorService.findByDocument(doc);
         Map<String, Object> response = new HashMap<>();
 
@@ -226,6 +344,11 @@ public class AdministradorRestController {
             return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
         }
 
+        if (ifMatch != null && !EtiquetaEntidad.coincideFuerte(ifMatch, currentAdministrador.getIdadministrador(), currentAdministrador.getVersion())) {
+            response.put("Message", "Error: no se pudo editar, el administrador con documento: " + doc + " fue modificado por otra solicitud");
+            return new ResponseEntity<>(response, HttpStatus.PRECONDITION_FAILED);
+        }
+
         // Actualizar campos
         currentAdministrador.setNombres(administrador.getNombres());
         currentAdministrador.setApellidos(administrador.getApellidos());
@@ -244,7 +367,11 @@ public class AdministradorRestController {
         // Actualizar otros campos según sea necesario
 
         try {
-            administradorService.save(currentAdministrador);
+            currentAdministrador = administradorService.save(currentAdministrador);
+        } catch (OptimisticLockingFailureException e) {
+            // Otra solicitud actualizó el registro entre la lectura y la escritura
+            response.put("Message", "Error: no se pudo editar, el administrador con documento: " + doc + " fue modificado por otra solicitud");
+            return new ResponseEntity<>(response, HttpStatus.PRECONDITION_FAILED);
         } catch (DataAccessException e) {
             response.put("Message", "Error al actualizar el administrador en la Base de Datos");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
@@ -253,7 +380,7 @@ public class AdministradorRestController {
 
         response.put("Message", "El administrador ha sido actualizado con éxito!!");
         response.put("Administrador", currentAdministrador);
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return new ResponseEntity<>(response, EtiquetaEntidad.cabeceras(currentAdministrador.getIdadministrador(), currentAdministrador.getVersion()), HttpStatus.OK);
     }
 
     /**
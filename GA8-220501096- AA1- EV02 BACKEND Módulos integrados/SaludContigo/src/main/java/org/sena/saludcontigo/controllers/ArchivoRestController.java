@@ -0,0 +1,54 @@
+package org.sena.saludcontigo.controllers;
+
+import org.sena.saludcontigo.models.services.ArchivoEjecucion;
+import org.sena.saludcontigo.models.services.IArchivoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@CrossOrigin(origins = {"http://localhost:4200", "*"}, exposedHeaders = {HttpHeaders.LOCATION})
+@RestController
+@RequestMapping("/api")
+public class ArchivoRestController {
+
+    @Autowired
+    private IArchivoService archivoService;
+
+    /**
+     * Inicia el archivo de las citas y exámenes antiguos sin esperar a la ejecución programada.
+     * Si ya hay una ejecución en proceso se devuelve su estado.
+     * @return Respuesta HTTP 202 con el estado de la ejecución y su URL de consulta en la cabecera Location.
+     */
+    @PostMapping("/archivo")
+    public ResponseEntity<?> iniciar() {
+        Map<String, Object> response = new HashMap<>();
+        ArchivoEjecucion ejecucion = archivoService.iniciar();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setLocation(ServletUriComponentsBuilder.fromCurrentContextPath().path("/api/archivo").build().toUri());
+        response.put("Message", "El archivo de las citas y exámenes anteriores a " + ejecucion.getCorte() + " está en proceso");
+        response.put("Archivo", ejecucion);
+        return new ResponseEntity<Map<String, Object>>(response, headers, HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * Consulta el estado de la última ejecución del archivo.
+     * @return Respuesta HTTP con el estado y la cantidad de registros archivados.
+     */
+    @GetMapping("/archivo")
+    public ResponseEntity<?> show() {
+        ArchivoEjecucion ejecucion = archivoService.findUltima();
+        if (ejecucion == null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("Message", "El archivo no se ha ejecutado desde el inicio de la aplicación");
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<ArchivoEjecucion>(ejecucion, HttpStatus.OK);
+    }
+}
@@ -1,49 +1,188 @@
 package org.sena.saludcontigo.controllers;
 
+import org.sena.saludcontigo.models.dto.CitaMedicaDto;
+import org.sena.saludcontigo.models.dto.HoraDisponibleDto;
+import org.sena.saludcontigo.models.dto.ResultadoTransicionDto;
+import org.sena.saludcontigo.models.dto.TransicionEstadoDto;
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.CitaMedica;
+import org.sena.saludcontigo.models.entity.FechaHora;
+import org.sena.saludcontigo.models.enums.EstadoCita;
+import org.sena.saludcontigo.models.services.FranjaOcupadaException;
 import org.sena.saludcontigo.models.services.ICitaMedicaService;
+import org.sena.saludcontigo.models.services.IDisponibilidadService;
+import org.sena.saludcontigo.models.services.ITransicionEstadoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-@CrossOrigin(origins = {"http://localhost:4200", "*"})
+@CrossOrigin(origins = {"http://localhost:4200", "*"}, exposedHeaders = {CursorPaginacion.HEADER_NEXT_CURSOR, HttpHeaders.ETAG})
 @RestController
 @RequestMapping("/api")
 public class CitaMedicaRestController {
 
+    // Horas que se pueden pedir en una búsqueda de la próxima hora disponible
+    private static final int MAXIMO_DISPONIBLES = 100;
+
     @Autowired
     private ICitaMedicaService citaMedicaService;
 
+    @Autowired
+    private ITransicionEstadoService transicionEstadoService;
+
+    @Autowired
+    private IDisponibilidadService disponibilidadService;
+
     /**
-     * Obtiene todas las citas médicas
-     * @return Lista de citas médicas
+     * Obtiene las citas médicas paginadas por cursor, opcionalmente filtradas por estado y por médico
+     * @param cursor Cursor opaco recibido en la cabecera {@value CursorPaginacion#HEADER_NEXT_CURSOR} de la página anterior
+     * @param limit Cantidad máxima de registros a devolver
+     * @param estado Estado de la cita (etiqueta o nombre, por ejemplo "Agendada" o "AGENDADA"), opcional
+     * @param medico Documento del médico, opcional
+     * @param incluirArchivo Si es verdadero, incluye las filas movidas a la tabla de archivo
+     * @return Respuesta HTTP con la página de las citas médicas
      */
     @GetMapping("/citas")
-    @ResponseStatus(HttpStatus.OK)
-    public List<CitaMedica> index() {
-        return citaMedicaService.findAll();
+    public ResponseEntity<?> index(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit,
+                                   @RequestParam(required = false) String estado, @RequestParam(required = false) String medico,
+                                   @RequestParam(defaultValue = "false") boolean incluirArchivo) {
+        List<CitaMedicaDto> citasMedicas;
+        Map<String, Object> response = new HashMap<>();
+
+        Long afterId;
+        EstadoCita estadoCita;
+        try {
+            afterId = CursorPaginacion.decodificar(cursor);
+            estadoCita = EstadoCita.desde(estado);
+        } catch (IllegalArgumentException e) {
+            response.put("Message", e.getMessage());
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+        int limite = CursorPaginacion.normalizarLimite(limit);
+
+        try {
+            citasMedicas = citaMedicaService.findPage(estadoCita, medico, afterId, limite + 1, incluirArchivo);
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al realizar la consulta en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        return CursorPaginacion.pagina(citasMedicas, limite, CitaMedicaDto::idcita);
+    }
+
+    /**
+     * Cuenta las citas médicas, opcionalmente filtradas por estado y por médico
+     * @param estado Estado de la cita (etiqueta o nombre), opcional
+     * @param medico Documento del médico, opcional
+     * @param incluirArchivo Si es verdadero, incluye las filas movidas a la tabla de archivo
+     * @return Respuesta HTTP con la cantidad de citas médicas
+     */
+    @GetMapping("/citas/total")
+    public ResponseEntity<?> count(@RequestParam(required = false) String estado, @RequestParam(required = false) String medico,
+                                   @RequestParam(defaultValue = "false") boolean incluirArchivo) {
+        Map<String, Object> response = new HashMap<>();
+
+        EstadoCita estadoCita;
+        try {
+            estadoCita = EstadoCita.desde(estado);
+        } catch (IllegalArgumentException e) {
+            response.put("Message", e.getMessage());
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        try {
+            response.put("Total", citaMedicaService.count(estadoCita, medico, incluirArchivo));
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al realizar la consulta en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Busca las primeras horas en las que algún médico activo de la especialidad puede atender una cita nueva,
+     * mezclando en orden las horas libres de sus médicos
+     * @param especialidad Especialidad de los médicos
+     * @param desde Fecha y hora desde la que se busca (ISO-8601); por defecto la actual
+     * @param duracion Duración de la cita en minutos; por defecto la duración de una cita ({@code saludcontigo.disponibilidad.duracion-cita})
+     * @param limit Cantidad de horas a devolver (1 por defecto, máximo {@value #MAXIMO_DISPONIBLES})
+     * @return Respuesta HTTP con las horas disponibles por fecha y hora, cada una con su médico
+     */
+    @GetMapping("/citas/proxima-disponible")
+    public ResponseEntity<?> proximaDisponible(@RequestParam String especialidad,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+                                               @RequestParam(required = false) Integer duracion, @RequestParam(defaultValue = "1") int limit) {
+        List<HoraDisponibleDto> disponibles;
+        Map<String, Object> response = new HashMap<>();
+
+        if (limit < 1 || limit > MAXIMO_DISPONIBLES) {
+            response.put("Message", "El límite debe estar entre 1 y " + MAXIMO_DISPONIBLES);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        Duration duracionCita = duracion == null ? disponibilidadService.getDuracionCita() : Duration.ofMinutes(duracion);
+        try {
+            disponibles = disponibilidadService.proximasDisponibles(especialidad, desde, duracionCita, limit);
+        } catch (IllegalArgumentException e) {
+            response.put("Message", e.getMessage());
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al realizar la consulta en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if (disponibles == null) {
+            response.put("Message", "No hay médicos activos de la especialidad: ".concat(especialidad));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
+
+        response.put("Especialidad", especialidad);
+        response.put("Duracion", duracionCita.toMinutes());
+        response.put("Disponibles", disponibles);
+        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.OK);
     }
 
     /**
      * Busca una cita médica por su ID
      * @param id ID de la cita médica a buscar
+     * @param ifNoneMatch ETag conocida por el cliente; si sigue vigente se responde 304 sin cuerpo
      * @return Respuesta HTTP con la cita médica encontrada
      */
     @GetMapping("/citas/id/{id}")
-    public ResponseEntity<?> show(@PathVariable Long id) {
+    public ResponseEntity<?> show(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         CitaMedica citaMedica = null;
         Map<String, Object> response = new HashMap<>();
 
         try {
+            if (ifNoneMatch != null) {
+                // Solo se consultan el ID y la versión: si la ETag sigue vigente no se carga ni se serializa la entidad
+                VersionDto version = citaMedicaService.findVersionById(id);
+                if (version != null && EtiquetaEntidad.coincideDebil(ifNoneMatch, version.id(), version.version())) {
+                    return EtiquetaEntidad.noModificado(version.id(), version.version());
+                }
+            }
             citaMedica = citaMedicaService.findById(id);
         } catch (DataAccessException e) {
             response.put("Message", "Error al lanzar la consulta en la Base de Datos");
@@ -56,7 +195,7 @@ public class CitaMedicaRestController {
             return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
-        return new ResponseEntity<CitaMedica>(citaMedica, HttpStatus.OK);
+        return new ResponseEntity<CitaMedica>(citaMedica, EtiquetaEntidad.cabeceras(citaMedica.getIdcita(), citaMedica.getVersion()), HttpStatus.OK);
     }
 
     /**
@@ -81,6 +220,8 @@ public class CitaMedicaRestController {
 
         try {
             newCitaMedica = citaMedicaService.save(citaMedica);
+        } catch (FranjaOcupadaException e) {
+            return franjaOcupada(e);
         } catch (DataAccessException e) {
             response.put("Message", "Error al realizar el insert en la Base de Datos");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
@@ -92,16 +233,94 @@ public class CitaMedicaRestController {
         return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CREATED);
     }
 
+    /**
+     * Crea varias citas médicas en una sola transacción con inserciones por lotes
+     * @param citasMedicas Lista de objetos a crear (máximo {@value ValidacionLote#TAMANO_MAXIMO})
+     * @return Respuesta HTTP con la cantidad y los IDs de los registros creados
+     */
+    @PostMapping("/citas/batch")
+    public ResponseEntity<?> createBatch(@Valid @RequestBody List<CitaMedica> citasMedicas) {
+        List<Long> ids;
+        Map<String, Object> response = new HashMap<>();
+
+        List<String> errors = validarLote(citasMedicas);
+        if (!errors.isEmpty()) {
+            response.put("Errors", errors);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        try {
+            ids = citaMedicaService.saveAll(citasMedicas);
+        } catch (FranjaOcupadaException e) {
+            for (Map.Entry<Integer, CitaMedicaDto> conflicto : e.getConflictos().entrySet()) {
+                CitaMedicaDto cita = conflicto.getValue();
+                errors.add("Elemento [" + conflicto.getKey() + "]: el médico ya tiene agendada la cita médica ID: " + cita.idcita() + " el " + cita.fechaHoraCita());
+            }
+            response.put("Errors", errors);
+            response.put("Conflictos", e.getConflictos());
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CONFLICT);
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al realizar el insert en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        response.put("Message", "Las citas médicas han sido creadas con éxito!!");
+        response.put("Total", ids.size());
+        response.put("IDs", ids);
+        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CREATED);
+    }
+
+    /**
+     * Cambia masivamente el estado de las citas médicas por bloques confirmados de forma independiente
+     * @param transicion Estado actual, estado nuevo y filtros opcionales (médico, rango [desde, hasta) y lugar)
+     * @return Respuesta HTTP con las cantidades seleccionadas y actualizadas y el número de bloques
+     */
+    @PostMapping("/citas/transiciones")
+    public ResponseEntity<?> transicionar(@RequestBody TransicionEstadoDto transicion) {
+        ResultadoTransicionDto resultado;
+        Map<String, Object> response = new HashMap<>();
+
+        List<String> errors = new ArrayList<>();
+        EstadoCita actual = ValidacionTransicion.estado(errors, "estadoActual", transicion.estadoActual(), EstadoCita::desde);
+        EstadoCita nuevo = ValidacionTransicion.estado(errors, "estadoNuevo", transicion.estadoNuevo(), EstadoCita::desde);
+        ValidacionTransicion.validar(errors, transicion, actual, nuevo);
+        if (!errors.isEmpty()) {
+            response.put("Errors", errors);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        try {
+            resultado = transicionEstadoService.transicionarCitas(actual, nuevo, transicion.medico(), transicion.desde(), transicion.hasta(), transicion.lugar());
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al realizar el update en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if (resultado == null) {
+            response.put("Message", "El médico Documento: ".concat(transicion.medico().concat(" no existe en la base de datos")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
+
+        response.put("Message", "Se cambiaron " + resultado.actualizadas() + " citas médicas de " + actual.getEtiqueta() + " a " + nuevo.getEtiqueta()
+                + (resultado.conflictos() > 0 ? "; " + resultado.conflictos() + " no se cambiaron porque su franja ya está ocupada" : ""));
+        response.put("Transicion", resultado);
+        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.OK);
+    }
+
     /**
      * Actualiza una cita médica existente
      * @param citaMedica Objeto de la cita médica a actualizar
      * @param result Resultados de la validación de los datos de la cita médica
      * @param id ID de la cita médica a actualizar
+     * @param ifMatch ETag de la versión que el cliente modificó; si ya no es la actual se responde 412
      * @return Respuesta HTTP con el resultado de la actualización de la cita médica
      */
     @PutMapping("/citas/id/{id}")
-    public ResponseEntity<?> update(@Valid @RequestBody CitaMedica citaMedica, BindingResult result, @PathVariable Long id) {
-        CitaMedica currentCitaMedica = citaMedicaService.findById(id);
+    public ResponseEntity<?> update(@Valid @RequestBody CitaMedica citaMedica, BindingResult result, @PathVariable Long id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        CitaMedica currentCitaMedica;
         CitaMedica updatedCitaMedica = null;
         Map<String, Object> response = new HashMap<>();
 
@@ -114,11 +333,17 @@ public class CitaMedicaRestController {
             return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
         }
 
+        currentCitaMedica = citaMedicaService.findById(id);
         if (currentCitaMedica == null) {
             response.put("Message", "Error: no se pudo actualizar, la cita médica ID: ".concat(id.toString().concat(" no existe en la base de datos")));
             return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
+        if (ifMatch != null && !EtiquetaEntidad.coincideFuerte(ifMatch, id, currentCitaMedica.getVersion())) {
+            response.put("Message", "Error: no se pudo actualizar, la cita médica ID: ".concat(id.toString().concat(" fue modificada por otra solicitud")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
+        }
+
         try {
             currentCitaMedica.setTipoCita(citaMedica.getTipoCita());
             currentCitaMedica.setFechaCita(citaMedica.getFechaCita());
@@ -130,6 +355,12 @@ public class CitaMedicaRestController {
 
             updatedCitaMedica = citaMedicaService.save(currentCitaMedica);
 
+        } catch (FranjaOcupadaException e) {
+            return franjaOcupada(e);
+        } catch (OptimisticLockingFailureException e) {
+            // Otra solicitud actualizó el registro entre la lectura y la escritura
+            response.put("Message", "Error: no se pudo actualizar, la cita médica ID: ".concat(id.toString().concat(" fue modificada por otra solicitud")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
         } catch (DataAccessException e) {
             response.put("Message", "Error al actualizar la cita médica en la Base de Datos");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
@@ -138,7 +369,66 @@ public class CitaMedicaRestController {
 
         response.put("Message", "La cita médica ha sido actualizada con éxito!!");
         response.put("CitaMedica", updatedCitaMedica);
-        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CREATED);
+        return new ResponseEntity<Map<String, Object>>(response, EtiquetaEntidad.cabeceras(updatedCitaMedica.getIdcita(), updatedCitaMedica.getVersion()), HttpStatus.CREATED);
+    }
+
+    /**
+     * Actualiza parcialmente la cita médica (JSON Merge Patch): solo se escriben los campos recibidos,
+     * con una sola sentencia UPDATE y sin consultar antes el registro
+     * @param cambios Campos a modificar; un valor nulo borra el campo si es opcional
+     * @param id ID de la cita médica a actualizar
+     * @param ifMatch ETag de la versión que el cliente modificó; la actualización solo se aplica si sigue siendo la actual
+     * @return Respuesta HTTP con el resultado de la actualización de la cita médica
+     */
+    @PatchMapping(value = "/citas/id/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> patch(@RequestBody Map<String, Object> cambios, @PathVariable Long id,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Map<String, Object> response = new HashMap<>();
+
+        List<String> errors = new ArrayList<>();
+        Map<String, Object> valores = citaMedicaService.convertirCambios(cambios, errors);
+        if (!errors.isEmpty()) {
+            response.put("Errors", errors);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        Long version = null;
+        if (ifMatch != null && !EtiquetaEntidad.cualquiera(ifMatch)) {
+            version = EtiquetaEntidad.version(ifMatch, id);
+            if (version == null) {
+                response.put("Message", "Error: no se pudo actualizar, la cita médica ID: ".concat(id.toString().concat(" fue modificada por otra solicitud")));
+                return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
+            }
+        }
+
+        int filas;
+        VersionDto actual = null;
+        try {
+            filas = citaMedicaService.patch(id, version, valores);
+            if (filas == 0 && version != null) {
+                // Sin filas actualizadas: el registro no existe o su versión ya no es la indicada en If-Match
+                actual = citaMedicaService.findVersionById(id);
+            }
+        } catch (FranjaOcupadaException e) {
+            return franjaOcupada(e);
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al actualizar la cita médica en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if (actual != null) {
+            response.put("Message", "Error: no se pudo actualizar, la cita médica ID: ".concat(id.toString().concat(" fue modificada por otra solicitud")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
+        }
+        if (filas == 0) {
+            response.put("Message", "Error: no se pudo actualizar, la cita médica ID: ".concat(id.toString().concat(" no existe en la base de datos")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
+
+        response.put("Message", "La cita médica ha sido actualizada con éxito!!");
+        response.put("Campos", valores.keySet());
+        return new ResponseEntity<Map<String, Object>>(response, version == null ? new HttpHeaders() : EtiquetaEntidad.cabeceras(id, version + 1), HttpStatus.OK);
     }
 
     /**
@@ -168,65 +458,108 @@ public class CitaMedicaRestController {
     /**
      * Obtiene todas las citas médicas asociadas a un documento de médico específico.
      * @param doc Documento del médico para buscar citas médicas asociadas.
+     * @param cursor Cursor opaco recibido en la cabecera {@value CursorPaginacion#HEADER_NEXT_CURSOR} de la página anterior
+     * @param limit Cantidad máxima de registros a devolver
+     * @param desde Inicio del rango de fecha y hora (inclusivo, ISO-8601), opcional
+     * @param hasta Fin del rango de fecha y hora (exclusivo, ISO-8601), opcional
+     * @param incluirArchivo Si es verdadero, incluye las filas movidas a la tabla de archivo
      * @return Respuesta HTTP con las citas médicas encontradas o un mensaje de error si no se encuentra ninguna.
      */
     @GetMapping("/citas/medico/doc/{doc}")
-    public ResponseEntity<?> findCitasByMedicoDocument(@PathVariable String doc) {
-        List<CitaMedica> citasMedicas;
+    public ResponseEntity<?> findCitasByMedicoDocument(@PathVariable String doc, @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+                                                @RequestParam(defaultValue = "false") boolean incluirArchivo) {
+        List<CitaMedicaDto> citasMedicas;
         Map<String, Object> response = new HashMap<>();
 
+        Long afterId;
+        try {
+            afterId = CursorPaginacion.decodificar(cursor);
+        } catch (IllegalArgumentException e) {
+            response.put("Message", e.getMessage());
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+        int limite = CursorPaginacion.normalizarLimite(limit);
+
+        if ((desde == null) != (hasta == null)) {
+            response.put("Message", "Los parámetros 'desde' y 'hasta' deben enviarse juntos");
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+        if (desde != null && !desde.isBefore(hasta)) {
+            response.put("Message", "El parámetro 'desde' debe ser anterior a 'hasta'");
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+
         try {
-            citasMedicas = citaMedicaService.findByMedicoDocumento(doc);
+            citasMedicas = desde == null
+                    ? citaMedicaService.findByMedicoDocumento(doc, afterId, limite + 1, incluirArchivo)
+                    : citaMedicaService.findByMedicoDocumento(doc, desde, hasta, afterId, limite + 1, incluirArchivo);
         } catch (DataAccessException e) {
             response.put("Message", "Error al realizar la consulta en la Base de Datos");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
-            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        if (citasMedicas.isEmpty()) {
+        if (citasMedicas.isEmpty() && afterId == 0L) {
             response.put("Message", "No se encontraron citas médicas para el médico con documento: " + doc);
-            return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
-        return new ResponseEntity<>(citasMedicas, HttpStatus.OK);
+        return CursorPaginacion.pagina(citasMedicas, limite, CitaMedicaDto::idcita);
     }
 
     /**
      * Obtiene todas las citas médicas asociadas a un documento de paciente específico.
      * @param doc Documento del paciente para buscar citas médicas asociadas.
+     * @param cursor Cursor opaco recibido en la cabecera {@value CursorPaginacion#HEADER_NEXT_CURSOR} de la página anterior
+     * @param limit Cantidad máxima de registros a devolver
+     * @param incluirArchivo Si es verdadero, incluye las filas movidas a la tabla de archivo
      * @return Respuesta HTTP con las citas médicas encontradas o un mensaje de error si no se encuentra ninguna.
      */
     @GetMapping("/citas/paciente/doc/{doc}")
-    public ResponseEntity<?> findByDocument(@PathVariable String doc) {
-        List<CitaMedica> citasMedicas;
+    public ResponseEntity<?> findByDocument(@PathVariable String doc, @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit,
+                                            @RequestParam(defaultValue = "false") boolean incluirArchivo) {
+        List<CitaMedicaDto> citasMedicas;
         Map<String, Object> response = new HashMap<>();
 
+        Long afterId;
         try {
-            citasMedicas = citaMedicaService.findByPacienteDocumento(doc);
+            afterId = CursorPaginacion.decodificar(cursor);
+        } catch (IllegalArgumentException e) {
+            response.put("Message", e.getMessage());
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+        int limite = CursorPaginacion.normalizarLimite(limit);
+
+        try {
+            citasMedicas = citaMedicaService.findByPacienteDocumento(doc, afterId, limite + 1, incluirArchivo);
         } catch (DataAccessException e) {
             response.put("Message", "Error al realizar la consulta en la Base de Datos");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
-            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        if (citasMedicas.isEmpty()) {
+        if (citasMedicas.isEmpty() && afterId == 0L) {
             response.put("Message", "No se encontraron citas médicas para el documento proporcionado: " + doc);
-            return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
-        return new ResponseEntity<>(citasMedicas, HttpStatus.OK);
+        return CursorPaginacion.pagina(citasMedicas, limite, CitaMedicaDto::idcita);
     }
 
     /**
-     * Actualiza citas médicas por documento de paciente.
+     * Actualiza las citas médicas por documento de paciente con una sola sentencia UPDATE.
      * @param citaMedica Datos de la cita médica actualizados.
      * @param result Resultados de la validación de los datos de la cita médica.
      * @param doc Documento del paciente asociado a las citas médicas.
-     * @return Respuesta HTTP con el resultado de la actualización.
+     * @param detalle Si es verdadero, la respuesta incluye los IDs de los registros actualizados.
+     * @return Respuesta HTTP con la cantidad de registros actualizados.
      */
     @PutMapping("/citas/paciente/doc/{doc}")
-    public ResponseEntity<?> updateByDocument(@Valid @RequestBody CitaMedica citaMedica, BindingResult result, @PathVariable String doc) {
-        List<CitaMedica> citas = citaMedicaService.findByPacienteDocumento(doc);
+    public ResponseEntity<?> updateByDocument(@Valid @RequestBody CitaMedica citaMedica, BindingResult result, @PathVariable String doc,
+                                              @RequestParam(defaultValue = "false") boolean detalle) {
+        int actualizados;
         Map<String, Object> response = new HashMap<>();
 
         if (result.hasErrors()) {
@@ -235,28 +568,33 @@ public class CitaMedicaRestController {
                     .map(err -> "El campo '" + err.getField() + "' " + err.getDefaultMessage())
                     .collect(Collectors.toList());
             response.put("Errors", errors);
-            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
         }
 
-        if (citas.isEmpty()) {
-            response.put("Message", "No se encontraron citas médicas para el documento proporcionado.");
-            return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+        try {
+            actualizados = citaMedicaService.updateByPacienteDocumento(doc, citaMedica);
+            if (actualizados > 0 && detalle) {
+                response.put("IDs", citaMedicaService.findIdsByPacienteDocumento(doc));
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Todas las citas del paciente pasan a la misma fecha y hora: el índice único rechaza las que chocan con otra cita del médico
+            response.put("Message", "Error: no se pudo actualizar, el médico de alguna de las citas médicas ya tiene una cita agendada en esa fecha y hora");
+            response.put("Error", e.getMostSpecificCause().getMessage());
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CONFLICT);
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al actualizar las citas médicas en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        citas.forEach(cita -> {
-            cita.setTipoCita(citaMedica.getTipoCita());
-            cita.setFechaCita(citaMedica.getFechaCita());
-            cita.setHoraCita(citaMedica.getHoraCita());
-            cita.setLugarCita(citaMedica.getLugarCita());
-            cita.setEstadoCita(citaMedica.getEstadoCita());
-            cita.setObservacionCita(citaMedica.getObservacionCita());
-
-            citaMedicaService.save(cita);
-        });
+        if (actualizados == 0) {
+            response.put("Message", "No se encontraron citas médicas para el documento proporcionado.");
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
 
         response.put("Message", "Citas médicas actualizadas con éxito.");
-        response.put("Citas Medicas", citas);
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        response.put("Total", actualizados);
+        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.OK);
     }
 
     /**
@@ -272,9 +610,62 @@ public class CitaMedicaRestController {
         } catch (DataAccessException e) {
             response.put("Message", "Error al eliminar las citas médicas en la base de datos.");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
-            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
         response.put("Message", "Citas médicas eliminadas con éxito.");
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Valida un lote de citas médicas antes de enviarlo a la Base de Datos
+     * @param citasMedicas Lista recibida
+     * @return Lista de errores encontrados (vacía si el lote es válido)
+     */
+    private List<String> validarLote(List<CitaMedica> citasMedicas) {
+        List<String> errors = ValidacionLote.validarTamano(citasMedicas);
+        if (!errors.isEmpty()) {
+            return errors;
+        }
+
+        for (int i = 0; i < citasMedicas.size(); i++) {
+            CitaMedica citaMedica = citasMedicas.get(i);
+            ValidacionLote.sinId(errors, i, "idcita", citaMedica.getIdcita());
+            ValidacionLote.requerido(errors, i, "tipoCita", citaMedica.getTipoCita());
+            ValidacionLote.requerido(errors, i, "fechaCita", citaMedica.getFechaCita());
+            ValidacionLote.requerido(errors, i, "horaCita", citaMedica.getHoraCita());
+            ValidacionLote.requerido(errors, i, "lugarCita", citaMedica.getLugarCita());
+            ValidacionLote.requerido(errors, i, "estadoCita", citaMedica.getEstadoCita());
+            ValidacionLote.requerido(errors, i, "paciente", citaMedica.getPaciente() != null ? citaMedica.getPaciente().getIdpaciente() : null);
+            ValidacionLote.requerido(errors, i, "medico", citaMedica.getMedico() != null ? citaMedica.getMedico().getIdmedico() : null);
+        }
+
+        // Citas activas del mismo médico con la misma fecha y hora dentro del lote
+        Set<String> franjas = new HashSet<>();
+        for (int i = 0; i < citasMedicas.size(); i++) {
+            CitaMedica citaMedica = citasMedicas.get(i);
+            if (citaMedica.getMedico() == null || citaMedica.getMedico().getIdmedico() == null
+                    || citaMedica.getFechaCita() == null || citaMedica.getHoraCita() == null
+                    || citaMedica.getEstadoCita() == EstadoCita.CANCELADA) {
+                continue;
+            }
+            LocalDateTime fechaHora = FechaHora.combinar(citaMedica.getFechaCita(), citaMedica.getHoraCita());
+            if (!franjas.add(citaMedica.getMedico().getIdmedico() + "|" + fechaHora)) {
+                errors.add("Elemento [" + i + "]: el médico ya tiene otra cita en el lote el " + fechaHora);
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Arma la respuesta de una cita rechazada porque su médico ya tiene otra cita en la misma fecha y hora
+     * @param e Excepción con la cita que ocupa la franja
+     * @return Respuesta HTTP 409 con la cita en conflicto
+     */
+    private ResponseEntity<?> franjaOcupada(FranjaOcupadaException e) {
+        Map<String, Object> response = new HashMap<>();
+        CitaMedicaDto conflicto = e.getConflictos().values().iterator().next();
+        response.put("Message", "Error: el médico ya tiene agendada la cita médica ID: " + conflicto.idcita() + " el " + conflicto.fechaHoraCita());
+        response.put("Conflicto", conflicto);
+        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CONFLICT);
     }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package org.sena.saludcontigo.controllers;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Utilidades para las consultas de varios registros por número de documento en una sola petición.
+ */
+public final class ConsultaDocumentos {
+
+    public static final int MAXIMO_DOCUMENTOS = 500;
+
+    private ConsultaDocumentos() {
+    }
+
+    /**
+     * Quita los documentos vacíos y repetidos conservando el orden recibido
+     * @param documentos Documentos recibidos, puede ser nulo
+     * @return Documentos a consultar
+     */
+    public static Set<String> normalizar(List<String> documentos) {
+        Set<String> normalizados = new LinkedHashSet<>();
+        if (documentos != null) {
+            for (String documento : documentos) {
+                if (documento != null && !documento.isBlank()) {
+                    normalizados.add(documento.trim());
+                }
+            }
+        }
+        return normalizados;
+    }
+
+    /**
+     * Valida que se consulten entre 1 y {@value #MAXIMO_DOCUMENTOS} documentos
+     * @param documentos Documentos normalizados
+     * @return Lista de errores encontrados (vacía si la consulta es válida)
+     */
+    public static List<String> validar(Set<String> documentos) {
+        List<String> errors = new ArrayList<>();
+        if (documentos.isEmpty()) {
+            errors.add("Debe enviar al menos un documento");
+        } else if (documentos.size() > MAXIMO_DOCUMENTOS) {
+            errors.add("No se pueden consultar más de " + MAXIMO_DOCUMENTOS + " documentos por petición");
+        }
+        return errors;
+    }
+
+    /**
+     * Construye la respuesta con los registros encontrados indexados por documento y los documentos faltantes
+     * @param documentos Documentos consultados, en el orden recibido
+     * @param encontrados Registros devueltos por la Base de Datos
+     * @param documento Función que obtiene el documento de cada registro
+     * @return Cuerpo de la respuesta con "Encontrados", "NoEncontrados" y "Total"
+     */
+    public static <T> Map<String, Object> respuesta(Set<String> documentos, List<T> encontrados, Function<T, String> documento) {
+        Map<String, T> porDocumento = new LinkedHashMap<>();
+        for (T registro : encontrados) {
+            porDocumento.put(documento.apply(registro), registro);
+        }
+
+        Map<String, T> ordenados = new LinkedHashMap<>();
+        List<String> faltantes = new ArrayList<>();
+        for (String doc : documentos) {
+            T registro = porDocumento.get(doc);
+            if (registro == null) {
+                faltantes.add(doc);
+            } else {
+                ordenados.put(doc, registro);
+            }
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("Encontrados", ordenados);
+        response.put("NoEncontrados", faltantes);
+        response.put("Total", ordenados.size());
+        return response;
+    }
+}
@@ -0,0 +1,89 @@
+package org.sena.saludcontigo.controllers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Utilidades para la paginación por cursor (seek sobre el ID) de los listados.
+ * El cursor es opaco para el cliente y se entrega en la cabecera {@value #HEADER_NEXT_CURSOR}.
+ */
+public final class CursorPaginacion {
+
+    public static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+
+    public static final int LIMITE_POR_DEFECTO = 50;
+
+    public static final int LIMITE_MAXIMO = 500;
+
+    private static final String PREFIJO = "id:";
+
+    private CursorPaginacion() {
+    }
+
+    /**
+     * Convierte el cursor recibido en el último ID entregado al cliente
+     * @param cursor Cursor opaco recibido, puede ser nulo
+     * @return ID a partir del cual continuar (0 si no hay cursor)
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static Long decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!valor.startsWith(PREFIJO)) {
+                throw new IllegalArgumentException("Cursor no válido: " + cursor);
+            }
+            return Long.parseLong(valor.substring(PREFIJO.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor no válido: " + cursor, e);
+        }
+    }
+
+    /**
+     * Genera el cursor opaco para continuar después del ID indicado
+     * @param ultimoId Último ID entregado en la página
+     * @return Cursor opaco
+     */
+    public static String codificar(Long ultimoId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIJO + ultimoId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Ajusta el límite solicitado al rango permitido
+     * @param limit Límite solicitado, puede ser nulo
+     * @return Límite a aplicar
+     */
+    public static int normalizarLimite(Integer limit) {
+        if (limit == null || limit < 1) {
+            return LIMITE_POR_DEFECTO;
+        }
+        return Math.min(limit, LIMITE_MAXIMO);
+    }
+
+    /**
+     * Construye la respuesta de una página. Las filas deben haberse consultado con {@code limite + 1}
+     * para saber si existe una página siguiente sin ejecutar una consulta adicional.
+     * @param filas Filas consultadas (hasta limite + 1)
+     * @param limite Límite de la página
+     * @param id Función que obtiene el ID de cada fila
+     * @return Respuesta HTTP con la página y, si aplica, la cabecera con el siguiente cursor
+     */
+    public static <T> ResponseEntity<List<T>> pagina(List<T> filas, int limite, Function<T, Long> id) {
+        HttpHeaders headers = new HttpHeaders();
+        List<T> items = filas;
+        if (filas.size() > limite) {
+            items = filas.subList(0, limite);
+            headers.set(HEADER_NEXT_CURSOR, codificar(id.apply(items.get(limite - 1))));
+        }
+        return new ResponseEntity<>(items, headers, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,139 @@
+package org.sena.saludcontigo.controllers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Utilidades para las peticiones condicionales de las entidades. La ETag es fuerte y se deriva
+ * del ID y de la columna de versión ({@code "id-version"}), por lo que cambia con cada actualización.
+ */
+public final class EtiquetaEntidad {
+
+    private static final String CUALQUIERA = "*";
+
+    private static final String PREFIJO_DEBIL = "W/";
+
+    private EtiquetaEntidad() {
+    }
+
+    /**
+     * Genera la ETag de una entidad
+     * @param id ID de la entidad
+     * @param version Versión actual de la entidad
+     * @return ETag entre comillas
+     */
+    public static String etag(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    /**
+     * Cabeceras de respuesta con la ETag de la entidad
+     * @param id ID de la entidad
+     * @param version Versión actual de la entidad
+     * @return Cabeceras HTTP
+     */
+    public static HttpHeaders cabeceras(Long id, Long version) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag(id, version));
+        return headers;
+    }
+
+    /**
+     * Respuesta 304 sin cuerpo para un If-None-Match que coincide con la versión actual
+     * @param id ID de la entidad
+     * @param version Versión actual de la entidad
+     * @return Respuesta HTTP 304
+     */
+    public static ResponseEntity<Void> noModificado(Long id, Long version) {
+        return new ResponseEntity<>(cabeceras(id, version), HttpStatus.NOT_MODIFIED);
+    }
+
+    /**
+     * Comparación débil para If-None-Match: ignora el prefijo W/ y acepta listas separadas por comas
+     * @param ifNoneMatch Valor de la cabecera, puede ser nulo
+     * @param id ID de la entidad
+     * @param version Versión actual de la entidad
+     * @return true si alguna de las ETag recibidas corresponde a la versión actual
+     */
+    public static boolean coincideDebil(String ifNoneMatch, Long id, Long version) {
+        return coincide(ifNoneMatch, id, version, true);
+    }
+
+    /**
+     * Comparación fuerte para If-Match: las ETag débiles nunca coinciden
+     * @param ifMatch Valor de la cabecera, puede ser nulo
+     * @param id ID de la entidad
+     * @param version Versión actual de la entidad
+     * @return true si alguna de las ETag recibidas corresponde a la versión actual
+     */
+    public static boolean coincideFuerte(String ifMatch, Long id, Long version) {
+        return coincide(ifMatch, id, version, false);
+    }
+
+    /**
+     * Obtiene la versión esperada por un If-Match, para aplicarla como condición de la actualización
+     * @param ifMatch Valor de la cabecera (distinto de {@value #CUALQUIERA})
+     * @param id ID de la entidad a actualizar
+     * @return Versión de la primera ETag fuerte del ID indicado, o nulo si ninguna corresponde
+     */
+    public static Long version(String ifMatch, Long id) {
+        String prefijo = "\"" + id + "-";
+        for (String valor : ifMatch.split(",")) {
+            String etag = valor.trim();
+            if (etag.startsWith(prefijo) && etag.endsWith("\"") && etag.length() > prefijo.length() + 1) {
+                try {
+                    return Long.parseLong(etag.substring(prefijo.length(), etag.length() - 1));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Indica si la cabecera acepta cualquier versión de la entidad
+     * @param cabecera Valor de If-Match o If-None-Match
+     * @return true si el valor es {@value #CUALQUIERA}
+     */
+    public static boolean cualquiera(String cabecera) {
+        return cabecera != null && cabecera.trim().equals(CUALQUIERA);
+    }
+
+    /**
+     * Comparación débil para If-None-Match con una ETag ya calculada, por ejemplo la de un listado
+     * @param ifNoneMatch Valor de la cabecera, puede ser nulo
+     * @param actual ETag actual entre comillas
+     * @return true si alguna de las ETag recibidas corresponde a la actual
+     */
+    public static boolean coincideDebil(String ifNoneMatch, String actual) {
+        return coincide(ifNoneMatch, actual, true);
+    }
+
+    private static boolean coincide(String cabecera, Long id, Long version, boolean debil) {
+        return coincide(cabecera, etag(id, version), debil);
+    }
+
+    private static boolean coincide(String cabecera, String actual, boolean debil) {
+        if (cabecera == null) {
+            return false;
+        }
+        if (cualquiera(cabecera)) {
+            return true;
+        }
+        for (String valor : cabecera.split(",")) {
+            String etag = valor.trim();
+            if (etag.startsWith(PREFIJO_DEBIL)) {
+                if (!debil) {
+                    continue;
+                }
+                etag = etag.substring(PREFIJO_DEBIL.length());
+            }
+            if (etag.equals(actual)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
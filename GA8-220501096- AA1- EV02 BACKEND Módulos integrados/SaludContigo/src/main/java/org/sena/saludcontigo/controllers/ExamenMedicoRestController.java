@@ -1,21 +1,33 @@
 package org.sena.saludcontigo.controllers;
 
+import org.sena.saludcontigo.models.dto.ExamenMedicoDto;
+import org.sena.saludcontigo.models.dto.ResultadoTransicionDto;
+import org.sena.saludcontigo.models.dto.TransicionEstadoDto;
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.ExamenMedico;
+import org.sena.saludcontigo.models.enums.EstadoExamen;
 import org.sena.saludcontigo.models.services.IExamenMedicoService;
+import org.sena.saludcontigo.models.services.ITransicionEstadoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-@CrossOrigin(origins = {"http://localhost:4200", "*"})
+@CrossOrigin(origins = {"http://localhost:4200", "*"}, exposedHeaders = {CursorPaginacion.HEADER_NEXT_CURSOR, HttpHeaders.ETAG})
 @RestController
 @RequestMapping("/api")
 public class ExamenMedicoRestController {
@@ -23,27 +35,61 @@ public class ExamenMedicoRestController {
     @Autowired
     private IExamenMedicoService examenMedicoService;
 
+    @Autowired
+    private ITransicionEstadoService transicionEstadoService;
+
     /**
-     * Obtiene todos los exámenes médicos
-     * @return Lista de exámenes médicos
+     * Obtiene los exámenes médicos paginados por cursor
+     * @param cursor Cursor opaco recibido en la cabecera {@value CursorPaginacion#HEADER_NEXT_CURSOR} de la página anterior
+     * @param limit Cantidad máxima de registros a devolver
+     * @param incluirArchivo Si es verdadero, incluye las filas movidas a la tabla de archivo
+     * @return Respuesta HTTP con la página de los exámenes médicos
      */
     @GetMapping("/examenes")
-    @ResponseStatus(HttpStatus.OK)
-    public List<ExamenMedico> index() {
-        return examenMedicoService.findAll();
+    public ResponseEntity<?> index(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit,
+                                   @RequestParam(defaultValue = "false") boolean incluirArchivo) {
+        List<ExamenMedicoDto> examenesMedicos;
+        Map<String, Object> response = new HashMap<>();
+
+        Long afterId;
+        try {
+            afterId = CursorPaginacion.decodificar(cursor);
+        } catch (IllegalArgumentException e) {
+            response.put("Message", e.getMessage());
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+        int limite = CursorPaginacion.normalizarLimite(limit);
+
+        try {
+            examenesMedicos = examenMedicoService.findPage(afterId, limite + 1, incluirArchivo);
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al realizar la consulta en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        return CursorPaginacion.pagina(examenesMedicos, limite, ExamenMedicoDto::idexamen);
     }
 
     /**
      * Busca un examen médico por su ID
      * @param id ID del examen médico a buscar
+     * @param ifNoneMatch ETag conocida por el cliente; si sigue vigente se responde 304 sin cuerpo
      * @return Respuesta HTTP con el examen médico encontrado
      */
     @GetMapping("/examenes/id/{id}")
-    public ResponseEntity<?> show(@PathVariable Long id) {
+    public ResponseEntity<?> show(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         ExamenMedico examenMedico = null;
         Map<String, Object> response = new HashMap<>();
 
         try {
+            if (ifNoneMatch != null) {
+                // Solo se consultan el ID y la versión: si la ETag sigue vigente no se carga ni se serializa la entidad
+                VersionDto version = examenMedicoService.findVersionById(id);
+                if (version != null && EtiquetaEntidad.coincideDebil(ifNoneMatch, version.id(), version.version())) {
+                    return EtiquetaEntidad.noModificado(version.id(), version.version());
+                }
+            }
             examenMedico = examenMedicoService.findById(id);
         } catch (DataAccessException e) {
             response.put("Message", "Error al lanzar la consulta en la Base de Datos");
@@ -56,7 +102,7 @@ public class ExamenMedicoRestController {
             return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
-        return new ResponseEntity<ExamenMedico>(examenMedico, HttpStatus.OK);
+        return new ResponseEntity<ExamenMedico>(examenMedico, EtiquetaEntidad.cabeceras(examenMedico.getIdexamen(), examenMedico.getVersion()), HttpStatus.OK);
     }
 
     /**
@@ -92,16 +138,85 @@ public class ExamenMedicoRestController {
         return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CREATED);
     }
 
+    /**
+     * Crea varios exámenes médicos en una sola transacción con inserciones por lotes
+     * @param examenesMedicos Lista de objetos a crear (máximo {@value ValidacionLote#TAMANO_MAXIMO})
+     * @return Respuesta HTTP con la cantidad y los IDs de los registros creados
+     */
+    @PostMapping("/examenes/batch")
+    public ResponseEntity<?> createBatch(@Valid @RequestBody List<ExamenMedico> examenesMedicos) {
+        List<Long> ids;
+        Map<String, Object> response = new HashMap<>();
+
+        List<String> errors = validarLote(examenesMedicos);
+        if (!errors.isEmpty()) {
+            response.put("Errors", errors);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        try {
+            ids = examenMedicoService.saveAll(examenesMedicos);
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al realizar el insert en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        response.put("Message", "Los exámenes médicos han sido creados con éxito!!");
+        response.put("Total", ids.size());
+        response.put("IDs", ids);
+        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CREATED);
+    }
+
+    /**
+     * Cambia masivamente el estado de los exámenes médicos por bloques confirmados de forma independiente
+     * @param transicion Estado actual, estado nuevo y filtros opcionales (médico, rango [desde, hasta) y lugar)
+     * @return Respuesta HTTP con las cantidades seleccionadas y actualizadas y el número de bloques
+     */
+    @PostMapping("/examenes/transiciones")
+    public ResponseEntity<?> transicionar(@RequestBody TransicionEstadoDto transicion) {
+        ResultadoTransicionDto resultado;
+        Map<String, Object> response = new HashMap<>();
+
+        List<String> errors = new ArrayList<>();
+        EstadoExamen actual = ValidacionTransicion.estado(errors, "estadoActual", transicion.estadoActual(), EstadoExamen::desde);
+        EstadoExamen nuevo = ValidacionTransicion.estado(errors, "estadoNuevo", transicion.estadoNuevo(), EstadoExamen::desde);
+        ValidacionTransicion.validar(errors, transicion, actual, nuevo);
+        if (!errors.isEmpty()) {
+            response.put("Errors", errors);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        try {
+            resultado = transicionEstadoService.transicionarExamenes(actual, nuevo, transicion.medico(), transicion.desde(), transicion.hasta(), transicion.lugar());
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al realizar el update en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if (resultado == null) {
+            response.put("Message", "El médico Documento: ".concat(transicion.medico().concat(" no existe en la base de datos")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
+
+        response.put("Message", "Se cambiaron " + resultado.actualizadas() + " exámenes médicos de " + actual.getEtiqueta() + " a " + nuevo.getEtiqueta());
+        response.put("Transicion", resultado);
+        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.OK);
+    }
+
     /**
      * Actualiza un examen médico existente
      * @param examenMedico Objeto del examen médico a actualizar
      * @param result Resultados de la validación de los datos del examen médico
      * @param id ID del examen médico a actualizar
+     * @param ifMatch ETag de la versión que el cliente modificó; si ya no es la actual se responde 412
      * @return Respuesta HTTP con el resultado de la actualización del examen médico
      */
     @PutMapping("/examenes/id/{id}")
-    public ResponseEntity<?> update(@Valid @RequestBody ExamenMedico examenMedico, BindingResult result, @PathVariable Long id) {
-        ExamenMedico currentExamenMedico = examenMedicoService.findById(id);
+    public ResponseEntity<?> update(@Valid @RequestBody ExamenMedico examenMedico, BindingResult result, @PathVariable Long id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ExamenMedico currentExamenMedico;
         ExamenMedico updatedExamenMedico = null;
         Map<String, Object> response = new HashMap<>();
 
@@ -114,11 +229,17 @@ public class ExamenMedicoRestController {
             return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
         }
 
+        currentExamenMedico = examenMedicoService.findById(id);
         if (currentExamenMedico == null) {
             response.put("Message", "Error: no se pudo actualizar, el examen médico ID: ".concat(id.toString().concat(" no existe en la base de datos")));
             return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
+        if (ifMatch != null && !EtiquetaEntidad.coincideFuerte(ifMatch, id, currentExamenMedico.getVersion())) {
+            response.put("Message", "Error: no se pudo actualizar, el examen médico ID: ".concat(id.toString().concat(" fue modificado por otra solicitud")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
+        }
+
         try {
             currentExamenMedico.setTipoExamen(examenMedico.getTipoExamen());
             currentExamenMedico.setFechaExamen(examenMedico.getFechaExamen());
@@ -130,6 +251,10 @@ public class ExamenMedicoRestController {
 
             updatedExamenMedico = examenMedicoService.save(currentExamenMedico);
 
+        } catch (OptimisticLockingFailureException e) {
+            // Otra solicitud actualizó el registro entre la lectura y la escritura
+            response.put("Message", "Error: no se pudo actualizar, el examen médico ID: ".concat(id.toString().concat(" fue modificado por otra solicitud")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
         } catch (DataAccessException e) {
             response.put("Message", "Error al actualizar el examen médico en la Base de Datos");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
@@ -138,7 +263,64 @@ public class ExamenMedicoRestController {
 
         response.put("Message", "El examen médico ha sido actualizado con éxito!!");
         response.put("ExamenMedico", updatedExamenMedico);
-        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CREATED);
+        return new ResponseEntity<Map<String, Object>>(response, EtiquetaEntidad.cabeceras(updatedExamenMedico.getIdexamen(), updatedExamenMedico.getVersion()), HttpStatus.CREATED);
+    }
+
+    /**
+     * Actualiza parcialmente el examen médico (JSON Merge Patch): solo se escriben los campos recibidos,
+     * con una sola sentencia UPDATE y sin consultar antes el registro
+     * @param cambios Campos a modificar; un valor nulo borra el campo si es opcional
+     * @param id ID del examen médico a actualizar
+     * @param ifMatch ETag de la versión que el cliente modificó; la actualización solo se aplica si sigue siendo la actual
+     * @return Respuesta HTTP con el resultado de la actualización del examen médico
+     */
+    @PatchMapping(value = "/examenes/id/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> patch(@RequestBody Map<String, Object> cambios, @PathVariable Long id,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Map<String, Object> response = new HashMap<>();
+
+        List<String> errors = new ArrayList<>();
+        Map<String, Object> valores = examenMedicoService.convertirCambios(cambios, errors);
+        if (!errors.isEmpty()) {
+            response.put("Errors", errors);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        Long version = null;
+        if (ifMatch != null && !EtiquetaEntidad.cualquiera(ifMatch)) {
+            version = EtiquetaEntidad.version(ifMatch, id);
+            if (version == null) {
+                response.put("Message", "Error: no se pudo actualizar, el examen médico ID: ".concat(id.toString().concat(" fue modificado por otra solicitud")));
+                return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
+            }
+        }
+
+        int filas;
+        VersionDto actual = null;
+        try {
+            filas = examenMedicoService.patch(id, version, valores);
+            if (filas == 0 && version != null) {
+                // Sin filas actualizadas: el registro no existe o su versión ya no es la indicada en If-Match
+                actual = examenMedicoService.findVersionById(id);
+            }
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al actualizar el examen médico en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if (actual != null) {
+            response.put("Message", "Error: no se pudo actualizar, el examen médico ID: ".concat(id.toString().concat(" fue modificado por otra solicitud")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
+        }
+        if (filas == 0) {
+            response.put("Message", "Error: no se pudo actualizar, el examen médico ID: ".concat(id.toString().concat(" no existe en la base de datos")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
+
+        response.put("Message", "El examen médico ha sido actualizado con éxito!!");
+        response.put("Campos", valores.keySet());
+        return new ResponseEntity<Map<String, Object>>(response, version == null ? new HttpHeaders() : EtiquetaEntidad.cabeceras(id, version + 1), HttpStatus.OK);
     }
 
     /**
@@ -168,65 +350,108 @@ public class ExamenMedicoRestController {
     /**
      * Obtiene todos los exámenes médicos asociados al documento de un médico específico.
      * @param doc Documento del médico para buscar exámenes médicos asociados.
+     * @param cursor Cursor opaco recibido en la cabecera {@value CursorPaginacion#HEADER_NEXT_CURSOR} de la página anterior
+     * @param limit Cantidad máxima de registros a devolver
+     * @param desde Inicio del rango de fecha y hora (inclusivo, ISO-8601), opcional
+     * @param hasta Fin del rango de fecha y hora (exclusivo, ISO-8601), opcional
+     * @param incluirArchivo Si es verdadero, incluye las filas movidas a la tabla de archivo
      * @return ResponseEntity con la lista de exámenes médicos o un mensaje de error.
      */
     @GetMapping("/examenes/medico/doc/{doc}")
-    public ResponseEntity<?> findExamenesByMedicoDocument(@PathVariable String doc) {
-        List<ExamenMedico> examenesMedicos;
+    public ResponseEntity<?> findExamenesByMedicoDocument(@PathVariable String doc, @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+                                                @RequestParam(defaultValue = "false") boolean incluirArchivo) {
+        List<ExamenMedicoDto> examenesMedicos;
         Map<String, Object> response = new HashMap<>();
 
+        Long afterId;
+        try {
+            afterId = CursorPaginacion.decodificar(cursor);
+        } catch (IllegalArgumentException e) {
+            response.put("Message", e.getMessage());
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+        int limite = CursorPaginacion.normalizarLimite(limit);
+
+        if ((desde == null) != (hasta == null)) {
+            response.put("Message", "Los parámetros 'desde' y 'hasta' deben enviarse juntos");
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+        if (desde != null && !desde.isBefore(hasta)) {
+            response.put("Message", "El parámetro 'desde' debe ser anterior a 'hasta'");
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+
         try {
-            examenesMedicos = examenMedicoService.findByMedicoDocumento(doc);
+            examenesMedicos = desde == null
+                    ? examenMedicoService.findByMedicoDocumento(doc, afterId, limite + 1, incluirArchivo)
+                    : examenMedicoService.findByMedicoDocumento(doc, desde, hasta, afterId, limite + 1, incluirArchivo);
         } catch (DataAccessException e) {
             response.put("Message", "Error al realizar la consulta en la Base de Datos");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
-            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        if (examenesMedicos.isEmpty()) {
+        if (examenesMedicos.isEmpty() && afterId == 0L) {
             response.put("Message", "No se encontraron exámenes médicos para el médico con documento: " + doc);
-            return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
-        return new ResponseEntity<>(examenesMedicos, HttpStatus.OK);
+        return CursorPaginacion.pagina(examenesMedicos, limite, ExamenMedicoDto::idexamen);
     }
 
     /**
      * Obtiene todos los exámenes médicos asociados al documento de un paciente específico.
      * @param doc Documento del paciente para buscar exámenes médicos asociados.
+     * @param cursor Cursor opaco recibido en la cabecera {@value CursorPaginacion#HEADER_NEXT_CURSOR} de la página anterior
+     * @param limit Cantidad máxima de registros a devolver
+     * @param incluirArchivo Si es verdadero, incluye las filas movidas a la tabla de archivo
      * @return ResponseEntity con la lista de exámenes médicos o un mensaje de error.
      */
     @GetMapping("/examenes/paciente/doc/{doc}")
-    public ResponseEntity<?> findExamenesByPacienteDocument(@PathVariable String doc) {
-        List<ExamenMedico> examenesMedicos;
+    public ResponseEntity<?> findExamenesByPacienteDocument(@PathVariable String doc, @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit,
+                                                            @RequestParam(defaultValue = "false") boolean incluirArchivo) {
+        List<ExamenMedicoDto> examenesMedicos;
         Map<String, Object> response = new HashMap<>();
 
+        Long afterId;
+        try {
+            afterId = CursorPaginacion.decodificar(cursor);
+        } catch (IllegalArgumentException e) {
+            response.put("Message", e.getMessage());
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+        int limite = CursorPaginacion.normalizarLimite(limit);
+
         try {
-            examenesMedicos = examenMedicoService.findByPacienteDocumento(doc);
+            examenesMedicos = examenMedicoService.findByPacienteDocumento(doc, afterId, limite + 1, incluirArchivo);
         } catch (DataAccessException e) {
             response.put("Message", "Error al realizar la consulta en la Base de Datos");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
-            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        if (examenesMedicos.isEmpty()) {
+        if (examenesMedicos.isEmpty() && afterId == 0L) {
             response.put("Message", "No se encontraron exámenes médicos para el paciente con documento: " + doc);
-            return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
-        return new ResponseEntity<>(examenesMedicos, HttpStatus.OK);
+        return CursorPaginacion.pagina(examenesMedicos, limite, ExamenMedicoDto::idexamen);
     }
 
     /**
-     * Actualiza los exámenes médicos por documento de paciente.
+     * Actualiza los exámenes médicos por documento de paciente con una sola sentencia UPDATE.
      * @param examenMedico Datos del examen médico actualizados.
      * @param result Resultados de la validación de los datos del examen médico.
      * @param doc Documento del paciente asociado a los exámenes médicos.
-     * @return Respuesta HTTP con el resultado de la actualización.
+     * @param detalle Si es verdadero, la respuesta incluye los IDs de los registros actualizados.
+     * @return Respuesta HTTP con la cantidad de registros actualizados.
      */
     @PutMapping("/examenes/paciente/doc/{doc}")
-    public ResponseEntity<?> updateByDocument(@Valid @RequestBody ExamenMedico examenMedico, BindingResult result, @PathVariable String doc) {
-        List<ExamenMedico> examenes = examenMedicoService.findByPacienteDocumento(doc);
+    public ResponseEntity<?> updateByDocument(@Valid @RequestBody ExamenMedico examenMedico, BindingResult result, @PathVariable String doc,
+                                              @RequestParam(defaultValue = "false") boolean detalle) {
+        int actualizados;
         Map<String, Object> response = new HashMap<>();
 
         if (result.hasErrors()) {
@@ -235,28 +460,28 @@ public class ExamenMedicoRestController {
                     .map(err -> "El campo '" + err.getField() + "' " + err.getDefaultMessage())
                     .collect(Collectors.toList());
             response.put("Errors", errors);
-            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
         }
 
-        if (examenes.isEmpty()) {
-            response.put("Message", "No se encontraron exámenes médicos para el documento proporcionado.");
-            return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+        try {
+            actualizados = examenMedicoService.updateByPacienteDocumento(doc, examenMedico);
+            if (actualizados > 0 && detalle) {
+                response.put("IDs", examenMedicoService.findIdsByPacienteDocumento(doc));
+            }
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al actualizar los exámenes médicos en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        examenes.forEach(examen -> {
-            examen.setTipoExamen(examenMedico.getTipoExamen());
-            examen.setFechaExamen(examenMedico.getFechaExamen());
-            examen.setHoraExamen(examenMedico.getHoraExamen());
-            examen.setLugarExamen(examenMedico.getLugarExamen());
-            examen.setEstadoExamen(examenMedico.getEstadoExamen());
-            examen.setObservacionExamen(examenMedico.getObservacionExamen());
-
-            examenMedicoService.save(examen);
-        });
+        if (actualizados == 0) {
+            response.put("Message", "No se encontraron exámenes médicos para el documento proporcionado.");
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
 
         response.put("Message", "Exámenes médicos actualizados con éxito.");
-        response.put("Examenes Medicos", examenes);
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        response.put("Total", actualizados);
+        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.OK);
     }
 
     /**
@@ -272,9 +497,34 @@ public class ExamenMedicoRestController {
         } catch (DataAccessException e) {
             response.put("Message", "Error al eliminar los exámenes médicos en la base de datos.");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
-            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
         response.put("Message", "Exámenes médicos eliminados con éxito.");
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Valida un lote de exámenes médicos antes de enviarlo a la Base de Datos
+     * @param examenesMedicos Lista recibida
+     * @return Lista de errores encontrados (vacía si el lote es válido)
+     */
+    private List<String> validarLote(List<ExamenMedico> examenesMedicos) {
+        List<String> errors = ValidacionLote.validarTamano(examenesMedicos);
+        if (!errors.isEmpty()) {
+            return errors;
+        }
+
+        for (int i = 0; i < examenesMedicos.size(); i++) {
+            ExamenMedico examenMedico = examenesMedicos.get(i);
+            ValidacionLote.sinId(errors, i, "idexamen", examenMedico.getIdexamen());
+            ValidacionLote.requerido(errors, i, "tipoExamen", examenMedico.getTipoExamen());
+            ValidacionLote.requerido(errors, i, "fechaExamen", examenMedico.getFechaExamen());
+            ValidacionLote.requerido(errors, i, "horaExamen", examenMedico.getHoraExamen());
+            ValidacionLote.requerido(errors, i, "lugarExamen", examenMedico.getLugarExamen());
+            ValidacionLote.requerido(errors, i, "estadoExamen", examenMedico.getEstadoExamen());
+            ValidacionLote.requerido(errors, i, "paciente", examenMedico.getPaciente() != null ? examenMedico.getPaciente().getIdpaciente() : null);
+            ValidacionLote.requerido(errors, i, "medico", examenMedico.getMedico() != null ? examenMedico.getMedico().getIdmedico() : null);
+        }
+        return errors;
     }
 }
\ No newline at end of file
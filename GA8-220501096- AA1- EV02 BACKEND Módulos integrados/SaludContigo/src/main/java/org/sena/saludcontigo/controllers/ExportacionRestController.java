@@ -0,0 +1,47 @@
+package org.sena.saludcontigo.controllers;
+
+import org.sena.saludcontigo.models.services.IExportacionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@CrossOrigin(origins = {"http://localhost:4200", "*"})
+@RestController
+@RequestMapping("/api")
+public class ExportacionRestController {
+
+    @Autowired
+    private IExportacionService exportacionService;
+
+    /**
+     * Exporta todas las citas médicas en formato NDJSON (un objeto JSON por línea)
+     * @return Respuesta HTTP que escribe las citas médicas a medida que se leen de la Base de Datos
+     */
+    @GetMapping(value = "/citas/exportar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarCitas() {
+        StreamingResponseBody body = out -> exportacionService.exportarCitas(out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Exporta todos los exámenes médicos en formato NDJSON (un objeto JSON por línea)
+     * @return Respuesta HTTP que escribe los exámenes médicos a medida que se leen de la Base de Datos
+     */
+    @GetMapping(value = "/examenes/exportar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarExamenes() {
+        StreamingResponseBody body = out -> exportacionService.exportarExamenes(out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Exporta todas las historias clínicas en formato NDJSON (un objeto JSON por línea)
+     * @return Respuesta HTTP que escribe las historias clínicas a medida que se leen de la Base de Datos
+     */
+    @GetMapping(value = "/historias/exportar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarHistorias() {
+        StreamingResponseBody body = out -> exportacionService.exportarHistorias(out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
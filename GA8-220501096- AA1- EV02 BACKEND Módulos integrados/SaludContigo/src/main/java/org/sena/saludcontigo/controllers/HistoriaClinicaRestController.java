@@ -1,21 +1,27 @@
 package org.sena.saludcontigo.controllers;
 
+import org.sena.saludcontigo.models.dto.HistoriaClinicaDto;
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.HistoriaClinica;
 import org.sena.saludcontigo.models.services.IHistoriaClinicaService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-@CrossOrigin(origins = {"http://localhost:4200", "*"})
+@CrossOrigin(origins = {"http://localhost:4200", "*"}, exposedHeaders = {CursorPaginacion.HEADER_NEXT_CURSOR, HttpHeaders.ETAG})
 @RestController
 @RequestMapping("/api")
 public class HistoriaClinicaRestController {
@@ -24,26 +30,55 @@ public class HistoriaClinicaRestController {
     private IHistoriaClinicaService historiaClinicaService;
 
     /**
-     * Obtiene todas las historias clínicas
-     * @return Lista de historias clínicas
+     * Obtiene las historias clínicas paginadas por cursor
+     * @param cursor Cursor opaco recibido en la cabecera {@value CursorPaginacion#HEADER_NEXT_CURSOR} de la página anterior
+     * @param limit Cantidad máxima de registros a devolver
+     * @return Respuesta HTTP con la página de las historias clínicas
      */
     @GetMapping("/historias")
-    @ResponseStatus(HttpStatus.OK)
-    public List<HistoriaClinica> index() {
-        return historiaClinicaService.findAll();
+    public ResponseEntity<?> index(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        List<HistoriaClinicaDto> historiasClinicas;
+        Map<String, Object> response = new HashMap<>();
+
+        Long afterId;
+        try {
+            afterId = CursorPaginacion.decodificar(cursor);
+        } catch (IllegalArgumentException e) {
+            response.put("Message", e.getMessage());
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+        int limite = CursorPaginacion.normalizarLimite(limit);
+
+        try {
+            historiasClinicas = historiaClinicaService.findPage(afterId, limite + 1);
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al realizar la consulta en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        return CursorPaginacion.pagina(historiasClinicas, limite, HistoriaClinicaDto::idhistoria);
     }
 
     /**
      * Busca una historia clínica por su ID
      * @param id ID de la historia clínica a buscar
+     * @param ifNoneMatch ETag conocida por el cliente; si sigue vigente se responde 304 sin cuerpo
      * @return Respuesta HTTP con la historia clínica encontrada
      */
     @GetMapping("/historias/id/{id}")
-    public ResponseEntity<?> show(@PathVariable Long id) {
+    public ResponseEntity<?> show(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         HistoriaClinica historiaClinica = null;
         Map<String, Object> response = new HashMap<>();
 
         try {
+            if (ifNoneMatch != null) {
+                // Solo se consultan el ID y la versión: si la ETag sigue vigente no se carga ni se serializa la entidad
+                VersionDto version = historiaClinicaService.findVersionById(id);
+                if (version != null && EtiquetaEntidad.coincideDebil(ifNoneMatch, version.id(), version.version())) {
+                    return EtiquetaEntidad.noModificado(version.id(), version.version());
+                }
+            }
             historiaClinica = historiaClinicaService.findById(id);
         } catch (DataAccessException e) {
             response.put("Message", "Error al lanzar la consulta en la Base de Datos");
@@ -56,7 +91,7 @@ public class HistoriaClinicaRestController {
             return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
-        return new ResponseEntity<HistoriaClinica>(historiaClinica, HttpStatus.OK);
+        return new ResponseEntity<HistoriaClinica>(historiaClinica, EtiquetaEntidad.cabeceras(historiaClinica.getIdhistoria(), historiaClinica.getVersion()), HttpStatus.OK);
     }
 
     /**
@@ -97,11 +132,13 @@ public class HistoriaClinicaRestController {
      * @param historiaClinica Objeto de la historia clínica a actualizar
      * @param result Resultados de la validación de los datos de la historia clínica
      * @param id ID de la historia clínica a actualizar
+     * @param ifMatch ETag de la versión que el cliente modificó; si ya no es la actual se responde 412
      * @return Respuesta HTTP con el resultado de la actualización de la historia clínica
      */
     @PutMapping("/historias/id/{id}")
-    public ResponseEntity<?> update(@Valid @RequestBody HistoriaClinica historiaClinica, BindingResult result, @PathVariable Long id) {
-        HistoriaClinica currentHistoriaClinica = historiaClinicaService.findById(id);
+    public ResponseEntity<?> update(@Valid @RequestBody HistoriaClinica historiaClinica, BindingResult result, @PathVariable Long id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        HistoriaClinica currentHistoriaClinica;
         HistoriaClinica updatedHistoriaClinica = null;
         Map<String, Object> response = new HashMap<>();
 
@@ -114,11 +151,17 @@ public class HistoriaClinicaRestController {
             return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
         }
 
+        currentHistoriaClinica = historiaClinicaService.findById(id);
         if (currentHistoriaClinica == null) {
             response.put("Message", "Error: no se pudo actualizar, la historia clínica ID: ".concat(id.toString().concat(" no existe en la base de datos")));
             return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
+        if (ifMatch != null && !EtiquetaEntidad.coincideFuerte(ifMatch, id, currentHistoriaClinica.getVersion())) {
+            response.put("Message", "Error: no se pudo actualizar, la historia clínica ID: ".concat(id.toString().concat(" fue modificada por otra solicitud")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
+        }
+
         try {
             currentHistoriaClinica.setFechaHistoria(historiaClinica.getFechaHistoria());
             currentHistoriaClinica.setAntecedentesHistoria(historiaClinica.getAntecedentesHistoria());
@@ -129,6 +172,10 @@ public class HistoriaClinicaRestController {
 
             updatedHistoriaClinica = historiaClinicaService.save(currentHistoriaClinica);
 
+        } catch (OptimisticLockingFailureException e) {
+            // Otra solicitud actualizó el registro entre la lectura y la escritura
+            response.put("Message", "Error: no se pudo actualizar, la historia clínica ID: ".concat(id.toString().concat(" fue modificada por otra solicitud")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
         } catch (DataAccessException e) {
             response.put("Message", "Error al actualizar la historia clínica en la Base de Datos");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
@@ -137,7 +184,64 @@ public class HistoriaClinicaRestController {
 
         response.put("Message", "La historia clínica ha sido actualizada con éxito!!");
         response.put("HistoriaClinica", updatedHistoriaClinica);
-        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CREATED);
+        return new ResponseEntity<Map<String, Object>>(response, EtiquetaEntidad.cabeceras(updatedHistoriaClinica.getIdhistoria(), updatedHistoriaClinica.getVersion()), HttpStatus.CREATED);
+    }
+
+    /**
+     * Actualiza parcialmente la historia clínica (JSON Merge Patch): solo se escriben los campos recibidos,
+     * con una sola sentencia UPDATE y sin consultar antes el registro
+     * @param cambios Campos a modificar; un valor nulo borra el campo si es opcional
+     * @param id ID de la historia clínica a actualizar
+     * @param ifMatch ETag de la versión que el cliente modificó; la actualización solo se aplica si sigue siendo la actual
+     * @return Respuesta HTTP con el resultado de la actualización de la historia clínica
+     */
+    @PatchMapping(value = "/historias/id/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> patch(@RequestBody Map<String, Object> cambios, @PathVariable Long id,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Map<String, Object> response = new HashMap<>();
+
+        List<String> errors = new ArrayList<>();
+        Map<String, Object> valores = historiaClinicaService.convertirCambios(cambios, errors);
+        if (!errors.isEmpty()) {
+            response.put("Errors", errors);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        Long version = null;
+        if (ifMatch != null && !EtiquetaEntidad.cualquiera(ifMatch)) {
+            version = EtiquetaEntidad.version(ifMatch, id);
+            if (version == null) {
+                response.put("Message", "Error: no se pudo actualizar, la historia clínica ID: ".concat(id.toString().concat(" fue modificada por otra solicitud")));
+                return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
+            }
+        }
+
+        int filas;
+        VersionDto actual = null;
+        try {
+            filas = historiaClinicaService.patch(id, version, valores);
+            if (filas == 0 && version != null) {
+                // Sin filas actualizadas: el registro no existe o su versión ya no es la indicada en If-Match
+                actual = historiaClinicaService.findVersionById(id);
+            }
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al actualizar la historia clínica en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if (actual != null) {
+            response.put("Message", "Error: no se pudo actualizar, la historia clínica ID: ".concat(id.toString().concat(" fue modificada por otra solicitud")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
+        }
+        if (filas == 0) {
+            response.put("Message", "Error: no se pudo actualizar, la historia clínica ID: ".concat(id.toString().concat(" no existe en la base de datos")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
+
+        response.put("Message", "La historia clínica ha sido actualizada con éxito!!");
+        response.put("Campos", valores.keySet());
+        return new ResponseEntity<Map<String, Object>>(response, version == null ? new HttpHeaders() : EtiquetaEntidad.cabeceras(id, version + 1), HttpStatus.OK);
     }
 
     /**
@@ -167,65 +271,89 @@ public class HistoriaClinicaRestController {
     /**
      * Obtiene todas las historias clínicas asociadas a un documento de médico específico.
      * @param doc Documento del médico para buscar historias clínicas asociadas.
+     * @param cursor Cursor opaco recibido en la cabecera {@value CursorPaginacion#HEADER_NEXT_CURSOR} de la página anterior
+     * @param limit Cantidad máxima de registros a devolver
      * @return Respuesta HTTP con las historias clínicas encontradas o un mensaje de error si no se encuentra ninguna.
      */
     @GetMapping("/historias/medico/doc/{doc}")
-    public ResponseEntity<?> findHistoriasByMedicoDocument(@PathVariable String doc) {
-        List<HistoriaClinica> historiasClinicas;
+    public ResponseEntity<?> findHistoriasByMedicoDocument(@PathVariable String doc, @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        List<HistoriaClinicaDto> historiasClinicas;
         Map<String, Object> response = new HashMap<>();
 
+        Long afterId;
         try {
-            historiasClinicas = historiaClinicaService.findByMedicoDocumento(doc);
+            afterId = CursorPaginacion.decodificar(cursor);
+        } catch (IllegalArgumentException e) {
+            response.put("Message", e.getMessage());
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+        int limite = CursorPaginacion.normalizarLimite(limit);
+
+        try {
+            historiasClinicas = historiaClinicaService.findByMedicoDocumento(doc, afterId, limite + 1);
         } catch (DataAccessException e) {
             response.put("Message", "Error al realizar la consulta en la Base de Datos");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
-            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        if (historiasClinicas.isEmpty()) {
+        if (historiasClinicas.isEmpty() && afterId == 0L) {
             response.put("Message", "No se encontraron historias clínicas para el médico con documento: " + doc);
-            return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
-        return new ResponseEntity<>(historiasClinicas, HttpStatus.OK);
+        return CursorPaginacion.pagina(historiasClinicas, limite, HistoriaClinicaDto::idhistoria);
     }
 
     /**
      * Obtiene todas las historias clínicas asociadas a un documento de paciente específico.
      * @param doc Documento del paciente para buscar historias clínicas asociadas.
+     * @param cursor Cursor opaco recibido en la cabecera {@value CursorPaginacion#HEADER_NEXT_CURSOR} de la página anterior
+     * @param limit Cantidad máxima de registros a devolver
      * @return Respuesta HTTP con las historias clínicas encontradas o un mensaje de error si no se encuentra ninguna.
      */
     @GetMapping("/historias/paciente/doc/{doc}")
-    public ResponseEntity<?> findHistoriasByPacienteDocument(@PathVariable String doc) {
-        List<HistoriaClinica> historiasClinicas;
+    public ResponseEntity<?> findHistoriasByPacienteDocument(@PathVariable String doc, @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        List<HistoriaClinicaDto> historiasClinicas;
         Map<String, Object> response = new HashMap<>();
 
+        Long afterId;
+        try {
+            afterId = CursorPaginacion.decodificar(cursor);
+        } catch (IllegalArgumentException e) {
+            response.put("Message", e.getMessage());
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+        int limite = CursorPaginacion.normalizarLimite(limit);
+
         try {
-            historiasClinicas = historiaClinicaService.findByPacienteDocumento(doc);
+            historiasClinicas = historiaClinicaService.findByPacienteDocumento(doc, afterId, limite + 1);
         } catch (DataAccessException e) {
             response.put("Message", "Error al realizar la consulta en la Base de Datos");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
-            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        if (historiasClinicas.isEmpty()) {
+        if (historiasClinicas.isEmpty() && afterId == 0L) {
             response.put("Message", "No se encontraron historias clínicas para el paciente con documento: " + doc);
-            return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
-        return new ResponseEntity<>(historiasClinicas, HttpStatus.OK);
+        return CursorPaginacion.pagina(historiasClinicas, limite, HistoriaClinicaDto::idhistoria);
     }
 
     /**
-     * Actualiza historias clínicas por documento de paciente.
+     * Actualiza las historias clínicas por documento de paciente con una sola sentencia UPDATE.
      * @param historiaClinica Datos de la historia clínica actualizados.
      * @param result Resultados de la validación de los datos de la historia clínica.
      * @param doc Documento del paciente asociado a las historias clínicas.
-     * @return Respuesta HTTP con el resultado de la actualización.
+     * @param detalle Si es verdadero, la respuesta incluye los IDs de los registros actualizados.
+     * @return Respuesta HTTP con la cantidad de registros actualizados.
      */
     @PutMapping("/historias/paciente/doc/{doc}")
-    public ResponseEntity<?> updateByDocument(@Valid @RequestBody HistoriaClinica historiaClinica, BindingResult result, @PathVariable String doc) {
-        List<HistoriaClinica> historias = historiaClinicaService.findByPacienteDocumento(doc);
+    public ResponseEntity<?> updateByDocument(@Valid @RequestBody HistoriaClinica historiaClinica, BindingResult result, @PathVariable String doc,
+                                              @RequestParam(defaultValue = "false") boolean detalle) {
+        int actualizados;
         Map<String, Object> response = new HashMap<>();
 
         if (result.hasErrors()) {
@@ -234,27 +362,28 @@ public class HistoriaClinicaRestController {
                     .map(err -> "El campo '" + err.getField() + "' " + err.getDefaultMessage())
                     .collect(Collectors.toList());
             response.put("Errors", errors);
-            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
         }
 
-        if (historias.isEmpty()) {
-            response.put("Message", "No se encontraron historias clínicas para el documento proporcionado.");
-            return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+        try {
+            actualizados = historiaClinicaService.updateByPacienteDocumento(doc, historiaClinica);
+            if (actualizados > 0 && detalle) {
+                response.put("IDs", historiaClinicaService.findIdsByPacienteDocumento(doc));
+            }
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al actualizar las historias clínicas en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
-        historias.forEach(historia -> {
-            historia.setFechaHistoria(historiaClinica.getFechaHistoria());
-            historia.setAntecedentesHistoria(historiaClinica.getAntecedentesHistoria());
-            historia.setExamenesHistoria(historiaClinica.getExamenesHistoria());
-            historia.setDiagnosticoHistoria(historiaClinica.getDiagnosticoHistoria());
-            historia.setTratamientoHistoria(historiaClinica.getTratamientoHistoria());
-
-            historiaClinicaService.save(historia);
-        });
+        if (actualizados == 0) {
+            response.put("Message", "No se encontraron historias clínicas para el documento proporcionado.");
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
 
         response.put("Message", "Historias clínicas actualizadas con éxito.");
-        response.put("Historias Clinicas", historias);
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        response.put("Total", actualizados);
+        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.OK);
     }
 
     /**
@@ -270,9 +399,9 @@ public class HistoriaClinicaRestController {
         } catch (DataAccessException e) {
             response.put("Message", "Error al eliminar las historias clínicas en la base de datos.");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
-            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
         response.put("Message", "Historias clínicas eliminadas con éxito.");
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.OK);
     }
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package org.sena.saludcontigo.controllers;
+
+import org.sena.saludcontigo.models.dto.ListaEsperaDto;
+import org.sena.saludcontigo.models.dto.SolicitudEsperaDto;
+import org.sena.saludcontigo.models.services.IListaEsperaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@CrossOrigin(origins = {"http://localhost:4200", "*"})
+@RestController
+@RequestMapping("/api")
+public class ListaEsperaRestController {
+
+    @Autowired
+    private IListaEsperaService listaEsperaService;
+
+    /**
+     * Registra a un paciente en la lista de espera de un médico o de una especialidad. Cuando se cancela una
+     * cita agendada que empieza dentro del rango [desde, hasta], se le agenda automáticamente
+     * @param solicitud Documento del paciente, documento del médico o especialidad, tipo de cita y rango de fecha y hora
+     * @return Respuesta HTTP con la solicitud registrada
+     */
+    @PostMapping("/lista-espera")
+    public ResponseEntity<?> create(@RequestBody SolicitudEsperaDto solicitud) {
+        ListaEsperaDto espera;
+        Map<String, Object> response = new HashMap<>();
+
+        List<String> errors = new ArrayList<>();
+        if (vacio(solicitud.paciente())) {
+            errors.add("El campo 'paciente' es obligatorio");
+        }
+        if (vacio(solicitud.medico()) == vacio(solicitud.especialidad())) {
+            errors.add("Se debe indicar el campo 'medico' o el campo 'especialidad', pero no ambos");
+        }
+        if (vacio(solicitud.tipoCita())) {
+            errors.add("El campo 'tipoCita' es obligatorio");
+        }
+        if (solicitud.desde() == null || solicitud.hasta() == null) {
+            errors.add("Los campos 'desde' y 'hasta' son obligatorios");
+        } else if (solicitud.hasta().isBefore(solicitud.desde())) {
+            errors.add("El campo 'desde' no puede ser posterior a 'hasta'");
+        } else if (!solicitud.hasta().isAfter(LocalDateTime.now())) {
+            errors.add("El campo 'hasta' debe ser una fecha y hora futura");
+        }
+        if (!errors.isEmpty()) {
+            response.put("Errors", errors);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        try {
+            espera = listaEsperaService.registrar(solicitud.paciente(), vacio(solicitud.medico()) ? null : solicitud.medico(),
+                    vacio(solicitud.especialidad()) ? null : solicitud.especialidad(), solicitud.tipoCita(), solicitud.desde(), solicitud.hasta());
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al realizar el insert en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if (espera == null) {
+            response.put("Message", vacio(solicitud.medico())
+                    ? "El paciente Documento: ".concat(solicitud.paciente()).concat(" no existe en la base de datos")
+                    : "El paciente Documento: ".concat(solicitud.paciente()).concat(" o el médico Documento: ").concat(solicitud.medico()).concat(" no existe en la base de datos"));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
+
+        response.put("Message", "El paciente ha sido registrado en la lista de espera con éxito!!");
+        response.put("ListaEspera", espera);
+        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CREATED);
+    }
+
+    /**
+     * Obtiene las solicitudes de la lista de espera de un paciente, de la más reciente a la más antigua
+     * @param doc Documento del paciente
+     * @return Respuesta HTTP con las solicitudes, su estado y la cita asignada
+     */
+    @GetMapping("/lista-espera/paciente/doc/{doc}")
+    public ResponseEntity<?> findByDocument(@PathVariable String doc) {
+        List<ListaEsperaDto> esperas;
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            esperas = listaEsperaService.findByPacienteDocumento(doc);
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al realizar la consulta en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if (esperas == null) {
+            response.put("Message", "El paciente Documento: ".concat(doc.concat(" no existe en la base de datos")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<List<ListaEsperaDto>>(esperas, HttpStatus.OK);
+    }
+
+    /**
+     * Retira una solicitud pendiente de la lista de espera
+     * @param id ID de la solicitud
+     * @return Respuesta HTTP con el resultado del retiro
+     */
+    @DeleteMapping("/lista-espera/id/{id}")
+    public ResponseEntity<?> delete(@PathVariable Long id) {
+        boolean retirada;
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            retirada = listaEsperaService.retirar(id);
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al retirar la solicitud en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if (!retirada) {
+            response.put("Message", "La solicitud ID: ".concat(id.toString().concat(" no existe o ya no está pendiente")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
+        response.put("Message", "La solicitud ha sido retirada de la lista de espera con éxito!!");
+        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.OK);
+    }
+
+    private static boolean vacio(String valor) {
+        return valor == null || valor.isBlank();
+    }
+}
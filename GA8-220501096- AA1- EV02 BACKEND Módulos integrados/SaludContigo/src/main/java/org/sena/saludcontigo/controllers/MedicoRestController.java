@@ -1,21 +1,34 @@
 package org.sena.saludcontigo.controllers;
 
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.Medico;
+import org.sena.saludcontigo.models.services.DirectorioMedicos;
+import org.sena.saludcontigo.models.services.IDirectorioMedicoService;
+import org.sena.saludcontigo.models.services.IDisponibilidadService;
 import org.sena.saludcontigo.models.services.IMedicoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-@CrossOrigin(origins = {"http://localhost:4200", "*"})
+@CrossOrigin(origins = {"http://localhost:4200", "*"}, exposedHeaders = {CursorPaginacion.HEADER_NEXT_CURSOR, HttpHeaders.ETAG})
 @RestController
 @RequestMapping("/api")
 public class MedicoRestController {
@@ -23,27 +36,85 @@ public class MedicoRestController {
     @Autowired
     private IMedicoService medicoService;
 
+    @Autowired
+    private IDirectorioMedicoService directorioMedicoService;
+
+    @Autowired
+    private IDisponibilidadService disponibilidadService;
+
     /**
-     * Obtiene todos los médicos
-     * @return Lista de médicos
+     * Obtiene los médicos paginados por cursor. Las páginas se sirven del directorio en memoria, ya serializadas
+     * (y comprimidas con gzip si el cliente lo acepta); la ETag identifica la versión del directorio y la
+     * codificación enviada
+     * @param cursor Cursor opaco recibido en la cabecera {@value CursorPaginacion#HEADER_NEXT_CURSOR} de la página anterior
+     * @param limit Cantidad máxima de registros a devolver
+     * @param ifNoneMatch ETag conocida por el cliente; si el directorio no cambió se responde 304 sin cuerpo
+     * @param acceptEncoding Codificaciones aceptadas por el cliente
+     * @return Respuesta HTTP con la página de los médicos
      */
     @GetMapping("/medicos")
-    @ResponseStatus(HttpStatus.OK)
-    public List<Medico> index() {
-        return medicoService.findAll();
+    public ResponseEntity<?> index(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit,
+                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                   @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        DirectorioMedicos directorio;
+        Map<String, Object> response = new HashMap<>();
+
+        Long afterId;
+        try {
+            afterId = CursorPaginacion.decodificar(cursor);
+        } catch (IllegalArgumentException e) {
+            response.put("Message", e.getMessage());
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+        int limite = CursorPaginacion.normalizarLimite(limit);
+
+        try {
+            directorio = directorioMedicoService.actual();
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al realizar la consulta en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        DirectorioMedicos.Pagina pagina = directorio.pagina(afterId, limite);
+        boolean gzip = pagina.gzip() != null && aceptaGzip(acceptEncoding);
+        String etag = gzip ? directorio.getEtagGzip() : directorio.getEtag();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        if (pagina.ultimoId() != null) {
+            headers.set(CursorPaginacion.HEADER_NEXT_CURSOR, CursorPaginacion.codificar(pagina.ultimoId()));
+        }
+        if (EtiquetaEntidad.coincideDebil(ifNoneMatch, etag)) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new ResponseEntity<byte[]>(pagina.gzip(), headers, HttpStatus.OK);
+        }
+        return new ResponseEntity<byte[]>(pagina.json(), headers, HttpStatus.OK);
     }
 
     /**
      * Busca un médico por su ID
      * @param id ID del médico a buscar
+     * @param ifNoneMatch ETag conocida por el cliente; si sigue vigente se responde 304 sin cuerpo
      * @return Respuesta HTTP con el médico encontrado
      */
     @GetMapping("/medicos/id/{id}")
-    public ResponseEntity<?> show(@PathVariable Long id) {
+    public ResponseEntity<?> show(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Medico medico = null;
         Map<String, Object> response = new HashMap<>();
 
         try {
+            if (ifNoneMatch != null) {
+                // Solo se consultan el ID y la versión: si la ETag sigue vigente no se carga ni se serializa la entidad
+                VersionDto version = medicoService.findVersionById(id);
+                if (version != null && EtiquetaEntidad.coincideDebil(ifNoneMatch, version.id(), version.version())) {
+                    return EtiquetaEntidad.noModificado(version.id(), version.version());
+                }
+            }
             medico = medicoService.findById(id);
         } catch (DataAccessException e) {
             response.put("Message", "Error al lanzar la consulta en la Base de Datos");
@@ -56,7 +127,7 @@ public class MedicoRestController {
             return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
-        return new ResponseEntity<Medico>(medico, HttpStatus.OK);
+        return new ResponseEntity<Medico>(medico, EtiquetaEntidad.cabeceras(medico.getIdmedico(), medico.getVersion()), HttpStatus.OK);
     }
 
     /**
@@ -80,6 +151,11 @@ public class MedicoRestController {
         }
 
         try {
+            // El filtro de documentos responde sin consultar cuando el documento es nuevo
+            if (medicoService.existsByDocument(medico.getNumeroDocumento())) {
+                response.put("Message", "El médico con documento: ".concat(medico.getNumeroDocumento()).concat(" ya existe en la base de datos"));
+                return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CONFLICT);
+            }
             newMedico = medicoService.save(medico);
         } catch (DataAccessException e) {
             response.put("Message", "Error al realizar el insert en la Base de Datos");
@@ -97,11 +173,13 @@ public class MedicoRestController {
      * @param medico Objeto del médico con los datos actualizados
      * @param result Resultados de la validación de los datos del médico
      * @param id ID del médico a actualizar
+     * @param ifMatch ETag de la versión que el cliente modificó; si ya no es la actual se responde 412
      * @return Respuesta HTTP con el resultado de la actualización del médico
      */
     @PutMapping("/medicos/id/{id}")
-    public ResponseEntity<?> update(@Valid @RequestBody Medico medico, BindingResult result, @PathVariable Long id) {
-        Medico currentMedico = medicoService.findById(id);
+    public ResponseEntity<?> update(@Valid @RequestBody Medico medico, BindingResult result, @PathVariable Long id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Medico currentMedico;
         Medico updatedMedico = null;
         Map<String, Object> response = new HashMap<>();
 
@@ -115,11 +193,17 @@ public class MedicoRestController {
             return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
         }
 
+        currentMedico = medicoService.findById(id);
         if (currentMedico == null) {
             response.put("Message", "Error: no se pudo editar, el médico ID: ".concat(id.toString().concat(" no existe en la base de datos")));
             return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
+        if (ifMatch != null && !EtiquetaEntidad.coincideFuerte(ifMatch, id, currentMedico.getVersion())) {
+            response.put("Message", "Error: no se pudo editar, el médico ID: ".concat(id.toString().concat(" fue modificado por otra solicitud")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
+        }
+
         try {
             currentMedico.setNombres(medico.getNombres());
             currentMedico.setApellidos(medico.getApellidos());
@@ -138,6 +222,10 @@ public class MedicoRestController {
 
             updatedMedico = medicoService.save(currentMedico);
 
+        } catch (OptimisticLockingFailureException e) {
+            // Otra solicitud actualizó el registro entre la lectura y la escritura
+            response.put("Message", "Error: no se pudo editar, el médico ID: ".concat(id.toString().concat(" fue modificado por otra solicitud")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
         } catch (DataAccessException e) {
             response.put("Message", "Error al actualizar el médico en la Base de Datos");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
@@ -146,7 +234,64 @@ public class MedicoRestController {
 
         response.put("Message", "El médico ha sido actualizado con éxito!!");
         response.put("Médico", updatedMedico);
-        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CREATED);
+        return new ResponseEntity<Map<String, Object>>(response, EtiquetaEntidad.cabeceras(updatedMedico.getIdmedico(), updatedMedico.getVersion()), HttpStatus.CREATED);
+    }
+
+    /**
+     * Actualiza parcialmente el médico (JSON Merge Patch): solo se escriben los campos recibidos,
+     * con una sola sentencia UPDATE y sin consultar antes el registro
+     * @param cambios Campos a modificar; un valor nulo borra el campo si es opcional
+     * @param id ID del médico a actualizar
+     * @param ifMatch ETag de la versión que el cliente modificó; la actualización solo se aplica si sigue siendo la actual
+     * @return Respuesta HTTP con el resultado de la actualización del médico
+     */
+    @PatchMapping(value = "/medicos/id/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> patch(@RequestBody Map<String, Object> cambios, @PathVariable Long id,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Map<String, Object> response = new HashMap<>();
+
+        List<String> errors = new ArrayList<>();
+        Map<String, Object> valores = medicoService.convertirCambios(cambios, errors);
+        if (!errors.isEmpty()) {
+            response.put("Errors", errors);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        Long version = null;
+        if (ifMatch != null && !EtiquetaEntidad.cualquiera(ifMatch)) {
+            version = EtiquetaEntidad.version(ifMatch, id);
+            if (version == null) {
+                response.put("Message", "Error: no se pudo editar, el médico ID: ".concat(id.toString().concat(" fue modificado por otra solicitud")));
+                return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
+            }
+        }
+
+        int filas;
+        VersionDto actual = null;
+        try {
+            filas = medicoService.patch(id, version, valores);
+            if (filas == 0 && version != null) {
+                // Sin filas actualizadas: el registro no existe o su versión ya no es la indicada en If-Match
+                actual = medicoService.findVersionById(id);
+            }
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al actualizar el médico en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if (actual != null) {
+            response.put("Message", "Error: no se pudo editar, el médico ID: ".concat(id.toString().concat(" fue modificado por otra solicitud")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
+        }
+        if (filas == 0) {
+            response.put("Message", "Error: no se pudo editar, el médico ID: ".concat(id.toString().concat(" no existe en la base de datos")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
+
+        response.put("Message", "El médico ha sido actualizado con éxito!!");
+        response.put("Campos", valores.keySet());
+        return new ResponseEntity<Map<String, Object>>(response, version == null ? new HttpHeaders() : EtiquetaEntidad.cabeceras(id, version + 1), HttpStatus.OK);
     }
 
     /**
@@ -176,14 +321,22 @@ public class MedicoRestController {
     /**
      * Busca un médico por su documento
      * @param doc DOC del médico a buscar
+     * @param ifNoneMatch ETag conocida por el cliente; si sigue vigente se responde 304 sin cuerpo
      * @return Respuesta HTTP con el médico encontrado
      */
     @GetMapping("/medicos/doc/{doc}")
-    public ResponseEntity<?> show(@PathVariable String doc) {
+    public ResponseEntity<?> show(@PathVariable String doc, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Medico medico = null;
         Map<String, Object> response = new HashMap<>();
 
         try {
+            if (ifNoneMatch != null) {
+                // Solo se consultan el ID y la versión: si la ETag sigue vigente no se carga ni se serializa la entidad
+                VersionDto version = medicoService.findVersionByDocument(doc);
+                if (version != null && EtiquetaEntidad.coincideDebil(ifNoneMatch, version.id(), version.version())) {
+                    return EtiquetaEntidad.noModificado(version.id(), version.version());
+                }
+            }
             medico = medicoService.findByDocument(doc);
         } catch (DataAccessException e) {
             response.put("Message", "Error al lanzar la consulta en la Base de Datos");
@@ -196,7 +349,65 @@ public class MedicoRestController {
             return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
-        return new ResponseEntity<Medico>(medico, HttpStatus.OK);
+        return new ResponseEntity<Medico>(medico, EtiquetaEntidad.cabeceras(medico.getIdmedico(), medico.getVersion()), HttpStatus.OK);
+    }
+
+    /**
+     * Obtiene las horas en las que el médico puede atender una cita nueva. Se calculan con el mapa en memoria
+     * de las franjas ocupadas del médico en el día, sin consultar la Base de Datos si el día ya está cargado
+     * @param doc DOC del médico
+     * @param fecha Fecha a consultar (ISO-8601)
+     * @param duracion Duración de la cita en minutos; por defecto la duración de una cita ({@code saludcontigo.disponibilidad.duracion-cita})
+     * @return Respuesta HTTP con las horas de inicio disponibles dentro de la jornada
+     */
+    @GetMapping("/medicos/doc/{doc}/disponibilidad")
+    public ResponseEntity<?> disponibilidad(@PathVariable String doc, @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha,
+                                            @RequestParam(required = false) Integer duracion) {
+        List<LocalTime> disponibles;
+        Map<String, Object> response = new HashMap<>();
+
+        Duration duracionCita = duracion == null ? disponibilidadService.getDuracionCita() : Duration.ofMinutes(duracion);
+        try {
+            disponibles = disponibilidadService.disponibles(doc, fecha, duracionCita);
+        } catch (IllegalArgumentException e) {
+            response.put("Message", e.getMessage());
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al realizar la consulta en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if (disponibles == null) {
+            response.put("Message", "El médico documento: ".concat(doc.concat(" no existe en la base de datos")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
+
+        response.put("Medico", doc);
+        response.put("Fecha", fecha);
+        response.put("Duracion", duracionCita.toMinutes());
+        response.put("Disponibles", disponibles);
+        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Obtiene varios médicos por su número de documento con una sola consulta.
+     * @param docs Documentos a buscar (parámetro repetido o separado por comas), máximo {@value ConsultaDocumentos#MAXIMO_DOCUMENTOS}
+     * @return Respuesta HTTP con los médicos encontrados indexados por documento y los documentos no encontrados.
+     */
+    @GetMapping("/medicos/docs")
+    public ResponseEntity<?> showByDocuments(@RequestParam List<String> docs) {
+        return findByDocuments(docs);
+    }
+
+    /**
+     * Obtiene varios médicos por su número de documento con una sola consulta, recibiendo los documentos en el cuerpo.
+     * @param docs Documentos a buscar, máximo {@value ConsultaDocumentos#MAXIMO_DOCUMENTOS}
+     * @return Respuesta HTTP con los médicos encontrados indexados por documento y los documentos no encontrados.
+     */
+    @PostMapping("/medicos/docs")
+    public ResponseEntity<?> showByDocumentsBody(@RequestBody List<String> docs) {
+        return findByDocuments(docs);
     }
 
     /**
@@ -204,10 +415,12 @@ public class MedicoRestController {
      * @param medico Objeto del médico con los datos actualizados.
      * @param result Resultados de la validación de los datos del médico.
      * @param doc Número de documento del médico a actualizar.
+     * @param ifMatch ETag de la versión que el cliente modificó; si ya no es la actual se responde 412.
      * @return Respuesta HTTP con el resultado de la actualización del médico.
      */
     @PutMapping("/medicos/doc/{doc}")
-    public ResponseEntity<?> updateByDocument(@Valid @RequestBody Medico medico, BindingResult result, @PathVariable String doc) {
+    public ResponseEntity<?> updateByDocument(@Valid @RequestBody Medico medico, BindingResult result, @PathVariable String doc,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Medico currentMedico = medicoService.findByDocument(doc);
         Map<String, Object> response = new HashMap<>();
 
@@ -217,12 +430,17 @@ public class MedicoRestController {
                     .map(err -> "El campo '" + err.getField() + "' " + err.getDefaultMessage())
                     .collect(Collectors.toList());
             response.put("Errors", errors);
-            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
         }
 
         if (currentMedico == null) {
             response.put("Message", "Error: no se pudo editar, el médico con documento: " + doc + " no existe en la base de datos");
-            return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
+
+        if (ifMatch != null && !EtiquetaEntidad.coincideFuerte(ifMatch, currentMedico.getIdmedico(), currentMedico.getVersion())) {
+            response.put("Message", "Error: no se pudo editar, el médico con documento: " + doc + " fue modificado por otra solicitud");
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
         }
 
         // Actualizar campos
@@ -242,16 +460,20 @@ public class MedicoRestController {
         // Actualizar otros campos según sea necesario
 
         try {
-            medicoService.save(currentMedico);
+            currentMedico = medicoService.save(currentMedico);
+        } catch (OptimisticLockingFailureException e) {
+            // Otra solicitud actualizó el registro entre la lectura y la escritura
+            response.put("Message", "Error: no se pudo editar, el médico con documento: " + doc + " fue modificado por otra solicitud");
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
         } catch (DataAccessException e) {
             response.put("Message", "Error al actualizar el médico en la Base de Datos");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
-            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
         response.put("Message", "El médico ha sido actualizado con éxito!!");
         response.put("Médico", currentMedico);
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return new ResponseEntity<Map<String, Object>>(response, EtiquetaEntidad.cabeceras(currentMedico.getIdmedico(), currentMedico.getVersion()), HttpStatus.OK);
     }
 
     /**
@@ -267,9 +489,56 @@ public class MedicoRestController {
         } catch (DataAccessException e) {
             response.put("Message", "Error al eliminar el médico en la Base de Datos");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
-            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
         response.put("Message", "El médico ha sido eliminado con éxito!!");
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Busca los médicos de la lista de documentos y arma la respuesta de la consulta múltiple
+     * @param docs Documentos recibidos
+     * @return Respuesta HTTP con los médicos encontrados y los documentos no encontrados
+     */
+    private ResponseEntity<?> findByDocuments(List<String> docs) {
+        Map<String, Object> response = new HashMap<>();
+        Set<String> documentos = ConsultaDocumentos.normalizar(docs);
+
+        List<String> errors = ConsultaDocumentos.validar(documentos);
+        if (!errors.isEmpty()) {
+            response.put("Errors", errors);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        List<Medico> medicos;
+        try {
+            medicos = medicoService.findByDocuments(documentos);
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al realizar la consulta en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        return new ResponseEntity<>(ConsultaDocumentos.respuesta(documentos, medicos, Medico::getNumeroDocumento), HttpStatus.OK);
+    }
+
+    // gzip aceptado salvo que se rechace explícitamente con q=0
+    private static boolean aceptaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String valor : acceptEncoding.split(",")) {
+            String[] partes = valor.trim().split(";");
+            if (partes[0].trim().equalsIgnoreCase("gzip")) {
+                for (int i = 1; i < partes.length; i++) {
+                    String parametro = partes[i].trim();
+                    if (parametro.startsWith("q=") && parametro.substring(2).trim().matches("0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
     }
-}
\ No newline at end of file
+}
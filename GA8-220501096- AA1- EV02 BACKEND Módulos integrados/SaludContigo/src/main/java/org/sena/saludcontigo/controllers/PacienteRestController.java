@@ -1,21 +1,31 @@
 package org.sena.saludcontigo.controllers;
 
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.Paciente;
 import org.sena.saludcontigo.models.services.IPacienteService;
+import org.sena.saludcontigo.models.services.IPurgaPacienteService;
+import org.sena.saludcontigo.models.services.PurgaPaciente;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import jakarta.validation.Valid;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-@CrossOrigin(origins = {"http://localhost:4200", "*"})
+@CrossOrigin(origins = {"http://localhost:4200", "*"}, exposedHeaders = {CursorPaginacion.HEADER_NEXT_CURSOR, HttpHeaders.ETAG, HttpHeaders.LOCATION})
 @RestController
 @RequestMapping("/api")
 public class PacienteRestController {
@@ -23,27 +33,59 @@ public class PacienteRestController {
     @Autowired
     private IPacienteService pacienteService;
 
+    @Autowired
+    private IPurgaPacienteService purgaPacienteService;
+
     /**
-     * Obtiene todos los pacientes
-     * @return Lista de pacientes
+     * Obtiene los pacientes paginados por cursor
+     * @param cursor Cursor opaco recibido en la cabecera {@value CursorPaginacion#HEADER_NEXT_CURSOR} de la página anterior
+     * @param limit Cantidad máxima de registros a devolver
+     * @return Respuesta HTTP con la página de los pacientes
      */
     @GetMapping("/pacientes")
-    @ResponseStatus(HttpStatus.OK)
-    public List<Paciente> index() {
-        return pacienteService.findAll();
+    public ResponseEntity<?> index(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        List<Paciente> pacientes;
+        Map<String, Object> response = new HashMap<>();
+
+        Long afterId;
+        try {
+            afterId = CursorPaginacion.decodificar(cursor);
+        } catch (IllegalArgumentException e) {
+            response.put("Message", e.getMessage());
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+        int limite = CursorPaginacion.normalizarLimite(limit);
+
+        try {
+            pacientes = pacienteService.findPage(afterId, limite + 1);
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al realizar la consulta en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        return CursorPaginacion.pagina(pacientes, limite, Paciente::getIdpaciente);
     }
 
     /**
      * Busca un paciente por su ID
      * @param id ID del paciente a buscar
+     * @param ifNoneMatch ETag conocida por el cliente; si sigue vigente se responde 304 sin cuerpo
      * @return Respuesta HTTP con el paciente encontrado
      */
     @GetMapping("/pacientes/id/{id}")
-    public ResponseEntity<?> show(@PathVariable Long id) {
+    public ResponseEntity<?> show(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Paciente paciente = null;
         Map<String, Object> response = new HashMap<>();
 
         try {
+            if (ifNoneMatch != null) {
+                // Solo se consultan el ID y la versión: si la ETag sigue vigente no se carga ni se serializa la entidad
+                VersionDto version = pacienteService.findVersionById(id);
+                if (version != null && EtiquetaEntidad.coincideDebil(ifNoneMatch, version.id(), version.version())) {
+                    return EtiquetaEntidad.noModificado(version.id(), version.version());
+                }
+            }
             paciente = pacienteService.findById(id);
         } catch (DataAccessException e) {
             response.put("Message", "Error al lanzar la consulta en la Base de Datos");
@@ -56,7 +98,7 @@ public class PacienteRestController {
             return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
-        return new ResponseEntity<Paciente>(paciente, HttpStatus.OK);
+        return new ResponseEntity<Paciente>(paciente, EtiquetaEntidad.cabeceras(paciente.getIdpaciente(), paciente.getVersion()), HttpStatus.OK);
     }
 
     /**
@@ -80,6 +122,11 @@ public class PacienteRestController {
         }
 
         try {
+            // El filtro de documentos responde sin consultar cuando el documento es nuevo
+            if (pacienteService.existsByDocument(paciente.getNumeroDocumento())) {
+                response.put("Message", "El paciente con documento: ".concat(paciente.getNumeroDocumento()).concat(" ya existe en la base de datos"));
+                return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CONFLICT);
+            }
             newPaciente = pacienteService.save(paciente);
         } catch (DataAccessException e) {
             response.put("Message", "Error al realizar el insert en la Base de Datos");
@@ -92,16 +139,59 @@ public class PacienteRestController {
         return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CREATED);
     }
 
+    /**
+     * Crea varios pacientes en una sola transacción con inserciones por lotes
+     * @param pacientes Lista de objetos a crear (máximo {@value ValidacionLote#TAMANO_MAXIMO})
+     * @return Respuesta HTTP con la cantidad y los IDs de los registros creados
+     */
+    @PostMapping("/pacientes/batch")
+    public ResponseEntity<?> createBatch(@Valid @RequestBody List<Paciente> pacientes) {
+        List<Long> ids;
+        Map<String, Object> response = new HashMap<>();
+
+        List<String> errors = validarLote(pacientes);
+        if (!errors.isEmpty()) {
+            response.put("Errors", errors);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        try {
+            Set<String> existentes = pacienteService.documentosExistentes(pacientes.stream().map(Paciente::getNumeroDocumento).toList());
+            if (!existentes.isEmpty()) {
+                for (int i = 0; i < pacientes.size(); i++) {
+                    String documento = pacientes.get(i).getNumeroDocumento();
+                    if (existentes.contains(documento)) {
+                        errors.add("Elemento [" + i + "]: el documento " + documento + " ya existe en la base de datos");
+                    }
+                }
+                response.put("Errors", errors);
+                return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CONFLICT);
+            }
+            ids = pacienteService.saveAll(pacientes);
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al realizar el insert en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        response.put("Message", "Los pacientes han sido creados con éxito!!");
+        response.put("Total", ids.size());
+        response.put("IDs", ids);
+        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CREATED);
+    }
+
     /**
      * Actualiza un paciente existente
      * @param paciente Objeto del paciente con los datos actualizados
      * @param result Resultados de la validación de los datos del paciente
      * @param id ID del paciente a actualizar
+     * @param ifMatch ETag de la versión que el cliente modificó; si ya no es la actual se responde 412
      * @return Respuesta HTTP con el resultado de la actualización del paciente
      */
     @PutMapping("/pacientes/id/{id}")
-    public ResponseEntity<?> update(@Valid @RequestBody Paciente paciente, BindingResult result, @PathVariable Long id) {
-        Paciente currentPaciente = pacienteService.findById(id);
+    public ResponseEntity<?> update(@Valid @RequestBody Paciente paciente, BindingResult result, @PathVariable Long id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Paciente currentPaciente;
         Paciente updatedPaciente = null;
         Map<String, Object> response = new HashMap<>();
 
@@ -115,11 +205,17 @@ public class PacienteRestController {
             return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
         }
 
+        currentPaciente = pacienteService.findById(id);
         if (currentPaciente == null) {
             response.put("Message", "Error: no se pudo editar, el paciente ID: ".concat(id.toString().concat(" no existe en la base de datos")));
             return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
+        if (ifMatch != null && !EtiquetaEntidad.coincideFuerte(ifMatch, id, currentPaciente.getVersion())) {
+            response.put("Message", "Error: no se pudo editar, el paciente ID: ".concat(id.toString().concat(" fue modificado por otra solicitud")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
+        }
+
         try {
             currentPaciente.setNombres(paciente.getNombres());
             currentPaciente.setApellidos(paciente.getApellidos());
@@ -138,6 +234,10 @@ public class PacienteRestController {
 
             updatedPaciente = pacienteService.save(currentPaciente);
 
+        } catch (OptimisticLockingFailureException e) {
+            // Otra solicitud actualizó el registro entre la lectura y la escritura
+            response.put("Message", "Error: no se pudo editar, el paciente ID: ".concat(id.toString().concat(" fue modificado por otra solicitud")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
         } catch (DataAccessException e) {
             response.put("Message", "Error al actualizar el paciente en la Base de Datos");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
@@ -146,7 +246,64 @@ public class PacienteRestController {
 
         response.put("Message", "El paciente ha sido actualizado con éxito!!");
         response.put("Paciente", updatedPaciente);
-        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.CREATED);
+        return new ResponseEntity<Map<String, Object>>(response, EtiquetaEntidad.cabeceras(updatedPaciente.getIdpaciente(), updatedPaciente.getVersion()), HttpStatus.CREATED);
+    }
+
+    /**
+     * Actualiza parcialmente el paciente (JSON Merge Patch): solo se escriben los campos recibidos,
+     * con una sola sentencia UPDATE y sin consultar antes el registro
+     * @param cambios Campos a modificar; un valor nulo borra el campo si es opcional
+     * @param id ID del paciente a actualizar
+     * @param ifMatch ETag de la versión que el cliente modificó; la actualización solo se aplica si sigue siendo la actual
+     * @return Respuesta HTTP con el resultado de la actualización del paciente
+     */
+    @PatchMapping(value = "/pacientes/id/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> patch(@RequestBody Map<String, Object> cambios, @PathVariable Long id,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Map<String, Object> response = new HashMap<>();
+
+        List<String> errors = new ArrayList<>();
+        Map<String, Object> valores = pacienteService.convertirCambios(cambios, errors);
+        if (!errors.isEmpty()) {
+            response.put("Errors", errors);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        Long version = null;
+        if (ifMatch != null && !EtiquetaEntidad.cualquiera(ifMatch)) {
+            version = EtiquetaEntidad.version(ifMatch, id);
+            if (version == null) {
+                response.put("Message", "Error: no se pudo editar, el paciente ID: ".concat(id.toString().concat(" fue modificado por otra solicitud")));
+                return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
+            }
+        }
+
+        int filas;
+        VersionDto actual = null;
+        try {
+            filas = pacienteService.patch(id, version, valores);
+            if (filas == 0 && version != null) {
+                // Sin filas actualizadas: el registro no existe o su versión ya no es la indicada en If-Match
+                actual = pacienteService.findVersionById(id);
+            }
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al actualizar el paciente en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if (actual != null) {
+            response.put("Message", "Error: no se pudo editar, el paciente ID: ".concat(id.toString().concat(" fue modificado por otra solicitud")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
+        }
+        if (filas == 0) {
+            response.put("Message", "Error: no se pudo editar, el paciente ID: ".concat(id.toString().concat(" no existe en la base de datos")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
+
+        response.put("Message", "El paciente ha sido actualizado con éxito!!");
+        response.put("Campos", valores.keySet());
+        return new ResponseEntity<Map<String, Object>>(response, version == null ? new HttpHeaders() : EtiquetaEntidad.cabeceras(id, version + 1), HttpStatus.OK);
     }
 
     /**
@@ -176,14 +333,22 @@ public class PacienteRestController {
     /**
      * Busca un paciente por su Documento
      * @param doc DOC del paciente a buscar
+     * @param ifNoneMatch ETag conocida por el cliente; si sigue vigente se responde 304 sin cuerpo
      * @return Respuesta HTTP con el paciente encontrado
      */
     @GetMapping("/pacientes/doc/{doc}")
-    public ResponseEntity<?> show(@PathVariable String doc) {
+    public ResponseEntity<?> show(@PathVariable String doc, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Paciente paciente = null;
         Map<String, Object> response = new HashMap<>();
 
         try {
+            if (ifNoneMatch != null) {
+                // Solo se consultan el ID y la versión: si la ETag sigue vigente no se carga ni se serializa la entidad
+                VersionDto version = pacienteService.findVersionByDocument(doc);
+                if (version != null && EtiquetaEntidad.coincideDebil(ifNoneMatch, version.id(), version.version())) {
+                    return EtiquetaEntidad.noModificado(version.id(), version.version());
+                }
+            }
             paciente = pacienteService.findByDocument(doc);
         } catch (DataAccessException e) {
             response.put("Message", "Error al lanzar la consulta en la Base de Datos");
@@ -196,7 +361,27 @@ public class PacienteRestController {
             return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
         }
 
-        return new ResponseEntity<Paciente>(paciente, HttpStatus.OK);
+        return new ResponseEntity<Paciente>(paciente, EtiquetaEntidad.cabeceras(paciente.getIdpaciente(), paciente.getVersion()), HttpStatus.OK);
+    }
+
+    /**
+     * Obtiene varios pacientes por su número de documento con una sola consulta.
+     * @param docs Documentos a buscar (parámetro repetido o separado por comas), máximo {@value ConsultaDocumentos#MAXIMO_DOCUMENTOS}
+     * @return Respuesta HTTP con los pacientes encontrados indexados por documento y los documentos no encontrados.
+     */
+    @GetMapping("/pacientes/docs")
+    public ResponseEntity<?> showByDocuments(@RequestParam List<String> docs) {
+        return findByDocuments(docs);
+    }
+
+    /**
+     * Obtiene varios pacientes por su número de documento con una sola consulta, recibiendo los documentos en el cuerpo.
+     * @param docs Documentos a buscar, máximo {@value ConsultaDocumentos#MAXIMO_DOCUMENTOS}
+     * @return Respuesta HTTP con los pacientes encontrados indexados por documento y los documentos no encontrados.
+     */
+    @PostMapping("/pacientes/docs")
+    public ResponseEntity<?> showByDocumentsBody(@RequestBody List<String> docs) {
+        return findByDocuments(docs);
     }
 
     /**
@@ -204,10 +389,12 @@ public class PacienteRestController {
      * @param paciente Objeto del paciente con los datos actualizados.
      * @param result Resultados de la validación de los datos del paciente.
      * @param doc Número de documento del paciente a actualizar.
+     * @param ifMatch ETag de la versión que el cliente modificó; si ya no es la actual se responde 412.
      * @return Respuesta HTTP con el resultado de la actualización del paciente.
      */
     @PutMapping("/pacientes/doc/{doc}")
-    public ResponseEntity<?> updateByDocument(@Valid @RequestBody Paciente paciente, BindingResult result, @PathVariable String doc) {
+    public ResponseEntity<?> updateByDocument(@Valid @RequestBody Paciente paciente, BindingResult result, @PathVariable String doc,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Paciente currentPaciente = pacienteService.findByDocument(doc);
         Map<String, Object> response = new HashMap<>();
 
@@ -217,12 +404,17 @@ public class PacienteRestController {
                     .map(err -> "El campo '" + err.getField() + "' " + err.getDefaultMessage())
                     .collect(Collectors.toList());
             response.put("Errors", errors);
-            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
         }
 
         if (currentPaciente == null) {
             response.put("Message", "Error: no se pudo editar, el paciente con documento: " + doc + " no existe en la base de datos");
-            return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
+
+        if (ifMatch != null && !EtiquetaEntidad.coincideFuerte(ifMatch, currentPaciente.getIdpaciente(), currentPaciente.getVersion())) {
+            response.put("Message", "Error: no se pudo editar, el paciente con documento: " + doc + " fue modificado por otra solicitud");
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
         }
 
         // Actualizar campos
@@ -242,16 +434,20 @@ public class PacienteRestController {
         // Actualizar otros campos según sea necesario
 
         try {
-            pacienteService.save(currentPaciente);
+            currentPaciente = pacienteService.save(currentPaciente);
+        } catch (OptimisticLockingFailureException e) {
+            // Otra solicitud actualizó el registro entre la lectura y la escritura
+            response.put("Message", "Error: no se pudo editar, el paciente con documento: " + doc + " fue modificado por otra solicitud");
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.PRECONDITION_FAILED);
         } catch (DataAccessException e) {
             response.put("Message", "Error al actualizar el paciente en la Base de Datos");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
-            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
         response.put("Message", "El paciente ha sido actualizado con éxito!!");
         response.put("Paciente", currentPaciente);
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return new ResponseEntity<Map<String, Object>>(response, EtiquetaEntidad.cabeceras(currentPaciente.getIdpaciente(), currentPaciente.getVersion()), HttpStatus.OK);
     }
 
     /**
@@ -267,9 +463,124 @@ public class PacienteRestController {
         } catch (DataAccessException e) {
             response.put("Message", "Error al eliminar el paciente en la Base de Datos");
             response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
-            return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
         response.put("Message", "El paciente ha sido eliminado con éxito!!");
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return new ResponseEntity<Map<String, Object>>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Elimina un paciente junto con todas sus citas, exámenes e historias clínicas.
+     * La eliminación se ejecuta en segundo plano por bloques con transacciones cortas.
+     * @param doc Número de documento del paciente a eliminar.
+     * @return Respuesta HTTP 202 con el estado de la purga y su URL de consulta en la cabecera Location.
+     */
+    @DeleteMapping("/pacientes/doc/{doc}/todo")
+    public ResponseEntity<?> deleteAllByDocument(@PathVariable String doc) {
+        PurgaPaciente purga;
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            purga = purgaPacienteService.iniciar(doc);
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al lanzar la consulta en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        if (purga == null) {
+            response.put("Message", "El paciente Documento: ".concat(doc.concat(" no existe en la base de datos")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setLocation(ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/pacientes/purgas/{id}").buildAndExpand(purga.getId()).toUri());
+        response.put("Message", "La eliminación del paciente y de sus registros está en proceso");
+        response.put("Purga", purga);
+        return new ResponseEntity<Map<String, Object>>(response, headers, HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * Consulta el estado de una purga de paciente.
+     * @param id ID de la purga devuelto al iniciarla.
+     * @return Respuesta HTTP con el estado y la cantidad de registros eliminados.
+     */
+    @GetMapping("/pacientes/purgas/{id}")
+    public ResponseEntity<?> showPurga(@PathVariable String id) {
+        PurgaPaciente purga = purgaPacienteService.findById(id);
+        if (purga == null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("Message", "La purga ID: ".concat(id.concat(" no existe o ya expiró")));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<PurgaPaciente>(purga, HttpStatus.OK);
+    }
+
+    /**
+     * Valida un lote de pacientes antes de enviarlo a la Base de Datos
+     * @param pacientes Lista recibida
+     * @return Lista de errores encontrados (vacía si el lote es válido)
+     */
+    private List<String> validarLote(List<Paciente> pacientes) {
+        List<String> errors = ValidacionLote.validarTamano(pacientes);
+        if (!errors.isEmpty()) {
+            return errors;
+        }
+
+        for (int i = 0; i < pacientes.size(); i++) {
+            Paciente paciente = pacientes.get(i);
+            ValidacionLote.sinId(errors, i, "idpaciente", paciente.getIdpaciente());
+            ValidacionLote.requerido(errors, i, "nombres", paciente.getNombres());
+            ValidacionLote.requerido(errors, i, "apellidos", paciente.getApellidos());
+            ValidacionLote.requerido(errors, i, "tipoDocumento", paciente.getTipoDocumento());
+            ValidacionLote.requerido(errors, i, "numeroDocumento", paciente.getNumeroDocumento());
+            ValidacionLote.requerido(errors, i, "fechaNacimiento", paciente.getFechaNacimiento());
+            ValidacionLote.requerido(errors, i, "sexo", paciente.getSexo());
+            ValidacionLote.requerido(errors, i, "telefono", paciente.getTelefono());
+            ValidacionLote.requerido(errors, i, "correo", paciente.getCorreo());
+            ValidacionLote.requerido(errors, i, "direccion", paciente.getDireccion());
+            ValidacionLote.requerido(errors, i, "ocupacion", paciente.getOcupacion());
+            ValidacionLote.requerido(errors, i, "username", paciente.getUsername());
+            ValidacionLote.requerido(errors, i, "password", paciente.getPassword());
+            ValidacionLote.requerido(errors, i, "estado", paciente.getEstado());
+        }
+
+        // Documentos repetidos dentro del mismo lote
+        Set<String> documentos = new HashSet<>();
+        for (int i = 0; i < pacientes.size(); i++) {
+            String documento = pacientes.get(i).getNumeroDocumento();
+            if (documento != null && !documentos.add(documento)) {
+                errors.add("Elemento [" + i + "]: el documento " + documento + " está repetido en el lote");
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Busca los pacientes de la lista de documentos y arma la respuesta de la consulta múltiple
+     * @param docs Documentos recibidos
+     * @return Respuesta HTTP con los pacientes encontrados y los documentos no encontrados
+     */
+    private ResponseEntity<?> findByDocuments(List<String> docs) {
+        Map<String, Object> response = new HashMap<>();
+        Set<String> documentos = ConsultaDocumentos.normalizar(docs);
+
+        List<String> errors = ConsultaDocumentos.validar(documentos);
+        if (!errors.isEmpty()) {
+            response.put("Errors", errors);
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.BAD_REQUEST);
+        }
+
+        List<Paciente> pacientes;
+        try {
+            pacientes = pacienteService.findByDocuments(documentos);
+        } catch (DataAccessException e) {
+            response.put("Message", "Error al realizar la consulta en la Base de Datos");
+            response.put("Error", e.getMessage().concat(": ").concat(e.getMostSpecificCause().getMessage()));
+            return new ResponseEntity<Map<String, Object>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        return new ResponseEntity<>(ConsultaDocumentos.respuesta(documentos, pacientes, Paciente::getNumeroDocumento), HttpStatus.OK);
     }
-}
\ No newline at end of file
+}
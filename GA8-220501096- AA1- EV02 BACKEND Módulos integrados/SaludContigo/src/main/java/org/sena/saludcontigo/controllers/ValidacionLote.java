@@ -0,0 +1,57 @@
+package org.sena.saludcontigo.controllers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validaciones comunes de los endpoints de creación por lotes.
+ * Los mensajes siguen el formato de los errores de validación de los demás endpoints.
+ */
+public final class ValidacionLote {
+
+    public static final int TAMANO_MAXIMO = 1000;
+
+    private ValidacionLote() {
+    }
+
+    /**
+     * Valida que el lote tenga entre 1 y {@value #TAMANO_MAXIMO} elementos
+     * @param lote Elementos recibidos
+     * @return Lista de errores encontrados (vacía si el lote es válido)
+     */
+    public static List<String> validarTamano(List<?> lote) {
+        List<String> errors = new ArrayList<>();
+        if (lote == null || lote.isEmpty()) {
+            errors.add("El lote debe contener al menos un elemento");
+        } else if (lote.size() > TAMANO_MAXIMO) {
+            errors.add("El lote no puede contener más de " + TAMANO_MAXIMO + " elementos");
+        }
+        return errors;
+    }
+
+    /**
+     * Registra un error si el campo obligatorio no tiene valor
+     * @param errors Lista de errores a completar
+     * @param indice Posición del elemento en el lote
+     * @param campo Nombre del campo
+     * @param valor Valor recibido
+     */
+    public static void requerido(List<String> errors, int indice, String campo, Object valor) {
+        if (valor == null || (valor instanceof String texto && texto.isBlank())) {
+            errors.add("Elemento [" + indice + "]: el campo '" + campo + "' es obligatorio");
+        }
+    }
+
+    /**
+     * Registra un error si el elemento trae un ID, los lotes solo crean registros nuevos
+     * @param errors Lista de errores a completar
+     * @param indice Posición del elemento en el lote
+     * @param campo Nombre del campo ID
+     * @param valor Valor recibido
+     */
+    public static void sinId(List<String> errors, int indice, String campo, Object valor) {
+        if (valor != null) {
+            errors.add("Elemento [" + indice + "]: el campo '" + campo + "' debe ser nulo");
+        }
+    }
+}
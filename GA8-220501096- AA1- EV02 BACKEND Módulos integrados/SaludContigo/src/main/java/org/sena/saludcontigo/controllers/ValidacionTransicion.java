@@ -0,0 +1,53 @@
+package org.sena.saludcontigo.controllers;
+
+import org.sena.saludcontigo.models.dto.TransicionEstadoDto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Validaciones comunes de los endpoints de cambio masivo de estado.
+ * Los mensajes siguen el formato de los errores de validación de los demás endpoints.
+ */
+public final class ValidacionTransicion {
+
+    private ValidacionTransicion() {
+    }
+
+    /**
+     * Convierte un estado obligatorio recibido como etiqueta o nombre
+     * @param errors Lista de errores a completar
+     * @param campo Nombre del campo
+     * @param valor Valor recibido
+     * @param desde Conversión del texto al enum del estado
+     * @return Estado correspondiente, o nulo si falta o no es válido
+     */
+    public static <E> E estado(List<String> errors, String campo, String valor, Function<String, E> desde) {
+        if (valor == null || valor.isBlank()) {
+            errors.add("El campo '" + campo + "' es obligatorio");
+            return null;
+        }
+        try {
+            return desde.apply(valor);
+        } catch (IllegalArgumentException e) {
+            errors.add("El campo '" + campo + "' " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Valida que la transición cambie el estado y que el rango de fecha y hora sea coherente
+     * @param errors Lista de errores a completar
+     * @param transicion Solicitud recibida
+     * @param actual Estado actual convertido
+     * @param nuevo Estado nuevo convertido
+     */
+    public static void validar(List<String> errors, TransicionEstadoDto transicion, Object actual, Object nuevo) {
+        if (actual != null && actual == nuevo) {
+            errors.add("El campo 'estadoNuevo' debe ser distinto de 'estadoActual'");
+        }
+        if (transicion.desde() != null && transicion.hasta() != null && !transicion.desde().isBefore(transicion.hasta())) {
+            errors.add("El campo 'desde' debe ser anterior a 'hasta'");
+        }
+    }
+}
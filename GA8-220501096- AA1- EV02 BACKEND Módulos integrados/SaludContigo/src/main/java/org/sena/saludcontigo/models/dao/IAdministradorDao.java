@@ -1,14 +1,39 @@
 package org.sena.saludcontigo.models.dao;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.Administrador;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.Modifying;
+import java.util.List;
+import java.util.Optional;
 
 public interface IAdministradorDao extends JpaRepository<Administrador, Long> {
+    @Query("select a from Administrador a where a.idadministrador > ?1 order by a.idadministrador")
+    List<Administrador> findPage(Long afterId, Limit limit);
+
+    // Consulta en caché: se invalida con cualquier escritura de Hibernate sobre la tabla
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "administradores-documento")
+    })
     @Query("select a from Administrador a where a.numeroDocumento = ?1")
     Administrador findByDocument(String document);
 
+    @Query("select new org.sena.saludcontigo.models.dto.VersionDto(a.idadministrador, a.version) from Administrador a where a.idadministrador = ?1")
+    Optional<VersionDto> findVersionById(Long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "administradores-documento")
+    })
+    @Query("select new org.sena.saludcontigo.models.dto.VersionDto(a.idadministrador, a.version) from Administrador a where a.numeroDocumento = ?1")
+    Optional<VersionDto> findVersionByDocument(String document);
+
     @Modifying
     @Query("DELETE FROM Administrador a WHERE a.numeroDocumento = ?1")
     void deleteByDocument(String document);
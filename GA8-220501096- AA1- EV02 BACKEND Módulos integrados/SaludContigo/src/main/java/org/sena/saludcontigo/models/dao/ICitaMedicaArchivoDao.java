@@ -0,0 +1,70 @@
+package org.sena.saludcontigo.models.dao;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.sena.saludcontigo.models.dto.CitaMedicaDto;
+import org.sena.saludcontigo.models.entity.CitaMedicaArchivo;
+import org.sena.saludcontigo.models.enums.EstadoCita;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.Query;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ICitaMedicaArchivoDao extends JpaRepository<CitaMedicaArchivo, Long> {
+    // Página de Citas Médicas archivadas posteriores al ID indicado (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.CitaMedicaDto(cm.idcita, cm.tipoCita, cm.fechaCita, cm.horaCita, cm.fechaHoraCita, cm.lugarCita, cm.estadoCita, cm.observacionCita, p, m) FROM CitaMedicaArchivo cm JOIN cm.paciente p JOIN cm.medico m WHERE cm.idcita > ?1 ORDER BY cm.idcita")
+    List<CitaMedicaDto> findPage(Long afterId, Limit limit);
+
+    // Página de Citas Médicas archivadas en un estado (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.CitaMedicaDto(cm.idcita, cm.tipoCita, cm.fechaCita, cm.horaCita, cm.fechaHoraCita, cm.lugarCita, cm.estadoCita, cm.observacionCita, p, m) FROM CitaMedicaArchivo cm JOIN cm.paciente p JOIN cm.medico m WHERE cm.estadoCita = ?1 AND cm.idcita > ?2 ORDER BY cm.idcita")
+    List<CitaMedicaDto> findByEstado(EstadoCita estado, Long afterId, Limit limit);
+
+    // Página de Citas Médicas archivadas de un médico en un estado (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.CitaMedicaDto(cm.idcita, cm.tipoCita, cm.fechaCita, cm.horaCita, cm.fechaHoraCita, cm.lugarCita, cm.estadoCita, cm.observacionCita, p, m) FROM CitaMedicaArchivo cm JOIN cm.paciente p JOIN cm.medico m WHERE cm.medico.idmedico = ?1 AND cm.estadoCita = ?2 AND cm.idcita > ?3 ORDER BY cm.idcita")
+    List<CitaMedicaDto> findByMedicoIdAndEstado(Long idMedico, EstadoCita estado, Long afterId, Limit limit);
+
+    // Cantidad de Citas Médicas archivadas en un estado
+    @Query("SELECT COUNT(cm) FROM CitaMedicaArchivo cm WHERE cm.estadoCita = ?1")
+    long countByEstado(EstadoCita estado);
+
+    // Cantidad de Citas Médicas archivadas de un médico
+    @Query("SELECT COUNT(cm) FROM CitaMedicaArchivo cm WHERE cm.medico.idmedico = ?1")
+    long countByMedicoId(Long idMedico);
+
+    // Cantidad de Citas Médicas archivadas de un médico en un estado
+    @Query("SELECT COUNT(cm) FROM CitaMedicaArchivo cm WHERE cm.medico.idmedico = ?1 AND cm.estadoCita = ?2")
+    long countByMedicoIdAndEstado(Long idMedico, EstadoCita estado);
+
+    // Página de Citas Médicas archivadas por ID del médico (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.CitaMedicaDto(cm.idcita, cm.tipoCita, cm.fechaCita, cm.horaCita, cm.fechaHoraCita, cm.lugarCita, cm.estadoCita, cm.observacionCita, p, m) FROM CitaMedicaArchivo cm JOIN cm.paciente p JOIN cm.medico m WHERE cm.medico.idmedico = ?1 AND cm.idcita > ?2 ORDER BY cm.idcita")
+    List<CitaMedicaDto> findByMedicoId(Long idMedico, Long afterId, Limit limit);
+
+    // Página de Citas Médicas archivadas del médico en el rango [desde, hasta) de fecha y hora (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.CitaMedicaDto(cm.idcita, cm.tipoCita, cm.fechaCita, cm.horaCita, cm.fechaHoraCita, cm.lugarCita, cm.estadoCita, cm.observacionCita, p, m) FROM CitaMedicaArchivo cm JOIN cm.paciente p JOIN cm.medico m WHERE cm.medico.idmedico = ?1 AND cm.fechaHoraCita >= ?2 AND cm.fechaHoraCita < ?3 AND cm.idcita > ?4 ORDER BY cm.idcita")
+    List<CitaMedicaDto> findByMedicoIdAndRango(Long idMedico, LocalDateTime desde, LocalDateTime hasta, Long afterId, Limit limit);
+
+    // Página de Citas Médicas archivadas por ID del paciente (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.CitaMedicaDto(cm.idcita, cm.tipoCita, cm.fechaCita, cm.horaCita, cm.fechaHoraCita, cm.lugarCita, cm.estadoCita, cm.observacionCita, p, m) FROM CitaMedicaArchivo cm JOIN cm.paciente p JOIN cm.medico m WHERE cm.paciente.idpaciente = ?1 AND cm.idcita > ?2 ORDER BY cm.idcita")
+    List<CitaMedicaDto> findByPacienteId(Long idPaciente, Long afterId, Limit limit);
+
+    // Copia un bloque de Citas Médicas activas al archivo; las que ya estén archivadas se omiten
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "Citas_Medicas_Archivo"))
+    @Query(value = "INSERT INTO Citas_Medicas_Archivo (IdCita, Tipo_Cita, Fecha_Cita, Hora_Cita, Fecha_Hora_Cita, Lugar_Cita, Estado_Cita, Observacion_Cita, Pacientes_IdPaciente, Medicos_IdMedico, Version, Fecha_Archivo) " +
+            "SELECT cm.IdCita, cm.Tipo_Cita, cm.Fecha_Cita, cm.Hora_Cita, cm.Fecha_Hora_Cita, cm.Lugar_Cita, cm.Estado_Cita, cm.Observacion_Cita, cm.Pacientes_IdPaciente, cm.Medicos_IdMedico, cm.Version, CURRENT_TIMESTAMP " +
+            "FROM Citas_Medicas cm WHERE cm.IdCita IN ?1 AND NOT EXISTS (SELECT 1 FROM Citas_Medicas_Archivo a WHERE a.IdCita = cm.IdCita)", nativeQuery = true)
+    int archivar(Collection<Long> ids);
+
+    // IDs del siguiente bloque de Citas Médicas archivadas del paciente, para la purga por lotes
+    @Query("SELECT cm.idcita FROM CitaMedicaArchivo cm WHERE cm.paciente.idpaciente = ?1 ORDER BY cm.idcita")
+    List<Long> findIdsByPacienteId(Long idPaciente, Limit limit);
+
+    // Eliminación de un bloque de Citas Médicas archivadas por ID
+    @Modifying
+    @Query("DELETE FROM CitaMedicaArchivo cm WHERE cm.idcita IN ?1")
+    int deleteByIds(Collection<Long> ids);
+}
@@ -1,24 +1,147 @@
 package org.sena.saludcontigo.models.dao;
 
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.sena.saludcontigo.models.dto.CitaMedicaDto;
+import org.sena.saludcontigo.models.dto.OcupacionCitaDto;
+import org.sena.saludcontigo.models.dto.ProgramacionRecordatorioDto;
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.CitaMedica;
+import org.sena.saludcontigo.models.enums.EstadoCita;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.Modifying;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ICitaMedicaDao extends JpaRepository<CitaMedica, Long> {
-    // Consulta de Citas Médicas por número de documento del médico
-    @Query("SELECT cm FROM CitaMedica cm JOIN cm.medico m WHERE m.numeroDocumento = ?1")
-    List<CitaMedica> findByMedicoDocumento(String documentoMedico);
+    // Consulta de una Cita Médica por ID junto con su paciente y su médico
+    @Query("SELECT cm FROM CitaMedica cm JOIN FETCH cm.paciente JOIN FETCH cm.medico WHERE cm.idcita = ?1")
+    Optional<CitaMedica> findDetalleById(Long id);
 
-    // Consulta de Citas Médicas por número de documento del paciente
-    @Query("SELECT cm FROM CitaMedica cm JOIN cm.paciente p WHERE p.numeroDocumento = ?1")
-    List<CitaMedica> findByPacienteDocumento(String documentoPaciente);
+    // ID y versión de la Cita Médica, sin cargarla, para las peticiones condicionales (ETag)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.VersionDto(cm.idcita, cm.version) FROM CitaMedica cm WHERE cm.idcita = ?1")
+    Optional<VersionDto> findVersionById(Long id);
 
-    // Eliminación de Citas Médicas por número de documento del paciente
+    // Fecha de la Cita por ID, para recalcular la fecha y hora combinadas en una actualización parcial
+    @Query("SELECT cm.fechaCita FROM CitaMedica cm WHERE cm.idcita = ?1")
+    Optional<Date> findFechaCita(Long id);
+
+    // Hora de la Cita por ID, para recalcular la fecha y hora combinadas en una actualización parcial
+    @Query("SELECT cm.horaCita FROM CitaMedica cm WHERE cm.idcita = ?1")
+    Optional<Date> findHoraCita(Long id);
+
+    // Lugar de la Cita por ID, para asignar la franja liberada a la lista de espera
+    @Query("SELECT cm.lugarCita FROM CitaMedica cm WHERE cm.idcita = ?1")
+    Optional<String> findLugarCita(Long id);
+
+    // Médico, fecha y hora y estado de la Cita por ID, para actualizar la disponibilidad del médico
+    @Query("SELECT new org.sena.saludcontigo.models.dto.OcupacionCitaDto(cm.medico.idmedico, cm.fechaHoraCita, cm.estadoCita) FROM CitaMedica cm WHERE cm.idcita = ?1")
+    Optional<OcupacionCitaDto> findOcupacionById(Long id);
+
+    // Fecha y hora de las Citas Médicas del médico en el rango [desde, hasta), salvo las del estado excluido, para la disponibilidad
+    @Query("SELECT cm.fechaHoraCita FROM CitaMedica cm WHERE cm.medico.idmedico = ?1 AND cm.fechaHoraCita >= ?2 AND cm.fechaHoraCita < ?3 AND cm.estadoCita <> ?4")
+    List<LocalDateTime> findFechasHoraOcupadas(Long idMedico, LocalDateTime desde, LocalDateTime hasta, EstadoCita excluido);
+
+    // Citas Médicas en un estado con fecha y hora en el rango [desde, hasta), para programar sus recordatorios
+    @Query("SELECT new org.sena.saludcontigo.models.dto.ProgramacionRecordatorioDto(cm.idcita, cm.fechaHoraCita) FROM CitaMedica cm WHERE cm.estadoCita = ?1 AND cm.fechaHoraCita >= ?2 AND cm.fechaHoraCita < ?3")
+    List<ProgramacionRecordatorioDto> findProgramacionesRecordatorio(EstadoCita estado, LocalDateTime desde, LocalDateTime hasta);
+
+    // Médico, fecha y hora y estado de las Citas Médicas de varios médicos en el rango [desde, hasta), salvo las del estado excluido
+    @Query("SELECT new org.sena.saludcontigo.models.dto.OcupacionCitaDto(cm.medico.idmedico, cm.fechaHoraCita, cm.estadoCita) FROM CitaMedica cm WHERE cm.medico.idmedico IN ?1 AND cm.fechaHoraCita >= ?2 AND cm.fechaHoraCita < ?3 AND cm.estadoCita <> ?4")
+    List<OcupacionCitaDto> findOcupacionesByMedicos(Collection<Long> idsMedico, LocalDateTime desde, LocalDateTime hasta, EstadoCita excluido);
+
+    // Citas Médicas de los médicos en las fechas y horas indicadas, salvo las del estado excluido, para detectar franjas ocupadas
+    @Query("SELECT new org.sena.saludcontigo.models.dto.CitaMedicaDto(cm.idcita, cm.tipoCita, cm.fechaCita, cm.horaCita, cm.fechaHoraCita, cm.lugarCita, cm.estadoCita, cm.observacionCita, p, m) FROM CitaMedica cm JOIN cm.paciente p JOIN cm.medico m WHERE m.idmedico IN ?1 AND cm.fechaHoraCita IN ?2 AND cm.estadoCita <> ?3")
+    List<CitaMedicaDto> findActivasByMedicosAndFechasHora(Collection<Long> idsMedico, Collection<LocalDateTime> fechasHora, EstadoCita excluido);
+
+    // Página de Citas Médicas posteriores al ID indicado (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.CitaMedicaDto(cm.idcita, cm.tipoCita, cm.fechaCita, cm.horaCita, cm.fechaHoraCita, cm.lugarCita, cm.estadoCita, cm.observacionCita, p, m) FROM CitaMedica cm JOIN cm.paciente p JOIN cm.medico m WHERE cm.idcita > ?1 ORDER BY cm.idcita")
+    List<CitaMedicaDto> findPage(Long afterId, Limit limit);
+
+    // Página de Citas Médicas en un estado (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.CitaMedicaDto(cm.idcita, cm.tipoCita, cm.fechaCita, cm.horaCita, cm.fechaHoraCita, cm.lugarCita, cm.estadoCita, cm.observacionCita, p, m) FROM CitaMedica cm JOIN cm.paciente p JOIN cm.medico m WHERE cm.estadoCita = ?1 AND cm.idcita > ?2 ORDER BY cm.idcita")
+    List<CitaMedicaDto> findByEstado(EstadoCita estado, Long afterId, Limit limit);
+
+    // Página de Citas Médicas de un médico en un estado (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.CitaMedicaDto(cm.idcita, cm.tipoCita, cm.fechaCita, cm.horaCita, cm.fechaHoraCita, cm.lugarCita, cm.estadoCita, cm.observacionCita, p, m) FROM CitaMedica cm JOIN cm.paciente p JOIN cm.medico m WHERE cm.medico.idmedico = ?1 AND cm.estadoCita = ?2 AND cm.idcita > ?3 ORDER BY cm.idcita")
+    List<CitaMedicaDto> findByMedicoIdAndEstado(Long idMedico, EstadoCita estado, Long afterId, Limit limit);
+
+    // Cantidad de Citas Médicas en un estado
+    @Query("SELECT COUNT(cm) FROM CitaMedica cm WHERE cm.estadoCita = ?1")
+    long countByEstado(EstadoCita estado);
+
+    // Cantidad de Citas Médicas de un médico
+    @Query("SELECT COUNT(cm) FROM CitaMedica cm WHERE cm.medico.idmedico = ?1")
+    long countByMedicoId(Long idMedico);
+
+    // Cantidad de Citas Médicas de un médico en un estado
+    @Query("SELECT COUNT(cm) FROM CitaMedica cm WHERE cm.medico.idmedico = ?1 AND cm.estadoCita = ?2")
+    long countByMedicoIdAndEstado(Long idMedico, EstadoCita estado);
+
+    // Consulta de Citas Médicas por ID del médico
+    @Query("SELECT cm FROM CitaMedica cm JOIN FETCH cm.paciente JOIN FETCH cm.medico WHERE cm.medico.idmedico = ?1")
+    List<CitaMedica> findByMedicoId(Long idMedico);
+
+    // Página de Citas Médicas por ID del médico (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.CitaMedicaDto(cm.idcita, cm.tipoCita, cm.fechaCita, cm.horaCita, cm.fechaHoraCita, cm.lugarCita, cm.estadoCita, cm.observacionCita, p, m) FROM CitaMedica cm JOIN cm.paciente p JOIN cm.medico m WHERE cm.medico.idmedico = ?1 AND cm.idcita > ?2 ORDER BY cm.idcita")
+    List<CitaMedicaDto> findByMedicoId(Long idMedico, Long afterId, Limit limit);
+
+    // Página de Citas Médicas del médico en el rango [desde, hasta) de fecha y hora (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.CitaMedicaDto(cm.idcita, cm.tipoCita, cm.fechaCita, cm.horaCita, cm.fechaHoraCita, cm.lugarCita, cm.estadoCita, cm.observacionCita, p, m) FROM CitaMedica cm JOIN cm.paciente p JOIN cm.medico m WHERE cm.medico.idmedico = ?1 AND cm.fechaHoraCita >= ?2 AND cm.fechaHoraCita < ?3 AND cm.idcita > ?4 ORDER BY cm.idcita")
+    List<CitaMedicaDto> findByMedicoIdAndRango(Long idMedico, LocalDateTime desde, LocalDateTime hasta, Long afterId, Limit limit);
+
+    // Consulta de Citas Médicas por ID del paciente
+    @Query("SELECT cm FROM CitaMedica cm JOIN FETCH cm.paciente JOIN FETCH cm.medico WHERE cm.paciente.idpaciente = ?1")
+    List<CitaMedica> findByPacienteId(Long idPaciente);
+
+    // Página de Citas Médicas por ID del paciente (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.CitaMedicaDto(cm.idcita, cm.tipoCita, cm.fechaCita, cm.horaCita, cm.fechaHoraCita, cm.lugarCita, cm.estadoCita, cm.observacionCita, p, m) FROM CitaMedica cm JOIN cm.paciente p JOIN cm.medico m WHERE cm.paciente.idpaciente = ?1 AND cm.idcita > ?2 ORDER BY cm.idcita")
+    List<CitaMedicaDto> findByPacienteId(Long idPaciente, Long afterId, Limit limit);
+
+    // IDs de Citas Médicas por ID del paciente
+    @Query("SELECT cm.idcita FROM CitaMedica cm WHERE cm.paciente.idpaciente = ?1 ORDER BY cm.idcita")
+    List<Long> findIdsByPacienteId(Long idPaciente);
+
+    // Actualización masiva de Citas Médicas por ID del paciente (una sola sentencia UPDATE)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "Citas_Medicas"))
+    @Query(value = "UPDATE Citas_Medicas cm " +
+            "SET cm.Version = cm.Version + 1, cm.Tipo_Cita = ?2, cm.Fecha_Cita = ?3, cm.Hora_Cita = ?4, cm.Fecha_Hora_Cita = TIMESTAMP(DATE(?3), TIME(?4)), cm.Lugar_Cita = ?5, cm.Estado_Cita = ?6, cm.Observacion_Cita = ?7 " +
+            "WHERE cm.Pacientes_IdPaciente = ?1", nativeQuery = true)
+    int updateByPacienteId(Long idPaciente, String tipoCita, Date fechaCita, Date horaCita, String lugarCita, Integer estadoCita, String observacionCita);
+
+    // Lectura secuencial (solo avance) de todas las Citas Médicas para exportación
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT cm FROM CitaMedica cm ORDER BY cm.idcita")
+    Stream<CitaMedica> streamAll();
+
+    // Eliminación de Citas Médicas por ID del paciente
     @Modifying
     @Transactional
-    @Query("DELETE FROM CitaMedica cm WHERE cm.paciente IN (SELECT p FROM Paciente p WHERE p.numeroDocumento = ?1)")
-    void deleteByPacienteDocumento(String documentoPaciente);
+    @Query("DELETE FROM CitaMedica cm WHERE cm.paciente.idpaciente = ?1")
+    void deleteByPacienteId(Long idPaciente);
+
+    // IDs del siguiente bloque de Citas Médicas anteriores al corte, para el proceso de archivo
+    @Query("SELECT cm.idcita FROM CitaMedica cm WHERE cm.fechaHoraCita < ?1 ORDER BY cm.fechaHoraCita")
+    List<Long> findIdsAnteriores(LocalDateTime corte, Limit limit);
+
+    // IDs del siguiente bloque de Citas Médicas del paciente, para la purga por lotes
+    @Query("SELECT cm.idcita FROM CitaMedica cm WHERE cm.paciente.idpaciente = ?1 ORDER BY cm.idcita")
+    List<Long> findIdsByPacienteId(Long idPaciente, Limit limit);
+
+    // Eliminación de un bloque de Citas Médicas por ID
+    @Modifying
+    @Query("DELETE FROM CitaMedica cm WHERE cm.idcita IN ?1")
+    int deleteByIds(Collection<Long> ids);
 }
@@ -0,0 +1,49 @@
+package org.sena.saludcontigo.models.dao;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.sena.saludcontigo.models.dto.ExamenMedicoDto;
+import org.sena.saludcontigo.models.entity.ExamenMedicoArchivo;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.Query;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface IExamenMedicoArchivoDao extends JpaRepository<ExamenMedicoArchivo, Long> {
+    // Página de Exámenes Médicos archivados posteriores al ID indicado (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.ExamenMedicoDto(em.idexamen, em.tipoExamen, em.fechaExamen, em.horaExamen, em.fechaHoraExamen, em.lugarExamen, em.estadoExamen, em.observacionExamen, p, m) FROM ExamenMedicoArchivo em JOIN em.paciente p JOIN em.medico m WHERE em.idexamen > ?1 ORDER BY em.idexamen")
+    List<ExamenMedicoDto> findPage(Long afterId, Limit limit);
+
+    // Página de Exámenes Médicos archivados por ID del médico (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.ExamenMedicoDto(em.idexamen, em.tipoExamen, em.fechaExamen, em.horaExamen, em.fechaHoraExamen, em.lugarExamen, em.estadoExamen, em.observacionExamen, p, m) FROM ExamenMedicoArchivo em JOIN em.paciente p JOIN em.medico m WHERE em.medico.idmedico = ?1 AND em.idexamen > ?2 ORDER BY em.idexamen")
+    List<ExamenMedicoDto> findByMedicoId(Long idMedico, Long afterId, Limit limit);
+
+    // Página de Exámenes Médicos archivados del médico en el rango [desde, hasta) de fecha y hora (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.ExamenMedicoDto(em.idexamen, em.tipoExamen, em.fechaExamen, em.horaExamen, em.fechaHoraExamen, em.lugarExamen, em.estadoExamen, em.observacionExamen, p, m) FROM ExamenMedicoArchivo em JOIN em.paciente p JOIN em.medico m WHERE em.medico.idmedico = ?1 AND em.fechaHoraExamen >= ?2 AND em.fechaHoraExamen < ?3 AND em.idexamen > ?4 ORDER BY em.idexamen")
+    List<ExamenMedicoDto> findByMedicoIdAndRango(Long idMedico, LocalDateTime desde, LocalDateTime hasta, Long afterId, Limit limit);
+
+    // Página de Exámenes Médicos archivados por ID del paciente (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.ExamenMedicoDto(em.idexamen, em.tipoExamen, em.fechaExamen, em.horaExamen, em.fechaHoraExamen, em.lugarExamen, em.estadoExamen, em.observacionExamen, p, m) FROM ExamenMedicoArchivo em JOIN em.paciente p JOIN em.medico m WHERE em.paciente.idpaciente = ?1 AND em.idexamen > ?2 ORDER BY em.idexamen")
+    List<ExamenMedicoDto> findByPacienteId(Long idPaciente, Long afterId, Limit limit);
+
+    // Copia un bloque de Exámenes Médicos activos al archivo; los que ya estén archivados se omiten
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "Examenes_Medicos_Archivo"))
+    @Query(value = "INSERT INTO Examenes_Medicos_Archivo (IdExamen, Tipo_Examen, Fecha_Examen, Hora_Examen, Fecha_Hora_Examen, Lugar_Examen, Estado_Examen, Observacion_Examen, Pacientes_IdPaciente, Medicos_IdMedico, Version, Fecha_Archivo) " +
+            "SELECT em.IdExamen, em.Tipo_Examen, em.Fecha_Examen, em.Hora_Examen, em.Fecha_Hora_Examen, em.Lugar_Examen, em.Estado_Examen, em.Observacion_Examen, em.Pacientes_IdPaciente, em.Medicos_IdMedico, em.Version, CURRENT_TIMESTAMP " +
+            "FROM Examenes_Medicos em WHERE em.IdExamen IN ?1 AND NOT EXISTS (SELECT 1 FROM Examenes_Medicos_Archivo a WHERE a.IdExamen = em.IdExamen)", nativeQuery = true)
+    int archivar(Collection<Long> ids);
+
+    // IDs del siguiente bloque de Exámenes Médicos archivados del paciente, para la purga por lotes
+    @Query("SELECT em.idexamen FROM ExamenMedicoArchivo em WHERE em.paciente.idpaciente = ?1 ORDER BY em.idexamen")
+    List<Long> findIdsByPacienteId(Long idPaciente, Limit limit);
+
+    // Eliminación de un bloque de Exámenes Médicos archivados por ID
+    @Modifying
+    @Query("DELETE FROM ExamenMedicoArchivo em WHERE em.idexamen IN ?1")
+    int deleteByIds(Collection<Long> ids);
+}
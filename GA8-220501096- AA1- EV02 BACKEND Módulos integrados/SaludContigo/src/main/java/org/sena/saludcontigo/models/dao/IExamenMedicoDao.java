@@ -1,24 +1,110 @@
 package org.sena.saludcontigo.models.dao;
 
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.sena.saludcontigo.models.dto.ExamenMedicoDto;
+import org.sena.saludcontigo.models.dto.ProgramacionRecordatorioDto;
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.ExamenMedico;
+import org.sena.saludcontigo.models.enums.EstadoExamen;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.Modifying;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface IExamenMedicoDao extends JpaRepository<ExamenMedico, Long> {
-    // Consulta de Exámenes Médicos por número de documento del médico
-    @Query("SELECT em FROM ExamenMedico em JOIN em.medico m WHERE m.numeroDocumento = ?1")
-    List<ExamenMedico> findByMedicoDocumento(String documentoMedico);
+    // Consulta de un Examen Médico por ID junto con su paciente y su médico
+    @Query("SELECT em FROM ExamenMedico em JOIN FETCH em.paciente JOIN FETCH em.medico WHERE em.idexamen = ?1")
+    Optional<ExamenMedico> findDetalleById(Long id);
 
-    // Consulta de Exámenes Médicos por número de documento del paciente
-    @Query("SELECT em FROM ExamenMedico em JOIN em.paciente p WHERE p.numeroDocumento = ?1")
-    List<ExamenMedico> findByPacienteDocumento(String documentoPaciente);
+    // ID y versión del Examen Médico, sin cargarla, para las peticiones condicionales (ETag)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.VersionDto(em.idexamen, em.version) FROM ExamenMedico em WHERE em.idexamen = ?1")
+    Optional<VersionDto> findVersionById(Long id);
 
-    // Eliminación de Exámenes Médicos por número de documento del paciente
+    // Fecha del Examen por ID, para recalcular la fecha y hora combinadas en una actualización parcial
+    @Query("SELECT em.fechaExamen FROM ExamenMedico em WHERE em.idexamen = ?1")
+    Optional<Date> findFechaExamen(Long id);
+
+    // Hora del Examen por ID, para recalcular la fecha y hora combinadas en una actualización parcial
+    @Query("SELECT em.horaExamen FROM ExamenMedico em WHERE em.idexamen = ?1")
+    Optional<Date> findHoraExamen(Long id);
+
+    // Página de Exámenes Médicos posteriores al ID indicado (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.ExamenMedicoDto(em.idexamen, em.tipoExamen, em.fechaExamen, em.horaExamen, em.fechaHoraExamen, em.lugarExamen, em.estadoExamen, em.observacionExamen, p, m) FROM ExamenMedico em JOIN em.paciente p JOIN em.medico m WHERE em.idexamen > ?1 ORDER BY em.idexamen")
+    List<ExamenMedicoDto> findPage(Long afterId, Limit limit);
+
+    // Consulta de Exámenes Médicos por ID del médico
+    @Query("SELECT em FROM ExamenMedico em JOIN FETCH em.paciente JOIN FETCH em.medico WHERE em.medico.idmedico = ?1")
+    List<ExamenMedico> findByMedicoId(Long idMedico);
+
+    // Página de Exámenes Médicos por ID del médico (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.ExamenMedicoDto(em.idexamen, em.tipoExamen, em.fechaExamen, em.horaExamen, em.fechaHoraExamen, em.lugarExamen, em.estadoExamen, em.observacionExamen, p, m) FROM ExamenMedico em JOIN em.paciente p JOIN em.medico m WHERE em.medico.idmedico = ?1 AND em.idexamen > ?2 ORDER BY em.idexamen")
+    List<ExamenMedicoDto> findByMedicoId(Long idMedico, Long afterId, Limit limit);
+
+    // Página de Exámenes Médicos del médico en el rango [desde, hasta) de fecha y hora (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.ExamenMedicoDto(em.idexamen, em.tipoExamen, em.fechaExamen, em.horaExamen, em.fechaHoraExamen, em.lugarExamen, em.estadoExamen, em.observacionExamen, p, m) FROM ExamenMedico em JOIN em.paciente p JOIN em.medico m WHERE em.medico.idmedico = ?1 AND em.fechaHoraExamen >= ?2 AND em.fechaHoraExamen < ?3 AND em.idexamen > ?4 ORDER BY em.idexamen")
+    List<ExamenMedicoDto> findByMedicoIdAndRango(Long idMedico, LocalDateTime desde, LocalDateTime hasta, Long afterId, Limit limit);
+
+    // Consulta de Exámenes Médicos por ID del paciente
+    @Query("SELECT em FROM ExamenMedico em JOIN FETCH em.paciente JOIN FETCH em.medico WHERE em.paciente.idpaciente = ?1")
+    List<ExamenMedico> findByPacienteId(Long idPaciente);
+
+    // Página de Exámenes Médicos por ID del paciente (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.ExamenMedicoDto(em.idexamen, em.tipoExamen, em.fechaExamen, em.horaExamen, em.fechaHoraExamen, em.lugarExamen, em.estadoExamen, em.observacionExamen, p, m) FROM ExamenMedico em JOIN em.paciente p JOIN em.medico m WHERE em.paciente.idpaciente = ?1 AND em.idexamen > ?2 ORDER BY em.idexamen")
+    List<ExamenMedicoDto> findByPacienteId(Long idPaciente, Long afterId, Limit limit);
+
+    // IDs de Exámenes Médicos por ID del paciente
+    @Query("SELECT em.idexamen FROM ExamenMedico em WHERE em.paciente.idpaciente = ?1 ORDER BY em.idexamen")
+    List<Long> findIdsByPacienteId(Long idPaciente);
+
+    // Actualización masiva de Exámenes Médicos por ID del paciente (una sola sentencia UPDATE)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "Examenes_Medicos"))
+    @Query(value = "UPDATE Examenes_Medicos em " +
+            "SET em.Version = em.Version + 1, em.Tipo_Examen = ?2, em.Fecha_Examen = ?3, em.Hora_Examen = ?4, em.Fecha_Hora_Examen = TIMESTAMP(DATE(?3), TIME(?4)), em.Lugar_Examen = ?5, em.Estado_Examen = ?6, em.Observacion_Examen = ?7 " +
+            "WHERE em.Pacientes_IdPaciente = ?1", nativeQuery = true)
+    int updateByPacienteId(Long idPaciente, String tipoExamen, Date fechaExamen, Date horaExamen, String lugarExamen, Integer estadoExamen, String observacionExamen);
+
+    // Lectura secuencial (solo avance) de todos los Exámenes Médicos para exportación
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT em FROM ExamenMedico em ORDER BY em.idexamen")
+    Stream<ExamenMedico> streamAll();
+
+    // Eliminación de Exámenes Médicos por ID del paciente
     @Modifying
     @Transactional
-    @Query("DELETE FROM ExamenMedico em WHERE em.paciente IN (SELECT p FROM Paciente p WHERE p.numeroDocumento = ?1)")
-    void deleteByPacienteDocumento(String documentoPaciente);
+    @Query("DELETE FROM ExamenMedico em WHERE em.paciente.idpaciente = ?1")
+    void deleteByPacienteId(Long idPaciente);
+
+    // IDs del siguiente bloque de Exámenes Médicos anteriores al corte, para el proceso de archivo
+    @Query("SELECT em.idexamen FROM ExamenMedico em WHERE em.fechaHoraExamen < ?1 ORDER BY em.fechaHoraExamen")
+    List<Long> findIdsAnteriores(LocalDateTime corte, Limit limit);
+
+    // IDs del siguiente bloque de Exámenes Médicos del paciente, para la purga por lotes
+    @Query("SELECT em.idexamen FROM ExamenMedico em WHERE em.paciente.idpaciente = ?1 ORDER BY em.idexamen")
+    List<Long> findIdsByPacienteId(Long idPaciente, Limit limit);
+
+    // Eliminación de un bloque de Exámenes Médicos por ID
+    @Modifying
+    @Query("DELETE FROM ExamenMedico em WHERE em.idexamen IN ?1")
+    int deleteByIds(Collection<Long> ids);
+
+    // Exámenes Médicos en un estado con fecha y hora en el rango [desde, hasta), para programar sus recordatorios
+    @Query("SELECT new org.sena.saludcontigo.models.dto.ProgramacionRecordatorioDto(em.idexamen, em.fechaHoraExamen) FROM ExamenMedico em WHERE em.estadoExamen = ?1 AND em.fechaHoraExamen >= ?2 AND em.fechaHoraExamen < ?3")
+    List<ProgramacionRecordatorioDto> findProgramacionesRecordatorio(EstadoExamen estado, LocalDateTime desde, LocalDateTime hasta);
+
+    // Fecha y hora del Examen Médico si está en el estado indicado, para reprogramar su recordatorio tras una actualización parcial
+    @Query("SELECT new org.sena.saludcontigo.models.dto.ProgramacionRecordatorioDto(em.idexamen, em.fechaHoraExamen) FROM ExamenMedico em WHERE em.idexamen = ?1 AND em.estadoExamen = ?2")
+    Optional<ProgramacionRecordatorioDto> findProgramacionRecordatorio(Long id, EstadoExamen estado);
 }
@@ -1,24 +1,83 @@
 package org.sena.saludcontigo.models.dao;
 
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.sena.saludcontigo.models.dto.HistoriaClinicaDto;
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.HistoriaClinica;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.Modifying;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface IHistoriaClinicaDao extends JpaRepository<HistoriaClinica, Long> {
-    // Consulta de Historias Clínicas por número de documento del médico
-    @Query("SELECT h FROM HistoriaClinica h JOIN h.medico m WHERE m.numeroDocumento = ?1")
-    List<HistoriaClinica> findByMedicoDocumento(String documentoMedico);
+    // Consulta de una Historia Clínica por ID junto con su paciente y su médico
+    @Query("SELECT h FROM HistoriaClinica h JOIN FETCH h.paciente JOIN FETCH h.medico WHERE h.idhistoria = ?1")
+    Optional<HistoriaClinica> findDetalleById(Long id);
 
-    // Consulta de Historias Clínicas por número de documento del paciente
-    @Query("SELECT h FROM HistoriaClinica h JOIN h.paciente p WHERE p.numeroDocumento = ?1")
-    List<HistoriaClinica> findByPacienteDocumento(String documentoPaciente);
+    // ID y versión de la Historia Clínica, sin cargarla, para las peticiones condicionales (ETag)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.VersionDto(h.idhistoria, h.version) FROM HistoriaClinica h WHERE h.idhistoria = ?1")
+    Optional<VersionDto> findVersionById(Long id);
 
-    // Eliminación de Historias Clínicas por número de documento del paciente
+    // Página de Historias Clínicas posteriores al ID indicado (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.HistoriaClinicaDto(h.idhistoria, h.fechaHistoria, h.antecedentesHistoria, h.examenesHistoria, h.diagnosticoHistoria, h.tratamientoHistoria, p, m) FROM HistoriaClinica h JOIN h.paciente p JOIN h.medico m WHERE h.idhistoria > ?1 ORDER BY h.idhistoria")
+    List<HistoriaClinicaDto> findPage(Long afterId, Limit limit);
+
+    // Consulta de Historias Clínicas por ID del médico
+    @Query("SELECT h FROM HistoriaClinica h JOIN FETCH h.paciente JOIN FETCH h.medico WHERE h.medico.idmedico = ?1")
+    List<HistoriaClinica> findByMedicoId(Long idMedico);
+
+    // Página de Historias Clínicas por ID del médico (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.HistoriaClinicaDto(h.idhistoria, h.fechaHistoria, h.antecedentesHistoria, h.examenesHistoria, h.diagnosticoHistoria, h.tratamientoHistoria, p, m) FROM HistoriaClinica h JOIN h.paciente p JOIN h.medico m WHERE h.medico.idmedico = ?1 AND h.idhistoria > ?2 ORDER BY h.idhistoria")
+    List<HistoriaClinicaDto> findByMedicoId(Long idMedico, Long afterId, Limit limit);
+
+    // Consulta de Historias Clínicas por ID del paciente
+    @Query("SELECT h FROM HistoriaClinica h JOIN FETCH h.paciente JOIN FETCH h.medico WHERE h.paciente.idpaciente = ?1")
+    List<HistoriaClinica> findByPacienteId(Long idPaciente);
+
+    // Página de Historias Clínicas por ID del paciente (paginación por cursor)
+    @Query("SELECT new org.sena.saludcontigo.models.dto.HistoriaClinicaDto(h.idhistoria, h.fechaHistoria, h.antecedentesHistoria, h.examenesHistoria, h.diagnosticoHistoria, h.tratamientoHistoria, p, m) FROM HistoriaClinica h JOIN h.paciente p JOIN h.medico m WHERE h.paciente.idpaciente = ?1 AND h.idhistoria > ?2 ORDER BY h.idhistoria")
+    List<HistoriaClinicaDto> findByPacienteId(Long idPaciente, Long afterId, Limit limit);
+
+    // IDs de Historias Clínicas por ID del paciente
+    @Query("SELECT h.idhistoria FROM HistoriaClinica h WHERE h.paciente.idpaciente = ?1 ORDER BY h.idhistoria")
+    List<Long> findIdsByPacienteId(Long idPaciente);
+
+    // Actualización masiva de Historias Clínicas por ID del paciente (una sola sentencia UPDATE)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "Historias_Clinicas"))
+    @Query(value = "UPDATE Historias_Clinicas h " +
+            "SET h.Version = h.Version + 1, h.Fecha_Historia = ?2, h.Antecedentes_Historia = ?3, h.Examenes_Historia = ?4, h.Diagnostico_Historia = ?5, h.Tratamiento_Historia = ?6 " +
+            "WHERE h.Pacientes_IdPaciente = ?1", nativeQuery = true)
+    int updateByPacienteId(Long idPaciente, Date fechaHistoria, String antecedentesHistoria, String examenesHistoria, String diagnosticoHistoria, String tratamientoHistoria);
+
+    // Lectura secuencial (solo avance) de todas las Historias Clínicas para exportación
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT h FROM HistoriaClinica h ORDER BY h.idhistoria")
+    Stream<HistoriaClinica> streamAll();
+
+    // Eliminación de Historias Clínicas por ID del paciente
     @Modifying
     @Transactional
-    @Query("DELETE FROM HistoriaClinica h WHERE h.paciente IN (SELECT p FROM Paciente p WHERE p.numeroDocumento = ?1)")
-    void deleteByPacienteDocumento(String documentoPaciente);
+    @Query("DELETE FROM HistoriaClinica h WHERE h.paciente.idpaciente = ?1")
+    void deleteByPacienteId(Long idPaciente);
+
+    // IDs del siguiente bloque de Historias Clínicas del paciente, para la purga por lotes
+    @Query("SELECT h.idhistoria FROM HistoriaClinica h WHERE h.paciente.idpaciente = ?1 ORDER BY h.idhistoria")
+    List<Long> findIdsByPacienteId(Long idPaciente, Limit limit);
+
+    // Eliminación de un bloque de Historias Clínicas por ID
+    @Modifying
+    @Query("DELETE FROM HistoriaClinica h WHERE h.idhistoria IN ?1")
+    int deleteByIds(Collection<Long> ids);
 }
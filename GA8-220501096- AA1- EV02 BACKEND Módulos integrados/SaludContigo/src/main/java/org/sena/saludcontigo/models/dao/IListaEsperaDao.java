@@ -0,0 +1,48 @@
+package org.sena.saludcontigo.models.dao;
+
+import org.sena.saludcontigo.models.dto.ListaEsperaDto;
+import org.sena.saludcontigo.models.entity.ListaEspera;
+import org.sena.saludcontigo.models.enums.EstadoEspera;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface IListaEsperaDao extends JpaRepository<ListaEspera, Long> {
+    // Solicitudes en un estado cuyo rango termina después del instante indicado, para cargar la lista en memoria
+    @Query("SELECT new org.sena.saludcontigo.models.dto.ListaEsperaDto(le.idespera, le.paciente.idpaciente, le.medico.idmedico, le.especialidad, le.tipoCita, le.desde, le.hasta, le.estado, le.fechaRegistro, le.idcita) " +
+            "FROM ListaEspera le WHERE le.estado = ?1 AND le.hasta > ?2")
+    List<ListaEsperaDto> findVigentes(EstadoEspera estado, LocalDateTime ahora);
+
+    // Solicitud por ID
+    @Query("SELECT new org.sena.saludcontigo.models.dto.ListaEsperaDto(le.idespera, le.paciente.idpaciente, le.medico.idmedico, le.especialidad, le.tipoCita, le.desde, le.hasta, le.estado, le.fechaRegistro, le.idcita) " +
+            "FROM ListaEspera le WHERE le.idespera = ?1")
+    Optional<ListaEsperaDto> findDtoById(Long id);
+
+    // Solicitudes del paciente, de la más reciente a la más antigua
+    @Query("SELECT new org.sena.saludcontigo.models.dto.ListaEsperaDto(le.idespera, le.paciente.idpaciente, le.medico.idmedico, le.especialidad, le.tipoCita, le.desde, le.hasta, le.estado, le.fechaRegistro, le.idcita) " +
+            "FROM ListaEspera le WHERE le.paciente.idpaciente = ?1 ORDER BY le.idespera DESC")
+    List<ListaEsperaDto> findByPacienteId(Long idPaciente);
+
+    // Asigna la cita a la solicitud si sigue pendiente; entre instancias solo una la asigna
+    @Modifying
+    @Query("UPDATE ListaEspera le SET le.estado = ?4, le.idcita = ?2 WHERE le.idespera = ?1 AND le.estado = ?3")
+    int asignar(Long id, Long idcita, EstadoEspera pendiente, EstadoEspera asignada);
+
+    // Cambia el estado de la solicitud si está en el estado actual indicado
+    @Modifying
+    @Query("UPDATE ListaEspera le SET le.estado = ?3 WHERE le.idespera = ?1 AND le.estado = ?2")
+    int updateEstado(Long id, EstadoEspera actual, EstadoEspera nuevo);
+
+    // Vencimiento de las solicitudes cuyo rango terminó
+    @Modifying
+    @Query("UPDATE ListaEspera le SET le.estado = ?2 WHERE le.estado = ?1 AND le.hasta <= ?3")
+    int vencer(EstadoEspera pendiente, EstadoEspera vencida, LocalDateTime ahora);
+
+    // Eliminación de las solicitudes del paciente, para la purga
+    @Modifying
+    @Query("DELETE FROM ListaEspera le WHERE le.paciente.idpaciente = ?1")
+    int deleteByPacienteId(Long idPaciente);
+}
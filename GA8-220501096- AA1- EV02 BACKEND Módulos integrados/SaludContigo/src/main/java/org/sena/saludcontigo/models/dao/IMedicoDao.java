@@ -1,14 +1,47 @@
 package org.sena.saludcontigo.models.dao;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.Medico;
+import org.sena.saludcontigo.models.enums.Estado;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.Modifying;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface IMedicoDao extends JpaRepository<Medico, Long> {
+    @Query("select m from Medico m where m.idmedico > ?1 order by m.idmedico")
+    List<Medico> findPage(Long afterId, Limit limit);
+
+    // Consulta en caché: se invalida con cualquier escritura de Hibernate sobre la tabla
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "medicos-documento")
+    })
     @Query("select m from Medico m where m.numeroDocumento = ?1")
     Medico findByDocument(String document);
 
+    @Query("select new org.sena.saludcontigo.models.dto.VersionDto(m.idmedico, m.version) from Medico m where m.idmedico = ?1")
+    Optional<VersionDto> findVersionById(Long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "medicos-documento")
+    })
+    @Query("select new org.sena.saludcontigo.models.dto.VersionDto(m.idmedico, m.version) from Medico m where m.numeroDocumento = ?1")
+    Optional<VersionDto> findVersionByDocument(String document);
+
+    @Query("select m from Medico m where m.numeroDocumento in ?1")
+    List<Medico> findByDocuments(Collection<String> documents);
+
+    @Query("select m from Medico m where m.especialidad = ?1 and m.estado = ?2")
+    List<Medico> findByEspecialidad(String especialidad, Estado estado);
+
     @Modifying
     @Query("DELETE FROM Medico m WHERE m.numeroDocumento = ?1")
     void deleteByDocument(String document);
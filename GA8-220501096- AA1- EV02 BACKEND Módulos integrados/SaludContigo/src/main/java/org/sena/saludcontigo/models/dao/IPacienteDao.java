@@ -1,15 +1,51 @@
 package org.sena.saludcontigo.models.dao;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.Paciente;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.Modifying;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface IPacienteDao extends JpaRepository<Paciente, Long> {
+    @Query("select p from Paciente p where p.idpaciente > ?1 order by p.idpaciente")
+    List<Paciente> findPage(Long afterId, Limit limit);
+
+    // Consulta en caché: se invalida con cualquier escritura de Hibernate sobre la tabla
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "pacientes-documento")
+    })
     @Query("select p from Paciente p where p.numeroDocumento = ?1")
     Paciente findByDocument(String document);
 
+    @Query("select new org.sena.saludcontigo.models.dto.VersionDto(p.idpaciente, p.version) from Paciente p where p.idpaciente = ?1")
+    Optional<VersionDto> findVersionById(Long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "pacientes-documento")
+    })
+    @Query("select new org.sena.saludcontigo.models.dto.VersionDto(p.idpaciente, p.version) from Paciente p where p.numeroDocumento = ?1")
+    Optional<VersionDto> findVersionByDocument(String document);
+
+    @Query("select p from Paciente p where p.numeroDocumento in ?1")
+    List<Paciente> findByDocuments(Collection<String> documents);
+
+    @Query("select p.numeroDocumento from Paciente p where p.numeroDocumento in ?1")
+    List<String> findDocuments(Collection<String> documents);
+
     @Modifying
     @Query("DELETE FROM Paciente p WHERE p.numeroDocumento = ?1")
     void deleteByDocument(String document);
+
+    @Modifying
+    @Query("DELETE FROM Paciente p WHERE p.idpaciente = ?1")
+    int deleteByIdpaciente(Long id);
 }
@@ -0,0 +1,25 @@
+package org.sena.saludcontigo.models.dto;
+
+import org.sena.saludcontigo.models.entity.Medico;
+import org.sena.saludcontigo.models.entity.Paciente;
+import org.sena.saludcontigo.models.enums.EstadoCita;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+/**
+ * Modelo de lectura de una cita médica con su paciente y su médico, construido con una sola consulta JOIN.
+ * Conserva los mismos nombres de propiedades JSON que la entidad CitaMedica.
+ */
+public record CitaMedicaDto(
+        Long idcita,
+        String tipoCita,
+        Date fechaCita,
+        Date horaCita,
+        LocalDateTime fechaHoraCita,
+        String lugarCita,
+        EstadoCita estadoCita,
+        String observacionCita,
+        Paciente paciente,
+        Medico medico) {
+}
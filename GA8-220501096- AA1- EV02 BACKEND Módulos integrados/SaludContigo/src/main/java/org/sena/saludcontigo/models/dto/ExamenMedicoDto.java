@@ -0,0 +1,25 @@
+package org.sena.saludcontigo.models.dto;
+
+import org.sena.saludcontigo.models.entity.Medico;
+import org.sena.saludcontigo.models.entity.Paciente;
+import org.sena.saludcontigo.models.enums.EstadoExamen;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+/**
+ * Modelo de lectura de un examen médico con su paciente y su médico, construido con una sola consulta JOIN.
+ * Conserva los mismos nombres de propiedades JSON que la entidad ExamenMedico.
+ */
+public record ExamenMedicoDto(
+        Long idexamen,
+        String tipoExamen,
+        Date fechaExamen,
+        Date horaExamen,
+        LocalDateTime fechaHoraExamen,
+        String lugarExamen,
+        EstadoExamen estadoExamen,
+        String observacionExamen,
+        Paciente paciente,
+        Medico medico) {
+}
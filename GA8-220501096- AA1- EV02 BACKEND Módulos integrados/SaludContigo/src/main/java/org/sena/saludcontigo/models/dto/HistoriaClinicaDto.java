@@ -0,0 +1,21 @@
+package org.sena.saludcontigo.models.dto;
+
+import org.sena.saludcontigo.models.entity.Medico;
+import org.sena.saludcontigo.models.entity.Paciente;
+
+import java.util.Date;
+
+/**
+ * Modelo de lectura de una historia clínica con su paciente y su médico, construido con una sola consulta JOIN.
+ * Conserva los mismos nombres de propiedades JSON que la entidad HistoriaClinica.
+ */
+public record HistoriaClinicaDto(
+        Long idhistoria,
+        Date fechaHistoria,
+        String antecedentesHistoria,
+        String examenesHistoria,
+        String diagnosticoHistoria,
+        String tratamientoHistoria,
+        Paciente paciente,
+        Medico medico) {
+}
@@ -0,0 +1,14 @@
+package org.sena.saludcontigo.models.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fecha y hora en la que un médico puede atender una cita nueva, con los datos del médico para mostrarla.
+ */
+public record HoraDisponibleDto(
+        LocalDateTime fechaHora,
+        Long idMedico,
+        String documentoMedico,
+        String nombresMedico,
+        String apellidosMedico) {
+}
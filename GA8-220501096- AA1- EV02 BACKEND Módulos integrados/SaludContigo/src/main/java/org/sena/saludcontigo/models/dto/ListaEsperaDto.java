@@ -0,0 +1,22 @@
+package org.sena.saludcontigo.models.dto;
+
+import org.sena.saludcontigo.models.enums.EstadoEspera;
+
+import java.time.LocalDateTime;
+
+/**
+ * Solicitud de la lista de espera: el paciente acepta una cita con el médico o, si no se indica,
+ * con cualquier médico de la especialidad, que empiece entre {@code desde} y {@code hasta}.
+ */
+public record ListaEsperaDto(
+        Long idespera,
+        Long idPaciente,
+        Long idMedico,
+        String especialidad,
+        String tipoCita,
+        LocalDateTime desde,
+        LocalDateTime hasta,
+        EstadoEspera estado,
+        LocalDateTime fechaRegistro,
+        Long idcita) {
+}
@@ -0,0 +1,14 @@
+package org.sena.saludcontigo.models.dto;
+
+import org.sena.saludcontigo.models.enums.EstadoCita;
+
+import java.time.LocalDateTime;
+
+/**
+ * Médico, fecha y hora y estado de una cita médica: lo que determina las franjas que ocupa en la agenda del médico.
+ */
+public record OcupacionCitaDto(
+        Long idMedico,
+        LocalDateTime fechaHoraCita,
+        EstadoCita estadoCita) {
+}
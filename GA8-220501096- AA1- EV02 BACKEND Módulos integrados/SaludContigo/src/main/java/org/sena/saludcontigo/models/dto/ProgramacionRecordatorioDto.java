@@ -0,0 +1,11 @@
+package org.sena.saludcontigo.models.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * ID y fecha y hora de una cita o examen agendado, para programar su recordatorio.
+ */
+public record ProgramacionRecordatorioDto(
+        Long id,
+        LocalDateTime fechaHora) {
+}
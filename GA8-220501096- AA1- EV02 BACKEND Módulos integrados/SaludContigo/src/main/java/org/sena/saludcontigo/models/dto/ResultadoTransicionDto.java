@@ -0,0 +1,13 @@
+package org.sena.saludcontigo.models.dto;
+
+/**
+ * Resultado de un cambio masivo de estado. La diferencia entre las filas seleccionadas y las actualizadas
+ * corresponde a las que otra solicitud cambió de estado mientras se procesaba su bloque y a los conflictos:
+ * citas que no volvieron a un estado activo porque otra cita activa del médico ya ocupa su franja.
+ */
+public record ResultadoTransicionDto(
+        long seleccionadas,
+        long actualizadas,
+        long conflictos,
+        int lotes) {
+}
@@ -0,0 +1,16 @@
+package org.sena.saludcontigo.models.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro en la lista de espera: documento del paciente, documento del médico o especialidad (uno de los dos),
+ * tipo de la cita y rango [desde, hasta] en que puede empezar.
+ */
+public record SolicitudEsperaDto(
+        String paciente,
+        String medico,
+        String especialidad,
+        String tipoCita,
+        LocalDateTime desde,
+        LocalDateTime hasta) {
+}
@@ -0,0 +1,16 @@
+package org.sena.saludcontigo.models.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Solicitud de cambio masivo de estado. Solo cambian las filas que están en {@code estadoActual}
+ * y cumplen los filtros opcionales (documento del médico, rango [desde, hasta) de fecha y hora, lugar).
+ */
+public record TransicionEstadoDto(
+        String estadoActual,
+        String estadoNuevo,
+        String medico,
+        LocalDateTime desde,
+        LocalDateTime hasta,
+        String lugar) {
+}
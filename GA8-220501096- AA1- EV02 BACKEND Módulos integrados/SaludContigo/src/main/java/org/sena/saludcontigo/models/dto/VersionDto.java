@@ -0,0 +1,9 @@
+package org.sena.saludcontigo.models.dto;
+
+/**
+ * ID y versión de una entidad, consultados sin cargarla para resolver las peticiones condicionales (ETag).
+ */
+public record VersionDto(
+        Long id,
+        Long version) {
+}
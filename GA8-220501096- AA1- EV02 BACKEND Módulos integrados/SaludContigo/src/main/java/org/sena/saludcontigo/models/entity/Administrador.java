@@ -1,18 +1,30 @@
 package org.sena.saludcontigo.models.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.sena.saludcontigo.models.enums.Estado;
+import org.sena.saludcontigo.models.enums.Rol;
+import org.sena.saludcontigo.models.enums.Sexo;
+import org.sena.saludcontigo.models.enums.TipoDocumento;
 import java.io.Serializable;
 
 
 @Entity
+@DynamicUpdate
 @Table(name = "Administradores")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "administradores")
 public class Administrador implements Serializable {
 
     /**
      * Entidades
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "secuencia_administradores")
+    @TableGenerator(name = "secuencia_administradores", table = "Secuencias", pkColumnName = "Nombre_Secuencia",
+            valueColumnName = "Siguiente_Valor", pkColumnValue = "Administradores", initialValue = 1, allocationSize = 50)
     private Long idadministrador;
 
     @Column(name = "Nombres", nullable = false)
@@ -21,8 +33,9 @@ public class Administrador implements Serializable {
     @Column(name = "Apellidos", nullable = false)
     private String apellidos;
 
+    @Convert(converter = TipoDocumento.Convertidor.class)
     @Column(name = "Tipo_Documento", nullable = false)
-    private String tipoDocumento;
+    private TipoDocumento tipoDocumento;
 
     @Column(name = "Numero_Documento", nullable = false, unique = true)
     private String numeroDocumento;
@@ -30,8 +43,9 @@ public class Administrador implements Serializable {
     @Column(name = "Fecha_Nacimiento", nullable = false)
     private String fechaNacimiento;
 
+    @Convert(converter = Sexo.Convertidor.class)
     @Column(name = "Sexo", nullable = false)
-    private String sexo;
+    private Sexo sexo;
 
     @Column(name = "Telefono", nullable = false)
     private String telefono;
@@ -51,11 +65,19 @@ public class Administrador implements Serializable {
     @Column(name = "Password", nullable = false)
     private String password;
 
+    @Convert(converter = Estado.Convertidor.class)
     @Column(name = "Estado", nullable = false)
-    private String estado;
+    private Estado estado;
 
+    @Convert(converter = Rol.Convertidor.class)
     @Column(name = "Rol", nullable = false)
-    private String rol;
+    private Rol rol;
+
+    // Versión para el bloqueo optimista; forma parte de la ETag de los endpoints
+    @Version
+    @Column(name = "Version", nullable = false)
+    private long version;
+
 
     /**
      * Relaciones externas
@@ -84,7 +106,7 @@ public class Administrador implements Serializable {
         return apellidos;
     }
 
-    public String getTipoDocumento() {
+    public TipoDocumento getTipoDocumento() {
         return tipoDocumento;
     }
 
@@ -96,7 +118,7 @@ public class Administrador implements Serializable {
         return fechaNacimiento;
     }
 
-    public String getSexo() {
+    public Sexo getSexo() {
         return sexo;
     }
 
@@ -124,14 +146,18 @@ public class Administrador implements Serializable {
         return password;
     }
 
-    public String getEstado() {
+    public Estado getEstado() {
         return estado;
     }
 
-    public String getRol() {
+    public Rol getRol() {
         return rol;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
 
     /**
      * Métodos Setters
@@ -148,7 +174,7 @@ public class Administrador implements Serializable {
         this.apellidos = apellidos;
     }
 
-    public void setTipoDocumento(String tipoDocumento) {
+    public void setTipoDocumento(TipoDocumento tipoDocumento) {
         this.tipoDocumento = tipoDocumento;
     }
 
@@ -160,7 +186,7 @@ public class Administrador implements Serializable {
         this.fechaNacimiento = fechaNacimiento;
     }
 
-    public void setSexo(String sexo) {
+    public void setSexo(Sexo sexo) {
         this.sexo = sexo;
     }
 
@@ -188,11 +214,11 @@ public class Administrador implements Serializable {
         this.password = password;
     }
 
-    public void setEstado(String estado) {
+    public void setEstado(Estado estado) {
         this.estado = estado;
     }
 
-    public void setRol(String rol) {
+    public void setRol(Rol rol) {
         this.rol = rol;
     }
 
@@ -2,11 +2,15 @@ package org.sena.saludcontigo.models.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.sena.saludcontigo.models.enums.EstadoCita;
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.Date;
 
 
 @Entity
+@DynamicUpdate
 @Table(name = "Citas_Medicas")
 public class CitaMedica implements Serializable {
 
@@ -14,7 +18,9 @@ public class CitaMedica implements Serializable {
      * Entidades
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "secuencia_citas_medicas")
+    @TableGenerator(name = "secuencia_citas_medicas", table = "Secuencias", pkColumnName = "Nombre_Secuencia",
+            valueColumnName = "Siguiente_Valor", pkColumnValue = "Citas_Medicas", initialValue = 1, allocationSize = 50)
     private Long idcita;
 
     @Column(name = "Tipo_Cita", nullable = false)
@@ -26,15 +32,25 @@ public class CitaMedica implements Serializable {
     @Column(name = "Hora_Cita", nullable = false)
     private Date horaCita;
 
+    // Fecha y hora combinadas para las consultas por rango; se calcula a partir de fechaCita y horaCita
+    @Column(name = "Fecha_Hora_Cita", nullable = false)
+    private LocalDateTime fechaHoraCita;
+
     @Column(name = "Lugar_Cita", nullable = false)
     private String lugarCita;
 
+    @Convert(converter = EstadoCita.Convertidor.class)
     @Column(name = "Estado_Cita", nullable = false)
-    private String estadoCita;
+    private EstadoCita estadoCita;
 
     @Column(name = "Observacion_Cita")
     private String observacionCita;
 
+    // Versión para el bloqueo optimista; forma parte de la ETag de los endpoints
+    @Version
+    @Column(name = "Version", nullable = false)
+    private long version;
+
 
     /**
      * Relaciones externas
@@ -76,11 +92,15 @@ public class CitaMedica implements Serializable {
         return horaCita;
     }
 
+    public LocalDateTime getFechaHoraCita() {
+        return fechaHoraCita;
+    }
+
     public String getLugarCita() {
         return lugarCita;
     }
 
-    public String getEstadoCita() {
+    public EstadoCita getEstadoCita() {
         return estadoCita;
     }
 
@@ -96,6 +116,10 @@ public class CitaMedica implements Serializable {
         return medico;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
 
     /**
      * Métodos Setters
@@ -120,7 +144,7 @@ public class CitaMedica implements Serializable {
         this.lugarCita = lugarCita;
     }
 
-    public void setEstadoCita(String estadoCita) {
+    public void setEstadoCita(EstadoCita estadoCita) {
         this.estadoCita = estadoCita;
     }
 
@@ -137,6 +161,16 @@ public class CitaMedica implements Serializable {
     }
 
 
+    /**
+     * Sincroniza la columna combinada con la fecha y la hora antes de insertar o actualizar
+     */
+    @PrePersist
+    @PreUpdate
+    private void sincronizarFechaHoraCita() {
+        fechaHoraCita = FechaHora.combinar(fechaCita, horaCita);
+    }
+
+
     /**
      * *
      */
@@ -0,0 +1,133 @@
+package org.sena.saludcontigo.models.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.sena.saludcontigo.models.enums.EstadoCita;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+
+/**
+ * Cita médica archivada (Citas_Medicas_Archivo). Solo lectura: las filas las inserta el proceso
+ * de archivo a partir de Citas_Medicas y conservan su ID original.
+ */
+@Entity
+@Immutable
+@Table(name = "Citas_Medicas_Archivo")
+public class CitaMedicaArchivo implements Serializable {
+
+    /**
+     * Entidades
+     */
+    @Id
+    private Long idcita;
+
+    @Column(name = "Tipo_Cita", nullable = false)
+    private String tipoCita;
+
+    @Column(name = "Fecha_Cita", nullable = false)
+    private Date fechaCita;
+
+    @Column(name = "Hora_Cita", nullable = false)
+    private Date horaCita;
+
+    @Column(name = "Fecha_Hora_Cita", nullable = false)
+    private LocalDateTime fechaHoraCita;
+
+    @Column(name = "Lugar_Cita", nullable = false)
+    private String lugarCita;
+
+    @Convert(converter = EstadoCita.Convertidor.class)
+    @Column(name = "Estado_Cita", nullable = false)
+    private EstadoCita estadoCita;
+
+    @Column(name = "Observacion_Cita")
+    private String observacionCita;
+
+    @Column(name = "Version", nullable = false)
+    private long version;
+
+    @Column(name = "Fecha_Archivo", nullable = false)
+    private LocalDateTime fechaArchivo;
+
+
+    /**
+     * Relaciones externas
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "Pacientes_Idpaciente", referencedColumnName = "idpaciente")
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+    private Paciente paciente;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "Medicos_Idmedico", referencedColumnName = "idmedico")
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+    private Medico medico;
+
+
+    /**
+     * Constructor
+     */
+    public CitaMedicaArchivo() {
+    }
+
+
+    /**
+     * Métodos Getters
+     */
+    public Long getIdcita() {
+        return idcita;
+    }
+
+    public String getTipoCita() {
+        return tipoCita;
+    }
+
+    public Date getFechaCita() {
+        return fechaCita;
+    }
+
+    public Date getHoraCita() {
+        return horaCita;
+    }
+
+    public LocalDateTime getFechaHoraCita() {
+        return fechaHoraCita;
+    }
+
+    public String getLugarCita() {
+        return lugarCita;
+    }
+
+    public EstadoCita getEstadoCita() {
+        return estadoCita;
+    }
+
+    public String getObservacionCita() {
+        return observacionCita;
+    }
+
+    public Paciente getPaciente() {
+        return paciente;
+    }
+
+    public Medico getMedico() {
+        return medico;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getFechaArchivo() {
+        return fechaArchivo;
+    }
+
+
+    /**
+     * *
+     */
+    private static final long serialVersionUID = 1L;
+}
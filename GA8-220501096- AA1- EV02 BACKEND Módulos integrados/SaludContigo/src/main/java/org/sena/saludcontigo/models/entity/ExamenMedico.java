@@ -2,11 +2,15 @@ package org.sena.saludcontigo.models.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.sena.saludcontigo.models.enums.EstadoExamen;
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.Date;
 
 
 @Entity
+@DynamicUpdate
 @Table(name = "Examenes_Medicos")
 public class ExamenMedico implements Serializable {
 
@@ -14,7 +18,9 @@ public class ExamenMedico implements Serializable {
      * Entidades
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "secuencia_examenes_medicos")
+    @TableGenerator(name = "secuencia_examenes_medicos", table = "Secuencias", pkColumnName = "Nombre_Secuencia",
+            valueColumnName = "Siguiente_Valor", pkColumnValue = "Examenes_Medicos", initialValue = 1, allocationSize = 50)
     private Long idexamen;
 
     @Column(name = "Tipo_Examen", nullable = false)
@@ -26,15 +32,25 @@ public class ExamenMedico implements Serializable {
     @Column(name = "Hora_Examen", nullable = false)
     private Date horaExamen;
 
+    // Fecha y hora combinadas para las consultas por rango; se calcula a partir de fechaExamen y horaExamen
+    @Column(name = "Fecha_Hora_Examen", nullable = false)
+    private LocalDateTime fechaHoraExamen;
+
     @Column(name = "Lugar_Examen", nullable = false)
     private String lugarExamen;
 
+    @Convert(converter = EstadoExamen.Convertidor.class)
     @Column(name = "Estado_Examen", nullable = false)
-    private String estadoExamen;
+    private EstadoExamen estadoExamen;
 
     @Column(name = "Observacion_Examen")
     private String observacionExamen;
 
+    // Versión para el bloqueo optimista; forma parte de la ETag de los endpoints
+    @Version
+    @Column(name = "Version", nullable = false)
+    private long version;
+
 
     /**
      * Relaciones externas
@@ -76,11 +92,15 @@ public class ExamenMedico implements Serializable {
         return horaExamen;
     }
 
+    public LocalDateTime getFechaHoraExamen() {
+        return fechaHoraExamen;
+    }
+
     public String getLugarExamen() {
         return lugarExamen;
     }
 
-    public String getEstadoExamen() {
+    public EstadoExamen getEstadoExamen() {
         return estadoExamen;
     }
 
@@ -96,6 +116,10 @@ public class ExamenMedico implements Serializable {
         return medico;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
 
     /**
      * Métodos Setters
@@ -120,7 +144,7 @@ public class ExamenMedico implements Serializable {
         this.lugarExamen = lugarExamen;
     }
 
-    public void setEstadoExamen(String estadoExamen) {
+    public void setEstadoExamen(EstadoExamen estadoExamen) {
         this.estadoExamen = estadoExamen;
     }
 
@@ -137,6 +161,16 @@ public class ExamenMedico implements Serializable {
     }
 
 
+    /**
+     * Sincroniza la columna combinada con la fecha y la hora antes de insertar o actualizar
+     */
+    @PrePersist
+    @PreUpdate
+    private void sincronizarFechaHoraExamen() {
+        fechaHoraExamen = FechaHora.combinar(fechaExamen, horaExamen);
+    }
+
+
     /**
      * *
      */
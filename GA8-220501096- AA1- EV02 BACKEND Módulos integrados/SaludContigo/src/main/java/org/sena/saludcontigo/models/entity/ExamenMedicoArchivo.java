@@ -0,0 +1,133 @@
+package org.sena.saludcontigo.models.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.sena.saludcontigo.models.enums.EstadoExamen;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+
+/**
+ * Examen médico archivado (Examenes_Medicos_Archivo). Solo lectura: las filas las inserta el proceso
+ * de archivo a partir de Examenes_Medicos y conservan su ID original.
+ */
+@Entity
+@Immutable
+@Table(name = "Examenes_Medicos_Archivo")
+public class ExamenMedicoArchivo implements Serializable {
+
+    /**
+     * Entidades
+     */
+    @Id
+    private Long idexamen;
+
+    @Column(name = "Tipo_Examen", nullable = false)
+    private String tipoExamen;
+
+    @Column(name = "Fecha_Examen", nullable = false)
+    private Date fechaExamen;
+
+    @Column(name = "Hora_Examen", nullable = false)
+    private Date horaExamen;
+
+    @Column(name = "Fecha_Hora_Examen", nullable = false)
+    private LocalDateTime fechaHoraExamen;
+
+    @Column(name = "Lugar_Examen", nullable = false)
+    private String lugarExamen;
+
+    @Convert(converter = EstadoExamen.Convertidor.class)
+    @Column(name = "Estado_Examen", nullable = false)
+    private EstadoExamen estadoExamen;
+
+    @Column(name = "Observacion_Examen")
+    private String observacionExamen;
+
+    @Column(name = "Version", nullable = false)
+    private long version;
+
+    @Column(name = "Fecha_Archivo", nullable = false)
+    private LocalDateTime fechaArchivo;
+
+
+    /**
+     * Relaciones externas
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "Pacientes_Idpaciente", referencedColumnName = "idpaciente")
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+    private Paciente paciente;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "Medicos_Idmedico", referencedColumnName = "idmedico")
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+    private Medico medico;
+
+
+    /**
+     * Constructor
+     */
+    public ExamenMedicoArchivo() {
+    }
+
+
+    /**
+     * Métodos Getters
+     */
+    public Long getIdexamen() {
+        return idexamen;
+    }
+
+    public String getTipoExamen() {
+        return tipoExamen;
+    }
+
+    public Date getFechaExamen() {
+        return fechaExamen;
+    }
+
+    public Date getHoraExamen() {
+        return horaExamen;
+    }
+
+    public LocalDateTime getFechaHoraExamen() {
+        return fechaHoraExamen;
+    }
+
+    public String getLugarExamen() {
+        return lugarExamen;
+    }
+
+    public EstadoExamen getEstadoExamen() {
+        return estadoExamen;
+    }
+
+    public String getObservacionExamen() {
+        return observacionExamen;
+    }
+
+    public Paciente getPaciente() {
+        return paciente;
+    }
+
+    public Medico getMedico() {
+        return medico;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getFechaArchivo() {
+        return fechaArchivo;
+    }
+
+
+    /**
+     * *
+     */
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,32 @@
+package org.sena.saludcontigo.models.entity;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Cálculo de las columnas de fecha y hora combinadas (Fecha_Hora_Cita, Fecha_Hora_Examen).
+ */
+public final class FechaHora {
+
+    private FechaHora() {
+    }
+
+    /**
+     * Combina la fecha de un valor y la hora de otro. Se usa la zona horaria de la JVM,
+     * la misma con la que el driver JDBC escribe las columnas DATE y TIME.
+     * @param fecha Valor del que se toma la fecha
+     * @param hora Valor del que se toma la hora
+     * @return Fecha y hora combinadas, o nulo si falta alguno de los dos valores
+     */
+    public static LocalDateTime combinar(Date fecha, Date hora) {
+        if (fecha == null || hora == null) {
+            return null;
+        }
+        ZoneId zona = ZoneId.systemDefault();
+        return LocalDateTime.of(
+                Instant.ofEpochMilli(fecha.getTime()).atZone(zona).toLocalDate(),
+                Instant.ofEpochMilli(hora.getTime()).atZone(zona).toLocalTime());
+    }
+}
@@ -2,11 +2,13 @@ package org.sena.saludcontigo.models.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.io.Serializable;
 import java.util.Date;
 
 
 @Entity
+@DynamicUpdate
 @Table(name = "Historias_Clinicas")
 public class HistoriaClinica implements Serializable {
 
@@ -14,7 +16,9 @@ public class HistoriaClinica implements Serializable {
      * Entidades
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "secuencia_historias_clinicas")
+    @TableGenerator(name = "secuencia_historias_clinicas", table = "Secuencias", pkColumnName = "Nombre_Secuencia",
+            valueColumnName = "Siguiente_Valor", pkColumnValue = "Historias_Clinicas", initialValue = 1, allocationSize = 50)
     private Long idhistoria;
 
     @Column(name = "Fecha_Historia", nullable = false)
@@ -32,6 +36,11 @@ public class HistoriaClinica implements Serializable {
     @Column(name = "Tratamiento_Historia", length = 500)
     private String tratamientoHistoria;
 
+    // Versión para el bloqueo optimista; forma parte de la ETag de los endpoints
+    @Version
+    @Column(name = "Version", nullable = false)
+    private long version;
+
 
     /**
      * Relaciones externas
@@ -89,6 +98,10 @@ public class HistoriaClinica implements Serializable {
         return medico;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
 
     /**
      * Métodos Setters
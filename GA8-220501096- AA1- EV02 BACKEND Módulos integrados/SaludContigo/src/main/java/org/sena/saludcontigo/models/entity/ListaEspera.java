@@ -0,0 +1,162 @@
+package org.sena.saludcontigo.models.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import org.sena.saludcontigo.models.enums.EstadoEspera;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+
+@Entity
+@Table(name = "Lista_Espera")
+public class ListaEspera implements Serializable {
+
+    /**
+     * Entidades
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "secuencia_lista_espera")
+    @TableGenerator(name = "secuencia_lista_espera", table = "Secuencias", pkColumnName = "Nombre_Secuencia",
+            valueColumnName = "Siguiente_Valor", pkColumnValue = "Lista_Espera", initialValue = 1, allocationSize = 50)
+    private Long idespera;
+
+    @Column(name = "Tipo_Cita", nullable = false)
+    private String tipoCita;
+
+    // Nula si la solicitud es para un médico
+    @Column(name = "Especialidad")
+    private String especialidad;
+
+    @Column(name = "Desde", nullable = false)
+    private LocalDateTime desde;
+
+    @Column(name = "Hasta", nullable = false)
+    private LocalDateTime hasta;
+
+    @Convert(converter = EstadoEspera.Convertidor.class)
+    @Column(name = "Estado", nullable = false)
+    private EstadoEspera estado;
+
+    @Column(name = "Fecha_Registro", nullable = false)
+    private LocalDateTime fechaRegistro;
+
+    // Cita asignada al liberarse una franja
+    @Column(name = "Citas_Medicas_Idcita")
+    private Long idcita;
+
+
+    /**
+     * Relaciones externas
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "Pacientes_Idpaciente", referencedColumnName = "idpaciente")
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+    private Paciente paciente;
+
+    // Nulo si la solicitud es para una especialidad
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "Medicos_Idmedico", referencedColumnName = "idmedico")
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+    private Medico medico;
+
+
+    /**
+     * Constructor
+     */
+    public ListaEspera() {
+    }
+
+
+    /**
+     * Métodos Getters
+     */
+    public Long getIdespera() {
+        return idespera;
+    }
+
+    public String getTipoCita() {
+        return tipoCita;
+    }
+
+    public String getEspecialidad() {
+        return especialidad;
+    }
+
+    public LocalDateTime getDesde() {
+        return desde;
+    }
+
+    public LocalDateTime getHasta() {
+        return hasta;
+    }
+
+    public EstadoEspera getEstado() {
+        return estado;
+    }
+
+    public LocalDateTime getFechaRegistro() {
+        return fechaRegistro;
+    }
+
+    public Long getIdcita() {
+        return idcita;
+    }
+
+    public Paciente getPaciente() {
+        return paciente;
+    }
+
+    public Medico getMedico() {
+        return medico;
+    }
+
+
+    /**
+     * Métodos Setters
+     */
+    public void setIdespera(Long idespera) {
+        this.idespera = idespera;
+    }
+
+    public void setTipoCita(String tipoCita) {
+        this.tipoCita = tipoCita;
+    }
+
+    public void setEspecialidad(String especialidad) {
+        this.especialidad = especialidad;
+    }
+
+    public void setDesde(LocalDateTime desde) {
+        this.desde = desde;
+    }
+
+    public void setHasta(LocalDateTime hasta) {
+        this.hasta = hasta;
+    }
+
+    public void setEstado(EstadoEspera estado) {
+        this.estado = estado;
+    }
+
+    public void setFechaRegistro(LocalDateTime fechaRegistro) {
+        this.fechaRegistro = fechaRegistro;
+    }
+
+    public void setIdcita(Long idcita) {
+        this.idcita = idcita;
+    }
+
+    public void setPaciente(Paciente paciente) {
+        this.paciente = paciente;
+    }
+
+    public void setMedico(Medico medico) {
+        this.medico = medico;
+    }
+
+
+    /**
+     * *
+     */
+    private static final long serialVersionUID = 1L;
+}
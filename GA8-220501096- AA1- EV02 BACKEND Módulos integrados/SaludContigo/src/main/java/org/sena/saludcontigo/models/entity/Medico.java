@@ -1,18 +1,29 @@
 package org.sena.saludcontigo.models.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.sena.saludcontigo.models.enums.Estado;
+import org.sena.saludcontigo.models.enums.Sexo;
+import org.sena.saludcontigo.models.enums.TipoDocumento;
 import java.io.Serializable;
 
 
 @Entity
+@DynamicUpdate
 @Table(name = "Medicos")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "medicos")
 public class Medico implements Serializable {
 
     /**
      * Entidades
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "secuencia_medicos")
+    @TableGenerator(name = "secuencia_medicos", table = "Secuencias", pkColumnName = "Nombre_Secuencia",
+            valueColumnName = "Siguiente_Valor", pkColumnValue = "Medicos", initialValue = 1, allocationSize = 50)
     private Long idmedico;
 
     @Column(name = "Nombres", nullable = false)
@@ -21,8 +32,9 @@ public class Medico implements Serializable {
     @Column(name = "Apellidos", nullable = false)
     private String apellidos;
 
+    @Convert(converter = TipoDocumento.Convertidor.class)
     @Column(name = "Tipo_Documento", nullable = false)
-    private String tipoDocumento;
+    private TipoDocumento tipoDocumento;
 
     @Column(name = "Numero_Documento", nullable = false, unique = true)
     private String numeroDocumento;
@@ -30,8 +42,9 @@ public class Medico implements Serializable {
     @Column(name = "Fecha_Nacimiento", nullable = false)
     private String fechaNacimiento;
 
+    @Convert(converter = Sexo.Convertidor.class)
     @Column(name = "Sexo", nullable = false)
-    private String sexo;
+    private Sexo sexo;
 
     @Column(name = "Telefono", nullable = false)
     private String telefono;
@@ -51,8 +64,14 @@ public class Medico implements Serializable {
     @Column(name = "Password", nullable = false)
     private String password;
 
+    @Convert(converter = Estado.Convertidor.class)
     @Column(name = "Estado", nullable = false)
-    private String estado;
+    private Estado estado;
+
+    // Versión para el bloqueo optimista; forma parte de la ETag de los endpoints
+    @Version
+    @Column(name = "Version", nullable = false)
+    private long version;
 
 
     /**
@@ -82,7 +101,7 @@ public class Medico implements Serializable {
         return apellidos;
     }
 
-    public String getTipoDocumento() {
+    public TipoDocumento getTipoDocumento() {
         return tipoDocumento;
     }
 
@@ -94,7 +113,7 @@ public class Medico implements Serializable {
         return fechaNacimiento;
     }
 
-    public String getSexo() {
+    public Sexo getSexo() {
         return sexo;
     }
 
@@ -122,10 +141,14 @@ public class Medico implements Serializable {
         return password;
     }
 
-    public String getEstado() {
+    public Estado getEstado() {
         return estado;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
 
     /**
      * Métodos Setters
@@ -142,7 +165,7 @@ public class Medico implements Serializable {
         this.apellidos = apellidos;
     }
 
-    public void setTipoDocumento(String tipoDocumento) {
+    public void setTipoDocumento(TipoDocumento tipoDocumento) {
         this.tipoDocumento = tipoDocumento;
     }
 
@@ -154,7 +177,7 @@ public class Medico implements Serializable {
         this.fechaNacimiento = fechaNacimiento;
     }
 
-    public void setSexo(String sexo) {
+    public void setSexo(Sexo sexo) {
         this.sexo = sexo;
     }
 
@@ -182,7 +205,7 @@ public class Medico implements Serializable {
         this.password = password;
     }
 
-    public void setEstado(String estado) {
+    public void setEstado(Estado estado) {
         this.estado = estado;
     }
 
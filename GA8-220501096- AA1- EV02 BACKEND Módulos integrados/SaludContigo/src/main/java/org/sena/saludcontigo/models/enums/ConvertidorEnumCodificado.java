@@ -0,0 +1,26 @@
+package org.sena.saludcontigo.models.enums;
+
+import jakarta.persistence.AttributeConverter;
+
+/**
+ * Convierte un {@link EnumCodificado} en su código entero para la columna y viceversa.
+ * Cada enum declara su propio convertidor concreto para usarlo con {@code @Convert}.
+ */
+public abstract class ConvertidorEnumCodificado<E extends Enum<E> & EnumCodificado> implements AttributeConverter<E, Integer> {
+
+    private final Class<E> tipo;
+
+    protected ConvertidorEnumCodificado(Class<E> tipo) {
+        this.tipo = tipo;
+    }
+
+    @Override
+    public Integer convertToDatabaseColumn(E valor) {
+        return valor == null ? null : valor.getCodigo();
+    }
+
+    @Override
+    public E convertToEntityAttribute(Integer codigo) {
+        return codigo == null ? null : EnumCodificado.desdeCodigo(tipo, codigo);
+    }
+}
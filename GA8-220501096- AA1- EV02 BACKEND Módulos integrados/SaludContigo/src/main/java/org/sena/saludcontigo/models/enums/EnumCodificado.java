@@ -0,0 +1,54 @@
+package org.sena.saludcontigo.models.enums;
+
+/**
+ * Valor de un catálogo fijo que se guarda en la Base de Datos como un código entero pequeño
+ * y se expone en el JSON con su etiqueta.
+ */
+public interface EnumCodificado {
+
+    /**
+     * @return Código almacenado en la columna
+     */
+    int getCodigo();
+
+    /**
+     * @return Etiqueta usada en el JSON y en los mensajes
+     */
+    String getEtiqueta();
+
+    /**
+     * Busca el valor del enum por su código
+     * @param tipo Clase del enum
+     * @param codigo Código leído de la Base de Datos
+     * @return Valor correspondiente
+     * @throws IllegalArgumentException si el código no existe
+     */
+    static <E extends Enum<E> & EnumCodificado> E desdeCodigo(Class<E> tipo, int codigo) {
+        for (E valor : tipo.getEnumConstants()) {
+            if (valor.getCodigo() == codigo) {
+                return valor;
+            }
+        }
+        throw new IllegalArgumentException("Código no válido para " + tipo.getSimpleName() + ": " + codigo);
+    }
+
+    /**
+     * Busca el valor del enum por su etiqueta o por su nombre, sin distinguir mayúsculas
+     * @param tipo Clase del enum
+     * @param texto Etiqueta (por ejemplo "Agendada") o nombre (por ejemplo "AGENDADA")
+     * @return Valor correspondiente, o nulo si el texto es nulo o vacío
+     * @throws IllegalArgumentException si el texto no corresponde a ningún valor
+     */
+    static <E extends Enum<E> & EnumCodificado> E desdeTexto(Class<E> tipo, String texto) {
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        String buscado = texto.trim();
+        for (E valor : tipo.getEnumConstants()) {
+            if (valor.getEtiqueta().equalsIgnoreCase(buscado) || valor.name().equalsIgnoreCase(buscado)) {
+                return valor;
+            }
+        }
+        throw new IllegalArgumentException("Valor no válido para " + tipo.getSimpleName() + ": " + texto);
+    }
+}
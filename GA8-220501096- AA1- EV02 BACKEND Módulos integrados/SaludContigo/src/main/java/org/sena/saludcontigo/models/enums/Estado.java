@@ -0,0 +1,46 @@
+package org.sena.saludcontigo.models.enums;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import jakarta.persistence.Converter;
+
+/**
+ * Estado de la cuenta de un paciente, médico o administrador
+ */
+public enum Estado implements EnumCodificado {
+
+    ACTIVO(1, "Activo"),
+    INACTIVO(2, "Inactivo");
+
+    private final int codigo;
+
+    private final String etiqueta;
+
+    Estado(int codigo, String etiqueta) {
+        this.codigo = codigo;
+        this.etiqueta = etiqueta;
+    }
+
+    @Override
+    public int getCodigo() {
+        return codigo;
+    }
+
+    @Override
+    @JsonValue
+    public String getEtiqueta() {
+        return etiqueta;
+    }
+
+    @JsonCreator
+    public static Estado desde(String texto) {
+        return EnumCodificado.desdeTexto(Estado.class, texto);
+    }
+
+    @Converter
+    public static class Convertidor extends ConvertidorEnumCodificado<Estado> {
+        public Convertidor() {
+            super(Estado.class);
+        }
+    }
+}
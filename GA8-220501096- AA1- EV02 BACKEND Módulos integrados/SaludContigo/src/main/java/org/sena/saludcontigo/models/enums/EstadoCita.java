@@ -0,0 +1,49 @@
+package org.sena.saludcontigo.models.enums;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import jakarta.persistence.Converter;
+
+/**
+ * Estado de una cita médica
+ */
+public enum EstadoCita implements EnumCodificado {
+
+    AGENDADA(1, "Agendada"),
+    CANCELADA(2, "Cancelada"),
+    EJECUTADA(3, "Ejecutada"),
+    // Agendada cuya fecha pasó sin ejecutarse; la asigna el vencimiento nocturno
+    VENCIDA(4, "Vencida");
+
+    private final int codigo;
+
+    private final String etiqueta;
+
+    EstadoCita(int codigo, String etiqueta) {
+        this.codigo = codigo;
+        this.etiqueta = etiqueta;
+    }
+
+    @Override
+    public int getCodigo() {
+        return codigo;
+    }
+
+    @Override
+    @JsonValue
+    public String getEtiqueta() {
+        return etiqueta;
+    }
+
+    @JsonCreator
+    public static EstadoCita desde(String texto) {
+        return EnumCodificado.desdeTexto(EstadoCita.class, texto);
+    }
+
+    @Converter
+    public static class Convertidor extends ConvertidorEnumCodificado<EstadoCita> {
+        public Convertidor() {
+            super(EstadoCita.class);
+        }
+    }
+}
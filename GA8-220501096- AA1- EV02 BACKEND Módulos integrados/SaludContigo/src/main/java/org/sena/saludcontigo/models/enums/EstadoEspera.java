@@ -0,0 +1,50 @@
+package org.sena.saludcontigo.models.enums;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import jakarta.persistence.Converter;
+
+/**
+ * Estado de una solicitud de la lista de espera
+ */
+public enum EstadoEspera implements EnumCodificado {
+
+    PENDIENTE(1, "Pendiente"),
+    // Recibió una cita liberada
+    ASIGNADA(2, "Asignada"),
+    RETIRADA(3, "Retirada"),
+    // Su rango de fecha y hora pasó sin que se liberara una cita
+    VENCIDA(4, "Vencida");
+
+    private final int codigo;
+
+    private final String etiqueta;
+
+    EstadoEspera(int codigo, String etiqueta) {
+        this.codigo = codigo;
+        this.etiqueta = etiqueta;
+    }
+
+    @Override
+    public int getCodigo() {
+        return codigo;
+    }
+
+    @Override
+    @JsonValue
+    public String getEtiqueta() {
+        return etiqueta;
+    }
+
+    @JsonCreator
+    public static EstadoEspera desde(String texto) {
+        return EnumCodificado.desdeTexto(EstadoEspera.class, texto);
+    }
+
+    @Converter
+    public static class Convertidor extends ConvertidorEnumCodificado<EstadoEspera> {
+        public Convertidor() {
+            super(EstadoEspera.class);
+        }
+    }
+}
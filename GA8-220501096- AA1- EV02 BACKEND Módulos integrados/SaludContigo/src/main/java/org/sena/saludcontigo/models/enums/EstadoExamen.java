@@ -0,0 +1,49 @@
+package org.sena.saludcontigo.models.enums;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import jakarta.persistence.Converter;
+
+/**
+ * Estado de un examen médico
+ */
+public enum EstadoExamen implements EnumCodificado {
+
+    AGENDADO(1, "Agendado"),
+    CANCELADO(2, "Cancelado"),
+    EJECUTADO(3, "Ejecutado"),
+    // Agendado cuya fecha pasó sin ejecutarse; lo asigna el vencimiento nocturno
+    VENCIDO(4, "Vencido");
+
+    private final int codigo;
+
+    private final String etiqueta;
+
+    EstadoExamen(int codigo, String etiqueta) {
+        this.codigo = codigo;
+        this.etiqueta = etiqueta;
+    }
+
+    @Override
+    public int getCodigo() {
+        return codigo;
+    }
+
+    @Override
+    @JsonValue
+    public String getEtiqueta() {
+        return etiqueta;
+    }
+
+    @JsonCreator
+    public static EstadoExamen desde(String texto) {
+        return EnumCodificado.desdeTexto(EstadoExamen.class, texto);
+    }
+
+    @Converter
+    public static class Convertidor extends ConvertidorEnumCodificado<EstadoExamen> {
+        public Convertidor() {
+            super(EstadoExamen.class);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.sena.saludcontigo.models.enums;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import jakarta.persistence.Converter;
+
+/**
+ * Nivel de permisos de un administrador
+ */
+public enum Rol implements EnumCodificado {
+
+    NIVEL_0(0, "0"),
+    NIVEL_1(1, "1"),
+    NIVEL_2(2, "2");
+
+    private final int codigo;
+
+    private final String etiqueta;
+
+    Rol(int codigo, String etiqueta) {
+        this.codigo = codigo;
+        this.etiqueta = etiqueta;
+    }
+
+    @Override
+    public int getCodigo() {
+        return codigo;
+    }
+
+    @Override
+    @JsonValue
+    public String getEtiqueta() {
+        return etiqueta;
+    }
+
+    @JsonCreator
+    public static Rol desde(String texto) {
+        return EnumCodificado.desdeTexto(Rol.class, texto);
+    }
+
+    @Converter
+    public static class Convertidor extends ConvertidorEnumCodificado<Rol> {
+        public Convertidor() {
+            super(Rol.class);
+        }
+    }
+}
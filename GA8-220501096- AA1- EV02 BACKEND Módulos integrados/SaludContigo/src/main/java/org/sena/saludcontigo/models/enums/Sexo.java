@@ -0,0 +1,47 @@
+package org.sena.saludcontigo.models.enums;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import jakarta.persistence.Converter;
+
+/**
+ * Sexo de un paciente, médico o administrador
+ */
+public enum Sexo implements EnumCodificado {
+
+    MASCULINO(1, "Masculino"),
+    FEMENINO(2, "Femenino"),
+    OTRO(3, "Otro");
+
+    private final int codigo;
+
+    private final String etiqueta;
+
+    Sexo(int codigo, String etiqueta) {
+        this.codigo = codigo;
+        this.etiqueta = etiqueta;
+    }
+
+    @Override
+    public int getCodigo() {
+        return codigo;
+    }
+
+    @Override
+    @JsonValue
+    public String getEtiqueta() {
+        return etiqueta;
+    }
+
+    @JsonCreator
+    public static Sexo desde(String texto) {
+        return EnumCodificado.desdeTexto(Sexo.class, texto);
+    }
+
+    @Converter
+    public static class Convertidor extends ConvertidorEnumCodificado<Sexo> {
+        public Convertidor() {
+            super(Sexo.class);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.sena.saludcontigo.models.enums;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import jakarta.persistence.Converter;
+
+/**
+ * Tipo de documento de identidad
+ */
+public enum TipoDocumento implements EnumCodificado {
+
+    CC(1, "CC"),
+    TI(2, "TI"),
+    CE(3, "CE"),
+    PA(4, "PA"),
+    RC(5, "RC");
+
+    private final int codigo;
+
+    private final String etiqueta;
+
+    TipoDocumento(int codigo, String etiqueta) {
+        this.codigo = codigo;
+        this.etiqueta = etiqueta;
+    }
+
+    @Override
+    public int getCodigo() {
+        return codigo;
+    }
+
+    @Override
+    @JsonValue
+    public String getEtiqueta() {
+        return etiqueta;
+    }
+
+    @JsonCreator
+    public static TipoDocumento desde(String texto) {
+        return EnumCodificado.desdeTexto(TipoDocumento.class, texto);
+    }
+
+    @Converter
+    public static class Convertidor extends ConvertidorEnumCodificado<TipoDocumento> {
+        public Convertidor() {
+            super(TipoDocumento.class);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.sena.saludcontigo.models.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.Column;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actualización parcial (JSON Merge Patch, RFC 7396) de las entidades con una sola sentencia UPDATE
+ * que escribe únicamente las columnas recibidas, sin cargar antes la entidad.
+ * Los campos se validan y convierten con el modelo de JPA y el ObjectMapper de la aplicación,
+ * de modo que aceptan los mismos formatos que el JSON de los demás endpoints.
+ */
+@Service
+public class ActualizacionParcialServiceImpl implements IActualizacionParcialService {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Valida y convierte los cambios recibidos al tipo de cada atributo. No consulta la Base de Datos.
+     * Las relaciones se reciben como objeto con su ID (por ejemplo {"paciente": {"idpaciente": 5}})
+     * y se devuelven como el ID de la entidad relacionada.
+     * @param entidad Clase de la entidad a actualizar
+     * @param cambios Documento JSON Merge Patch recibido
+     * @param errors Lista de errores a completar
+     * @return Valores convertidos por nombre de atributo
+     */
+    @Override
+    public Map<String, Object> convertir(Class<?> entidad, Map<String, Object> cambios, List<String> errors) {
+        Map<String, Object> valores = new LinkedHashMap<>();
+        if (cambios == null || cambios.isEmpty()) {
+            errors.add("Debe enviar al menos un campo a modificar");
+            return valores;
+        }
+
+        EntityType<?> tipo = entityManager.getMetamodel().entity(entidad);
+        for (Map.Entry<String, Object> cambio : cambios.entrySet()) {
+            String campo = cambio.getKey();
+            Attribute<?, ?> atributo = atributo(tipo, campo);
+            PropertyDescriptor propiedad = BeanUtils.getPropertyDescriptor(entidad, campo);
+            if (atributo == null || propiedad == null) {
+                errors.add("El campo '" + campo + "' no existe");
+                continue;
+            }
+            if ((atributo instanceof SingularAttribute<?, ?> singular && singular.isId()) || propiedad.getWriteMethod() == null) {
+                errors.add("El campo '" + campo + "' no se puede modificar");
+                continue;
+            }
+
+            Object valor = cambio.getValue();
+            if (valor == null) {
+                if (atributo.isAssociation() || !anulable(entidad, campo)) {
+                    errors.add("El campo '" + campo + "' no puede ser nulo");
+                } else {
+                    valores.put(campo, null);
+                }
+                continue;
+            }
+
+            try {
+                Object convertido = objectMapper.convertValue(valor, atributo.getJavaType());
+                if (atributo.isAssociation()) {
+                    Object id = entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(convertido);
+                    if (id == null) {
+                        errors.add("El campo '" + campo + "' debe incluir el ID de la entidad relacionada");
+                        continue;
+                    }
+                    convertido = id;
+                }
+                valores.put(campo, convertido);
+            } catch (IllegalArgumentException e) {
+                errors.add("El campo '" + campo + "' tiene un valor no válido");
+            }
+        }
+        return valores;
+    }
+
+    /**
+     * Aplica los valores convertidos con una sola sentencia UPDATE ... WHERE id = ? [AND version = ?]
+     * e incrementa la versión de la entidad, igual que una actualización de Hibernate.
+     * @param entidad Clase de la entidad a actualizar
+     * @param id ID del registro
+     * @param version Versión esperada (If-Match), o nulo para no verificarla
+     * @param valores Valores por nombre de atributo, obtenidos con {@link #convertir}
+     * @return Cantidad de filas actualizadas (0 si el registro no existe o su versión cambió)
+     */
+    @Override
+    @Transactional
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public int actualizar(Class<?> entidad, Long id, Long version, Map<String, Object> valores) {
+        EntityType<?> tipo = entityManager.getMetamodel().entity(entidad);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate update = cb.createCriteriaUpdate(entidad);
+        Root root = update.from(entidad);
+
+        for (Map.Entry<String, Object> valor : valores.entrySet()) {
+            Attribute<?, ?> atributo = tipo.getAttribute(valor.getKey());
+            Object dato = valor.getValue();
+            if (atributo.isAssociation()) {
+                dato = entityManager.getReference(atributo.getJavaType(), dato);
+            }
+            Path ruta = root.get(valor.getKey());
+            if (dato == null) {
+                update.set(ruta, cb.nullLiteral(atributo.getJavaType()));
+            } else {
+                update.set(ruta, dato);
+            }
+        }
+        String atributoVersion = tipo.getSingularAttributes().stream()
+                .filter(SingularAttribute::isVersion)
+                .map(Attribute::getName)
+                .findFirst()
+                .orElseThrow();
+        Path<Long> rutaVersion = root.get(atributoVersion);
+        update.set(rutaVersion, cb.sum(rutaVersion, 1L));
+
+        Predicate condicion = cb.equal(root.get(tipo.getId(Long.class).getName()), id);
+        if (version != null) {
+            condicion = cb.and(condicion, cb.equal(rutaVersion, version));
+        }
+        update.where(condicion);
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    private static Attribute<?, ?> atributo(EntityType<?> tipo, String campo) {
+        try {
+            return tipo.getAttribute(campo);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean anulable(Class<?> entidad, String campo) {
+        Field field = ReflectionUtils.findField(entidad, campo);
+        Column column = field == null ? null : field.getAnnotation(Column.class);
+        return column == null || column.nullable();
+    }
+}
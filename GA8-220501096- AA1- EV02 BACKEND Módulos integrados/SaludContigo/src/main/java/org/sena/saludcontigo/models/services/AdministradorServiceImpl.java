@@ -1,12 +1,16 @@
 package org.sena.saludcontigo.models.services;
 
 import org.sena.saludcontigo.models.dao.IAdministradorDao;
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.Administrador;
+import org.sena.saludcontigo.models.services.IResolucionDocumentoService.Persona;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class AdministradorServiceImpl implements IAdministradorService {
@@ -14,39 +18,108 @@ public class AdministradorServiceImpl implements IAdministradorService {
     @Autowired
     private IAdministradorDao administradorDao;
 
+    @Autowired
+    private IResolucionDocumentoService resolucionDocumentoService;
+
+    @Autowired
+    private IRegistroCambiosService registroCambiosService;
+
+    @Autowired
+    private IFiltroDocumentosService filtroDocumentosService;
+
+    @Autowired
+    private IActualizacionParcialService actualizacionParcialService;
+
     @Override
     @Transactional(readOnly = true)
     public List<Administrador> findAll() {
         return administradorDao.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Administrador> findPage(Long afterId, int limit) {
+        return administradorDao.findPage(afterId, Limit.of(limit));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Administrador findById(Long id) {
         return administradorDao.findById(id).orElse(null);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public VersionDto findVersionById(Long id) {
+        return administradorDao.findVersionById(id).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersionDto findVersionByDocument(String document) {
+        if (!filtroDocumentosService.puedeExistir(Persona.ADMINISTRADOR, document)) {
+            return null;
+        }
+        return administradorDao.findVersionByDocument(document).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean existsByDocument(String document) {
+        return resolucionDocumentoService.resolver(Persona.ADMINISTRADOR, document) != null;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Administrador findByDocument(String document){
-        return administradorDao.findByDocument(document);
+        // El documento se resuelve con la caché y el registro se lee por ID (caché de segundo nivel)
+        Long id = resolucionDocumentoService.resolver(Persona.ADMINISTRADOR, document);
+        return id == null ? null : administradorDao.findById(id).orElse(null);
     }
 
     @Override
     @Transactional
     public Administrador save(Administrador administrador) {
-                return administradorDao.save(administrador);
+        // Se escribe de inmediato para registrar la versión resultante
+        Administrador guardado = administradorDao.saveAndFlush(administrador);
+        resolucionDocumentoService.registrar(Persona.ADMINISTRADOR, guardado.getNumeroDocumento(), guardado.getIdadministrador());
+        registroCambiosService.registrar(Persona.ADMINISTRADOR, guardado.getIdadministrador(), guardado.getVersion());
+        return guardado;
+    }
+
+    @Override
+    public Map<String, Object> convertirCambios(Map<String, Object> cambios, List<String> errors) {
+        return actualizacionParcialService.convertir(Administrador.class, cambios, errors);
+    }
+
+    @Override
+    @Transactional
+    public int patch(Long id, Long version, Map<String, Object> valores) {
+        if (valores.containsKey("numeroDocumento")) {
+            resolucionDocumentoService.invalidar(Persona.ADMINISTRADOR, id);
+            filtroDocumentosService.agregar(Persona.ADMINISTRADOR, (String) valores.get("numeroDocumento"));
+        }
+        int actualizados = actualizacionParcialService.actualizar(Administrador.class, id, version, valores);
+        if (actualizados > 0) {
+            registroCambiosService.registrar(Persona.ADMINISTRADOR, id, version == null ? null : version + 1);
+        }
+        return actualizados;
     }
 
     @Override
     @Transactional
     public void delete(Long id) {
+        resolucionDocumentoService.invalidar(Persona.ADMINISTRADOR, id);
         administradorDao.deleteById(id);
+        registroCambiosService.registrar(Persona.ADMINISTRADOR, id, null);
     }
 
     @Override
     @Transactional
     public void deleteByDocument(String document) {
+        Long id = resolucionDocumentoService.resolver(Persona.ADMINISTRADOR, document);
+        resolucionDocumentoService.invalidar(Persona.ADMINISTRADOR, document);
         administradorDao.deleteByDocument(document);
+        registroCambiosService.registrar(Persona.ADMINISTRADOR, id, null);
     }
 }
@@ -0,0 +1,33 @@
+package org.sena.saludcontigo.models.services;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Acciones sobre el estado en memoria que solo deben verse cuando el cambio en la base de datos ya está
+ * confirmado: si la transacción se revierte, no se ejecutan.
+ */
+final class AlConfirmar {
+
+    private AlConfirmar() {
+    }
+
+    /**
+     * Ejecuta la acción cuando la transacción en curso se confirma, o de inmediato si no hay una. La acción
+     * corre con los recursos de la transacción confirmada todavía asociados al hilo: si lee la base de datos
+     * debe hacerlo en una transacción nueva
+     * @param accion Acción a ejecutar
+     */
+    static void ejecutar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+}
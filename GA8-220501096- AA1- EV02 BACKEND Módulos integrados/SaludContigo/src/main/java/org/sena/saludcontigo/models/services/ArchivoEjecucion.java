@@ -0,0 +1,99 @@
+package org.sena.saludcontigo.models.services;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estado de una ejecución del proceso de archivo. Se actualiza desde el hilo del proceso
+ * y se consulta (serializado a JSON) desde el endpoint de estado.
+ */
+public class ArchivoEjecucion {
+
+    public enum Estado {
+        EN_PROCESO, COMPLETADA, FALLIDA
+    }
+
+    private final String id;
+
+    private final LocalDateTime corte;
+
+    private final LocalDateTime inicio = LocalDateTime.now();
+
+    private final AtomicLong citasArchivadas = new AtomicLong();
+
+    private final AtomicLong examenesArchivados = new AtomicLong();
+
+    private final AtomicLong lotes = new AtomicLong();
+
+    private volatile Estado estado = Estado.EN_PROCESO;
+
+    private volatile LocalDateTime fin;
+
+    private volatile String error;
+
+    public ArchivoEjecucion(String id, LocalDateTime corte) {
+        this.id = id;
+        this.corte = corte;
+    }
+
+    void sumarCitas(long cantidad) {
+        citasArchivadas.addAndGet(cantidad);
+        lotes.incrementAndGet();
+    }
+
+    void sumarExamenes(long cantidad) {
+        examenesArchivados.addAndGet(cantidad);
+        lotes.incrementAndGet();
+    }
+
+    void completar() {
+        fin = LocalDateTime.now();
+        estado = Estado.COMPLETADA;
+    }
+
+    void fallar(String error) {
+        this.error = error;
+        fin = LocalDateTime.now();
+        estado = Estado.FALLIDA;
+    }
+
+
+    /**
+     * Métodos Getters
+     */
+    public String getId() {
+        return id;
+    }
+
+    public LocalDateTime getCorte() {
+        return corte;
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public LocalDateTime getFin() {
+        return fin;
+    }
+
+    public long getCitasArchivadas() {
+        return citasArchivadas.get();
+    }
+
+    public long getExamenesArchivados() {
+        return examenesArchivados.get();
+    }
+
+    public long getLotes() {
+        return lotes.get();
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,135 @@
+package org.sena.saludcontigo.models.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.sena.saludcontigo.models.dao.ICitaMedicaArchivoDao;
+import org.sena.saludcontigo.models.dao.ICitaMedicaDao;
+import org.sena.saludcontigo.models.dao.IExamenMedicoArchivoDao;
+import org.sena.saludcontigo.models.dao.IExamenMedicoDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.LongConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Archivo de las citas y exámenes anteriores a {@code saludcontigo.archivo.antiguedad}. Cada bloque de IDs
+ * se copia a la tabla de archivo y se elimina de la tabla activa en una misma transacción corta, así que
+ * el proceso puede interrumpirse en cualquier punto: la siguiente ejecución continúa con las filas que
+ * sigan en la tabla activa, y las que ya estén archivadas no se vuelven a copiar.
+ * El avance se publica en el estado de la ejecución y en las métricas {@value #METRICA_FILAS} y {@value #METRICA_LOTES}.
+ */
+@Service
+public class ArchivoServiceImpl implements IArchivoService {
+
+    private static final String METRICA_FILAS = "saludcontigo.archivo.filas";
+
+    private static final String METRICA_LOTES = "saludcontigo.archivo.lotes";
+
+    @Value("${saludcontigo.archivo.antiguedad:365d}")
+    private Duration antiguedad;
+
+    @Value("${saludcontigo.archivo.tamano-lote:500}")
+    private int tamanoLote;
+
+    @Autowired
+    private ICitaMedicaDao citaMedicaDao;
+
+    @Autowired
+    private ICitaMedicaArchivoDao citaMedicaArchivoDao;
+
+    @Autowired
+    private IExamenMedicoDao examenMedicoDao;
+
+    @Autowired
+    private IExamenMedicoArchivoDao examenMedicoArchivoDao;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private TaskExecutor taskExecutor;
+
+    private volatile ArchivoEjecucion ultima;
+
+    /**
+     * Inicia una ejecución del archivo; si ya hay una en proceso se devuelve esa
+     * @return Estado de la ejecución
+     */
+    @Override
+    public synchronized ArchivoEjecucion iniciar() {
+        if (ultima != null && ultima.getEstado() == ArchivoEjecucion.Estado.EN_PROCESO) {
+            return ultima;
+        }
+        // El corte se fija al iniciar para que la ejecución termine aunque sigan llegando filas
+        ArchivoEjecucion ejecucion = new ArchivoEjecucion(UUID.randomUUID().toString(), LocalDateTime.now().minus(antiguedad));
+        ultima = ejecucion;
+        taskExecutor.execute(() -> ejecutar(ejecucion));
+        return ejecucion;
+    }
+
+    @Override
+    public ArchivoEjecucion findUltima() {
+        return ultima;
+    }
+
+    /**
+     * Ejecución programada ({@code saludcontigo.archivo.cron}, "-" para desactivarla)
+     */
+    @Scheduled(cron = "${saludcontigo.archivo.cron:0 30 2 * * *}")
+    public void programado() {
+        iniciar();
+    }
+
+    private void ejecutar(ArchivoEjecucion ejecucion) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            archivarPorLotes(transaction, ejecucion.getCorte(), "Citas_Medicas",
+                    citaMedicaDao::findIdsAnteriores, citaMedicaArchivoDao::archivar, citaMedicaDao::deleteByIds, ejecucion::sumarCitas);
+            archivarPorLotes(transaction, ejecucion.getCorte(), "Examenes_Medicos",
+                    examenMedicoDao::findIdsAnteriores, examenMedicoArchivoDao::archivar, examenMedicoDao::deleteByIds, ejecucion::sumarExamenes);
+            ejecucion.completar();
+        } catch (RuntimeException e) {
+            ejecucion.fallar(e.getMessage());
+        }
+    }
+
+    // Mueve las filas anteriores al corte por bloques, en orden de fecha, hasta que no quede ninguna
+    private void archivarPorLotes(TransactionTemplate transaction, LocalDateTime corte, String tabla,
+                                  BiFunction<LocalDateTime, Limit, List<Long>> lote, ToIntFunction<Collection<Long>> archivar,
+                                  ToIntFunction<Collection<Long>> eliminar, LongConsumer contador) {
+        while (true) {
+            Integer movidas = transaction.execute(status -> {
+                List<Long> ids = lote.apply(corte, Limit.of(tamanoLote));
+                if (ids.isEmpty()) {
+                    return null;
+                }
+                archivar.applyAsInt(ids);
+                return eliminar.applyAsInt(ids);
+            });
+            if (movidas == null) {
+                return;
+            }
+            contador.accept(movidas);
+            meterRegistry.counter(METRICA_FILAS, "tabla", tabla).increment(movidas);
+            meterRegistry.counter(METRICA_LOTES, "tabla", tabla).increment();
+        }
+    }
+}
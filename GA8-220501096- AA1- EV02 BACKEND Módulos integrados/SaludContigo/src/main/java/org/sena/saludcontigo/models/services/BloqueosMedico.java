@@ -0,0 +1,61 @@
+package org.sena.saludcontigo.models.services;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bloqueos por médico repartidos en un número fijo de segmentos: las escrituras de citas de un mismo médico
+ * se hacen de a una, las de médicos distintos casi siempre en paralelo, y la memoria no crece con la cantidad
+ * de médicos. Solo ordenan las solicitudes de esta instancia; entre instancias decide el índice único de la
+ * base de datos.
+ */
+final class BloqueosMedico {
+
+    private final ReentrantLock[] segmentos;
+
+    /**
+     * @param cantidad Cantidad de segmentos; dos médicos comparten bloqueo solo si caen en el mismo segmento
+     */
+    BloqueosMedico(int cantidad) {
+        segmentos = new ReentrantLock[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            segmentos[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Ejecuta la acción con los bloqueos de los médicos indicados. Los segmentos se toman en orden creciente,
+     * así dos lotes con los mismos médicos no se esperan mutuamente
+     * @param idsMedico IDs de los médicos afectados (los nulos se ignoran)
+     * @param accion Acción a ejecutar; debe confirmar su transacción antes de terminar
+     * @return Resultado de la acción
+     */
+    <T> T ejecutar(Collection<Long> idsMedico, Supplier<T> accion) {
+        int[] indices = idsMedico.stream()
+                .filter(Objects::nonNull)
+                .mapToInt(this::segmento)
+                .distinct()
+                .sorted()
+                .toArray();
+        int tomados = 0;
+        try {
+            for (int indice : indices) {
+                segmentos[indice].lock();
+                tomados++;
+            }
+            return accion.get();
+        } finally {
+            for (int i = tomados - 1; i >= 0; i--) {
+                segmentos[indices[i]].unlock();
+            }
+        }
+    }
+
+    // Mezcla los bits del ID para que los IDs consecutivos no caigan en segmentos vecinos
+    private int segmento(Long idMedico) {
+        long h = idMedico * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(h ^ (h >>> 32), (long) segmentos.length);
+    }
+}
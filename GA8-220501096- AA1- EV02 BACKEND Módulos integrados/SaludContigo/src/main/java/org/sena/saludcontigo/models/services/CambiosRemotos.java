@@ -0,0 +1,45 @@
+package org.sena.saludcontigo.models.services;
+
+import org.sena.saludcontigo.models.services.IResolucionDocumentoService.Persona;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Evento con los cambios confirmados por otras instancias y leídos del registro de cambios.
+ * Lo reciben las cachés locales (con {@code @EventListener}) para descartar sus copias.
+ * @param cambios Cambios de registros en el orden en que se registraron
+ * @param agendas Días de la agenda de un médico en los que se creó, movió, canceló o eliminó una cita
+ */
+public record CambiosRemotos(List<Cambio> cambios, List<Agenda> agendas) {
+
+    /**
+     * Cambio de un registro
+     * @param persona Tipo de registro
+     * @param id ID del registro
+     * @param version Versión resultante, o nulo si no se conoce (eliminaciones y cambios sin versión esperada)
+     */
+    public record Cambio(Persona persona, Long id, Long version) {
+    }
+
+    /**
+     * Día de la agenda de un médico
+     * @param idMedico ID del médico
+     * @param fecha Día afectado
+     */
+    public record Agenda(Long idMedico, LocalDate fecha) {
+    }
+
+    /**
+     * @param persona Tipo de registro
+     * @return true si algún cambio corresponde al tipo de registro indicado
+     */
+    public boolean incluye(Persona persona) {
+        for (Cambio cambio : cambios) {
+            if (cambio.persona() == persona) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,58 +1,543 @@
 package org.sena.saludcontigo.models.services;
 
+import org.sena.saludcontigo.models.dao.ICitaMedicaArchivoDao;
 import org.sena.saludcontigo.models.dao.ICitaMedicaDao;
+import org.sena.saludcontigo.models.dto.CitaMedicaDto;
+import org.sena.saludcontigo.models.dto.OcupacionCitaDto;
+import org.sena.saludcontigo.models.dto.ProgramacionRecordatorioDto;
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.CitaMedica;
+import org.sena.saludcontigo.models.entity.FechaHora;
+import org.sena.saludcontigo.models.enums.EstadoCita;
+import org.sena.saludcontigo.models.services.IResolucionDocumentoService.Persona;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 @Service
-public class CitaMedicaServiceImpl implements ICitaMedicaService {
+public class CitaMedicaServiceImpl implements ICitaMedicaService, InitializingBean {
+
+    // Coincide con hibernate.jdbc.batch_size
+    private static final int TAMANO_LOTE = 50;
+
+    // Campos que cambian las franjas que la cita ocupa en la agenda del médico
+    private static final Set<String> CAMPOS_OCUPACION = Set.of("fechaCita", "horaCita", "estadoCita", "medico");
 
     @Autowired
     private ICitaMedicaDao citaMedicaDao;
 
+    @Autowired
+    private ICitaMedicaArchivoDao citaMedicaArchivoDao;
+
+    @Autowired
+    private IActualizacionParcialService actualizacionParcialService;
+
+    @Autowired
+    private IResolucionDocumentoService resolucionDocumentoService;
+
+    @Autowired
+    private IDisponibilidadService disponibilidadService;
+
+    @Autowired
+    private IRecordatorioService recordatorioService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${saludcontigo.citas.segmentos-bloqueo:256}")
+    private int segmentosBloqueo;
+
+    private BloqueosMedico bloqueosMedico;
+
+    private TransactionTemplate transaction;
+
+    @Override
+    public void afterPropertiesSet() {
+        bloqueosMedico = new BloqueosMedico(segmentosBloqueo);
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<CitaMedica> findAll() {
         return citaMedicaDao.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<CitaMedicaDto> findPage(Long afterId, int limit) {
+        return citaMedicaDao.findPage(afterId, Limit.of(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CitaMedicaDto> findPage(EstadoCita estado, String documentoMedico, Long afterId, int limit, boolean incluirArchivo) {
+        Long idMedico = null;
+        if (documentoMedico != null && !documentoMedico.isBlank()) {
+            idMedico = resolucionDocumentoService.resolver(Persona.MEDICO, documentoMedico);
+            if (idMedico == null) {
+                return List.of();
+            }
+        }
+        List<CitaMedicaDto> activas;
+        List<CitaMedicaDto> archivadas = List.of();
+        if (estado == null && idMedico == null) {
+            activas = citaMedicaDao.findPage(afterId, Limit.of(limit));
+            if (incluirArchivo) {
+                archivadas = citaMedicaArchivoDao.findPage(afterId, Limit.of(limit));
+            }
+        } else if (estado == null) {
+            activas = citaMedicaDao.findByMedicoId(idMedico, afterId, Limit.of(limit));
+            if (incluirArchivo) {
+                archivadas = citaMedicaArchivoDao.findByMedicoId(idMedico, afterId, Limit.of(limit));
+            }
+        } else if (idMedico == null) {
+            activas = citaMedicaDao.findByEstado(estado, afterId, Limit.of(limit));
+            if (incluirArchivo) {
+                archivadas = citaMedicaArchivoDao.findByEstado(estado, afterId, Limit.of(limit));
+            }
+        } else {
+            activas = citaMedicaDao.findByMedicoIdAndEstado(idMedico, estado, afterId, Limit.of(limit));
+            if (incluirArchivo) {
+                archivadas = citaMedicaArchivoDao.findByMedicoIdAndEstado(idMedico, estado, afterId, Limit.of(limit));
+            }
+        }
+        return PaginaArchivo.combinar(activas, archivadas, limit, CitaMedicaDto::idcita);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long count(EstadoCita estado, String documentoMedico, boolean incluirArchivo) {
+        Long idMedico = null;
+        if (documentoMedico != null && !documentoMedico.isBlank()) {
+            idMedico = resolucionDocumentoService.resolver(Persona.MEDICO, documentoMedico);
+            if (idMedico == null) {
+                return 0;
+            }
+        }
+        if (estado == null && idMedico == null) {
+            return citaMedicaDao.count() + (incluirArchivo ? citaMedicaArchivoDao.count() : 0);
+        }
+        if (estado == null) {
+            return citaMedicaDao.countByMedicoId(idMedico)
+                    + (incluirArchivo ? citaMedicaArchivoDao.countByMedicoId(idMedico) : 0);
+        }
+        if (idMedico == null) {
+            return citaMedicaDao.countByEstado(estado)
+                    + (incluirArchivo ? citaMedicaArchivoDao.countByEstado(estado) : 0);
+        }
+        return citaMedicaDao.countByMedicoIdAndEstado(idMedico, estado)
+                + (incluirArchivo ? citaMedicaArchivoDao.countByMedicoIdAndEstado(idMedico, estado) : 0);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public CitaMedica findById(Long id) {
-        return citaMedicaDao.findById(id).orElse(null);
+        return citaMedicaDao.findDetalleById(id).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersionDto findVersionById(Long id) {
+        return citaMedicaDao.findVersionById(id).orElse(null);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<CitaMedica> findByMedicoDocumento(String documento) {
-        return citaMedicaDao.findByMedicoDocumento(documento);
+        Long idMedico = resolucionDocumentoService.resolver(Persona.MEDICO, documento);
+        if (idMedico == null) {
+            return List.of();
+        }
+        return citaMedicaDao.findByMedicoId(idMedico);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CitaMedicaDto> findByMedicoDocumento(String documento, Long afterId, int limit, boolean incluirArchivo) {
+        Long idMedico = resolucionDocumentoService.resolver(Persona.MEDICO, documento);
+        if (idMedico == null) {
+            return List.of();
+        }
+        List<CitaMedicaDto> activas = citaMedicaDao.findByMedicoId(idMedico, afterId, Limit.of(limit));
+        if (!incluirArchivo) {
+            return activas;
+        }
+        return PaginaArchivo.combinar(activas, citaMedicaArchivoDao.findByMedicoId(idMedico, afterId, Limit.of(limit)), limit, CitaMedicaDto::idcita);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CitaMedicaDto> findByMedicoDocumento(String documento, LocalDateTime desde, LocalDateTime hasta, Long afterId, int limit, boolean incluirArchivo) {
+        Long idMedico = resolucionDocumentoService.resolver(Persona.MEDICO, documento);
+        if (idMedico == null) {
+            return List.of();
+        }
+        List<CitaMedicaDto> activas = citaMedicaDao.findByMedicoIdAndRango(idMedico, desde, hasta, afterId, Limit.of(limit));
+        if (!incluirArchivo) {
+            return activas;
+        }
+        return PaginaArchivo.combinar(activas, citaMedicaArchivoDao.findByMedicoIdAndRango(idMedico, desde, hasta, afterId, Limit.of(limit)), limit, CitaMedicaDto::idcita);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<CitaMedica> findByPacienteDocumento(String documento) {
-        return citaMedicaDao.findByPacienteDocumento(documento);
+        Long idPaciente = resolucionDocumentoService.resolver(Persona.PACIENTE, documento);
+        if (idPaciente == null) {
+            return List.of();
+        }
+        return citaMedicaDao.findByPacienteId(idPaciente);
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
+    public List<CitaMedicaDto> findByPacienteDocumento(String documento, Long afterId, int limit, boolean incluirArchivo) {
+        Long idPaciente = resolucionDocumentoService.resolver(Persona.PACIENTE, documento);
+        if (idPaciente == null) {
+            return List.of();
+        }
+        List<CitaMedicaDto> activas = citaMedicaDao.findByPacienteId(idPaciente, afterId, Limit.of(limit));
+        if (!incluirArchivo) {
+            return activas;
+        }
+        return PaginaArchivo.combinar(activas, citaMedicaArchivoDao.findByPacienteId(idPaciente, afterId, Limit.of(limit)), limit, CitaMedicaDto::idcita);
+    }
+
+    /**
+     * Guarda la cita con el bloqueo de su médico tomado hasta confirmar la transacción, así dos solicitudes
+     * de esta instancia no agendan la misma franja; entre instancias lo impide el índice único
+     * @throws FranjaOcupadaException si el médico ya tiene una cita activa con la misma fecha y hora
+     */
+    @Override
     public CitaMedica save(CitaMedica citaMedica) {
-        return citaMedicaDao.save(citaMedica);
+        return save(citaMedica, guardada -> true);
+    }
+
+    /**
+     * Guarda la cita como {@link #save(CitaMedica)} y, antes de confirmar, evalúa la condición en la misma
+     * transacción y con el mismo bloqueo: sus escrituras se confirman junto con la cita
+     * @param confirmar Condición sobre la cita guardada; si es falsa, la transacción se revierte
+     * @return Cita guardada, o nulo si la condición fue falsa
+     * @throws FranjaOcupadaException si el médico ya tiene una cita activa con la misma fecha y hora
+     */
+    @Override
+    public CitaMedica save(CitaMedica citaMedica, Predicate<CitaMedica> confirmar) {
+        // Sin médico la ocupación es nula: la cita no ocupa franjas y la base de datos rechaza la escritura
+        List<OcupacionCitaDto> nuevas = Collections.singletonList(ocupacion(citaMedica));
+        List<Long> propias = Collections.singletonList(citaMedica.getIdcita());
+        return bloqueosMedico.ejecutar(idsMedico(nuevas), () -> verificarAlConfirmar(nuevas, propias, () -> transaction.execute(status -> {
+            verificar(nuevas, propias);
+            OcupacionCitaDto anterior = citaMedica.getIdcita() == null ? null : citaMedicaDao.findOcupacionById(citaMedica.getIdcita()).orElse(null);
+            CitaMedica guardada = citaMedicaDao.saveAndFlush(citaMedica);
+            if (!confirmar.test(guardada)) {
+                status.setRollbackOnly();
+                return null;
+            }
+            disponibilidadService.registrar(anterior, ocupacion(guardada));
+            programarRecordatorio(guardada.getIdcita(), guardada.getEstadoCita(), guardada.getFechaHoraCita());
+            liberarFranja(guardada.getIdcita(), anterior, ocupacion(guardada));
+            return guardada;
+        })));
+    }
+
+    /**
+     * Guarda las citas en una sola transacción con los bloqueos de todos sus médicos
+     * @throws FranjaOcupadaException si alguna franja ya está ocupada
+     */
+    @Override
+    public List<Long> saveAll(List<CitaMedica> citasMedicas) {
+        List<OcupacionCitaDto> nuevas = citasMedicas.stream().map(CitaMedicaServiceImpl::ocupacion).toList();
+        List<Long> propias = Collections.nCopies(citasMedicas.size(), null);
+        return bloqueosMedico.ejecutar(idsMedico(nuevas), () -> verificarAlConfirmar(nuevas, propias, () -> transaction.execute(status -> {
+            verificar(nuevas, propias);
+            List<Long> ids = new ArrayList<>(citasMedicas.size());
+            List<ProgramacionRecordatorioDto> agendadas = new ArrayList<>();
+            for (int i = 0; i < citasMedicas.size(); i++) {
+                CitaMedica citaMedica = citasMedicas.get(i);
+                entityManager.persist(citaMedica);
+                ids.add(citaMedica.getIdcita());
+                if (citaMedica.getEstadoCita() == EstadoCita.AGENDADA) {
+                    agendadas.add(new ProgramacionRecordatorioDto(citaMedica.getIdcita(),
+                            FechaHora.combinar(citaMedica.getFechaCita(), citaMedica.getHoraCita())));
+                }
+                // Envía cada lote y libera el contexto de persistencia
+                if ((i + 1) % TAMANO_LOTE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            disponibilidadService.registrar(nuevas);
+            recordatorioService.programar(IRecordatorioService.Tipo.CITA, agendadas);
+            return ids;
+        })));
+    }
+
+    @Override
+    public Map<String, Object> convertirCambios(Map<String, Object> cambios, List<String> errors) {
+        return actualizacionParcialService.convertir(CitaMedica.class, cambios, errors);
+    }
+
+    /**
+     * Actualiza parcialmente la cita. Si cambian su médico, fecha, hora o estado, se verifica la franja
+     * con los bloqueos del médico anterior y del nuevo
+     * @throws FranjaOcupadaException si la nueva franja ya está ocupada
+     */
+    @Override
+    public int patch(Long id, Long version, Map<String, Object> valores) {
+        if (valores.keySet().stream().noneMatch(CAMPOS_OCUPACION::contains)) {
+            return transaction.execute(status -> actualizacionParcialService.actualizar(CitaMedica.class, id, version, valores));
+        }
+        Optional<OcupacionCitaDto> actual = citaMedicaDao.findOcupacionById(id);
+        if (actual.isEmpty()) {
+            return 0;
+        }
+        List<Long> idsMedico = new ArrayList<>(2);
+        idsMedico.add(actual.get().idMedico());
+        if (valores.get("medico") instanceof Long idMedico) {
+            idsMedico.add(idMedico);
+        }
+        return bloqueosMedico.ejecutar(idsMedico, () -> {
+            // Con los bloqueos tomados, la franja leída no cambia hasta escribir
+            CambioOcupacion cambio = transaction.execute(status -> cambioOcupacion(id, valores));
+            if (cambio == null) {
+                return 0;
+            }
+            List<OcupacionCitaDto> nuevas = List.of(cambio.nueva());
+            List<Long> propias = List.of(id);
+            return verificarAlConfirmar(nuevas, propias, () -> transaction.execute(status -> {
+                verificar(nuevas, propias);
+                int actualizados = actualizacionParcialService.actualizar(CitaMedica.class, id, version, cambio.valores());
+                if (actualizados > 0) {
+                    disponibilidadService.registrar(cambio.anterior(), cambio.nueva());
+                    programarRecordatorio(id, cambio.nueva().estadoCita(), cambio.nueva().fechaHoraCita());
+                    liberarFranja(id, cambio.anterior(), cambio.nueva());
+                }
+                return actualizados;
+            }));
+        });
     }
 
     @Override
     @Transactional
     public void delete(Long id) {
+        citaMedicaDao.findOcupacionById(id).ifPresent(anterior -> {
+            disponibilidadService.registrar(anterior, null);
+            liberarFranja(id, anterior, null);
+        });
         citaMedicaDao.deleteById(id);
+        recordatorioService.cancelar(IRecordatorioService.Tipo.CITA, id);
+    }
+
+    @Override
+    @Transactional
+    public int updateByPacienteDocumento(String documento, CitaMedica citaMedica) {
+        Long idPaciente = resolucionDocumentoService.resolver(Persona.PACIENTE, documento);
+        if (idPaciente == null) {
+            return 0;
+        }
+        int actualizadas = citaMedicaDao.updateByPacienteId(idPaciente,
+                citaMedica.getTipoCita(), citaMedica.getFechaCita(), citaMedica.getHoraCita(), citaMedica.getLugarCita(), citaMedica.getEstadoCita() == null ? null : citaMedica.getEstadoCita().getCodigo(), citaMedica.getObservacionCita());
+        if (actualizadas > 0) {
+            disponibilidadService.invalidarTodo();
+            recordatorioService.recargar();
+        }
+        return actualizadas;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> findIdsByPacienteDocumento(String documento) {
+        Long idPaciente = resolucionDocumentoService.resolver(Persona.PACIENTE, documento);
+        if (idPaciente == null) {
+            return List.of();
+        }
+        return citaMedicaDao.findIdsByPacienteId(idPaciente);
     }
 
     @Override
     @Transactional
     public void deleteByPacienteDocumento(String documento) {
-        citaMedicaDao.deleteByPacienteDocumento(documento);
+        Long idPaciente = resolucionDocumentoService.resolver(Persona.PACIENTE, documento);
+        if (idPaciente == null) {
+            return;
+        }
+        citaMedicaDao.deleteByPacienteId(idPaciente);
+        disponibilidadService.invalidarTodo();
+        recordatorioService.recargar();
+    }
+
+    // Franja de la cita antes y después de la actualización parcial, o nulo si la cita no existe
+    private CambioOcupacion cambioOcupacion(Long id, Map<String, Object> valores) {
+        OcupacionCitaDto anterior = citaMedicaDao.findOcupacionById(id).orElse(null);
+        if (anterior == null) {
+            return null;
+        }
+        LocalDateTime fechaHoraCita = anterior.fechaHoraCita();
+        boolean fecha = valores.containsKey("fechaCita");
+        boolean hora = valores.containsKey("horaCita");
+        if (fecha || hora) {
+            // La fecha y hora combinadas se recalculan leyendo solo la columna que no se envió
+            Optional<Date> fechaCita = fecha ? Optional.ofNullable((Date) valores.get("fechaCita")) : citaMedicaDao.findFechaCita(id);
+            Optional<Date> horaCita = hora ? Optional.ofNullable((Date) valores.get("horaCita")) : citaMedicaDao.findHoraCita(id);
+            if (fechaCita.isEmpty() || horaCita.isEmpty()) {
+                return null;
+            }
+            fechaHoraCita = FechaHora.combinar(fechaCita.get(), horaCita.get());
+            valores = new LinkedHashMap<>(valores);
+            valores.put("fechaHoraCita", fechaHoraCita);
+        }
+        OcupacionCitaDto nueva = new OcupacionCitaDto(
+                valores.get("medico") instanceof Long idMedico ? idMedico : anterior.idMedico(),
+                fechaHoraCita,
+                valores.containsKey("estadoCita") ? (EstadoCita) valores.get("estadoCita") : anterior.estadoCita());
+        return new CambioOcupacion(anterior, nueva, valores);
+    }
+
+    /**
+     * Busca las citas activas que ocupan las franjas de las citas indicadas
+     * @param citasMedicas Citas a verificar
+     * @return Cita que ocupa la franja por posición en la lista; las posiciones sin conflicto no se incluyen
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Integer, CitaMedicaDto> findConflictos(List<CitaMedica> citasMedicas) {
+        return conflictos(citasMedicas.stream().map(CitaMedicaServiceImpl::ocupacion).toList(),
+                citasMedicas.stream().map(CitaMedica::getIdcita).toList());
+    }
+
+    // Rechaza la escritura si otra cita activa del médico tiene la misma fecha y hora
+    private void verificar(List<OcupacionCitaDto> nuevas, List<Long> propias) {
+        Map<Integer, CitaMedicaDto> conflictos = conflictos(nuevas, propias);
+        if (!conflictos.isEmpty()) {
+            throw new FranjaOcupadaException(conflictos);
+        }
+    }
+
+    // Si el índice único rechaza la escritura (una cita agendada en otra instancia), se informa la cita que ocupa la franja
+    private <T> T verificarAlConfirmar(List<OcupacionCitaDto> nuevas, List<Long> propias, Supplier<T> escritura) {
+        try {
+            return escritura.get();
+        } catch (FranjaOcupadaException e) {
+            throw e;
+        } catch (DataIntegrityViolationException e) {
+            Map<Integer, CitaMedicaDto> conflictos = transaction.execute(status -> conflictos(nuevas, propias));
+            if (conflictos == null || conflictos.isEmpty()) {
+                throw e;
+            }
+            throw new FranjaOcupadaException(conflictos);
+        }
+    }
+
+    private Map<Integer, CitaMedicaDto> conflictos(List<OcupacionCitaDto> nuevas, List<Long> propias) {
+        Set<Long> idsMedico = new HashSet<>();
+        Set<LocalDateTime> fechasHora = new HashSet<>();
+        for (OcupacionCitaDto nueva : nuevas) {
+            if (activa(nueva)) {
+                idsMedico.add(nueva.idMedico());
+                fechasHora.add(nueva.fechaHoraCita());
+            }
+        }
+        if (idsMedico.isEmpty()) {
+            return Map.of();
+        }
+        // Una consulta para todo el lote; las combinaciones de médico y fecha que no corresponden se descartan aquí
+        Map<Franja, List<CitaMedicaDto>> ocupadas = new HashMap<>();
+        for (CitaMedicaDto cita : citaMedicaDao.findActivasByMedicosAndFechasHora(idsMedico, fechasHora, EstadoCita.CANCELADA)) {
+            ocupadas.computeIfAbsent(new Franja(cita.medico().getIdmedico(), cita.fechaHoraCita()), franja -> new ArrayList<>()).add(cita);
+        }
+        Map<Integer, CitaMedicaDto> conflictos = new LinkedHashMap<>();
+        for (int i = 0; i < nuevas.size(); i++) {
+            OcupacionCitaDto nueva = nuevas.get(i);
+            if (!activa(nueva)) {
+                continue;
+            }
+            Long propia = propias.get(i);
+            for (CitaMedicaDto cita : ocupadas.getOrDefault(new Franja(nueva.idMedico(), nueva.fechaHoraCita()), List.of())) {
+                if (!cita.idcita().equals(propia)) {
+                    conflictos.put(i, cita);
+                    break;
+                }
+            }
+        }
+        return conflictos;
+    }
+
+    // Reprograma el recordatorio de una cita agendada o cancela el de una que dejó de estarlo
+    private void programarRecordatorio(Long id, EstadoCita estado, LocalDateTime fechaHoraCita) {
+        if (estado == EstadoCita.AGENDADA) {
+            recordatorioService.programar(IRecordatorioService.Tipo.CITA, List.of(new ProgramacionRecordatorioDto(id, fechaHoraCita)));
+        } else {
+            recordatorioService.cancelar(IRecordatorioService.Tipo.CITA, id);
+        }
+    }
+
+    // Si una cita agendada futura dejó su franja (se canceló, cambió de médico, fecha u hora o se eliminó),
+    // la lista de espera la recibe al confirmarse la transacción
+    private void liberarFranja(Long id, OcupacionCitaDto anterior, OcupacionCitaDto nueva) {
+        if (anterior == null || anterior.estadoCita() != EstadoCita.AGENDADA || anterior.fechaHoraCita() == null
+                || !anterior.fechaHoraCita().isAfter(LocalDateTime.now())) {
+            return;
+        }
+        if (activa(nueva) && Objects.equals(anterior.idMedico(), nueva.idMedico()) && anterior.fechaHoraCita().equals(nueva.fechaHoraCita())) {
+            return;
+        }
+        eventPublisher.publishEvent(new FranjaLiberada(anterior.idMedico(), anterior.fechaHoraCita(), citaMedicaDao.findLugarCita(id).orElse(null)));
+    }
+
+    private static boolean activa(OcupacionCitaDto cita) {
+        return cita != null && cita.idMedico() != null && cita.fechaHoraCita() != null && cita.estadoCita() != EstadoCita.CANCELADA;
+    }
+
+    private static List<Long> idsMedico(List<OcupacionCitaDto> citas) {
+        return citas.stream().filter(Objects::nonNull).map(OcupacionCitaDto::idMedico).toList();
+    }
+
+    // La fecha y hora combinadas se calculan aquí: al actualizar, la entidad las recalcula recién al enviar los cambios
+    private static OcupacionCitaDto ocupacion(CitaMedica citaMedica) {
+        if (citaMedica.getMedico() == null) {
+            return null;
+        }
+        return new OcupacionCitaDto(citaMedica.getMedico().getIdmedico(),
+                FechaHora.combinar(citaMedica.getFechaCita(), citaMedica.getHoraCita()), citaMedica.getEstadoCita());
+    }
+
+    // Agenda de un médico en una fecha y hora
+    private record Franja(Long idMedico, LocalDateTime fechaHora) {
+    }
+
+    // Franjas antes y después de una actualización parcial, con los valores a escribir
+    private record CambioOcupacion(OcupacionCitaDto anterior, OcupacionCitaDto nueva, Map<String, Object> valores) {
     }
 }
@@ -0,0 +1,48 @@
+package org.sena.saludcontigo.models.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Destino de los recordatorios en un archivo local ({@code saludcontigo.recordatorios.destino=archivo}):
+ * agrega una línea JSON por recordatorio a {@code saludcontigo.recordatorios.archivo}.
+ */
+@Service
+@ConditionalOnProperty(name = "saludcontigo.recordatorios.destino", havingValue = "archivo")
+public class DestinoRecordatoriosArchivo implements IDestinoRecordatorios {
+
+    @Value("${saludcontigo.recordatorios.archivo:recordatorios.ndjson}")
+    private Path archivo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Escribe el lote al final del archivo, creándolo si no existe
+     * @param recordatorios Recordatorios vencidos
+     */
+    @Override
+    public synchronized void enviar(List<Recordatorio> recordatorios) {
+        try (BufferedWriter writer = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Recordatorio recordatorio : recordatorios) {
+                writer.write(objectMapper.writeValueAsString(recordatorio));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error escribiendo los recordatorios en " + archivo, e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.sena.saludcontigo.models.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Destino por defecto de los recordatorios: los agrega a la tabla {@code Recordatorios}, de donde los toma el
+ * proceso que los entrega al paciente. Un recordatorio ya agregado (por otra instancia o por un reintento) se descarta.
+ */
+@Service
+@ConditionalOnProperty(name = "saludcontigo.recordatorios.destino", havingValue = "outbox", matchIfMissing = true)
+public class DestinoRecordatoriosOutbox implements IDestinoRecordatorios {
+
+    private static final String INSERTAR = "INSERT INTO Recordatorios (Tipo, IdRegistro, Fecha_Hora, Fecha_Recordatorio, Fecha_Emision) "
+            + "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE IdRecordatorio = IdRecordatorio";
+
+    @Value("${saludcontigo.recordatorios.retencion:30d}")
+    private Duration retencion;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Agrega los recordatorios con una sentencia por lotes
+     * @param recordatorios Recordatorios vencidos
+     */
+    @Override
+    public void enviar(List<Recordatorio> recordatorios) {
+        LocalDateTime emision = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(INSERTAR, recordatorios, recordatorios.size(), (ps, recordatorio) -> {
+            ps.setInt(1, recordatorio.tipo().getCodigo());
+            ps.setLong(2, recordatorio.id());
+            ps.setObject(3, recordatorio.fechaHora());
+            ps.setObject(4, recordatorio.fechaRecordatorio());
+            ps.setObject(5, emision);
+        });
+    }
+
+    /**
+     * Elimina los recordatorios emitidos antes de {@code saludcontigo.recordatorios.retencion}
+     * ({@code saludcontigo.recordatorios.depuracion}, "-" para desactivarlo)
+     * @return Cantidad de filas eliminadas
+     */
+    @Scheduled(cron = "${saludcontigo.recordatorios.depuracion:0 45 * * * *}")
+    public int depurar() {
+        return jdbcTemplate.update("DELETE FROM Recordatorios WHERE Fecha_Emision < ?", LocalDateTime.now().minus(retencion));
+    }
+}
@@ -0,0 +1,140 @@
+package org.sena.saludcontigo.models.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.sena.saludcontigo.models.dao.IMedicoDao;
+import org.sena.saludcontigo.models.entity.Medico;
+import org.sena.saludcontigo.models.services.IResolucionDocumentoService.Persona;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Directorio de médicos en memoria para {@code GET /api/medicos}. Cada cambio confirmado de un médico
+ * construye una copia nueva del directorio y la publica de una vez; las solicitudes leen siempre una
+ * copia completa, sin bloqueos ni consultas. Los cambios que llegan mientras se construye una copia se
+ * agrupan en la construcción siguiente. Los cambios hechos por otras instancias llegan por el registro de
+ * cambios; la recarga periódica ({@code saludcontigo.directorio.cron}) cubre los hechos directamente en la base.
+ */
+@Service
+public class DirectorioMedicoServiceImpl implements IDirectorioMedicoService {
+
+    private static final Logger log = LoggerFactory.getLogger(DirectorioMedicoServiceImpl.class);
+
+    // Debe coincidir con el límite por defecto de la paginación para que las páginas se sirvan precalculadas
+    @Value("${saludcontigo.directorio.tamano-pagina:50}")
+    private int tamanoPagina;
+
+    @Autowired
+    private IMedicoDao medicoDao;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private volatile DirectorioMedicos actual;
+
+    // Cambios notificados y cambios incluidos en la copia publicada
+    private final AtomicLong solicitadas = new AtomicLong();
+
+    private long construidas = -1;
+
+    /**
+     * Obtiene la copia vigente del directorio, construyéndola en la primera solicitud
+     * @return Directorio de médicos
+     */
+    @Override
+    public DirectorioMedicos actual() {
+        DirectorioMedicos directorio = actual;
+        return directorio != null ? directorio : construir();
+    }
+
+    /**
+     * Reconstruye el directorio cuando la transacción en curso se confirma, o de inmediato si no hay una
+     */
+    @Override
+    public void invalidar() {
+        AlConfirmar.ejecutar(() -> {
+            // El cambio ya está confirmado: un error al recargar no debe fallar la solicitud que lo hizo
+            try {
+                recargar();
+            } catch (RuntimeException e) {
+                log.warn("No se pudo recargar el directorio de médicos, se construirá en la siguiente consulta", e);
+            }
+        });
+    }
+
+    /**
+     * Recarga periódica ({@code saludcontigo.directorio.cron}, "-" para desactivarla)
+     */
+    @Override
+    @Scheduled(cron = "${saludcontigo.directorio.cron:0 */5 * * * *}")
+    public void recargar() {
+        solicitadas.incrementAndGet();
+        construir();
+    }
+
+    /**
+     * Reconstruye el directorio cuando otra instancia cambió algún médico
+     * @param cambios Cambios leídos del registro de cambios
+     */
+    @EventListener
+    public void cambiosRemotos(CambiosRemotos cambios) {
+        if (cambios.incluye(Persona.MEDICO)) {
+            recargar();
+        }
+    }
+
+    private synchronized DirectorioMedicos construir() {
+        // La solicitud se lee antes de consultar: los cambios confirmados hasta aquí quedan en esta copia
+        long solicitud = solicitadas.get();
+        if (actual != null && construidas >= solicitud) {
+            return actual;
+        }
+        DirectorioMedicos directorio;
+        try {
+            directorio = consultar();
+        } catch (RuntimeException e) {
+            // Se descarta la copia desactualizada: la siguiente consulta vuelve a intentarlo
+            actual = null;
+            throw e;
+        }
+        construidas = solicitud;
+        actual = directorio;
+        return directorio;
+    }
+
+    private DirectorioMedicos consultar() {
+        // Transacción propia de escritura: se ejecuta tras confirmar otra y debe leer de la primaria, no de una réplica
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        List<Medico> medicos = transactionTemplate.execute(status -> medicoDao.findAll(Sort.by("idmedico")));
+        ObjectWriter writer = objectMapper.writerFor(Medico.class);
+        long[] ids = new long[medicos.size()];
+        byte[][] filas = new byte[medicos.size()][];
+        for (int i = 0; i < medicos.size(); i++) {
+            ids[i] = medicos.get(i).getIdmedico();
+            try {
+                filas[i] = writer.writeValueAsBytes(medicos.get(i));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new DirectorioMedicos(ids, filas, tamanoPagina);
+    }
+}
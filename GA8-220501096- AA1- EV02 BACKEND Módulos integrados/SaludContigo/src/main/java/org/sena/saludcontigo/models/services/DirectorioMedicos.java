@@ -0,0 +1,137 @@
+package org.sena.saludcontigo.models.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Copia inmutable del directorio de médicos, ordenada por ID y ya serializada en JSON. Las páginas
+ * alineadas al tamaño de página (las que entrega el recorrido por cursor con el límite por defecto)
+ * se guardan completas junto con su versión gzip, así que servirlas no reserva memoria ni serializa.
+ * Las demás páginas se arman copiando las filas ya serializadas en un solo arreglo.
+ */
+public final class DirectorioMedicos {
+
+    private static final byte[] VACIA = {'[', ']'};
+
+    /**
+     * Página del directorio
+     * @param json Arreglo JSON de los médicos de la página
+     * @param gzip El mismo arreglo comprimido con gzip, o nulo si la página no está precalculada
+     * @param ultimoId ID del último médico de la página si existe una página siguiente, o nulo
+     */
+    public record Pagina(byte[] json, byte[] gzip, Long ultimoId) {
+    }
+
+    private final long[] ids;
+
+    private final byte[][] filas;
+
+    private final int tamanoPagina;
+
+    private final Pagina[] paginas;
+
+    private final Pagina vacia;
+
+    private final String etag;
+
+    private final String etagGzip;
+
+    /**
+     * @param ids IDs de los médicos en orden ascendente
+     * @param filas JSON de cada médico, en el mismo orden de los IDs
+     * @param tamanoPagina Tamaño de las páginas precalculadas
+     */
+    DirectorioMedicos(long[] ids, byte[][] filas, int tamanoPagina) {
+        this.ids = ids;
+        this.filas = filas;
+        this.tamanoPagina = tamanoPagina;
+        this.vacia = new Pagina(VACIA, gzip(VACIA), null);
+        this.paginas = new Pagina[(ids.length + tamanoPagina - 1) / tamanoPagina];
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < paginas.length; i++) {
+            int inicio = i * tamanoPagina;
+            int fin = Math.min(inicio + tamanoPagina, ids.length);
+            byte[] json = unir(inicio, fin);
+            crc.update(json);
+            paginas[i] = new Pagina(json, gzip(json), fin < ids.length ? ids[fin - 1] : null);
+        }
+        // La ETag depende solo del contenido: es la misma en todas las instancias con los mismos datos
+        String version = "directorio-" + Long.toHexString(crc.getValue()) + "-" + ids.length;
+        this.etag = "\"" + version + "\"";
+        // Una ETag fuerte identifica los bytes enviados: la versión gzip necesita la suya
+        this.etagGzip = "\"" + version + "-gzip\"";
+    }
+
+    /**
+     * Obtiene la página que sigue al ID indicado
+     * @param afterId Último ID entregado al cliente (0 para la primera página)
+     * @param limite Cantidad máxima de médicos de la página
+     * @return Página del directorio
+     */
+    public Pagina pagina(long afterId, int limite) {
+        int inicio = Arrays.binarySearch(ids, afterId);
+        inicio = inicio >= 0 ? inicio + 1 : -inicio - 1;
+        if (inicio >= ids.length) {
+            return vacia;
+        }
+        if (limite == tamanoPagina && inicio % tamanoPagina == 0) {
+            return paginas[inicio / tamanoPagina];
+        }
+        int fin = (int) Math.min((long) inicio + limite, ids.length);
+        return new Pagina(unir(inicio, fin), null, fin < ids.length ? ids[fin - 1] : null);
+    }
+
+    /**
+     * @return ETag fuerte del contenido del directorio
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * @return ETag fuerte de las páginas enviadas comprimidas con gzip
+     */
+    public String getEtagGzip() {
+        return etagGzip;
+    }
+
+    /**
+     * @return Cantidad de médicos del directorio
+     */
+    public int getTamano() {
+        return ids.length;
+    }
+
+    private byte[] unir(int inicio, int fin) {
+        int longitud = 1 + (fin - inicio);
+        for (int i = inicio; i < fin; i++) {
+            longitud += filas[i].length;
+        }
+        byte[] json = new byte[longitud];
+        int posicion = 0;
+        json[posicion++] = '[';
+        for (int i = inicio; i < fin; i++) {
+            if (i > inicio) {
+                json[posicion++] = ',';
+            }
+            System.arraycopy(filas[i], 0, json, posicion, filas[i].length);
+            posicion += filas[i].length;
+        }
+        json[posicion] = ']';
+        return json;
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(json.length / 4 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+}
@@ -0,0 +1,469 @@
+package org.sena.saludcontigo.models.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.sena.saludcontigo.models.dao.ICitaMedicaDao;
+import org.sena.saludcontigo.models.dao.IMedicoDao;
+import org.sena.saludcontigo.models.dto.HoraDisponibleDto;
+import org.sena.saludcontigo.models.dto.OcupacionCitaDto;
+import org.sena.saludcontigo.models.entity.Medico;
+import org.sena.saludcontigo.models.enums.Estado;
+import org.sena.saludcontigo.models.enums.EstadoCita;
+import org.sena.saludcontigo.models.services.CambiosRemotos.Agenda;
+import org.sena.saludcontigo.models.services.IResolucionDocumentoService.Persona;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Disponibilidad de los médicos calculada en memoria. El día de un médico se divide en franjas de
+ * {@code saludcontigo.disponibilidad.franja} y se guarda como un mapa de bits de las franjas ocupadas por
+ * sus citas no canceladas (96 bits con franjas de 15 minutos). El mapa se carga la primera vez que se consulta
+ * el día, con una consulta por el índice de médico y fecha y hora; las siguientes consultas no van a la base
+ * de datos. Los días poco consultados salen de la caché al alcanzar {@code saludcontigo.disponibilidad.tamano-cache}.
+ * <p>
+ * Las citas no guardan su duración: cada una ocupa {@code saludcontigo.disponibilidad.duracion-cita} desde su hora.
+ * Al confirmar una cita nueva se marcan sus franjas en el mapa; al moverla, cancelarla o eliminarla se descarta
+ * el mapa del día anterior, porque otra cita puede ocupar las mismas franjas. Los días cambiados se registran en el
+ * registro de cambios y las demás instancias descartan sus mapas de esos días. Los cambios masivos de otras
+ * instancias y los hechos directamente en la base se reflejan al vencer el mapa ({@code saludcontigo.disponibilidad.vencimiento}).
+ * <p>
+ * La próxima hora disponible de una especialidad mezcla las horas libres de sus médicos en orden, con los
+ * mismos mapas, sin recorrer más días de cada agenda que los necesarios para la respuesta.
+ */
+@Service
+public class DisponibilidadServiceImpl implements IDisponibilidadService, InitializingBean {
+
+    private static final int MINUTOS_DIA = 24 * 60;
+
+    @Value("${saludcontigo.disponibilidad.franja:15m}")
+    private Duration franja;
+
+    @Value("${saludcontigo.disponibilidad.duracion-cita:30m}")
+    private Duration duracionCita;
+
+    @Value("${saludcontigo.disponibilidad.inicio:07:00}")
+    private String inicio;
+
+    @Value("${saludcontigo.disponibilidad.fin:19:00}")
+    private String fin;
+
+    @Value("${saludcontigo.disponibilidad.tamano-cache:100000}")
+    private long tamanoCache;
+
+    @Value("${saludcontigo.disponibilidad.vencimiento:5m}")
+    private Duration vencimiento;
+
+    // Días que se recorren como máximo al buscar la próxima hora disponible
+    @Value("${saludcontigo.disponibilidad.horizonte:60d}")
+    private Duration horizonte;
+
+    @Autowired
+    private ICitaMedicaDao citaMedicaDao;
+
+    @Autowired
+    private IMedicoDao medicoDao;
+
+    @Autowired
+    private IResolucionDocumentoService resolucionDocumentoService;
+
+    @Autowired
+    private IRegistroCambiosService registroCambiosService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<Clave, long[]> ocupadas;
+
+    private int minutosFranja;
+
+    private int franjasDia;
+
+    // Primera franja de la jornada y la siguiente a la última
+    private int primeraFranja;
+
+    private int finFranjas;
+
+    // Hora de inicio de cada franja, para no crearla en cada consulta
+    private LocalTime[] horas;
+
+    @Override
+    public void afterPropertiesSet() {
+        minutosFranja = (int) franja.toMinutes();
+        if (minutosFranja <= 0 || MINUTOS_DIA % minutosFranja != 0) {
+            throw new IllegalStateException("saludcontigo.disponibilidad.franja debe dividir el día en minutos exactos: " + franja);
+        }
+        franjasDia = MINUTOS_DIA / minutosFranja;
+        primeraFranja = Math.ceilDiv(LocalTime.parse(inicio).toSecondOfDay() / 60, minutosFranja);
+        int minutoFin = LocalTime.parse(fin).toSecondOfDay() / 60;
+        finFranjas = (minutoFin == 0 ? MINUTOS_DIA : minutoFin) / minutosFranja;
+        if (primeraFranja >= finFranjas) {
+            throw new IllegalStateException("La jornada de saludcontigo.disponibilidad debe terminar después de empezar");
+        }
+        horas = new LocalTime[franjasDia];
+        for (int i = 0; i < franjasDia; i++) {
+            horas[i] = LocalTime.ofSecondOfDay((long) i * minutosFranja * 60);
+        }
+        ocupadas = Caffeine.newBuilder()
+                .maximumSize(tamanoCache)
+                .expireAfterWrite(vencimiento)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, ocupadas, "disponibilidad");
+    }
+
+    /**
+     * Obtiene las horas en las que puede empezar una cita de la duración indicada sin cruzarse con otra
+     * @param documentoMedico Documento del médico
+     * @param fecha Fecha a consultar
+     * @param duracion Duración de la cita, o nulo para la duración por defecto
+     * @return Horas de inicio dentro de la jornada (las ya pasadas no se incluyen), o nulo si el médico no existe
+     * @throws IllegalArgumentException si la duración no cabe en la jornada
+     */
+    @Override
+    public List<LocalTime> disponibles(String documentoMedico, LocalDate fecha, Duration duracion) {
+        int necesarias = franjasNecesarias(duracion);
+        Long idMedico = resolucionDocumentoService.resolver(Persona.MEDICO, documentoMedico);
+        if (idMedico == null) {
+            return null;
+        }
+
+        int desde = primeraFranja;
+        LocalDate hoy = LocalDate.now();
+        if (fecha.isBefore(hoy)) {
+            return List.of();
+        }
+        if (fecha.equals(hoy)) {
+            desde = Math.max(desde, Math.ceilDiv(LocalTime.now().toSecondOfDay(), minutosFranja * 60));
+        }
+
+        long[] bits = ocupadas.get(new Clave(idMedico, fecha), this::cargar);
+        List<LocalTime> libres = new ArrayList<>();
+        int seguidas = 0;
+        for (int i = desde; i < finFranjas; i++) {
+            if ((bits[i >>> 6] & (1L << i)) != 0) {
+                seguidas = 0;
+            } else if (++seguidas >= necesarias) {
+                libres.add(horas[i - necesarias + 1]);
+            }
+        }
+        return libres;
+    }
+
+    /**
+     * Busca las primeras horas en las que algún médico activo de la especialidad puede atender una cita.
+     * Cada médico aporta sus horas libres en orden y una cola de prioridad entrega la más temprana de todas;
+     * la búsqueda termina al completar la cantidad pedida. Mientras los médicos no tienen una primera hora,
+     * sus días se cargan juntos con una consulta por día, y dejan de buscarse cuando la cola ya tiene la
+     * cantidad pedida: sus horas serían posteriores
+     * @param especialidad Especialidad de los médicos
+     * @param desde Fecha y hora desde la que se busca; si es anterior a la actual se busca desde la actual
+     * @param duracion Duración de la cita, o nulo para la duración por defecto
+     * @param cantidad Cantidad máxima de horas a devolver
+     * @return Horas por fecha y hora (y por ID de médico en la misma hora) dentro de {@code saludcontigo.disponibilidad.horizonte},
+     * o nulo si la especialidad no tiene médicos activos
+     * @throws IllegalArgumentException si la duración no cabe en la jornada
+     */
+    @Override
+    public List<HoraDisponibleDto> proximasDisponibles(String especialidad, LocalDateTime desde, Duration duracion, int cantidad) {
+        int necesarias = franjasNecesarias(duracion);
+        List<Medico> medicos = medicoDao.findByEspecialidad(especialidad, Estado.ACTIVO);
+        if (medicos.isEmpty()) {
+            return null;
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        if (desde == null || desde.isBefore(ahora)) {
+            desde = ahora;
+        }
+        LocalDate dia = desde.toLocalDate();
+        LocalDate ultimoDia = dia.plusDays(Math.max(1, horizonte.toDays()) - 1);
+        int desdeFranja = Math.max(primeraFranja, Math.ceilDiv(desde.toLocalTime().toSecondOfDay(), minutosFranja * 60));
+
+        PriorityQueue<HorasLibres> cola = new PriorityQueue<>(Comparator.comparing((HorasLibres horas) -> horas.actual)
+                .thenComparing(horas -> horas.medico.getIdmedico()));
+        List<HorasLibres> pendientes = new ArrayList<>(medicos.size());
+        for (Medico medico : medicos) {
+            pendientes.add(new HorasLibres(medico, necesarias));
+        }
+        while (!pendientes.isEmpty() && cola.size() < cantidad && !dia.isAfter(ultimoDia)) {
+            Set<Clave> claves = new HashSet<>();
+            for (HorasLibres horas : pendientes) {
+                claves.add(new Clave(horas.medico.getIdmedico(), dia));
+            }
+            Map<Clave, long[]> dias = ocupadas.getAll(claves, this::cargarTodos);
+            for (Iterator<HorasLibres> it = pendientes.iterator(); it.hasNext(); ) {
+                HorasLibres horas = it.next();
+                horas.empezarDia(dia, dias.get(new Clave(horas.medico.getIdmedico(), dia)), desdeFranja);
+                if (horas.siguienteEnDia()) {
+                    cola.add(horas);
+                    it.remove();
+                }
+            }
+            dia = dia.plusDays(1);
+            desdeFranja = primeraFranja;
+        }
+
+        List<HoraDisponibleDto> resultado = new ArrayList<>(Math.min(cantidad, cola.size()));
+        while (resultado.size() < cantidad && !cola.isEmpty()) {
+            HorasLibres horas = cola.poll();
+            Medico medico = horas.medico;
+            resultado.add(new HoraDisponibleDto(horas.actual, medico.getIdmedico(), medico.getNumeroDocumento(), medico.getNombres(), medico.getApellidos()));
+            if (horas.siguiente(ultimoDia)) {
+                cola.add(horas);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * @return Tiempo que ocupa cada cita en la agenda del médico
+     */
+    @Override
+    public Duration getDuracionCita() {
+        return duracionCita;
+    }
+
+    /**
+     * Aplica el cambio de una cita a los mapas en memoria cuando la transacción se confirma, y registra
+     * los días cambiados para las demás instancias
+     * @param anterior Médico, fecha y hora y estado antes del cambio, o nulo si la cita es nueva
+     * @param nueva Médico, fecha y hora y estado después del cambio, o nulo si la cita se eliminó
+     */
+    @Override
+    public void registrar(OcupacionCitaDto anterior, OcupacionCitaDto nueva) {
+        boolean liberar = ocupa(anterior) && !anterior.equals(nueva);
+        boolean ocupar = ocupa(nueva);
+        if (!liberar && !ocupar) {
+            return;
+        }
+        Set<Clave> cambiadas = new LinkedHashSet<>();
+        if (liberar) {
+            cambiadas.addAll(claves(anterior));
+        }
+        if (ocupar) {
+            cambiadas.addAll(claves(nueva));
+        }
+        registrarAgendas(cambiadas);
+        AlConfirmar.ejecutar(() -> {
+            if (liberar) {
+                // Otra cita puede ocupar las mismas franjas: el día se vuelve a cargar en la siguiente consulta
+                for (Clave clave : claves(anterior)) {
+                    ocupadas.invalidate(clave);
+                }
+            }
+            if (ocupar) {
+                marcar(nueva);
+            }
+        });
+    }
+
+    /**
+     * Marca las franjas de las citas creadas cuando la transacción se confirma, y registra los días
+     * cambiados para las demás instancias
+     * @param nuevas Médico, fecha y hora y estado de cada cita
+     */
+    @Override
+    public void registrar(Collection<OcupacionCitaDto> nuevas) {
+        List<OcupacionCitaDto> ocupan = nuevas.stream().filter(DisponibilidadServiceImpl::ocupa).toList();
+        if (ocupan.isEmpty()) {
+            return;
+        }
+        Set<Clave> cambiadas = new LinkedHashSet<>();
+        for (OcupacionCitaDto cita : ocupan) {
+            cambiadas.addAll(claves(cita));
+        }
+        registrarAgendas(cambiadas);
+        AlConfirmar.ejecutar(() -> ocupan.forEach(this::marcar));
+    }
+
+    /**
+     * Descarta todos los mapas cuando la transacción se confirma, tras los cambios masivos de citas
+     */
+    @Override
+    public void invalidarTodo() {
+        AlConfirmar.ejecutar(ocupadas::invalidateAll);
+    }
+
+    /**
+     * Descarta los días de las agendas en los que otra instancia cambió alguna cita
+     * @param cambios Cambios leídos del registro de cambios
+     */
+    @EventListener
+    public void cambiosRemotos(CambiosRemotos cambios) {
+        for (Agenda agenda : cambios.agendas()) {
+            ocupadas.invalidate(new Clave(agenda.idMedico(), agenda.fecha()));
+        }
+    }
+
+    // En la transacción de la cita: el registro existe solo si el cambio se confirma
+    private void registrarAgendas(Set<Clave> claves) {
+        registroCambiosService.registrarAgendas(claves.stream().map(clave -> new Agenda(clave.idMedico(), clave.fecha())).toList());
+    }
+
+    private int franjasNecesarias(Duration duracion) {
+        if (duracion == null) {
+            duracion = duracionCita;
+        }
+        int necesarias = (int) Math.min(Integer.MAX_VALUE, Math.ceilDiv(duracion.toMinutes(), minutosFranja));
+        if (duracion.toMinutes() <= 0 || necesarias > finFranjas - primeraFranja) {
+            throw new IllegalArgumentException("La duración debe estar entre 1 y " + (finFranjas - primeraFranja) * minutosFranja + " minutos");
+        }
+        return necesarias;
+    }
+
+    private long[] cargar(Clave clave) {
+        long[] bits = new long[(franjasDia + 63) >>> 6];
+        LocalDateTime inicioDia = clave.fecha().atStartOfDay();
+        // Incluye las citas del día anterior que terminan después de la medianoche
+        List<LocalDateTime> citas = citaMedicaDao.findFechasHoraOcupadas(clave.idMedico(),
+                inicioDia.minus(duracionCita), inicioDia.plusDays(1), EstadoCita.CANCELADA);
+        for (LocalDateTime fechaHora : citas) {
+            marcar(bits, inicioDia, fechaHora);
+        }
+        return bits;
+    }
+
+    // Carga con una consulta los días de varios médicos que no están en memoria
+    private Map<Clave, long[]> cargarTodos(Set<? extends Clave> claves) {
+        Map<Clave, long[]> dias = new HashMap<>();
+        Set<Long> idsMedico = new HashSet<>();
+        LocalDate primero = null;
+        LocalDate ultimo = null;
+        for (Clave clave : claves) {
+            dias.put(clave, new long[(franjasDia + 63) >>> 6]);
+            idsMedico.add(clave.idMedico());
+            primero = primero == null || clave.fecha().isBefore(primero) ? clave.fecha() : primero;
+            ultimo = ultimo == null || clave.fecha().isAfter(ultimo) ? clave.fecha() : ultimo;
+        }
+        if (dias.isEmpty()) {
+            return dias;
+        }
+        List<OcupacionCitaDto> citas = citaMedicaDao.findOcupacionesByMedicos(idsMedico,
+                primero.atStartOfDay().minus(duracionCita), ultimo.plusDays(1).atStartOfDay(), EstadoCita.CANCELADA);
+        for (OcupacionCitaDto cita : citas) {
+            for (Clave clave : claves(cita)) {
+                long[] bits = dias.get(clave);
+                if (bits != null) {
+                    marcar(bits, clave.fecha().atStartOfDay(), cita.fechaHoraCita());
+                }
+            }
+        }
+        return dias;
+    }
+
+    // Marca las franjas de la cita en los mapas cargados; los días que no están en memoria se cargan completos al consultarlos
+    private void marcar(OcupacionCitaDto cita) {
+        for (Clave clave : claves(cita)) {
+            ocupadas.asMap().computeIfPresent(clave, (k, bits) -> {
+                long[] copia = bits.clone();
+                marcar(copia, k.fecha().atStartOfDay(), cita.fechaHoraCita());
+                return copia;
+            });
+        }
+    }
+
+    private void marcar(long[] bits, LocalDateTime inicioDia, LocalDateTime fechaHora) {
+        long minuto = Duration.between(inicioDia, fechaHora).toMinutes();
+        int desde = (int) Math.max(0, Math.floorDiv(minuto, minutosFranja));
+        int hasta = (int) Math.min(franjasDia, Math.ceilDiv(minuto + duracionCita.toMinutes(), minutosFranja));
+        for (int i = desde; i < hasta; i++) {
+            bits[i >>> 6] |= 1L << i;
+        }
+    }
+
+    // Días de la agenda del médico que ocupa la cita (dos si pasa de la medianoche)
+    private List<Clave> claves(OcupacionCitaDto cita) {
+        LocalDate dia = cita.fechaHoraCita().toLocalDate();
+        LocalDate ultimo = cita.fechaHoraCita().plus(duracionCita).minusNanos(1).toLocalDate();
+        return dia.equals(ultimo)
+                ? List.of(new Clave(cita.idMedico(), dia))
+                : List.of(new Clave(cita.idMedico(), dia), new Clave(cita.idMedico(), ultimo));
+    }
+
+    private static boolean ocupa(OcupacionCitaDto cita) {
+        return cita != null && cita.idMedico() != null && cita.fechaHoraCita() != null
+                && cita.estadoCita() != EstadoCita.CANCELADA;
+    }
+
+    // Agenda de un médico en un día
+    private record Clave(Long idMedico, LocalDate fecha) {
+    }
+
+    // Recorrido en orden de las horas libres de un médico, día por día
+    private final class HorasLibres {
+
+        private final Medico medico;
+
+        private final int necesarias;
+
+        private LocalDate dia;
+
+        private long[] bits;
+
+        private int franja;
+
+        private int seguidas;
+
+        // Hora libre actual del recorrido
+        private LocalDateTime actual;
+
+        private HorasLibres(Medico medico, int necesarias) {
+            this.medico = medico;
+            this.necesarias = necesarias;
+        }
+
+        private void empezarDia(LocalDate dia, long[] bits, int desdeFranja) {
+            this.dia = dia;
+            this.bits = bits;
+            this.franja = desdeFranja;
+            this.seguidas = 0;
+        }
+
+        // Avanza a la siguiente hora libre del día en curso; falso si el día no tiene más
+        private boolean siguienteEnDia() {
+            while (franja < finFranjas) {
+                int i = franja++;
+                if ((bits[i >>> 6] & (1L << i)) != 0) {
+                    seguidas = 0;
+                } else if (++seguidas >= necesarias) {
+                    actual = dia.atTime(horas[i - necesarias + 1]);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Avanza a la siguiente hora libre, cargando los días siguientes hasta el último; falso si no hay más
+        private boolean siguiente(LocalDate ultimoDia) {
+            while (!siguienteEnDia()) {
+                if (!dia.isBefore(ultimoDia)) {
+                    return false;
+                }
+                LocalDate manana = dia.plusDays(1);
+                empezarDia(manana, ocupadas.get(new Clave(medico.getIdmedico(), manana), DisponibilidadServiceImpl.this::cargar), primeraFranja);
+            }
+            return true;
+        }
+    }
+}
@@ -1,58 +1,249 @@
 package org.sena.saludcontigo.models.services;
 
+import org.sena.saludcontigo.models.dao.IExamenMedicoArchivoDao;
 import org.sena.saludcontigo.models.dao.IExamenMedicoDao;
+import org.sena.saludcontigo.models.dto.ExamenMedicoDto;
+import org.sena.saludcontigo.models.dto.ProgramacionRecordatorioDto;
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.ExamenMedico;
+import org.sena.saludcontigo.models.entity.FechaHora;
+import org.sena.saludcontigo.models.enums.EstadoExamen;
+import org.sena.saludcontigo.models.services.IResolucionDocumentoService.Persona;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class ExamenMedicoServiceImpl implements IExamenMedicoService {
 
+    // Coincide con hibernate.jdbc.batch_size
+    private static final int TAMANO_LOTE = 50;
+
     @Autowired
     private IExamenMedicoDao examenMedicoDao;
 
+    @Autowired
+    private IExamenMedicoArchivoDao examenMedicoArchivoDao;
+
+    @Autowired
+    private IActualizacionParcialService actualizacionParcialService;
+
+    @Autowired
+    private IResolucionDocumentoService resolucionDocumentoService;
+
+    @Autowired
+    private IRecordatorioService recordatorioService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Override
     @Transactional(readOnly = true)
     public List<ExamenMedico> findAll() {
         return examenMedicoDao.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ExamenMedicoDto> findPage(Long afterId, int limit, boolean incluirArchivo) {
+        List<ExamenMedicoDto> activos = examenMedicoDao.findPage(afterId, Limit.of(limit));
+        if (!incluirArchivo) {
+            return activos;
+        }
+        return PaginaArchivo.combinar(activos, examenMedicoArchivoDao.findPage(afterId, Limit.of(limit)), limit, ExamenMedicoDto::idexamen);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ExamenMedico findById(Long id) {
-        return examenMedicoDao.findById(id).orElse(null);
+        return examenMedicoDao.findDetalleById(id).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersionDto findVersionById(Long id) {
+        return examenMedicoDao.findVersionById(id).orElse(null);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ExamenMedico> findByMedicoDocumento(String documento) {
-        return examenMedicoDao.findByMedicoDocumento(documento);
+        Long idMedico = resolucionDocumentoService.resolver(Persona.MEDICO, documento);
+        if (idMedico == null) {
+            return List.of();
+        }
+        return examenMedicoDao.findByMedicoId(idMedico);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ExamenMedicoDto> findByMedicoDocumento(String documento, Long afterId, int limit, boolean incluirArchivo) {
+        Long idMedico = resolucionDocumentoService.resolver(Persona.MEDICO, documento);
+        if (idMedico == null) {
+            return List.of();
+        }
+        List<ExamenMedicoDto> activos = examenMedicoDao.findByMedicoId(idMedico, afterId, Limit.of(limit));
+        if (!incluirArchivo) {
+            return activos;
+        }
+        return PaginaArchivo.combinar(activos, examenMedicoArchivoDao.findByMedicoId(idMedico, afterId, Limit.of(limit)), limit, ExamenMedicoDto::idexamen);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ExamenMedicoDto> findByMedicoDocumento(String documento, LocalDateTime desde, LocalDateTime hasta, Long afterId, int limit, boolean incluirArchivo) {
+        Long idMedico = resolucionDocumentoService.resolver(Persona.MEDICO, documento);
+        if (idMedico == null) {
+            return List.of();
+        }
+        List<ExamenMedicoDto> activos = examenMedicoDao.findByMedicoIdAndRango(idMedico, desde, hasta, afterId, Limit.of(limit));
+        if (!incluirArchivo) {
+            return activos;
+        }
+        return PaginaArchivo.combinar(activos, examenMedicoArchivoDao.findByMedicoIdAndRango(idMedico, desde, hasta, afterId, Limit.of(limit)), limit, ExamenMedicoDto::idexamen);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ExamenMedico> findByPacienteDocumento(String documento) {
-        return examenMedicoDao.findByPacienteDocumento(documento);
+        Long idPaciente = resolucionDocumentoService.resolver(Persona.PACIENTE, documento);
+        if (idPaciente == null) {
+            return List.of();
+        }
+        return examenMedicoDao.findByPacienteId(idPaciente);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ExamenMedicoDto> findByPacienteDocumento(String documento, Long afterId, int limit, boolean incluirArchivo) {
+        Long idPaciente = resolucionDocumentoService.resolver(Persona.PACIENTE, documento);
+        if (idPaciente == null) {
+            return List.of();
+        }
+        List<ExamenMedicoDto> activos = examenMedicoDao.findByPacienteId(idPaciente, afterId, Limit.of(limit));
+        if (!incluirArchivo) {
+            return activos;
+        }
+        return PaginaArchivo.combinar(activos, examenMedicoArchivoDao.findByPacienteId(idPaciente, afterId, Limit.of(limit)), limit, ExamenMedicoDto::idexamen);
     }
 
     @Override
     @Transactional
     public ExamenMedico save(ExamenMedico examenMedico) {
-        return examenMedicoDao.save(examenMedico);
+        ExamenMedico guardado = examenMedicoDao.save(examenMedico);
+        if (guardado.getEstadoExamen() == EstadoExamen.AGENDADO) {
+            recordatorioService.programar(IRecordatorioService.Tipo.EXAMEN, List.of(new ProgramacionRecordatorioDto(guardado.getIdexamen(),
+                    FechaHora.combinar(guardado.getFechaExamen(), guardado.getHoraExamen()))));
+        } else {
+            recordatorioService.cancelar(IRecordatorioService.Tipo.EXAMEN, guardado.getIdexamen());
+        }
+        return guardado;
+    }
+
+    @Override
+    @Transactional
+    public List<Long> saveAll(List<ExamenMedico> examenesMedicos) {
+        List<Long> ids = new ArrayList<>(examenesMedicos.size());
+        List<ProgramacionRecordatorioDto> agendados = new ArrayList<>();
+        for (int i = 0; i < examenesMedicos.size(); i++) {
+            ExamenMedico examenMedico = examenesMedicos.get(i);
+            entityManager.persist(examenMedico);
+            ids.add(examenMedico.getIdexamen());
+            if (examenMedico.getEstadoExamen() == EstadoExamen.AGENDADO) {
+                agendados.add(new ProgramacionRecordatorioDto(examenMedico.getIdexamen(),
+                        FechaHora.combinar(examenMedico.getFechaExamen(), examenMedico.getHoraExamen())));
+            }
+            // Envía cada lote y libera el contexto de persistencia
+            if ((i + 1) % TAMANO_LOTE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        recordatorioService.programar(IRecordatorioService.Tipo.EXAMEN, agendados);
+        return ids;
+    }
+
+    @Override
+    public Map<String, Object> convertirCambios(Map<String, Object> cambios, List<String> errors) {
+        return actualizacionParcialService.convertir(ExamenMedico.class, cambios, errors);
+    }
+
+    @Override
+    @Transactional
+    public int patch(Long id, Long version, Map<String, Object> valores) {
+        boolean fecha = valores.containsKey("fechaExamen");
+        boolean hora = valores.containsKey("horaExamen");
+        if (fecha || hora) {
+            // La fecha y hora combinadas se recalculan leyendo solo la columna que no se envió
+            Optional<Date> fechaExamen = fecha ? Optional.ofNullable((Date) valores.get("fechaExamen")) : examenMedicoDao.findFechaExamen(id);
+            Optional<Date> horaExamen = hora ? Optional.ofNullable((Date) valores.get("horaExamen")) : examenMedicoDao.findHoraExamen(id);
+            if (fechaExamen.isEmpty() || horaExamen.isEmpty()) {
+                return 0;
+            }
+            valores = new LinkedHashMap<>(valores);
+            valores.put("fechaHoraExamen", FechaHora.combinar(fechaExamen.get(), horaExamen.get()));
+        }
+        int actualizados = actualizacionParcialService.actualizar(ExamenMedico.class, id, version, valores);
+        if (actualizados > 0 && (fecha || hora || valores.containsKey("estadoExamen"))) {
+            // Se lee la fecha y hora y el estado ya escritos, con los campos que no se enviaron
+            examenMedicoDao.findProgramacionRecordatorio(id, EstadoExamen.AGENDADO).ifPresentOrElse(
+                    agendado -> recordatorioService.programar(IRecordatorioService.Tipo.EXAMEN, List.of(agendado)),
+                    () -> recordatorioService.cancelar(IRecordatorioService.Tipo.EXAMEN, id));
+        }
+        return actualizados;
     }
 
     @Override
     @Transactional
     public void delete(Long id) {
         examenMedicoDao.deleteById(id);
+        recordatorioService.cancelar(IRecordatorioService.Tipo.EXAMEN, id);
+    }
+
+    @Override
+    @Transactional
+    public int updateByPacienteDocumento(String documento, ExamenMedico examenMedico) {
+        Long idPaciente = resolucionDocumentoService.resolver(Persona.PACIENTE, documento);
+        if (idPaciente == null) {
+            return 0;
+        }
+        int actualizados = examenMedicoDao.updateByPacienteId(idPaciente,
+                examenMedico.getTipoExamen(), examenMedico.getFechaExamen(), examenMedico.getHoraExamen(), examenMedico.getLugarExamen(), examenMedico.getEstadoExamen() == null ? null : examenMedico.getEstadoExamen().getCodigo(), examenMedico.getObservacionExamen());
+        if (actualizados > 0) {
+            recordatorioService.recargar();
+        }
+        return actualizados;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> findIdsByPacienteDocumento(String documento) {
+        Long idPaciente = resolucionDocumentoService.resolver(Persona.PACIENTE, documento);
+        if (idPaciente == null) {
+            return List.of();
+        }
+        return examenMedicoDao.findIdsByPacienteId(idPaciente);
     }
 
     @Override
     @Transactional
     public void deleteByPacienteDocumento(String documento) {
-        examenMedicoDao.deleteByPacienteDocumento(documento);
+        Long idPaciente = resolucionDocumentoService.resolver(Persona.PACIENTE, documento);
+        if (idPaciente == null) {
+            return;
+        }
+        examenMedicoDao.deleteByPacienteId(idPaciente);
+        recordatorioService.recargar();
     }
 }
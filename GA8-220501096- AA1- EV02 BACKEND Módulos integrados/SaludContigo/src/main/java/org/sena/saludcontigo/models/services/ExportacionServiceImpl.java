@@ -0,0 +1,154 @@
+package org.sena.saludcontigo.models.services;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnitUtil;
+import org.sena.saludcontigo.models.dao.ICitaMedicaDao;
+import org.sena.saludcontigo.models.dao.IExamenMedicoDao;
+import org.sena.saludcontigo.models.dao.IHistoriaClinicaDao;
+import org.sena.saludcontigo.models.entity.CitaMedica;
+import org.sena.saludcontigo.models.entity.ExamenMedico;
+import org.sena.saludcontigo.models.entity.HistoriaClinica;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportación NDJSON (un objeto JSON por línea) de las tablas clínicas.
+ * Las filas se leen con un cursor de solo avance y el contexto de persistencia se limpia
+ * cada {@value #TAMANO_BLOQUE} filas, de modo que la memoria usada no depende del tamaño de la tabla.
+ * Las relaciones se exportan como IDs para no inicializar los proxies de Paciente y Medico.
+ */
+@Service
+public class ExportacionServiceImpl implements IExportacionService {
+
+    static final int TAMANO_BLOQUE = 1000;
+
+    @Autowired
+    private ICitaMedicaDao citaMedicaDao;
+
+    @Autowired
+    private IExamenMedicoDao examenMedicoDao;
+
+    @Autowired
+    private IHistoriaClinicaDao historiaClinicaDao;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportarCitas(OutputStream out) throws IOException {
+        try (Stream<CitaMedica> citas = citaMedicaDao.streamAll();
+             JsonGenerator gen = crearGenerador(out)) {
+            escribir(citas.iterator(), gen, (cita, g) -> {
+                g.writeNumberField("idcita", cita.getIdcita());
+                g.writeStringField("tipoCita", cita.getTipoCita());
+                g.writeObjectField("fechaCita", cita.getFechaCita());
+                g.writeObjectField("horaCita", cita.getHoraCita());
+                g.writeObjectField("fechaHoraCita", cita.getFechaHoraCita());
+                g.writeStringField("lugarCita", cita.getLugarCita());
+                g.writeObjectField("estadoCita", cita.getEstadoCita());
+                g.writeStringField("observacionCita", cita.getObservacionCita());
+                g.writeObjectField("idpaciente", idDe(cita.getPaciente()));
+                g.writeObjectField("idmedico", idDe(cita.getMedico()));
+            });
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportarExamenes(OutputStream out) throws IOException {
+        try (Stream<ExamenMedico> examenes = examenMedicoDao.streamAll();
+             JsonGenerator gen = crearGenerador(out)) {
+            escribir(examenes.iterator(), gen, (examen, g) -> {
+                g.writeNumberField("idexamen", examen.getIdexamen());
+                g.writeStringField("tipoExamen", examen.getTipoExamen());
+                g.writeObjectField("fechaExamen", examen.getFechaExamen());
+                g.writeObjectField("horaExamen", examen.getHoraExamen());
+                g.writeObjectField("fechaHoraExamen", examen.getFechaHoraExamen());
+                g.writeStringField("lugarExamen", examen.getLugarExamen());
+                g.writeObjectField("estadoExamen", examen.getEstadoExamen());
+                g.writeStringField("observacionExamen", examen.getObservacionExamen());
+                g.writeObjectField("idpaciente", idDe(examen.getPaciente()));
+                g.writeObjectField("idmedico", idDe(examen.getMedico()));
+            });
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportarHistorias(OutputStream out) throws IOException {
+        try (Stream<HistoriaClinica> historias = historiaClinicaDao.streamAll();
+             JsonGenerator gen = crearGenerador(out)) {
+            escribir(historias.iterator(), gen, (historia, g) -> {
+                g.writeNumberField("idhistoria", historia.getIdhistoria());
+                g.writeObjectField("fechaHistoria", historia.getFechaHistoria());
+                g.writeStringField("antecedentesHistoria", historia.getAntecedentesHistoria());
+                g.writeStringField("examenesHistoria", historia.getExamenesHistoria());
+                g.writeStringField("diagnosticoHistoria", historia.getDiagnosticoHistoria());
+                g.writeStringField("tratamientoHistoria", historia.getTratamientoHistoria());
+                g.writeObjectField("idpaciente", idDe(historia.getPaciente()));
+                g.writeObjectField("idmedico", idDe(historia.getMedico()));
+            });
+        }
+    }
+
+    /**
+     * Escribe cada fila como una línea JSON, vaciando el generador y desvinculando
+     * las entidades leídas (y sus proxies) al final de cada bloque
+     */
+    private <T> void escribir(Iterator<T> filas, JsonGenerator gen, EscritorFila<T> escritor) throws IOException {
+        int enBloque = 0;
+        while (filas.hasNext()) {
+            T fila = filas.next();
+            gen.writeStartObject();
+            escritor.escribir(fila, gen);
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+
+            if (++enBloque == TAMANO_BLOQUE) {
+                gen.flush();
+                entityManager.clear();
+                enBloque = 0;
+            }
+        }
+        gen.flush();
+    }
+
+    private JsonGenerator crearGenerador(OutputStream out) throws IOException {
+        JsonGenerator gen = objectMapper.createGenerator(out, JsonEncoding.UTF8);
+        // El flujo de salida pertenece al contenedor, no se cierra al terminar
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Cada fila termina en salto de línea, sin separador adicional entre objetos raíz
+        gen.setRootValueSeparator(null);
+        return gen;
+    }
+
+    /**
+     * Obtiene el ID de una relación sin inicializar el proxy perezoso
+     */
+    private Object idDe(Object relacion) {
+        if (relacion == null) {
+            return null;
+        }
+        PersistenceUnitUtil util = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        return util.getIdentifier(relacion);
+    }
+
+    @FunctionalInterface
+    private interface EscritorFila<T> {
+        void escribir(T fila, JsonGenerator gen) throws IOException;
+    }
+}
@@ -0,0 +1,91 @@
+package org.sena.saludcontigo.models.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de cadenas, seguro para hilos. Responde "puede contener" o "seguro no contiene":
+ * nunca da falsos negativos y da falsos positivos con la probabilidad indicada mientras no se agreguen
+ * más valores que la capacidad. No admite eliminar valores; se reconstruye para descartarlos.
+ */
+final class FiltroBloom {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray bits;
+
+    private final long numeroBits;
+
+    private final int numeroHashes;
+
+    private final long capacidad;
+
+    private final AtomicLong agregados = new AtomicLong();
+
+    /**
+     * @param capacidad Cantidad de valores esperada
+     * @param probabilidadFalsos Probabilidad de falsos positivos con esa cantidad (por ejemplo 0.01)
+     */
+    FiltroBloom(long capacidad, double probabilidadFalsos) {
+        long n = Math.max(capacidad, 1);
+        long m = (long) Math.ceil(-n * Math.log(probabilidadFalsos) / (LN2 * LN2));
+        int palabras = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) / 64));
+        this.bits = new AtomicLongArray(palabras);
+        this.numeroBits = (long) palabras * 64;
+        this.numeroHashes = (int) Math.max(1, Math.min(16, Math.round((double) numeroBits / n * LN2)));
+        this.capacidad = n;
+    }
+
+    void agregar(String valor) {
+        long h1 = hash(valor);
+        long h2 = mezclar(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numeroHashes; i++) {
+            long bit = ((h1 + i * h2) & Long.MAX_VALUE) % numeroBits;
+            int palabra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long actual = bits.get(palabra);
+            while ((actual & mascara) == 0 && !bits.compareAndSet(palabra, actual, actual | mascara)) {
+                actual = bits.get(palabra);
+            }
+        }
+        agregados.incrementAndGet();
+    }
+
+    boolean puedeContener(String valor) {
+        long h1 = hash(valor);
+        long h2 = mezclar(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numeroHashes; i++) {
+            long bit = ((h1 + i * h2) & Long.MAX_VALUE) % numeroBits;
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true si se agregaron más valores que la capacidad y la tasa de falsos positivos ya es mayor a la prevista
+     */
+    boolean saturado() {
+        return agregados.get() > capacidad;
+    }
+
+    // FNV-1a de 64 bits sobre los caracteres, con mezcla final para repartir los bits
+    private static long hash(String valor) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mezclar(h);
+    }
+
+    private static long mezclar(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
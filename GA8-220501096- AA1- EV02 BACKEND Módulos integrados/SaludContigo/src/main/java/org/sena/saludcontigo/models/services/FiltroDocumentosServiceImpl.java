@@ -0,0 +1,246 @@
+package org.sena.saludcontigo.models.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.sena.saludcontigo.models.services.IResolucionDocumentoService.Persona;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Filtros de Bloom de los números de documento de pacientes, médicos y administradores. Un documento que
+ * el filtro descarta no existe, así que la consulta por documento responde sin ir a la base de datos; uno
+ * que el filtro acepta se consulta normalmente. Los filtros se construyen al iniciar recorriendo la columna
+ * y se reconstruyen cada noche ({@code saludcontigo.filtro-documentos.cron}) o al superar su capacidad,
+ * para descartar los documentos eliminados o cambiados. Mientras no hay un filtro construido todo documento
+ * se considera posible.
+ * <p>
+ * Los documentos se agregan antes de escribirlos y de nuevo al confirmar la transacción, así un documento
+ * confirmado durante una reconstrucción queda en el filtro nuevo. Los de otras instancias llegan por el
+ * registro de cambios.
+ */
+@Service
+public class FiltroDocumentosServiceImpl implements IFiltroDocumentosService, InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(FiltroDocumentosServiceImpl.class);
+
+    private static final String METRICA_CONSULTAS = "saludcontigo.documentos.filtro";
+
+    // Capacidad mínima, para que una tabla vacía o pequeña no se sature con las primeras altas
+    private static final long CAPACIDAD_MINIMA = 10000;
+
+    private static final int TAMANO_LECTURA = 1000;
+
+    @Value("${saludcontigo.filtro-documentos.falsos-positivos:0.01}")
+    private double probabilidadFalsos;
+
+    // Capacidad respecto a los registros existentes: margen para las altas hasta la siguiente reconstrucción
+    @Value("${saludcontigo.filtro-documentos.holgura:1.5}")
+    private double holgura;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private TaskExecutor taskExecutor;
+
+    private final Map<Persona, Filtro> filtros = new EnumMap<>(Persona.class);
+
+    @Override
+    public void afterPropertiesSet() {
+        for (Persona persona : Persona.values()) {
+            String tipo = persona.name().toLowerCase(Locale.ROOT);
+            filtros.put(persona, new Filtro(
+                    meterRegistry.counter(METRICA_CONSULTAS, "tipo", tipo, "resultado", "ausente"),
+                    meterRegistry.counter(METRICA_CONSULTAS, "tipo", tipo, "resultado", "posible")));
+        }
+    }
+
+    /**
+     * Construye los filtros en segundo plano al terminar de iniciar la aplicación
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        taskExecutor.execute(this::reconstruir);
+    }
+
+    /**
+     * Indica si un documento puede estar registrado
+     * @param persona Tipo de registro
+     * @param documento Número de documento
+     * @return false solo si el documento seguro no existe
+     */
+    @Override
+    public boolean puedeExistir(Persona persona, String documento) {
+        Filtro filtro = filtros.get(persona);
+        FiltroBloom actual = filtro.actual;
+        if (actual == null) {
+            return true;
+        }
+        if (actual.puedeContener(documento)) {
+            filtro.posibles.increment();
+            return true;
+        }
+        filtro.ausentes.increment();
+        return false;
+    }
+
+    /**
+     * Agrega el documento de un registro creado o actualizado
+     * @param persona Tipo de registro
+     * @param documento Número de documento
+     */
+    @Override
+    public void agregar(Persona persona, String documento) {
+        if (documento == null) {
+            return;
+        }
+        agregarAhora(persona, documento);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    agregarAhora(persona, documento);
+                }
+            });
+        }
+    }
+
+    /**
+     * Reconstrucción nocturna de los filtros ({@code saludcontigo.filtro-documentos.cron}, "-" para desactivarla)
+     */
+    @Override
+    @Scheduled(cron = "${saludcontigo.filtro-documentos.cron:0 0 3 * * *}")
+    public void reconstruir() {
+        for (Persona persona : Persona.values()) {
+            reconstruir(persona);
+        }
+    }
+
+    /**
+     * Agrega los documentos de los registros que cambiaron en otras instancias
+     * @param cambios Cambios leídos del registro de cambios
+     */
+    @EventListener
+    public void cambiosRemotos(CambiosRemotos cambios) {
+        Map<Persona, List<Long>> ids = new EnumMap<>(Persona.class);
+        for (CambiosRemotos.Cambio cambio : cambios.cambios()) {
+            ids.computeIfAbsent(cambio.persona(), persona -> new ArrayList<>()).add(cambio.id());
+        }
+        ids.forEach((persona, lista) -> {
+            Tabla tabla = tabla(persona);
+            String marcadores = String.join(", ", Collections.nCopies(lista.size(), "?"));
+            try {
+                // Los registros eliminados no devuelven fila: su documento sigue en el filtro hasta la reconstrucción
+                jdbcTemplate.query("SELECT Numero_Documento FROM " + tabla.nombre() + " WHERE " + tabla.id() + " IN (" + marcadores + ")",
+                        (RowCallbackHandler) rs -> agregarAhora(persona, rs.getString(1)), lista.toArray());
+            } catch (DataAccessException e) {
+                // Sin los documentos nuevos el filtro daría falsos negativos: se deja de usar hasta reconstruirlo
+                log.warn("No se pudieron leer los documentos nuevos de {}, se reconstruye el filtro", tabla.nombre(), e);
+                filtros.get(persona).actual = null;
+                taskExecutor.execute(() -> reconstruir(persona));
+            }
+        });
+    }
+
+    private void agregarAhora(Persona persona, String documento) {
+        Filtro filtro = filtros.get(persona);
+        // Primero el filtro en construcción: si ya no hay, el vigente es el nuevo
+        FiltroBloom siguiente = filtro.siguiente;
+        FiltroBloom actual = filtro.actual;
+        if (siguiente != null) {
+            siguiente.agregar(documento);
+        }
+        if (actual != null) {
+            actual.agregar(documento);
+            if (actual.saturado() && !filtro.reconstruyendo.get()) {
+                taskExecutor.execute(() -> reconstruir(persona));
+            }
+        }
+    }
+
+    private void reconstruir(Persona persona) {
+        Filtro filtro = filtros.get(persona);
+        if (!filtro.reconstruyendo.compareAndSet(false, true)) {
+            return;
+        }
+        Tabla tabla = tabla(persona);
+        try {
+            Long registros = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tabla.nombre(), Long.class);
+            long capacidad = (long) Math.ceil(Math.max(registros == null ? 0 : registros, CAPACIDAD_MINIMA) * holgura);
+            FiltroBloom nuevo = new FiltroBloom(capacidad, probabilidadFalsos);
+            filtro.siguiente = nuevo;
+            // La columna se lee por bloques con un cursor, sin cargar la tabla en memoria
+            jdbcTemplate.query(con -> {
+                PreparedStatement statement = con.prepareStatement("SELECT Numero_Documento FROM " + tabla.nombre(),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(TAMANO_LECTURA);
+                return statement;
+            }, (RowCallbackHandler) rs -> nuevo.agregar(rs.getString(1)));
+            filtro.actual = nuevo;
+        } catch (RuntimeException e) {
+            log.warn("No se pudo construir el filtro de documentos de {}", tabla.nombre(), e);
+        } finally {
+            filtro.siguiente = null;
+            filtro.reconstruyendo.set(false);
+        }
+    }
+
+    private static Tabla tabla(Persona persona) {
+        return switch (persona) {
+            case PACIENTE -> new Tabla("Pacientes", "IdPaciente");
+            case MEDICO -> new Tabla("Medicos", "IdMedico");
+            case ADMINISTRADOR -> new Tabla("Administradores", "IdAdministrador");
+        };
+    }
+
+    private record Tabla(String nombre, String id) {
+    }
+
+    // Filtro vigente de un tipo de registro y, durante una reconstrucción, el que lo reemplazará
+    private static final class Filtro {
+
+        private volatile FiltroBloom actual;
+
+        private volatile FiltroBloom siguiente;
+
+        private final AtomicBoolean reconstruyendo = new AtomicBoolean();
+
+        private final Counter ausentes;
+
+        private final Counter posibles;
+
+        private Filtro(Counter ausentes, Counter posibles) {
+            this.ausentes = ausentes;
+            this.posibles = posibles;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.sena.saludcontigo.models.services;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de una cita agendada que se canceló, se movió o se eliminó. La lista de espera lo recibe
+ * al confirmarse la transacción (con {@code @TransactionalEventListener}) para asignar la franja.
+ * @param idMedico ID del médico de la cita
+ * @param fechaHora Fecha y hora de la franja liberada
+ * @param lugarCita Lugar de la cita, que conserva la cita asignada
+ */
+public record FranjaLiberada(Long idMedico, LocalDateTime fechaHora, String lugarCita) {
+}
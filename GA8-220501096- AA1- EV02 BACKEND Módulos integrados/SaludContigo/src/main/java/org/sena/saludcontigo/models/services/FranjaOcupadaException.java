@@ -0,0 +1,26 @@
+package org.sena.saludcontigo.models.services;
+
+import org.sena.saludcontigo.models.dto.CitaMedicaDto;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Map;
+
+/**
+ * El médico ya tiene una cita activa con la misma fecha y hora. Lleva las citas que ocupan las franjas,
+ * por posición de la cita rechazada en la solicitud (0 si la solicitud tiene una sola cita).
+ */
+public class FranjaOcupadaException extends DataIntegrityViolationException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Map<Integer, CitaMedicaDto> conflictos;
+
+    public FranjaOcupadaException(Map<Integer, CitaMedicaDto> conflictos) {
+        super("El médico ya tiene una cita médica activa en la misma fecha y hora");
+        this.conflictos = conflictos;
+    }
+
+    public Map<Integer, CitaMedicaDto> getConflictos() {
+        return conflictos;
+    }
+}
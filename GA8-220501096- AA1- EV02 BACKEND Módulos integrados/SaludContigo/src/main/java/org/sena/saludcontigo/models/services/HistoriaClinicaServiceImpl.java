@@ -1,12 +1,17 @@
 package org.sena.saludcontigo.models.services;
 
 import org.sena.saludcontigo.models.dao.IHistoriaClinicaDao;
+import org.sena.saludcontigo.models.dto.HistoriaClinicaDto;
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.HistoriaClinica;
+import org.sena.saludcontigo.models.services.IResolucionDocumentoService.Persona;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class HistoriaClinicaServiceImpl implements IHistoriaClinicaService {
@@ -14,28 +19,74 @@ public class HistoriaClinicaServiceImpl implements IHistoriaClinicaService {
     @Autowired
     private IHistoriaClinicaDao historiaClinicaDao;
 
+    @Autowired
+    private IResolucionDocumentoService resolucionDocumentoService;
+
+    @Autowired
+    private IActualizacionParcialService actualizacionParcialService;
+
     @Override
     @Transactional(readOnly = true)
     public List<HistoriaClinica> findAll() {
         return historiaClinicaDao.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<HistoriaClinicaDto> findPage(Long afterId, int limit) {
+        return historiaClinicaDao.findPage(afterId, Limit.of(limit));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public HistoriaClinica findById(Long id) {
-        return historiaClinicaDao.findById(id).orElse(null);
+        return historiaClinicaDao.findDetalleById(id).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersionDto findVersionById(Long id) {
+        return historiaClinicaDao.findVersionById(id).orElse(null);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<HistoriaClinica> findByMedicoDocumento(String documento) {
-        return historiaClinicaDao.findByMedicoDocumento(documento);
+        Long idMedico = resolucionDocumentoService.resolver(Persona.MEDICO, documento);
+        if (idMedico == null) {
+            return List.of();
+        }
+        return historiaClinicaDao.findByMedicoId(idMedico);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<HistoriaClinicaDto> findByMedicoDocumento(String documento, Long afterId, int limit) {
+        Long idMedico = resolucionDocumentoService.resolver(Persona.MEDICO, documento);
+        if (idMedico == null) {
+            return List.of();
+        }
+        return historiaClinicaDao.findByMedicoId(idMedico, afterId, Limit.of(limit));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<HistoriaClinica> findByPacienteDocumento(String documento) {
-        return historiaClinicaDao.findByPacienteDocumento(documento);
+        Long idPaciente = resolucionDocumentoService.resolver(Persona.PACIENTE, documento);
+        if (idPaciente == null) {
+            return List.of();
+        }
+        return historiaClinicaDao.findByPacienteId(idPaciente);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<HistoriaClinicaDto> findByPacienteDocumento(String documento, Long afterId, int limit) {
+        Long idPaciente = resolucionDocumentoService.resolver(Persona.PACIENTE, documento);
+        if (idPaciente == null) {
+            return List.of();
+        }
+        return historiaClinicaDao.findByPacienteId(idPaciente, afterId, Limit.of(limit));
     }
 
     @Override
@@ -44,15 +95,51 @@ public class HistoriaClinicaServiceImpl implements IHistoriaClinicaService {
         return historiaClinicaDao.save(historiaClinica);
     }
 
+    @Override
+    public Map<String, Object> convertirCambios(Map<String, Object> cambios, List<String> errors) {
+        return actualizacionParcialService.convertir(HistoriaClinica.class, cambios, errors);
+    }
+
+    @Override
+    @Transactional
+    public int patch(Long id, Long version, Map<String, Object> valores) {
+        return actualizacionParcialService.actualizar(HistoriaClinica.class, id, version, valores);
+    }
+
     @Override
     @Transactional
     public void delete(Long id) {
         historiaClinicaDao.deleteById(id);
     }
 
+    @Override
+    @Transactional
+    public int updateByPacienteDocumento(String documento, HistoriaClinica historiaClinica) {
+        Long idPaciente = resolucionDocumentoService.resolver(Persona.PACIENTE, documento);
+        if (idPaciente == null) {
+            return 0;
+        }
+        return historiaClinicaDao.updateByPacienteId(idPaciente,
+                historiaClinica.getFechaHistoria(), historiaClinica.getAntecedentesHistoria(), historiaClinica.getExamenesHistoria(), historiaClinica.getDiagnosticoHistoria(), historiaClinica.getTratamientoHistoria());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> findIdsByPacienteDocumento(String documento) {
+        Long idPaciente = resolucionDocumentoService.resolver(Persona.PACIENTE, documento);
+        if (idPaciente == null) {
+            return List.of();
+        }
+        return historiaClinicaDao.findIdsByPacienteId(idPaciente);
+    }
+
     @Override
     @Transactional
     public void deleteByPacienteDocumento(String documento) {
-        historiaClinicaDao.deleteByPacienteDocumento(documento);
+        Long idPaciente = resolucionDocumentoService.resolver(Persona.PACIENTE, documento);
+        if (idPaciente == null) {
+            return;
+        }
+        historiaClinicaDao.deleteByPacienteId(idPaciente);
     }
 }
@@ -0,0 +1,11 @@
+package org.sena.saludcontigo.models.services;
+
+import java.util.List;
+import java.util.Map;
+
+public interface IActualizacionParcialService {
+
+    public Map<String, Object> convertir(Class<?> entidad, Map<String, Object> cambios, List<String> errors);
+
+    public int actualizar(Class<?> entidad, Long id, Long version, Map<String, Object> valores);
+}
@@ -1,18 +1,32 @@
 package org.sena.saludcontigo.models.services;
 
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.Administrador;
 import java.util.List;
+import java.util.Map;
 
 public interface IAdministradorService {
 
     public List<Administrador> findAll();
 
+    public List<Administrador> findPage(Long afterId, int limit);
+
     public Administrador findById(Long id);
 
+    public VersionDto findVersionById(Long id);
+
+    public VersionDto findVersionByDocument(String document);
+
+    public boolean existsByDocument(String document);
+
     public Administrador findByDocument(String document);
 
     public Administrador save(Administrador administrador);
 
+    public Map<String, Object> convertirCambios(Map<String, Object> cambios, List<String> errors);
+
+    public int patch(Long id, Long version, Map<String, Object> valores);
+
     public void delete(Long id);
 
     public void deleteByDocument(String document);
@@ -0,0 +1,8 @@
+package org.sena.saludcontigo.models.services;
+
+public interface IArchivoService {
+
+    public ArchivoEjecucion iniciar();
+
+    public ArchivoEjecucion findUltima();
+}
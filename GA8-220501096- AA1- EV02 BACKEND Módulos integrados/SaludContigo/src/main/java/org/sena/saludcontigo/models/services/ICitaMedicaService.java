@@ -1,21 +1,55 @@
 package org.sena.saludcontigo.models.services;
 
+import org.sena.saludcontigo.models.dto.CitaMedicaDto;
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.CitaMedica;
+import org.sena.saludcontigo.models.enums.EstadoCita;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 public interface ICitaMedicaService {
 
     public List<CitaMedica> findAll();
 
+    public List<CitaMedicaDto> findPage(Long afterId, int limit);
+
+    public List<CitaMedicaDto> findPage(EstadoCita estado, String documentoMedico, Long afterId, int limit, boolean incluirArchivo);
+
+    public long count(EstadoCita estado, String documentoMedico, boolean incluirArchivo);
+
     public CitaMedica findById(Long id);
 
+    public VersionDto findVersionById(Long id);
+
     public List<CitaMedica> findByMedicoDocumento(String documento);
 
+    public List<CitaMedicaDto> findByMedicoDocumento(String documento, Long afterId, int limit, boolean incluirArchivo);
+
+    public List<CitaMedicaDto> findByMedicoDocumento(String documento, LocalDateTime desde, LocalDateTime hasta, Long afterId, int limit, boolean incluirArchivo);
+
     public List<CitaMedica> findByPacienteDocumento(String documento);
 
+    public List<CitaMedicaDto> findByPacienteDocumento(String documento, Long afterId, int limit, boolean incluirArchivo);
+
     public CitaMedica save(CitaMedica citaMedica);
 
+    public CitaMedica save(CitaMedica citaMedica, Predicate<CitaMedica> confirmar);
+
+    public List<Long> saveAll(List<CitaMedica> citasMedicas);
+
+    public Map<Integer, CitaMedicaDto> findConflictos(List<CitaMedica> citasMedicas);
+
+    public Map<String, Object> convertirCambios(Map<String, Object> cambios, List<String> errors);
+
+    public int patch(Long id, Long version, Map<String, Object> valores);
+
     public void delete(Long id);
 
+    public int updateByPacienteDocumento(String documento, CitaMedica citaMedica);
+
+    public List<Long> findIdsByPacienteDocumento(String documento);
+
     public void deleteByPacienteDocumento(String documento);
 }
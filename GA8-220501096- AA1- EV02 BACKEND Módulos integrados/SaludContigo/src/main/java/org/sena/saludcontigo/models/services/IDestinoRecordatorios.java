@@ -0,0 +1,14 @@
+package org.sena.saludcontigo.models.services;
+
+import java.util.List;
+
+/**
+ * Destino de los recordatorios vencidos. Se elige con {@code saludcontigo.recordatorios.destino}: "outbox"
+ * (tabla Recordatorios, por defecto) o "archivo"; otro valor deja lugar a un bean propio que implemente
+ * esta interfaz. Si {@link #enviar} falla, el lote se vuelve a intentar en el siguiente paso de la rueda,
+ * por lo que el destino debe tolerar recibir un recordatorio más de una vez.
+ */
+public interface IDestinoRecordatorios {
+
+    public void enviar(List<Recordatorio> recordatorios);
+}
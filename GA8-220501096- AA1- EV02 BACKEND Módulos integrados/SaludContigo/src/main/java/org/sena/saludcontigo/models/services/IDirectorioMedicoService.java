@@ -0,0 +1,10 @@
+package org.sena.saludcontigo.models.services;
+
+public interface IDirectorioMedicoService {
+
+    public DirectorioMedicos actual();
+
+    public void invalidar();
+
+    public void recargar();
+}
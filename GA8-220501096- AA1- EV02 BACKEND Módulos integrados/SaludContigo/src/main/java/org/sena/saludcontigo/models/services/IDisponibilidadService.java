@@ -0,0 +1,25 @@
+package org.sena.saludcontigo.models.services;
+
+import org.sena.saludcontigo.models.dto.HoraDisponibleDto;
+import org.sena.saludcontigo.models.dto.OcupacionCitaDto;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface IDisponibilidadService {
+
+    public List<LocalTime> disponibles(String documentoMedico, LocalDate fecha, Duration duracion);
+
+    public List<HoraDisponibleDto> proximasDisponibles(String especialidad, LocalDateTime desde, Duration duracion, int cantidad);
+
+    public Duration getDuracionCita();
+
+    public void registrar(OcupacionCitaDto anterior, OcupacionCitaDto nueva);
+
+    public void registrar(Collection<OcupacionCitaDto> nuevas);
+
+    public void invalidarTodo();
+}
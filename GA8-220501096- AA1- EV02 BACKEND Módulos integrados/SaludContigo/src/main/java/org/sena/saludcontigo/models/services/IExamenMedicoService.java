@@ -1,21 +1,45 @@
 package org.sena.saludcontigo.models.services;
 
+import org.sena.saludcontigo.models.dto.ExamenMedicoDto;
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.ExamenMedico;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public interface IExamenMedicoService {
 
     public List<ExamenMedico> findAll();
 
+    public List<ExamenMedicoDto> findPage(Long afterId, int limit, boolean incluirArchivo);
+
     public ExamenMedico findById(Long id);
 
+    public VersionDto findVersionById(Long id);
+
     public List<ExamenMedico> findByMedicoDocumento(String documento);
 
+    public List<ExamenMedicoDto> findByMedicoDocumento(String documento, Long afterId, int limit, boolean incluirArchivo);
+
+    public List<ExamenMedicoDto> findByMedicoDocumento(String documento, LocalDateTime desde, LocalDateTime hasta, Long afterId, int limit, boolean incluirArchivo);
+
     public List<ExamenMedico> findByPacienteDocumento(String documento);
 
+    public List<ExamenMedicoDto> findByPacienteDocumento(String documento, Long afterId, int limit, boolean incluirArchivo);
+
     public ExamenMedico save(ExamenMedico examenMedico);
 
+    public List<Long> saveAll(List<ExamenMedico> examenesMedicos);
+
+    public Map<String, Object> convertirCambios(Map<String, Object> cambios, List<String> errors);
+
+    public int patch(Long id, Long version, Map<String, Object> valores);
+
     public void delete(Long id);
 
+    public int updateByPacienteDocumento(String documento, ExamenMedico examenMedico);
+
+    public List<Long> findIdsByPacienteDocumento(String documento);
+
     public void deleteByPacienteDocumento(String documento);
 }
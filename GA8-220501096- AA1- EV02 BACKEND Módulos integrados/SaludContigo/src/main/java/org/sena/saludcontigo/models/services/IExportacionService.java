@@ -0,0 +1,13 @@
+package org.sena.saludcontigo.models.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface IExportacionService {
+
+    public void exportarCitas(OutputStream out) throws IOException;
+
+    public void exportarExamenes(OutputStream out) throws IOException;
+
+    public void exportarHistorias(OutputStream out) throws IOException;
+}
@@ -0,0 +1,12 @@
+package org.sena.saludcontigo.models.services;
+
+import org.sena.saludcontigo.models.services.IResolucionDocumentoService.Persona;
+
+public interface IFiltroDocumentosService {
+
+    public boolean puedeExistir(Persona persona, String documento);
+
+    public void agregar(Persona persona, String documento);
+
+    public void reconstruir();
+}
@@ -1,21 +1,40 @@
 package org.sena.saludcontigo.models.services;
 
+import org.sena.saludcontigo.models.dto.HistoriaClinicaDto;
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.HistoriaClinica;
 import java.util.List;
+import java.util.Map;
 
 public interface IHistoriaClinicaService {
 
     public List<HistoriaClinica> findAll();
 
+    public List<HistoriaClinicaDto> findPage(Long afterId, int limit);
+
     public HistoriaClinica findById(Long id);
 
+    public VersionDto findVersionById(Long id);
+
     public List<HistoriaClinica> findByMedicoDocumento(String documento);
 
+    public List<HistoriaClinicaDto> findByMedicoDocumento(String documento, Long afterId, int limit);
+
     public List<HistoriaClinica> findByPacienteDocumento(String documento);
 
+    public List<HistoriaClinicaDto> findByPacienteDocumento(String documento, Long afterId, int limit);
+
     public HistoriaClinica save(HistoriaClinica historiaClinica);
 
+    public Map<String, Object> convertirCambios(Map<String, Object> cambios, List<String> errors);
+
+    public int patch(Long id, Long version, Map<String, Object> valores);
+
     public void delete(Long id);
 
+    public int updateByPacienteDocumento(String documento, HistoriaClinica historiaClinica);
+
+    public List<Long> findIdsByPacienteDocumento(String documento);
+
     public void deleteByPacienteDocumento(String documento);
 }
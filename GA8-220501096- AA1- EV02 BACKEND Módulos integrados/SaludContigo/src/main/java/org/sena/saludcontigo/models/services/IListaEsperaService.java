@@ -0,0 +1,21 @@
+package org.sena.saludcontigo.models.services;
+
+import org.sena.saludcontigo.models.dto.ListaEsperaDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface IListaEsperaService {
+
+    public ListaEsperaDto registrar(String documentoPaciente, String documentoMedico, String especialidad, String tipoCita, LocalDateTime desde, LocalDateTime hasta);
+
+    public List<ListaEsperaDto> findByPacienteDocumento(String documento);
+
+    public boolean retirar(Long id);
+
+    public int recargar();
+
+    public void asignar(FranjaLiberada franja);
+
+    public int getPendientes();
+}
@@ -1,18 +1,35 @@
 package org.sena.saludcontigo.models.services;
 
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.Medico;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface IMedicoService {
 
     public List<Medico> findAll();
 
+    public List<Medico> findPage(Long afterId, int limit);
+
     public Medico findById(Long id);
 
+    public VersionDto findVersionById(Long id);
+
+    public VersionDto findVersionByDocument(String document);
+
+    public boolean existsByDocument(String document);
+
     public Medico findByDocument(String document);
 
+    public List<Medico> findByDocuments(Collection<String> documents);
+
     public Medico save(Medico medico);
 
+    public Map<String, Object> convertirCambios(Map<String, Object> cambios, List<String> errors);
+
+    public int patch(Long id, Long version, Map<String, Object> valores);
+
     public void delete(Long id);
 
     public void deleteByDocument(String document);
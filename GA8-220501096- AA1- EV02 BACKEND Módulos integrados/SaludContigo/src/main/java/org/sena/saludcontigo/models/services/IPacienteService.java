@@ -1,18 +1,40 @@
 package org.sena.saludcontigo.models.services;
 
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.Paciente;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface IPacienteService {
 
     public List<Paciente> findAll();
 
+    public List<Paciente> findPage(Long afterId, int limit);
+
     public Paciente findById(Long id);
 
+    public VersionDto findVersionById(Long id);
+
+    public VersionDto findVersionByDocument(String document);
+
+    public boolean existsByDocument(String document);
+
     public Paciente findByDocument(String document);
 
+    public List<Paciente> findByDocuments(Collection<String> documents);
+
     public Paciente save(Paciente paciente);
 
+    public List<Long> saveAll(List<Paciente> pacientes);
+
+    public Set<String> documentosExistentes(Collection<String> documents);
+
+    public Map<String, Object> convertirCambios(Map<String, Object> cambios, List<String> errors);
+
+    public int patch(Long id, Long version, Map<String, Object> valores);
+
     public void delete(Long id);
 
     public void deleteByDocument(String document);
@@ -0,0 +1,8 @@
+package org.sena.saludcontigo.models.services;
+
+public interface IPurgaPacienteService {
+
+    public PurgaPaciente iniciar(String documento);
+
+    public PurgaPaciente findById(String id);
+}
@@ -0,0 +1,46 @@
+package org.sena.saludcontigo.models.services;
+
+import org.sena.saludcontigo.models.dto.ProgramacionRecordatorioDto;
+import org.sena.saludcontigo.models.enums.EnumCodificado;
+
+import java.util.Collection;
+
+public interface IRecordatorioService {
+
+    // Registro que recibe recordatorios; el código se guarda en la tabla Recordatorios
+    public enum Tipo implements EnumCodificado {
+        CITA(1, "Cita médica"),
+        EXAMEN(2, "Examen médico");
+
+        private final int codigo;
+
+        private final String etiqueta;
+
+        Tipo(int codigo, String etiqueta) {
+            this.codigo = codigo;
+            this.etiqueta = etiqueta;
+        }
+
+        @Override
+        public int getCodigo() {
+            return codigo;
+        }
+
+        @Override
+        public String getEtiqueta() {
+            return etiqueta;
+        }
+    }
+
+    public void programar(Tipo tipo, Collection<ProgramacionRecordatorioDto> agendados);
+
+    public void cancelar(Tipo tipo, Long id);
+
+    public void recargar();
+
+    public int cargar();
+
+    public int emitir();
+
+    public int getProgramados();
+}
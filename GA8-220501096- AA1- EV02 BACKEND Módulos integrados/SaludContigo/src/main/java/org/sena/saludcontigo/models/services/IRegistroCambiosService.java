@@ -0,0 +1,18 @@
+package org.sena.saludcontigo.models.services;
+
+import org.sena.saludcontigo.models.services.CambiosRemotos.Agenda;
+import org.sena.saludcontigo.models.services.IResolucionDocumentoService.Persona;
+import java.util.Collection;
+
+public interface IRegistroCambiosService {
+
+    public void registrar(Persona persona, Long id, Long version);
+
+    public void registrar(Persona persona, Collection<Long> ids);
+
+    public void registrarAgendas(Collection<Agenda> agendas);
+
+    public int sondear();
+
+    public int depurar();
+}
@@ -0,0 +1,40 @@
+package org.sena.saludcontigo.models.services;
+
+import org.sena.saludcontigo.models.enums.EnumCodificado;
+
+public interface IResolucionDocumentoService {
+
+    // Tipo de registro identificado por número de documento; el código se guarda en el registro de cambios
+    public enum Persona implements EnumCodificado {
+        PACIENTE(1, "Paciente"),
+        MEDICO(2, "Médico"),
+        ADMINISTRADOR(3, "Administrador");
+
+        private final int codigo;
+
+        private final String etiqueta;
+
+        Persona(int codigo, String etiqueta) {
+            this.codigo = codigo;
+            this.etiqueta = etiqueta;
+        }
+
+        @Override
+        public int getCodigo() {
+            return codigo;
+        }
+
+        @Override
+        public String getEtiqueta() {
+            return etiqueta;
+        }
+    }
+
+    public Long resolver(Persona persona, String documento);
+
+    public void registrar(Persona persona, String documento, Long id);
+
+    public void invalidar(Persona persona, String documento);
+
+    public void invalidar(Persona persona, Long id);
+}
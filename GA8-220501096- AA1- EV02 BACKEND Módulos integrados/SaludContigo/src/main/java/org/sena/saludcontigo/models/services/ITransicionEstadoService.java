@@ -0,0 +1,15 @@
+package org.sena.saludcontigo.models.services;
+
+import org.sena.saludcontigo.models.dto.ResultadoTransicionDto;
+import org.sena.saludcontigo.models.enums.EstadoCita;
+import org.sena.saludcontigo.models.enums.EstadoExamen;
+import java.time.LocalDateTime;
+
+public interface ITransicionEstadoService {
+
+    public ResultadoTransicionDto transicionarCitas(EstadoCita actual, EstadoCita nuevo, String documentoMedico, LocalDateTime desde, LocalDateTime hasta, String lugar);
+
+    public ResultadoTransicionDto transicionarExamenes(EstadoExamen actual, EstadoExamen nuevo, String documentoMedico, LocalDateTime desde, LocalDateTime hasta, String lugar);
+
+    public void vencer();
+}
@@ -0,0 +1,174 @@
+package org.sena.saludcontigo.models.services;
+
+import org.sena.saludcontigo.models.dto.ListaEsperaDto;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+
+/**
+ * Árbol de intervalos de las solicitudes de la lista de espera de un médico o de una especialidad: un treap
+ * ordenado por el inicio del rango (y el ID, que sigue el orden de registro) en el que cada nodo guarda el
+ * mayor fin de su subárbol. Agregar, quitar y encontrar la primera solicitud que acepta una fecha y hora
+ * cuestan O(log n) esperado. No es seguro entre hilos: el servicio que lo usa lo protege.
+ */
+final class IntervalosEspera {
+
+    // Orden de prioridad de las solicitudes: inicio del rango y, a igual inicio, orden de registro
+    static final Comparator<ListaEsperaDto> ORDEN = Comparator.comparing(ListaEsperaDto::desde)
+            .thenComparing(ListaEsperaDto::idespera);
+
+    private final SplittableRandom aleatorio = new SplittableRandom();
+
+    private Nodo raiz;
+
+    private int tamano;
+
+    /**
+     * @param espera Solicitud a agregar
+     */
+    void agregar(ListaEsperaDto espera) {
+        raiz = agregar(raiz, new Nodo(espera, aleatorio.nextInt()));
+        tamano++;
+    }
+
+    /**
+     * @param espera Solicitud a quitar, con el mismo inicio e ID con que se agregó
+     * @return true si estaba en el árbol
+     */
+    boolean quitar(ListaEsperaDto espera) {
+        int antes = tamano;
+        raiz = quitar(raiz, espera);
+        return tamano < antes;
+    }
+
+    /**
+     * Primera solicitud, en orden de inicio del rango y de registro, cuyo rango contiene la fecha y hora.
+     * Baja por un solo camino: un subárbol izquierdo cuyo mayor fin alcanza la fecha y hora contiene una
+     * solicitud que la acepta, porque todos sus inicios son anteriores al del nodo
+     * @param fechaHora Fecha y hora de la franja
+     * @return Solicitud, o nulo si ninguna acepta la fecha y hora
+     */
+    ListaEsperaDto primera(LocalDateTime fechaHora) {
+        Nodo nodo = raiz;
+        while (nodo != null) {
+            if (nodo.espera.desde().isAfter(fechaHora)) {
+                nodo = nodo.izquierdo;
+            } else if (nodo.izquierdo != null && !nodo.izquierdo.maximoHasta.isBefore(fechaHora)) {
+                nodo = nodo.izquierdo;
+            } else if (!nodo.espera.hasta().isBefore(fechaHora)) {
+                return nodo.espera;
+            } else {
+                nodo = nodo.derecho;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Cantidad de solicitudes
+     */
+    int tamano() {
+        return tamano;
+    }
+
+    private Nodo agregar(Nodo nodo, Nodo nuevo) {
+        if (nodo == null) {
+            return nuevo;
+        }
+        if (ORDEN.compare(nuevo.espera, nodo.espera) < 0) {
+            nodo.izquierdo = agregar(nodo.izquierdo, nuevo);
+            if (nodo.izquierdo.prioridad > nodo.prioridad) {
+                nodo = rotarDerecha(nodo);
+            }
+        } else {
+            nodo.derecho = agregar(nodo.derecho, nuevo);
+            if (nodo.derecho.prioridad > nodo.prioridad) {
+                nodo = rotarIzquierda(nodo);
+            }
+        }
+        nodo.actualizar();
+        return nodo;
+    }
+
+    private Nodo quitar(Nodo nodo, ListaEsperaDto espera) {
+        if (nodo == null) {
+            return null;
+        }
+        int comparacion = ORDEN.compare(espera, nodo.espera);
+        if (comparacion < 0) {
+            nodo.izquierdo = quitar(nodo.izquierdo, espera);
+        } else if (comparacion > 0) {
+            nodo.derecho = quitar(nodo.derecho, espera);
+        } else {
+            tamano--;
+            return unir(nodo.izquierdo, nodo.derecho);
+        }
+        nodo.actualizar();
+        return nodo;
+    }
+
+    // Une dos subárboles en los que todo el izquierdo es menor que el derecho
+    private static Nodo unir(Nodo izquierdo, Nodo derecho) {
+        if (izquierdo == null) {
+            return derecho;
+        }
+        if (derecho == null) {
+            return izquierdo;
+        }
+        if (izquierdo.prioridad > derecho.prioridad) {
+            izquierdo.derecho = unir(izquierdo.derecho, derecho);
+            izquierdo.actualizar();
+            return izquierdo;
+        }
+        derecho.izquierdo = unir(izquierdo, derecho.izquierdo);
+        derecho.actualizar();
+        return derecho;
+    }
+
+    private static Nodo rotarDerecha(Nodo nodo) {
+        Nodo izquierdo = nodo.izquierdo;
+        nodo.izquierdo = izquierdo.derecho;
+        izquierdo.derecho = nodo;
+        nodo.actualizar();
+        return izquierdo;
+    }
+
+    private static Nodo rotarIzquierda(Nodo nodo) {
+        Nodo derecho = nodo.derecho;
+        nodo.derecho = derecho.izquierdo;
+        derecho.izquierdo = nodo;
+        nodo.actualizar();
+        return derecho;
+    }
+
+    private static final class Nodo {
+
+        private final ListaEsperaDto espera;
+
+        private final int prioridad;
+
+        private Nodo izquierdo;
+
+        private Nodo derecho;
+
+        // Mayor fin de rango del subárbol
+        private LocalDateTime maximoHasta;
+
+        private Nodo(ListaEsperaDto espera, int prioridad) {
+            this.espera = espera;
+            this.prioridad = prioridad;
+            this.maximoHasta = espera.hasta();
+        }
+
+        private void actualizar() {
+            maximoHasta = espera.hasta();
+            if (izquierdo != null && izquierdo.maximoHasta.isAfter(maximoHasta)) {
+                maximoHasta = izquierdo.maximoHasta;
+            }
+            if (derecho != null && derecho.maximoHasta.isAfter(maximoHasta)) {
+                maximoHasta = derecho.maximoHasta;
+            }
+        }
+    }
+}
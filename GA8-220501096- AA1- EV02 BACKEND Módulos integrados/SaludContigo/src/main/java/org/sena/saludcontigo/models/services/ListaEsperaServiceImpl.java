@@ -0,0 +1,351 @@
+package org.sena.saludcontigo.models.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.sena.saludcontigo.models.dao.IListaEsperaDao;
+import org.sena.saludcontigo.models.dao.IMedicoDao;
+import org.sena.saludcontigo.models.dao.IPacienteDao;
+import org.sena.saludcontigo.models.dto.ListaEsperaDto;
+import org.sena.saludcontigo.models.entity.CitaMedica;
+import org.sena.saludcontigo.models.entity.ListaEspera;
+import org.sena.saludcontigo.models.entity.Medico;
+import org.sena.saludcontigo.models.enums.EstadoCita;
+import org.sena.saludcontigo.models.enums.EstadoEspera;
+import org.sena.saludcontigo.models.services.IResolucionDocumentoService.Persona;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Time;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lista de espera de citas. Las solicitudes pendientes se guardan en la tabla {@code Lista_Espera} y, en memoria,
+ * en un árbol de intervalos por médico y otro por especialidad ({@link IntervalosEspera}). Cuando se confirma la
+ * cancelación, el cambio o la eliminación de una cita agendada, la franja se busca en los árboles del médico y
+ * de su especialidad (O(log n)) y se agenda al primero que la acepta: la cita y la asignación de la solicitud
+ * se confirman en la transacción de {@link ICitaMedicaService#save(CitaMedica, java.util.function.Predicate)},
+ * y la asignación solo procede si la solicitud sigue pendiente.
+ * <p>
+ * Al iniciar y cada {@code saludcontigo.lista-espera.cron} se vuelven a cargar las solicitudes pendientes de la
+ * base de datos (las registradas o retiradas en otras instancias) y se vencen las que ya terminaron.
+ */
+@Service
+public class ListaEsperaServiceImpl implements IListaEsperaService, InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ListaEsperaServiceImpl.class);
+
+    private static final String METRICA_PENDIENTES = "saludcontigo.lista-espera.pendientes";
+
+    private static final String METRICA_ASIGNADAS = "saludcontigo.lista-espera.asignadas";
+
+    private static final String OBSERVACION = "Asignada desde la lista de espera";
+
+    @Autowired
+    private IListaEsperaDao listaEsperaDao;
+
+    @Autowired
+    private IPacienteDao pacienteDao;
+
+    @Autowired
+    private IMedicoDao medicoDao;
+
+    @Autowired
+    private ICitaMedicaService citaMedicaService;
+
+    @Autowired
+    private IResolucionDocumentoService resolucionDocumentoService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private TaskExecutor taskExecutor;
+
+    private TransactionTemplate transaction;
+
+    private Counter asignadas;
+
+    private Map<Long, IntervalosEspera> porMedico = new HashMap<>();
+
+    private Map<String, IntervalosEspera> porEspecialidad = new HashMap<>();
+
+    private Map<Long, ListaEsperaDto> pendientes = new HashMap<>();
+
+    // Solicitudes agregadas (o quitadas, con valor nulo) mientras corre una recarga; se aplican sobre lo leído
+    private Map<Long, ListaEsperaDto> cambiosEnCarga;
+
+    // Una recarga a la vez
+    private final Object carga = new Object();
+
+    @Override
+    public void afterPropertiesSet() {
+        transaction = new TransactionTemplate(transactionManager);
+        Gauge.builder(METRICA_PENDIENTES, this, IListaEsperaService::getPendientes)
+                .description("Solicitudes pendientes de la lista de espera en memoria")
+                .register(meterRegistry);
+        asignadas = Counter.builder(METRICA_ASIGNADAS)
+                .description("Citas liberadas asignadas a la lista de espera")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Carga las solicitudes pendientes en segundo plano al terminar de iniciar la aplicación
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        taskExecutor.execute(this::recargar);
+    }
+
+    /**
+     * Registra una solicitud pendiente para un médico (si se indica su documento) o para una especialidad
+     * @return Solicitud registrada, o nulo si el paciente o el médico no existen
+     */
+    @Override
+    public ListaEsperaDto registrar(String documentoPaciente, String documentoMedico, String especialidad, String tipoCita, LocalDateTime desde, LocalDateTime hasta) {
+        Long idPaciente = resolucionDocumentoService.resolver(Persona.PACIENTE, documentoPaciente);
+        if (idPaciente == null) {
+            return null;
+        }
+        Long idMedico = documentoMedico == null ? null : resolucionDocumentoService.resolver(Persona.MEDICO, documentoMedico);
+        if (documentoMedico != null && idMedico == null) {
+            return null;
+        }
+
+        ListaEspera espera = new ListaEspera();
+        espera.setEspecialidad(idMedico == null ? especialidad : null);
+        espera.setTipoCita(tipoCita);
+        espera.setDesde(desde);
+        espera.setHasta(hasta);
+        espera.setEstado(EstadoEspera.PENDIENTE);
+        espera.setFechaRegistro(LocalDateTime.now());
+        ListaEspera guardada = transaction.execute(status -> {
+            espera.setPaciente(pacienteDao.getReferenceById(idPaciente));
+            espera.setMedico(idMedico == null ? null : medicoDao.getReferenceById(idMedico));
+            return listaEsperaDao.save(espera);
+        });
+
+        ListaEsperaDto registrada = new ListaEsperaDto(guardada.getIdespera(), idPaciente, idMedico, guardada.getEspecialidad(),
+                guardada.getTipoCita(), guardada.getDesde(), guardada.getHasta(), guardada.getEstado(), guardada.getFechaRegistro(), null);
+        synchronized (this) {
+            agregar(registrada);
+        }
+        return registrada;
+    }
+
+    /**
+     * @return Solicitudes del paciente, o nulo si el paciente no existe
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ListaEsperaDto> findByPacienteDocumento(String documento) {
+        Long idPaciente = resolucionDocumentoService.resolver(Persona.PACIENTE, documento);
+        if (idPaciente == null) {
+            return null;
+        }
+        return listaEsperaDao.findByPacienteId(idPaciente);
+    }
+
+    /**
+     * Retira una solicitud pendiente
+     * @return false si la solicitud no existe o ya no está pendiente
+     */
+    @Override
+    public boolean retirar(Long id) {
+        Integer retiradas = transaction.execute(status -> listaEsperaDao.updateEstado(id, EstadoEspera.PENDIENTE, EstadoEspera.RETIRADA));
+        synchronized (this) {
+            quitar(id);
+        }
+        return retiradas != null && retiradas > 0;
+    }
+
+    /**
+     * Vence las solicitudes terminadas y vuelve a cargar las pendientes
+     * ({@code saludcontigo.lista-espera.cron}, "-" para desactivarla)
+     * @return Cantidad de solicitudes pendientes en memoria
+     */
+    @Override
+    @Scheduled(cron = "${saludcontigo.lista-espera.cron:0 */5 * * * *}")
+    public int recargar() {
+        synchronized (carga) {
+            synchronized (this) {
+                cambiosEnCarga = new HashMap<>();
+            }
+            List<ListaEsperaDto> vigentes;
+            try {
+                // La lectura va a la base principal, que ya tiene las solicitudes confirmadas
+                vigentes = transaction.execute(status -> {
+                    LocalDateTime ahora = LocalDateTime.now();
+                    listaEsperaDao.vencer(EstadoEspera.PENDIENTE, EstadoEspera.VENCIDA, ahora);
+                    return listaEsperaDao.findVigentes(EstadoEspera.PENDIENTE, ahora);
+                });
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    cambiosEnCarga = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                Map<Long, ListaEsperaDto> cambios = cambiosEnCarga;
+                cambiosEnCarga = null;
+                porMedico = new HashMap<>();
+                porEspecialidad = new HashMap<>();
+                pendientes = new HashMap<>();
+                for (ListaEsperaDto espera : vigentes) {
+                    agregar(espera);
+                }
+                cambios.forEach((id, espera) -> {
+                    quitar(id);
+                    if (espera != null) {
+                        agregar(espera);
+                    }
+                });
+                return pendientes.size();
+            }
+        }
+    }
+
+    /**
+     * Recibe las franjas liberadas al confirmarse la transacción que las liberó y las asigna en segundo plano
+     * @param franja Franja liberada
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void franjaLiberada(FranjaLiberada franja) {
+        if (franja.fechaHora() != null && franja.fechaHora().isAfter(LocalDateTime.now())) {
+            taskExecutor.execute(() -> asignar(franja));
+        }
+    }
+
+    /**
+     * Agenda la franja a la primera solicitud pendiente que la acepta, para el médico o para su especialidad.
+     * Si la solicitud ya no está pendiente (se retiró o se asignó en otra instancia) se prueba la siguiente;
+     * si la franja ya se ocupó, termina
+     * @param franja Franja liberada
+     */
+    @Override
+    public void asignar(FranjaLiberada franja) {
+        if (franja.lugarCita() == null) {
+            return;
+        }
+        String especialidad = transaction.execute(status -> medicoDao.findById(franja.idMedico()).map(Medico::getEspecialidad).orElse(null));
+        while (true) {
+            ListaEsperaDto candidata;
+            synchronized (this) {
+                candidata = primera(franja.idMedico(), especialidad, franja.fechaHora());
+            }
+            if (candidata == null) {
+                return;
+            }
+
+            CitaMedica cita;
+            try {
+                // La solicitud se asigna en la transacción de la cita, con el bloqueo del médico tomado hasta confirmarla
+                cita = citaMedicaService.save(cita(candidata, franja), guardada -> listaEsperaDao.asignar(candidata.idespera(),
+                        guardada.getIdcita(), EstadoEspera.PENDIENTE, EstadoEspera.ASIGNADA) > 0);
+            } catch (FranjaOcupadaException e) {
+                // Otra solicitud agendó la franja primero
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Error asignando la franja del médico {} el {} a la lista de espera", franja.idMedico(), franja.fechaHora(), e);
+                return;
+            }
+
+            synchronized (this) {
+                quitar(candidata.idespera());
+            }
+            if (cita != null) {
+                asignadas.increment();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return Solicitudes pendientes en memoria
+     */
+    @Override
+    public synchronized int getPendientes() {
+        return pendientes.size();
+    }
+
+    // La primera solicitud que acepta la franja entre las del médico y las de su especialidad
+    private ListaEsperaDto primera(Long idMedico, String especialidad, LocalDateTime fechaHora) {
+        IntervalosEspera delMedico = porMedico.get(idMedico);
+        IntervalosEspera deEspecialidad = especialidad == null ? null : porEspecialidad.get(especialidad);
+        ListaEsperaDto medico = delMedico == null ? null : delMedico.primera(fechaHora);
+        ListaEsperaDto otra = deEspecialidad == null ? null : deEspecialidad.primera(fechaHora);
+        if (medico == null || otra == null) {
+            return medico == null ? otra : medico;
+        }
+        return IntervalosEspera.ORDEN.compare(medico, otra) <= 0 ? medico : otra;
+    }
+
+    private void agregar(ListaEsperaDto espera) {
+        if (cambiosEnCarga != null) {
+            cambiosEnCarga.put(espera.idespera(), espera);
+        }
+        if (espera.idMedico() != null) {
+            porMedico.computeIfAbsent(espera.idMedico(), id -> new IntervalosEspera()).agregar(espera);
+        } else {
+            porEspecialidad.computeIfAbsent(espera.especialidad(), nombre -> new IntervalosEspera()).agregar(espera);
+        }
+        pendientes.put(espera.idespera(), espera);
+    }
+
+    private void quitar(Long id) {
+        if (cambiosEnCarga != null) {
+            cambiosEnCarga.put(id, null);
+        }
+        ListaEsperaDto espera = pendientes.remove(id);
+        if (espera == null) {
+            return;
+        }
+        if (espera.idMedico() != null) {
+            quitar(porMedico, espera.idMedico(), espera);
+        } else {
+            quitar(porEspecialidad, espera.especialidad(), espera);
+        }
+    }
+
+    private static <K> void quitar(Map<K, IntervalosEspera> arboles, K clave, ListaEsperaDto espera) {
+        IntervalosEspera arbol = arboles.get(clave);
+        if (arbol != null && arbol.quitar(espera) && arbol.tamano() == 0) {
+            arboles.remove(clave);
+        }
+    }
+
+    // Cita de la solicitud en la franja liberada, con el lugar de la cita anterior
+    private CitaMedica cita(ListaEsperaDto espera, FranjaLiberada franja) {
+        CitaMedica cita = new CitaMedica();
+        cita.setTipoCita(espera.tipoCita());
+        cita.setFechaCita(java.sql.Date.valueOf(franja.fechaHora().toLocalDate()));
+        cita.setHoraCita(Time.valueOf(franja.fechaHora().toLocalTime()));
+        cita.setLugarCita(franja.lugarCita());
+        cita.setEstadoCita(EstadoCita.AGENDADA);
+        cita.setObservacionCita(OBSERVACION);
+        cita.setPaciente(pacienteDao.getReferenceById(espera.idPaciente()));
+        cita.setMedico(medicoDao.getReferenceById(franja.idMedico()));
+        return cita;
+    }
+}
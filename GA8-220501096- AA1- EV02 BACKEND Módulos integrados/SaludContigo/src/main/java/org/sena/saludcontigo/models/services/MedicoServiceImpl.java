@@ -1,12 +1,17 @@
 package org.sena.saludcontigo.models.services;
 
 import org.sena.saludcontigo.models.dao.IMedicoDao;
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.Medico;
+import org.sena.saludcontigo.models.services.IResolucionDocumentoService.Persona;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class MedicoServiceImpl implements IMedicoService {
@@ -14,39 +19,125 @@ public class MedicoServiceImpl implements IMedicoService {
     @Autowired
     private IMedicoDao medicoDao;
 
+    @Autowired
+    private IResolucionDocumentoService resolucionDocumentoService;
+
+    @Autowired
+    private IRegistroCambiosService registroCambiosService;
+
+    @Autowired
+    private IFiltroDocumentosService filtroDocumentosService;
+
+    @Autowired
+    private IActualizacionParcialService actualizacionParcialService;
+
+    @Autowired
+    private IDirectorioMedicoService directorioMedicoService;
+
     @Override
     @Transactional(readOnly = true)
     public List<Medico> findAll() {
         return medicoDao.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Medico> findPage(Long afterId, int limit) {
+        return medicoDao.findPage(afterId, Limit.of(limit));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Medico findById(Long id) {
         return medicoDao.findById(id).orElse(null);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public VersionDto findVersionById(Long id) {
+        return medicoDao.findVersionById(id).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersionDto findVersionByDocument(String document) {
+        if (!filtroDocumentosService.puedeExistir(Persona.MEDICO, document)) {
+            return null;
+        }
+        return medicoDao.findVersionByDocument(document).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean existsByDocument(String document) {
+        return resolucionDocumentoService.resolver(Persona.MEDICO, document) != null;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Medico findByDocument(String document){
-        return medicoDao.findByDocument(document);
+        // El documento se resuelve con la caché y el registro se lee por ID (caché de segundo nivel)
+        Long id = resolucionDocumentoService.resolver(Persona.MEDICO, document);
+        return id == null ? null : medicoDao.findById(id).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Medico> findByDocuments(Collection<String> documents) {
+        // Solo se consultan los documentos que el filtro no descarta
+        List<String> posibles = documents.stream()
+                .filter(document -> filtroDocumentosService.puedeExistir(Persona.MEDICO, document))
+                .toList();
+        return posibles.isEmpty() ? List.of() : medicoDao.findByDocuments(posibles);
     }
 
     @Override
     @Transactional
     public Medico save(Medico medico) {
-        return medicoDao.save(medico);
+        // Se escribe de inmediato para registrar la versión resultante
+        Medico guardado = medicoDao.saveAndFlush(medico);
+        resolucionDocumentoService.registrar(Persona.MEDICO, guardado.getNumeroDocumento(), guardado.getIdmedico());
+        registroCambiosService.registrar(Persona.MEDICO, guardado.getIdmedico(), guardado.getVersion());
+        directorioMedicoService.invalidar();
+        return guardado;
+    }
+
+    @Override
+    public Map<String, Object> convertirCambios(Map<String, Object> cambios, List<String> errors) {
+        return actualizacionParcialService.convertir(Medico.class, cambios, errors);
+    }
+
+    @Override
+    @Transactional
+    public int patch(Long id, Long version, Map<String, Object> valores) {
+        if (valores.containsKey("numeroDocumento")) {
+            resolucionDocumentoService.invalidar(Persona.MEDICO, id);
+            filtroDocumentosService.agregar(Persona.MEDICO, (String) valores.get("numeroDocumento"));
+        }
+        int actualizados = actualizacionParcialService.actualizar(Medico.class, id, version, valores);
+        if (actualizados > 0) {
+            registroCambiosService.registrar(Persona.MEDICO, id, version == null ? null : version + 1);
+            directorioMedicoService.invalidar();
+        }
+        return actualizados;
     }
 
     @Override
     @Transactional
     public void delete(Long id) {
+        resolucionDocumentoService.invalidar(Persona.MEDICO, id);
         medicoDao.deleteById(id);
+        registroCambiosService.registrar(Persona.MEDICO, id, null);
+        directorioMedicoService.invalidar();
     }
 
     @Override
     @Transactional
     public void deleteByDocument(String document) {
+        Long id = resolucionDocumentoService.resolver(Persona.MEDICO, document);
+        resolucionDocumentoService.invalidar(Persona.MEDICO, document);
         medicoDao.deleteByDocument(document);
+        registroCambiosService.registrar(Persona.MEDICO, id, null);
+        directorioMedicoService.invalidar();
     }
 }
@@ -1,52 +1,176 @@
 package org.sena.saludcontigo.models.services;
 
 import org.sena.saludcontigo.models.dao.IPacienteDao;
+import org.sena.saludcontigo.models.dto.VersionDto;
 import org.sena.saludcontigo.models.entity.Paciente;
+import org.sena.saludcontigo.models.services.IResolucionDocumentoService.Persona;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class PacienteServiceImpl implements IPacienteService {
 
+    // Coincide con hibernate.jdbc.batch_size
+    private static final int TAMANO_LOTE = 50;
+
     @Autowired
     private IPacienteDao pacienteDao;
 
+    @Autowired
+    private IResolucionDocumentoService resolucionDocumentoService;
+
+    @Autowired
+    private IRegistroCambiosService registroCambiosService;
+
+    @Autowired
+    private IFiltroDocumentosService filtroDocumentosService;
+
+    @Autowired
+    private IActualizacionParcialService actualizacionParcialService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Override
     @Transactional(readOnly = true)
     public List<Paciente> findAll() {
         return pacienteDao.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Paciente> findPage(Long afterId, int limit) {
+        return pacienteDao.findPage(afterId, Limit.of(limit));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Paciente findById(Long id) {
         return pacienteDao.findById(id).orElse(null);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public VersionDto findVersionById(Long id) {
+        return pacienteDao.findVersionById(id).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersionDto findVersionByDocument(String document) {
+        if (!filtroDocumentosService.puedeExistir(Persona.PACIENTE, document)) {
+            return null;
+        }
+        return pacienteDao.findVersionByDocument(document).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean existsByDocument(String document) {
+        return resolucionDocumentoService.resolver(Persona.PACIENTE, document) != null;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Paciente findByDocument(String document){
-        return pacienteDao.findByDocument(document);
+        // El documento se resuelve con la caché y el registro se lee por ID (caché de segundo nivel)
+        Long id = resolucionDocumentoService.resolver(Persona.PACIENTE, document);
+        return id == null ? null : pacienteDao.findById(id).orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Paciente> findByDocuments(Collection<String> documents) {
+        // Solo se consultan los documentos que el filtro no descarta
+        List<String> posibles = documents.stream()
+                .filter(document -> filtroDocumentosService.puedeExistir(Persona.PACIENTE, document))
+                .toList();
+        return posibles.isEmpty() ? List.of() : pacienteDao.findByDocuments(posibles);
     }
 
     @Override
     @Transactional
     public Paciente save(Paciente paciente) {
-        return pacienteDao.save(paciente);
+        // Se escribe de inmediato para registrar la versión resultante
+        Paciente guardado = pacienteDao.saveAndFlush(paciente);
+        resolucionDocumentoService.registrar(Persona.PACIENTE, guardado.getNumeroDocumento(), guardado.getIdpaciente());
+        registroCambiosService.registrar(Persona.PACIENTE, guardado.getIdpaciente(), guardado.getVersion());
+        return guardado;
+    }
+
+    @Override
+    @Transactional
+    public List<Long> saveAll(List<Paciente> pacientes) {
+        List<Long> ids = new ArrayList<>(pacientes.size());
+        for (int i = 0; i < pacientes.size(); i++) {
+            Paciente paciente = pacientes.get(i);
+            filtroDocumentosService.agregar(Persona.PACIENTE, paciente.getNumeroDocumento());
+            entityManager.persist(paciente);
+            ids.add(paciente.getIdpaciente());
+            // Envía cada lote y libera el contexto de persistencia
+            if ((i + 1) % TAMANO_LOTE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        registroCambiosService.registrar(Persona.PACIENTE, ids);
+        return ids;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<String> documentosExistentes(Collection<String> documents) {
+        // Los documentos nuevos se descartan con el filtro; solo los posibles se consultan, en una sola consulta
+        List<String> posibles = documents.stream()
+                .filter(document -> filtroDocumentosService.puedeExistir(Persona.PACIENTE, document))
+                .toList();
+        return posibles.isEmpty() ? Set.of() : new HashSet<>(pacienteDao.findDocuments(posibles));
+    }
+
+    @Override
+    public Map<String, Object> convertirCambios(Map<String, Object> cambios, List<String> errors) {
+        return actualizacionParcialService.convertir(Paciente.class, cambios, errors);
+    }
+
+    @Override
+    @Transactional
+    public int patch(Long id, Long version, Map<String, Object> valores) {
+        if (valores.containsKey("numeroDocumento")) {
+            resolucionDocumentoService.invalidar(Persona.PACIENTE, id);
+            filtroDocumentosService.agregar(Persona.PACIENTE, (String) valores.get("numeroDocumento"));
+        }
+        int actualizados = actualizacionParcialService.actualizar(Paciente.class, id, version, valores);
+        if (actualizados > 0) {
+            registroCambiosService.registrar(Persona.PACIENTE, id, version == null ? null : version + 1);
+        }
+        return actualizados;
     }
 
     @Override
     @Transactional
     public void delete(Long id) {
+        resolucionDocumentoService.invalidar(Persona.PACIENTE, id);
         pacienteDao.deleteById(id);
+        registroCambiosService.registrar(Persona.PACIENTE, id, null);
     }
 
     @Override
     @Transactional
     public void deleteByDocument(String document) {
+        Long id = resolucionDocumentoService.resolver(Persona.PACIENTE, document);
+        resolucionDocumentoService.invalidar(Persona.PACIENTE, document);
         pacienteDao.deleteByDocument(document);
+        registroCambiosService.registrar(Persona.PACIENTE, id, null);
     }
 }
@@ -0,0 +1,44 @@
+package org.sena.saludcontigo.models.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Unión de las páginas de una tabla activa y de su tabla de archivo. Las filas archivadas conservan su ID,
+ * así que ambas páginas, ordenadas por ID y consultadas con el mismo cursor y límite, se intercalan
+ * en una sola página ordenada sin duplicados.
+ */
+final class PaginaArchivo {
+
+    private PaginaArchivo() {
+    }
+
+    /**
+     * Intercala las dos páginas por ID
+     * @param activas Página de la tabla activa (hasta limit filas)
+     * @param archivadas Página de la tabla de archivo (hasta limit filas)
+     * @param limit Cantidad máxima de filas de la página combinada
+     * @param id Función que obtiene el ID de cada fila
+     * @return Las primeras limit filas de ambas páginas en orden de ID
+     */
+    static <T> List<T> combinar(List<T> activas, List<T> archivadas, int limit, Function<T, Long> id) {
+        if (archivadas.isEmpty()) {
+            return activas;
+        }
+        if (activas.isEmpty()) {
+            return archivadas;
+        }
+        List<T> filas = new ArrayList<>(Math.min(limit, activas.size() + archivadas.size()));
+        int i = 0;
+        int j = 0;
+        while (filas.size() < limit && (i < activas.size() || j < archivadas.size())) {
+            if (j >= archivadas.size() || (i < activas.size() && id.apply(activas.get(i)) < id.apply(archivadas.get(j)))) {
+                filas.add(activas.get(i++));
+            } else {
+                filas.add(archivadas.get(j++));
+            }
+        }
+        return filas;
+    }
+}
@@ -0,0 +1,108 @@
+package org.sena.saludcontigo.models.services;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estado de una purga de paciente en segundo plano. Se actualiza desde el hilo de la purga
+ * y se consulta (serializado a JSON) desde el endpoint de estado.
+ */
+public class PurgaPaciente {
+
+    public enum Estado {
+        EN_PROCESO, COMPLETADA, FALLIDA
+    }
+
+    private final String id;
+
+    private final String documento;
+
+    private final Long idPaciente;
+
+    private final LocalDateTime inicio = LocalDateTime.now();
+
+    private final AtomicLong citasEliminadas = new AtomicLong();
+
+    private final AtomicLong examenesEliminados = new AtomicLong();
+
+    private final AtomicLong historiasEliminadas = new AtomicLong();
+
+    private volatile Estado estado = Estado.EN_PROCESO;
+
+    private volatile LocalDateTime fin;
+
+    private volatile String error;
+
+    public PurgaPaciente(String id, String documento, Long idPaciente) {
+        this.id = id;
+        this.documento = documento;
+        this.idPaciente = idPaciente;
+    }
+
+    void sumarCitas(long cantidad) {
+        citasEliminadas.addAndGet(cantidad);
+    }
+
+    void sumarExamenes(long cantidad) {
+        examenesEliminados.addAndGet(cantidad);
+    }
+
+    void sumarHistorias(long cantidad) {
+        historiasEliminadas.addAndGet(cantidad);
+    }
+
+    void completar() {
+        fin = LocalDateTime.now();
+        estado = Estado.COMPLETADA;
+    }
+
+    void fallar(String error) {
+        this.error = error;
+        fin = LocalDateTime.now();
+        estado = Estado.FALLIDA;
+    }
+
+
+    /**
+     * Métodos Getters
+     */
+    public String getId() {
+        return id;
+    }
+
+    public String getDocumento() {
+        return documento;
+    }
+
+    public Long getIdPaciente() {
+        return idPaciente;
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public LocalDateTime getFin() {
+        return fin;
+    }
+
+    public long getCitasEliminadas() {
+        return citasEliminadas.get();
+    }
+
+    public long getExamenesEliminados() {
+        return examenesEliminados.get();
+    }
+
+    public long getHistoriasEliminadas() {
+        return historiasEliminadas.get();
+    }
+
+    public String getError() {
+        return error;
+    }
+}
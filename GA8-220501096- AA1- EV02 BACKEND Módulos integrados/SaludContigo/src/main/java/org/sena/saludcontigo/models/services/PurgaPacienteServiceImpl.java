@@ -0,0 +1,161 @@
+package org.sena.saludcontigo.models.services;
+
+import org.sena.saludcontigo.models.dao.ICitaMedicaArchivoDao;
+import org.sena.saludcontigo.models.dao.ICitaMedicaDao;
+import org.sena.saludcontigo.models.dao.IExamenMedicoArchivoDao;
+import org.sena.saludcontigo.models.dao.IExamenMedicoDao;
+import org.sena.saludcontigo.models.dao.IHistoriaClinicaDao;
+import org.sena.saludcontigo.models.dao.IListaEsperaDao;
+import org.sena.saludcontigo.models.dao.IPacienteDao;
+import org.sena.saludcontigo.models.services.IResolucionDocumentoService.Persona;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.LongConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Purga de un paciente con todas sus citas, exámenes (activos y archivados) e historias. El ID del paciente se resuelve una sola vez
+ * y los registros dependientes se eliminan por bloques de IDs, cada bloque en su propia transacción corta,
+ * para no mantener bloqueos largos sobre las tablas mientras otros usuarios escriben en ellas.
+ * La purga se ejecuta en segundo plano; su estado se conserva en memoria durante {@link #RETENCION}.
+ */
+@Service
+public class PurgaPacienteServiceImpl implements IPurgaPacienteService {
+
+    private static final Duration RETENCION = Duration.ofHours(1);
+
+    @Value("${saludcontigo.purga.tamano-lote:500}")
+    private int tamanoLote;
+
+    @Autowired
+    private IResolucionDocumentoService resolucionDocumentoService;
+
+    @Autowired
+    private IPacienteDao pacienteDao;
+
+    @Autowired
+    private ICitaMedicaDao citaMedicaDao;
+
+    @Autowired
+    private ICitaMedicaArchivoDao citaMedicaArchivoDao;
+
+    @Autowired
+    private IExamenMedicoDao examenMedicoDao;
+
+    @Autowired
+    private IExamenMedicoArchivoDao examenMedicoArchivoDao;
+
+    @Autowired
+    private IHistoriaClinicaDao historiaClinicaDao;
+
+    @Autowired
+    private IRegistroCambiosService registroCambiosService;
+
+    @Autowired
+    private IDisponibilidadService disponibilidadService;
+
+    @Autowired
+    private IRecordatorioService recordatorioService;
+
+    @Autowired
+    private IListaEsperaDao listaEsperaDao;
+
+    @Autowired
+    private IListaEsperaService listaEsperaService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private TaskExecutor taskExecutor;
+
+    private final Map<String, PurgaPaciente> purgas = new ConcurrentHashMap<>();
+
+    /**
+     * Inicia la purga del paciente; si ya hay una en proceso para el mismo paciente se devuelve esa
+     * @param documento Número de documento del paciente
+     * @return Estado de la purga, o nulo si el paciente no existe
+     */
+    @Override
+    public synchronized PurgaPaciente iniciar(String documento) {
+        Long idPaciente = resolucionDocumentoService.resolver(Persona.PACIENTE, documento);
+        if (idPaciente == null) {
+            return null;
+        }
+        for (PurgaPaciente purga : purgas.values()) {
+            if (purga.getIdPaciente().equals(idPaciente) && purga.getEstado() == PurgaPaciente.Estado.EN_PROCESO) {
+                return purga;
+            }
+        }
+
+        LocalDateTime limite = LocalDateTime.now().minus(RETENCION);
+        purgas.values().removeIf(purga -> purga.getFin() != null && purga.getFin().isBefore(limite));
+
+        PurgaPaciente purga = new PurgaPaciente(UUID.randomUUID().toString(), documento, idPaciente);
+        purgas.put(purga.getId(), purga);
+        taskExecutor.execute(() -> ejecutar(purga));
+        return purga;
+    }
+
+    @Override
+    public PurgaPaciente findById(String id) {
+        return purgas.get(id);
+    }
+
+    private void ejecutar(PurgaPaciente purga) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Long idPaciente = purga.getIdPaciente();
+        try {
+            eliminarPorLotes(transaction, idPaciente, citaMedicaDao::findIdsByPacienteId, citaMedicaDao::deleteByIds, purga::sumarCitas);
+            disponibilidadService.invalidarTodo();
+            eliminarPorLotes(transaction, idPaciente, citaMedicaArchivoDao::findIdsByPacienteId, citaMedicaArchivoDao::deleteByIds, purga::sumarCitas);
+            eliminarPorLotes(transaction, idPaciente, examenMedicoDao::findIdsByPacienteId, examenMedicoDao::deleteByIds, purga::sumarExamenes);
+            eliminarPorLotes(transaction, idPaciente, examenMedicoArchivoDao::findIdsByPacienteId, examenMedicoArchivoDao::deleteByIds, purga::sumarExamenes);
+            recordatorioService.recargar();
+            eliminarPorLotes(transaction, idPaciente, historiaClinicaDao::findIdsByPacienteId, historiaClinicaDao::deleteByIds, purga::sumarHistorias);
+            transaction.executeWithoutResult(status -> listaEsperaDao.deleteByPacienteId(idPaciente));
+            listaEsperaService.recargar();
+            transaction.executeWithoutResult(status -> {
+                resolucionDocumentoService.invalidar(Persona.PACIENTE, idPaciente);
+                pacienteDao.deleteByIdpaciente(idPaciente);
+                registroCambiosService.registrar(Persona.PACIENTE, idPaciente, null);
+            });
+            purga.completar();
+        } catch (RuntimeException e) {
+            purga.fallar(e.getMessage());
+        }
+    }
+
+    // Elimina los registros del paciente por bloques, en orden de ID, hasta que no quede ninguno
+    private void eliminarPorLotes(TransactionTemplate transaction, Long idPaciente,
+                                  BiFunction<Long, Limit, List<Long>> lote, ToIntFunction<Collection<Long>> eliminar,
+                                  LongConsumer contador) {
+        while (true) {
+            Integer eliminados = transaction.execute(status -> {
+                List<Long> ids = lote.apply(idPaciente, Limit.of(tamanoLote));
+                return ids.isEmpty() ? null : eliminar.applyAsInt(ids);
+            });
+            if (eliminados == null) {
+                return;
+            }
+            contador.accept(eliminados);
+        }
+    }
+}
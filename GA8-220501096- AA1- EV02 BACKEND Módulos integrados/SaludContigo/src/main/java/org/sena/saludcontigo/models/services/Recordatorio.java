@@ -0,0 +1,15 @@
+package org.sena.saludcontigo.models.services;
+
+import org.sena.saludcontigo.models.services.IRecordatorioService.Tipo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Recordatorio de una cita o examen agendado que el destino configurado debe entregar al paciente.
+ * @param tipo Tipo de registro
+ * @param id ID de la cita o del examen
+ * @param fechaHora Fecha y hora de la cita o del examen
+ * @param fechaRecordatorio Momento en que corresponde enviar el recordatorio
+ */
+public record Recordatorio(Tipo tipo, Long id, LocalDateTime fechaHora, LocalDateTime fechaRecordatorio) {
+}
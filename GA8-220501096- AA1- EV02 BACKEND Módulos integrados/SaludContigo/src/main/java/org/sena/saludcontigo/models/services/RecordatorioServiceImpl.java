@@ -0,0 +1,340 @@
+package org.sena.saludcontigo.models.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.sena.saludcontigo.models.dao.ICitaMedicaDao;
+import org.sena.saludcontigo.models.dao.IExamenMedicoDao;
+import org.sena.saludcontigo.models.dto.ProgramacionRecordatorioDto;
+import org.sena.saludcontigo.models.enums.EstadoCita;
+import org.sena.saludcontigo.models.enums.EstadoExamen;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recordatorios de las citas y exámenes agendados, {@code saludcontigo.recordatorios.anticipacion} antes de su
+ * fecha y hora. Las tablas no se recorren: cada {@code saludcontigo.recordatorios.intervalo-carga} se cargan
+ * los agendados cuyo recordatorio vence dentro de la ventana siguiente ({@code saludcontigo.recordatorios.ventana}),
+ * con una consulta por rango sobre los índices de estado y fecha y hora, y se guardan en una rueda temporal
+ * jerárquica. Cada paso de la rueda ({@code saludcontigo.recordatorios.paso}) entrega los vencidos por lotes
+ * al destino configurado ({@link IDestinoRecordatorios}).
+ * <p>
+ * Al confirmar un cambio de fecha, hora o estado, el recordatorio se reprograma o se cancela; uno nuevo se agrega
+ * si vence dentro de lo ya cargado, y si no lo agrega la carga que le corresponda. Los cambios masivos vuelven a
+ * cargar la ventana. Los recordatorios cuyo momento ya pasó al agendar no se envían. Todas las instancias programan
+ * los mismos recordatorios: el destino outbox descarta los repetidos.
+ */
+@Service
+public class RecordatorioServiceImpl implements IRecordatorioService, InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RecordatorioServiceImpl.class);
+
+    // 64 ranuras por nivel y tres niveles: con pasos de un segundo la rueda abarca algo más de tres días
+    private static final int BITS_NIVEL = 6;
+
+    private static final int NIVELES = 3;
+
+    private static final String METRICA_PROGRAMADOS = "saludcontigo.recordatorios.programados";
+
+    private static final String METRICA_EMITIDOS = "saludcontigo.recordatorios.emitidos";
+
+    private static final String METRICA_RETRASO = "saludcontigo.recordatorios.retraso";
+
+    private static final String METRICA_ERRORES = "saludcontigo.recordatorios.errores";
+
+    @Value("${saludcontigo.recordatorios.anticipacion:24h}")
+    private Duration anticipacion;
+
+    @Value("${saludcontigo.recordatorios.ventana:1h}")
+    private Duration ventana;
+
+    // Resolución de la rueda en milisegundos; también es el intervalo de emitir()
+    @Value("${saludcontigo.recordatorios.paso:1000}")
+    private long paso;
+
+    @Value("${saludcontigo.recordatorios.tamano-lote:500}")
+    private int tamanoLote;
+
+    @Autowired
+    private ICitaMedicaDao citaMedicaDao;
+
+    @Autowired
+    private IExamenMedicoDao examenMedicoDao;
+
+    @Autowired
+    private IDestinoRecordatorios destino;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+
+    private RuedaTemporal<Recordatorio> rueda;
+
+    private final Map<Clave, RuedaTemporal.Entrada<Recordatorio>> programados = new HashMap<>();
+
+    // Los recordatorios que vencen antes de este momento ya están en la rueda; nulo antes de la primera carga
+    private LocalDateTime cargadoHasta;
+
+    // Cambia al descartar la rueda: una carga iniciada antes no agrega lo que leyó
+    private long generacion;
+
+    // Registros cambiados mientras corre una carga; la carga no los agrega porque el cambio ya los programó
+    private Set<Clave> cambiadosEnCarga;
+
+    // Lotes que el destino rechazó, se reintentan en el siguiente paso
+    private List<Recordatorio> reintentos = new ArrayList<>();
+
+    // Una carga a la vez
+    private final Object carga = new Object();
+
+    private Counter emitidos;
+
+    private Counter errores;
+
+    private Timer retraso;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (paso <= 0) {
+            throw new IllegalStateException("saludcontigo.recordatorios.paso debe ser mayor que cero: " + paso);
+        }
+        // La lectura va a la base principal, que ya tiene los cambios confirmados. En una transacción propia:
+        // recargar() lee al confirmarse otra transacción, cuyos recursos siguen asociados al hilo
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        rueda = new RuedaTemporal<>(paso, BITS_NIVEL, NIVELES, System.currentTimeMillis());
+        Gauge.builder(METRICA_PROGRAMADOS, this, IRecordatorioService::getProgramados)
+                .description("Recordatorios en la rueda pendientes de vencer")
+                .register(meterRegistry);
+        emitidos = Counter.builder(METRICA_EMITIDOS)
+                .description("Recordatorios entregados al destino")
+                .register(meterRegistry);
+        errores = Counter.builder(METRICA_ERRORES)
+                .description("Lotes de recordatorios que el destino rechazó")
+                .register(meterRegistry);
+        retraso = Timer.builder(METRICA_RETRASO)
+                .description("Tiempo entre el momento de un recordatorio y su entrega al destino")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Programa o reprograma los recordatorios de registros agendados cuando la transacción se confirma
+     * @param tipo Tipo de registro
+     * @param agendados ID y fecha y hora de cada registro agendado
+     */
+    @Override
+    public void programar(Tipo tipo, Collection<ProgramacionRecordatorioDto> agendados) {
+        if (agendados.isEmpty()) {
+            return;
+        }
+        List<ProgramacionRecordatorioDto> copia = List.copyOf(agendados);
+        AlConfirmar.ejecutar(() -> {
+            synchronized (this) {
+                LocalDateTime ahora = LocalDateTime.now();
+                for (ProgramacionRecordatorioDto agendado : copia) {
+                    Clave clave = new Clave(tipo, agendado.id());
+                    quitar(clave);
+                    if (agendado.fechaHora() == null || cargadoHasta == null) {
+                        continue;
+                    }
+                    LocalDateTime fechaRecordatorio = agendado.fechaHora().minus(anticipacion);
+                    if (!fechaRecordatorio.isBefore(ahora) && fechaRecordatorio.isBefore(cargadoHasta)) {
+                        agregar(new Recordatorio(tipo, agendado.id(), agendado.fechaHora(), fechaRecordatorio));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Cancela el recordatorio de un registro eliminado o que dejó de estar agendado cuando la transacción se confirma
+     * @param tipo Tipo de registro
+     * @param id ID del registro
+     */
+    @Override
+    public void cancelar(Tipo tipo, Long id) {
+        if (id == null) {
+            return;
+        }
+        AlConfirmar.ejecutar(() -> {
+            synchronized (this) {
+                quitar(new Clave(tipo, id));
+            }
+        });
+    }
+
+    /**
+     * Descarta la rueda y vuelve a cargar la ventana cuando la transacción se confirma, tras los cambios masivos
+     */
+    @Override
+    public void recargar() {
+        AlConfirmar.ejecutar(() -> {
+            synchronized (this) {
+                generacion++;
+                rueda.vaciar();
+                programados.clear();
+                cargadoHasta = null;
+            }
+            try {
+                cargar();
+            } catch (RuntimeException e) {
+                // La siguiente carga programada vuelve a llenar la ventana
+                log.warn("Error recargando los recordatorios", e);
+            }
+        });
+    }
+
+    /**
+     * Carga los recordatorios que vencen desde lo ya cargado hasta el final de la ventana
+     * ({@code saludcontigo.recordatorios.intervalo-carga} en milisegundos)
+     * @return Cantidad de recordatorios agregados
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${saludcontigo.recordatorios.intervalo-carga:60000}")
+    public int cargar() {
+        synchronized (carga) {
+            LocalDateTime hasta = LocalDateTime.now().plus(ventana);
+            LocalDateTime desde;
+            long inicial;
+            synchronized (this) {
+                desde = cargadoHasta == null ? LocalDateTime.now() : cargadoHasta;
+                if (!hasta.isAfter(desde)) {
+                    return 0;
+                }
+                inicial = generacion;
+                cambiadosEnCarga = new HashSet<>();
+            }
+
+            List<Recordatorio> leidos = new ArrayList<>();
+            try {
+                transaction.executeWithoutResult(status -> {
+                    for (ProgramacionRecordatorioDto cita : citaMedicaDao.findProgramacionesRecordatorio(EstadoCita.AGENDADA,
+                            desde.plus(anticipacion), hasta.plus(anticipacion))) {
+                        leidos.add(new Recordatorio(Tipo.CITA, cita.id(), cita.fechaHora(), cita.fechaHora().minus(anticipacion)));
+                    }
+                    for (ProgramacionRecordatorioDto examen : examenMedicoDao.findProgramacionesRecordatorio(EstadoExamen.AGENDADO,
+                            desde.plus(anticipacion), hasta.plus(anticipacion))) {
+                        leidos.add(new Recordatorio(Tipo.EXAMEN, examen.id(), examen.fechaHora(), examen.fechaHora().minus(anticipacion)));
+                    }
+                });
+            } catch (RuntimeException e) {
+                // cargadoHasta no avanza: la siguiente carga vuelve a leer el mismo rango
+                synchronized (this) {
+                    cambiadosEnCarga = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                Set<Clave> cambiados = cambiadosEnCarga;
+                cambiadosEnCarga = null;
+                if (generacion != inicial) {
+                    return 0;
+                }
+                int agregados = 0;
+                for (Recordatorio recordatorio : leidos) {
+                    Clave clave = new Clave(recordatorio.tipo(), recordatorio.id());
+                    if (!cambiados.contains(clave)) {
+                        quitar(clave);
+                        agregar(recordatorio);
+                        agregados++;
+                    }
+                }
+                cargadoHasta = hasta;
+                return agregados;
+            }
+        }
+    }
+
+    /**
+     * Avanza la rueda y entrega los recordatorios vencidos al destino en lotes de {@code saludcontigo.recordatorios.tamano-lote}
+     * ({@code saludcontigo.recordatorios.paso} en milisegundos)
+     * @return Cantidad de recordatorios entregados
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${saludcontigo.recordatorios.paso:1000}")
+    public int emitir() {
+        List<Recordatorio> vencidos;
+        synchronized (this) {
+            vencidos = reintentos;
+            reintentos = new ArrayList<>();
+            rueda.avanzar(System.currentTimeMillis(), recordatorio -> {
+                programados.remove(new Clave(recordatorio.tipo(), recordatorio.id()));
+                vencidos.add(recordatorio);
+            });
+        }
+
+        int entregados = 0;
+        for (int i = 0; i < vencidos.size(); i += tamanoLote) {
+            List<Recordatorio> lote = vencidos.subList(i, Math.min(i + tamanoLote, vencidos.size()));
+            try {
+                destino.enviar(lote);
+            } catch (RuntimeException e) {
+                errores.increment();
+                log.warn("Error entregando {} recordatorios, se reintentan en el siguiente paso", vencidos.size() - i, e);
+                synchronized (this) {
+                    reintentos.addAll(0, vencidos.subList(i, vencidos.size()));
+                }
+                break;
+            }
+            LocalDateTime ahora = LocalDateTime.now();
+            for (Recordatorio recordatorio : lote) {
+                Duration demora = Duration.between(recordatorio.fechaRecordatorio(), ahora);
+                retraso.record(demora.isNegative() ? Duration.ZERO : demora);
+            }
+            emitidos.increment(lote.size());
+            entregados += lote.size();
+        }
+        return entregados;
+    }
+
+    /**
+     * @return Recordatorios en la rueda pendientes de vencer
+     */
+    @Override
+    public synchronized int getProgramados() {
+        return rueda.tamano();
+    }
+
+    private void agregar(Recordatorio recordatorio) {
+        long vencimiento = recordatorio.fechaRecordatorio().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        programados.put(new Clave(recordatorio.tipo(), recordatorio.id()), rueda.agregar(vencimiento, recordatorio));
+    }
+
+    private void quitar(Clave clave) {
+        if (cambiadosEnCarga != null) {
+            cambiadosEnCarga.add(clave);
+        }
+        RuedaTemporal.Entrada<Recordatorio> entrada = programados.remove(clave);
+        if (entrada != null) {
+            rueda.cancelar(entrada);
+        }
+    }
+
+    private record Clave(Tipo tipo, Long id) {
+    }
+}
@@ -0,0 +1,266 @@
+package org.sena.saludcontigo.models.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.sena.saludcontigo.models.enums.EnumCodificado;
+import org.sena.saludcontigo.models.services.CambiosRemotos.Agenda;
+import org.sena.saludcontigo.models.services.IResolucionDocumentoService.Persona;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Canal de invalidación entre instancias sin un broker externo. Las escrituras de pacientes, médicos y
+ * administradores agregan una fila (entidad, ID, versión) a {@code Registro_Cambios} en su misma transacción,
+ * así que el registro existe si y solo si el cambio se confirmó. Cada instancia lee periódicamente las filas
+ * con ID mayor al último leído (recorrido de la llave primaria) y publica las de las demás instancias como
+ * {@link CambiosRemotos}. Las escrituras de citas registran del mismo modo los días de la agenda del médico que
+ * cambiaron (la fecha en {@code Fecha_Agenda}).
+ * <p>
+ * Los IDs autoincrementales se asignan al insertar, no al confirmar: una transacción lenta puede confirmar
+ * un ID menor a uno ya leído. Los IDs saltados se vuelven a buscar durante {@code saludcontigo.cambios.espera-huecos};
+ * pasado ese tiempo se asume que la transacción se revirtió.
+ */
+@Service
+public class RegistroCambiosServiceImpl implements IRegistroCambiosService, InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistroCambiosServiceImpl.class);
+
+    private static final String INSERTAR = "INSERT INTO Registro_Cambios (Entidad, IdEntidad, Version, Nodo, Fecha_Cambio) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERTAR_AGENDA = "INSERT INTO Registro_Cambios (Entidad, IdEntidad, Version, Nodo, Fecha_Cambio, Fecha_Agenda) VALUES (?, ?, NULL, ?, ?, ?)";
+
+    private static final String COLUMNAS = "SELECT IdCambio, Entidad, IdEntidad, Version, Nodo, Fecha_Cambio, Fecha_Agenda FROM Registro_Cambios";
+
+    // Límite de IDs saltados en espera, para que un salto grande de la secuencia no crezca sin control
+    private static final int MAXIMO_HUECOS = 1000;
+
+    private static final String METRICA_PENDIENTES = "saludcontigo.cambios.pendientes";
+
+    private static final String METRICA_HUECOS = "saludcontigo.cambios.huecos";
+
+    private static final String METRICA_RETRASO = "saludcontigo.cambios.retraso";
+
+    private static final String METRICA_APLICADOS = "saludcontigo.cambios.aplicados";
+
+    private static final RowMapper<Fila> FILA = (rs, rowNum) -> new Fila(
+            rs.getLong("IdCambio"),
+            EnumCodificado.desdeCodigo(Persona.class, rs.getInt("Entidad")),
+            rs.getLong("IdEntidad"),
+            rs.getObject("Version", Long.class),
+            rs.getString("Nodo"),
+            rs.getObject("Fecha_Cambio", LocalDateTime.class),
+            rs.getObject("Fecha_Agenda", LocalDate.class));
+
+    // Identificador de esta instancia; las filas propias no se publican porque sus cachés ya se actualizaron
+    @Value("${saludcontigo.cambios.nodo:}")
+    private String nodo;
+
+    @Value("${saludcontigo.cambios.tamano-lote:500}")
+    private int tamanoLote;
+
+    @Value("${saludcontigo.cambios.espera-huecos:1m}")
+    private Duration esperaHuecos;
+
+    @Value("${saludcontigo.cambios.retencion:1d}")
+    private Duration retencion;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Último ID leído: -1 hasta la primera lectura, que empieza en el último cambio existente
+    private long ultimo = -1;
+
+    // IDs saltados y el instante (ms) hasta el que se vuelven a buscar
+    private final TreeMap<Long, Long> huecos = new TreeMap<>();
+
+    private volatile long pendientes;
+
+    private Timer retraso;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (nodo == null || nodo.isBlank()) {
+            nodo = UUID.randomUUID().toString();
+        }
+        Gauge.builder(METRICA_PENDIENTES, this, registro -> registro.pendientes)
+                .description("Cambios registrados que esta instancia aún no ha leído")
+                .register(meterRegistry);
+        Gauge.builder(METRICA_HUECOS, huecos, mapa -> {
+                    synchronized (this) {
+                        return mapa.size();
+                    }
+                })
+                .description("IDs saltados que se siguen buscando")
+                .register(meterRegistry);
+        retraso = Timer.builder(METRICA_RETRASO)
+                .description("Tiempo entre el registro de un cambio de otra instancia y su aplicación en esta")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra el cambio de un registro en la transacción en curso
+     * @param persona Tipo de registro
+     * @param id ID del registro
+     * @param version Versión resultante, o nulo si no se conoce
+     */
+    @Override
+    public void registrar(Persona persona, Long id, Long version) {
+        if (id == null) {
+            return;
+        }
+        jdbcTemplate.update(INSERTAR, persona.getCodigo(), id, version, nodo, LocalDateTime.now());
+    }
+
+    /**
+     * Registra en lotes los registros creados en la transacción en curso (versión inicial 0)
+     * @param persona Tipo de registro
+     * @param ids IDs de los registros
+     */
+    @Override
+    public void registrar(Persona persona, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        LocalDateTime fecha = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(INSERTAR, ids, tamanoLote, (ps, id) -> {
+            ps.setInt(1, persona.getCodigo());
+            ps.setLong(2, id);
+            ps.setLong(3, 0L);
+            ps.setString(4, nodo);
+            ps.setObject(5, fecha);
+        });
+    }
+
+    /**
+     * Registra en la transacción en curso los días de la agenda de los médicos en los que cambió alguna cita
+     * @param agendas Médico y día de cada agenda
+     */
+    @Override
+    public void registrarAgendas(Collection<Agenda> agendas) {
+        if (agendas.isEmpty()) {
+            return;
+        }
+        LocalDateTime fecha = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(INSERTAR_AGENDA, agendas, tamanoLote, (ps, agenda) -> {
+            ps.setInt(1, Persona.MEDICO.getCodigo());
+            ps.setLong(2, agenda.idMedico());
+            ps.setString(3, nodo);
+            ps.setObject(4, fecha);
+            ps.setObject(5, agenda.fecha());
+        });
+    }
+
+    /**
+     * Lee los cambios nuevos y los publica ({@code saludcontigo.cambios.intervalo} en milisegundos)
+     * @return Cantidad de cambios de otras instancias publicados
+     */
+    @Override
+    @Scheduled(initialDelayString = "${saludcontigo.cambios.intervalo:1000}", fixedDelayString = "${saludcontigo.cambios.intervalo:1000}")
+    public synchronized int sondear() {
+        Long maximo = jdbcTemplate.queryForObject("SELECT MAX(IdCambio) FROM Registro_Cambios", Long.class);
+        long existente = maximo == null ? 0 : maximo;
+        if (ultimo < 0) {
+            // Las cachés de una instancia nueva están vacías: los cambios anteriores no le afectan
+            ultimo = existente;
+            return 0;
+        }
+
+        long ahora = System.currentTimeMillis();
+        List<Fila> filas = new ArrayList<>();
+        huecos.values().removeIf(limite -> limite < ahora);
+        if (!huecos.isEmpty()) {
+            String marcadores = String.join(", ", Collections.nCopies(huecos.size(), "?"));
+            List<Fila> tardias = jdbcTemplate.query(COLUMNAS + " WHERE IdCambio IN (" + marcadores + ")", FILA, huecos.keySet().toArray());
+            for (Fila fila : tardias) {
+                huecos.remove(fila.id());
+            }
+            filas.addAll(tardias);
+        }
+        if (existente > ultimo) {
+            List<Fila> nuevas = jdbcTemplate.query(COLUMNAS + " WHERE IdCambio > ? ORDER BY IdCambio LIMIT ?", FILA, ultimo, tamanoLote);
+            long espera = ahora + esperaHuecos.toMillis();
+            for (Fila fila : nuevas) {
+                for (long id = ultimo + 1; id < fila.id() && huecos.size() < MAXIMO_HUECOS; id++) {
+                    huecos.put(id, espera);
+                }
+                ultimo = fila.id();
+            }
+            filas.addAll(nuevas);
+        }
+        pendientes = Math.max(0, existente - ultimo);
+        return publicar(filas);
+    }
+
+    /**
+     * Elimina los cambios más antiguos que {@code saludcontigo.cambios.retencion}
+     * ({@code saludcontigo.cambios.depuracion}, "-" para desactivarlo)
+     * @return Cantidad de filas eliminadas
+     */
+    @Override
+    @Scheduled(cron = "${saludcontigo.cambios.depuracion:0 15 * * * *}")
+    public int depurar() {
+        return jdbcTemplate.update("DELETE FROM Registro_Cambios WHERE Fecha_Cambio < ?", LocalDateTime.now().minus(retencion));
+    }
+
+    private int publicar(List<Fila> filas) {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<CambiosRemotos.Cambio> cambios = new ArrayList<>();
+        List<Agenda> agendas = new ArrayList<>();
+        for (Fila fila : filas) {
+            if (nodo.equals(fila.nodo())) {
+                continue;
+            }
+            String entidad;
+            if (fila.fechaAgenda() != null) {
+                agendas.add(new Agenda(fila.idEntidad(), fila.fechaAgenda()));
+                entidad = "agenda";
+            } else {
+                cambios.add(new CambiosRemotos.Cambio(fila.persona(), fila.idEntidad(), fila.version()));
+                entidad = fila.persona().name().toLowerCase(Locale.ROOT);
+            }
+            Duration demora = Duration.between(fila.fecha(), ahora);
+            retraso.record(demora.isNegative() ? Duration.ZERO : demora);
+            meterRegistry.counter(METRICA_APLICADOS, "entidad", entidad).increment();
+        }
+        int total = cambios.size() + agendas.size();
+        if (total == 0) {
+            return 0;
+        }
+        try {
+            eventPublisher.publishEvent(new CambiosRemotos(List.copyOf(cambios), List.copyOf(agendas)));
+        } catch (RuntimeException e) {
+            // Las filas ya se dieron por leídas: las cachés afectadas se corrigen con su vencimiento
+            log.warn("Error aplicando {} cambios de otras instancias", total, e);
+        }
+        return total;
+    }
+
+    private record Fila(long id, Persona persona, long idEntidad, Long version, String nodo, LocalDateTime fecha, LocalDate fechaAgenda) {
+    }
+}
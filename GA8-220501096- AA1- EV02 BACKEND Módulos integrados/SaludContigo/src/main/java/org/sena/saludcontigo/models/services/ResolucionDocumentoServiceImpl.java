@@ -0,0 +1,238 @@
+package org.sena.saludcontigo.models.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.sena.saludcontigo.models.dao.IAdministradorDao;
+import org.sena.saludcontigo.models.dao.IMedicoDao;
+import org.sena.saludcontigo.models.dao.IPacienteDao;
+import org.sena.saludcontigo.models.dto.VersionDto;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Caché acotada de número de documento a ID para pacientes, médicos y administradores. Los servicios
+ * de citas, exámenes e historias resuelven el documento una vez y consultan por la llave foránea.
+ * Solo se guardan documentos existentes: un documento desconocido se consulta cada vez, así un registro
+ * recién creado se encuentra de inmediato; los que el filtro de documentos descarta no llegan a consultarse.
+ * Los cambios se aplican al confirmar la transacción que los hizo; las invalidaciones se aplican además de
+ * inmediato, para no servir el valor anterior mientras tanto. Junto a cada caché se lleva el índice inverso de
+ * ID a documento, para retirar por ID una sola entrada sin recorrer la caché.
+ */
+@Service
+public class ResolucionDocumentoServiceImpl implements IResolucionDocumentoService, InitializingBean {
+
+    @Value("${saludcontigo.documentos.tamano-cache:20000}")
+    private long tamanoCache;
+
+    // Límite para cambios que no pasan por el registro de cambios (hechos directamente en la base de datos)
+    @Value("${saludcontigo.documentos.vencimiento:10m}")
+    private Duration vencimiento;
+
+    @Autowired
+    private IPacienteDao pacienteDao;
+
+    @Autowired
+    private IMedicoDao medicoDao;
+
+    @Autowired
+    private IAdministradorDao administradorDao;
+
+    @Autowired
+    private IFiltroDocumentosService filtroDocumentosService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Persona, Documentos> caches = new EnumMap<>(Persona.class);
+
+    @Override
+    public void afterPropertiesSet() {
+        for (Persona persona : Persona.values()) {
+            Documentos documentos = new Documentos(tamanoCache, vencimiento);
+            CaffeineCacheMetrics.monitor(meterRegistry, documentos.cache, "documentos-" + persona.name().toLowerCase(Locale.ROOT));
+            caches.put(persona, documentos);
+        }
+    }
+
+    /**
+     * Obtiene el ID correspondiente a un número de documento
+     * @param persona Tipo de registro
+     * @param documento Número de documento
+     * @return ID del registro, o nulo si el documento no existe
+     */
+    @Override
+    public Long resolver(Persona persona, String documento) {
+        if (documento == null) {
+            return null;
+        }
+        // Los documentos que seguro no existen se responden sin consultar
+        if (!filtroDocumentosService.puedeExistir(persona, documento)) {
+            return null;
+        }
+        return caches.get(persona).obtener(documento, doc -> consultar(persona, doc).map(VersionDto::id).orElse(null));
+    }
+
+    /**
+     * Registra el documento de un registro creado o actualizado cuando la transacción se confirma
+     * @param persona Tipo de registro
+     * @param documento Número de documento vigente
+     * @param id ID del registro
+     */
+    @Override
+    public void registrar(Persona persona, String documento, Long id) {
+        if (documento == null || id == null) {
+            return;
+        }
+        filtroDocumentosService.agregar(persona, documento);
+        Documentos documentos = caches.get(persona);
+        AlConfirmar.ejecutar(() -> documentos.guardar(documento, id));
+    }
+
+    /**
+     * Retira un documento de la caché, por ejemplo al eliminar el registro
+     * @param persona Tipo de registro
+     * @param documento Número de documento
+     */
+    @Override
+    public void invalidar(Persona persona, String documento) {
+        if (documento == null) {
+            return;
+        }
+        Documentos documentos = caches.get(persona);
+        documentos.quitar(documento);
+        alFinalizar(() -> documentos.quitar(documento));
+    }
+
+    /**
+     * Retira el documento asociado a un ID, cuando no se conoce el documento (eliminación o
+     * actualización parcial por ID)
+     * @param persona Tipo de registro
+     * @param id ID del registro
+     */
+    @Override
+    public void invalidar(Persona persona, Long id) {
+        if (id == null) {
+            return;
+        }
+        Documentos documentos = caches.get(persona);
+        documentos.quitar(id);
+        alFinalizar(() -> documentos.quitar(id));
+    }
+
+    /**
+     * Retira los documentos de los registros que cambiaron en otras instancias
+     * @param cambios Cambios leídos del registro de cambios
+     */
+    @EventListener
+    public void cambiosRemotos(CambiosRemotos cambios) {
+        for (CambiosRemotos.Cambio cambio : cambios.cambios()) {
+            caches.get(cambio.persona()).quitar(cambio.id());
+        }
+    }
+
+    private Optional<VersionDto> consultar(Persona persona, String documento) {
+        return switch (persona) {
+            case PACIENTE -> pacienteDao.findVersionByDocument(documento);
+            case MEDICO -> medicoDao.findVersionByDocument(documento);
+            case ADMINISTRADOR -> administradorDao.findVersionByDocument(documento);
+        };
+    }
+
+    // Repite la invalidación al terminar la transacción: una lectura concurrente pudo volver a guardar el valor anterior
+    private static void alFinalizar(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                accion.run();
+            }
+        });
+    }
+
+    /**
+     * Caché de documento a ID con su índice inverso de ID a documento. El índice solo guarda las entradas
+     * presentes en la caché: las que la caché desaloja por tamaño o vencimiento se retiran también de él
+     */
+    static final class Documentos {
+
+        private final Cache<String, Long> cache;
+
+        private final Map<Long, String> porId = new ConcurrentHashMap<>();
+
+        Documentos(long tamano, Duration vencimiento) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(tamano)
+                    .expireAfterWrite(vencimiento)
+                    // Se ejecuta dentro del desalojo, antes de que la llave pueda volver a cargarse
+                    .evictionListener((String documento, Long id, RemovalCause causa) -> {
+                        if (documento != null && id != null) {
+                            porId.remove(id, documento);
+                        }
+                    })
+                    .recordStats()
+                    .build();
+        }
+
+        Long obtener(String documento, Function<String, Long> consulta) {
+            String[] anterior = new String[1];
+            // Si la consulta devuelve nulo, Caffeine no guarda la entrada
+            Long id = cache.get(documento, doc -> {
+                Long encontrado = consulta.apply(doc);
+                if (encontrado != null) {
+                    anterior[0] = porId.put(encontrado, doc);
+                }
+                return encontrado;
+            });
+            // Fuera de la carga: Caffeine no admite modificar otras llaves mientras calcula una
+            retirarAnterior(anterior[0], documento, id);
+            return id;
+        }
+
+        void guardar(String documento, Long id) {
+            retirarAnterior(porId.put(id, documento), documento, id);
+            Long anterior = cache.asMap().put(documento, id);
+            if (anterior != null && !anterior.equals(id)) {
+                porId.remove(anterior, documento);
+            }
+        }
+
+        void quitar(String documento) {
+            Long id = cache.asMap().remove(documento);
+            if (id != null) {
+                porId.remove(id, documento);
+            }
+        }
+
+        void quitar(Long id) {
+            String documento = porId.remove(id);
+            if (documento != null) {
+                cache.asMap().remove(documento, id);
+            }
+        }
+
+        // El registro pudo cambiar de documento: se retira el anterior
+        private void retirarAnterior(String anterior, String documento, Long id) {
+            if (anterior != null && !anterior.equals(documento)) {
+                cache.asMap().remove(anterior, id);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package org.sena.saludcontigo.models.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Rueda temporal jerárquica: cada nivel tiene {@code 2^bits} ranuras y cada ranura de un nivel abarca una
+ * vuelta completa del nivel anterior. Una entrada se guarda en el nivel más bajo que alcanza su vencimiento;
+ * al llegar el turno de su ranura baja al nivel siguiente, hasta vencer en el primero. Agregar y cancelar
+ * cuestan O(1) y avanzar un paso solo recorre la ranura que vence. Las entradas que no alcanza el último
+ * nivel esperan en una lista aparte. No es segura entre hilos: el servicio que la usa la protege.
+ * @param <T> Valor que se entrega al vencer la entrada
+ */
+final class RuedaTemporal<T> {
+
+    private final long pasoMillis;
+
+    private final int bits;
+
+    private final int mascara;
+
+    // Ranuras de cada nivel, del más bajo al más alto
+    private final List<List<List<Entrada<T>>>> ranuras;
+
+    private final List<Entrada<T>> lejanas = new ArrayList<>();
+
+    // Siguiente paso a procesar (en pasos desde la época)
+    private long paso;
+
+    private int tamano;
+
+    /**
+     * @param pasoMillis Resolución de la rueda en milisegundos
+     * @param bits Logaritmo en base 2 de las ranuras por nivel
+     * @param niveles Cantidad de niveles
+     * @param inicioMillis Instante desde el que se cuenta
+     */
+    RuedaTemporal(long pasoMillis, int bits, int niveles, long inicioMillis) {
+        this.pasoMillis = pasoMillis;
+        this.bits = bits;
+        this.mascara = (1 << bits) - 1;
+        this.ranuras = new ArrayList<>(niveles);
+        for (int nivel = 0; nivel < niveles; nivel++) {
+            List<List<Entrada<T>>> ranurasNivel = new ArrayList<>(1 << bits);
+            for (int i = 0; i < 1 << bits; i++) {
+                ranurasNivel.add(new ArrayList<>());
+            }
+            ranuras.add(ranurasNivel);
+        }
+        this.paso = Math.ceilDiv(inicioMillis, pasoMillis);
+    }
+
+    /**
+     * @return Tiempo que abarcan todos los niveles desde el paso actual
+     */
+    long alcanceMillis() {
+        return pasoMillis << (bits * ranuras.size());
+    }
+
+    /**
+     * Agrega una entrada; si su vencimiento ya pasó, vence en el siguiente avance
+     * @param vencimientoMillis Instante de vencimiento
+     * @param valor Valor a entregar
+     * @return Entrada, para cancelarla
+     */
+    Entrada<T> agregar(long vencimientoMillis, T valor) {
+        // Nunca antes de tiempo: el paso de vencimiento se redondea hacia arriba
+        Entrada<T> entrada = new Entrada<>(Math.ceilDiv(vencimientoMillis, pasoMillis), valor);
+        colocar(entrada);
+        tamano++;
+        return entrada;
+    }
+
+    /**
+     * Cancela una entrada; se descarta cuando la rueda llega a su ranura
+     * @param entrada Entrada devuelta por {@link #agregar}
+     */
+    void cancelar(Entrada<T> entrada) {
+        if (!entrada.cancelada) {
+            entrada.cancelada = true;
+            tamano--;
+        }
+    }
+
+    /**
+     * Avanza la rueda hasta el instante indicado y entrega las entradas vencidas en orden de vencimiento
+     * @param ahoraMillis Instante actual
+     * @param vencidas Recibe el valor de cada entrada vencida
+     */
+    void avanzar(long ahoraMillis, Consumer<T> vencidas) {
+        long hasta = Math.floorDiv(ahoraMillis, pasoMillis);
+        for (; paso <= hasta; paso++) {
+            // Las ranuras de los niveles superiores que empiezan en este paso bajan de nivel, de arriba hacia abajo
+            if ((paso & ((1L << (bits * (ranuras.size() - 1))) - 1)) == 0 && !lejanas.isEmpty()) {
+                List<Entrada<T>> pendientes = new ArrayList<>(lejanas);
+                lejanas.clear();
+                pendientes.forEach(this::recolocar);
+            }
+            for (int nivel = ranuras.size() - 1; nivel > 0; nivel--) {
+                if ((paso & ((1L << (bits * nivel)) - 1)) == 0) {
+                    List<Entrada<T>> ranura = ranuras.get(nivel).get((int) (paso >>> (bits * nivel)) & mascara);
+                    if (!ranura.isEmpty()) {
+                        List<Entrada<T>> pendientes = new ArrayList<>(ranura);
+                        ranura.clear();
+                        pendientes.forEach(this::recolocar);
+                    }
+                }
+            }
+            List<Entrada<T>> ranura = ranuras.get(0).get((int) paso & mascara);
+            if (ranura.isEmpty()) {
+                continue;
+            }
+            List<Entrada<T>> vencen = new ArrayList<>(ranura);
+            ranura.clear();
+            for (Entrada<T> entrada : vencen) {
+                if (!entrada.cancelada) {
+                    entrada.cancelada = true;
+                    tamano--;
+                    vencidas.accept(entrada.valor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Descarta todas las entradas
+     */
+    void vaciar() {
+        for (List<List<Entrada<T>>> nivel : ranuras) {
+            for (List<Entrada<T>> ranura : nivel) {
+                ranura.forEach(entrada -> entrada.cancelada = true);
+                ranura.clear();
+            }
+        }
+        lejanas.forEach(entrada -> entrada.cancelada = true);
+        lejanas.clear();
+        tamano = 0;
+    }
+
+    /**
+     * @return Entradas pendientes, sin las canceladas
+     */
+    int tamano() {
+        return tamano;
+    }
+
+    private void recolocar(Entrada<T> entrada) {
+        if (!entrada.cancelada) {
+            colocar(entrada);
+        }
+    }
+
+    private void colocar(Entrada<T> entrada) {
+        long vence = Math.max(entrada.paso, paso);
+        long distancia = vence - paso;
+        for (int nivel = 0; nivel < ranuras.size(); nivel++) {
+            if (distancia < 1L << (bits * (nivel + 1))) {
+                ranuras.get(nivel).get((int) (vence >>> (bits * nivel)) & mascara).add(entrada);
+                return;
+            }
+        }
+        lejanas.add(entrada);
+    }
+
+    static final class Entrada<T> {
+
+        private final long paso;
+
+        private final T valor;
+
+        private boolean cancelada;
+
+        private Entrada(long paso, T valor) {
+            this.paso = paso;
+            this.valor = valor;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package org.sena.saludcontigo.models.services;
+
+import org.sena.saludcontigo.models.dto.ResultadoTransicionDto;
+import org.sena.saludcontigo.models.enums.EstadoCita;
+import org.sena.saludcontigo.models.enums.EstadoExamen;
+import org.sena.saludcontigo.models.services.IResolucionDocumentoService.Persona;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Cambio masivo del estado de las citas y exámenes con JDBC, sin cargar entidades. Las filas se recorren
+ * por bloques de IDs en orden ascendente y cada bloque se actualiza y confirma en su propia transacción.
+ * La actualización repite la condición del estado actual, así que una fila que otra solicitud cambió
+ * entre la selección y la actualización no se sobrescribe.
+ */
+@Service
+public class TransicionEstadoServiceImpl implements ITransicionEstadoService {
+
+    private static final Tabla CITAS = new Tabla("Citas_Medicas", "IdCita", "Estado_Cita", "Fecha_Hora_Cita", "Lugar_Cita");
+
+    private static final Tabla EXAMENES = new Tabla("Examenes_Medicos", "IdExamen", "Estado_Examen", "Fecha_Hora_Examen", "Lugar_Examen");
+
+    @Value("${saludcontigo.transicion.tamano-lote:1000}")
+    private int tamanoLote;
+
+    @Value("${saludcontigo.vencimiento.gracia:1d}")
+    private Duration gracia;
+
+    @Autowired
+    private IResolucionDocumentoService resolucionDocumentoService;
+
+    @Autowired
+    private IDisponibilidadService disponibilidadService;
+
+    @Autowired
+    private IRecordatorioService recordatorioService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Cambia el estado de las citas médicas que cumplen los filtros
+     * @return Cantidades procesadas, o nulo si el documento del médico no existe
+     */
+    @Override
+    public ResultadoTransicionDto transicionarCitas(EstadoCita actual, EstadoCita nuevo, String documentoMedico, LocalDateTime desde, LocalDateTime hasta, String lugar) {
+        // Las citas canceladas no ocupan la agenda del médico
+        boolean ocupacion = (actual == EstadoCita.CANCELADA) != (nuevo == EstadoCita.CANCELADA);
+        // Solo las citas agendadas tienen recordatorio
+        boolean recordatorios = actual == EstadoCita.AGENDADA || nuevo == EstadoCita.AGENDADA;
+        return transicionar(CITAS, actual.getCodigo(), nuevo.getCodigo(), documentoMedico, desde, hasta, lugar, () -> {
+            if (ocupacion) {
+                disponibilidadService.invalidarTodo();
+            }
+            if (recordatorios) {
+                recordatorioService.recargar();
+            }
+        });
+    }
+
+    /**
+     * Cambia el estado de los exámenes médicos que cumplen los filtros
+     * @return Cantidades procesadas, o nulo si el documento del médico no existe
+     */
+    @Override
+    public ResultadoTransicionDto transicionarExamenes(EstadoExamen actual, EstadoExamen nuevo, String documentoMedico, LocalDateTime desde, LocalDateTime hasta, String lugar) {
+        boolean recordatorios = actual == EstadoExamen.AGENDADO || nuevo == EstadoExamen.AGENDADO;
+        return transicionar(EXAMENES, actual.getCodigo(), nuevo.getCodigo(), documentoMedico, desde, hasta, lugar, () -> {
+            if (recordatorios) {
+                recordatorioService.recargar();
+            }
+        });
+    }
+
+    /**
+     * Vencimiento nocturno ({@code saludcontigo.vencimiento.cron}, "-" para desactivarlo): las citas y exámenes
+     * agendados cuya fecha y hora pasó hace más de {@code saludcontigo.vencimiento.gracia} quedan vencidos
+     */
+    @Override
+    @Scheduled(cron = "${saludcontigo.vencimiento.cron:0 0 1 * * *}")
+    public void vencer() {
+        LocalDateTime corte = LocalDateTime.now().minus(gracia);
+        transicionarCitas(EstadoCita.AGENDADA, EstadoCita.VENCIDA, null, null, corte, null);
+        transicionarExamenes(EstadoExamen.AGENDADO, EstadoExamen.VENCIDO, null, null, corte, null);
+    }
+
+    /**
+     * Recorre y actualiza los bloques. Si un bloque choca con el índice único de las franjas (citas canceladas
+     * que vuelven a un estado activo), sus filas se actualizan de a una y las que chocan se omiten
+     * @param despuesDeActualizar Invalida las cachés afectadas; se ejecuta si se actualizó alguna fila, aunque
+     *                            un bloque posterior falle
+     */
+    private ResultadoTransicionDto transicionar(Tabla tabla, int actual, int nuevo, String documentoMedico,
+                                                LocalDateTime desde, LocalDateTime hasta, String lugar, Runnable despuesDeActualizar) {
+        StringBuilder condicion = new StringBuilder(tabla.estado()).append(" = ?");
+        List<Object> filtros = new ArrayList<>();
+        filtros.add(actual);
+        if (documentoMedico != null && !documentoMedico.isBlank()) {
+            // El médico se resuelve una vez para filtrar por la llave foránea indexada, sin JOIN en cada bloque
+            Long idMedico = resolucionDocumentoService.resolver(Persona.MEDICO, documentoMedico);
+            if (idMedico == null) {
+                return null;
+            }
+            condicion.append(" AND Medicos_IdMedico = ?");
+            filtros.add(idMedico);
+        }
+        if (desde != null) {
+            condicion.append(" AND ").append(tabla.fechaHora()).append(" >= ?");
+            filtros.add(desde);
+        }
+        if (hasta != null) {
+            condicion.append(" AND ").append(tabla.fechaHora()).append(" < ?");
+            filtros.add(hasta);
+        }
+        if (lugar != null && !lugar.isBlank()) {
+            condicion.append(" AND ").append(tabla.lugar()).append(" = ?");
+            filtros.add(lugar);
+        }
+        String seleccion = "SELECT " + tabla.id() + " FROM " + tabla.nombre() + " WHERE " + condicion
+                + " AND " + tabla.id() + " > ? ORDER BY " + tabla.id() + " LIMIT " + tamanoLote;
+        String actualizacion = "UPDATE " + tabla.nombre() + " SET " + tabla.estado() + " = ?, Version = Version + 1 WHERE "
+                + tabla.estado() + " = ? AND " + tabla.id() + " IN (%s)";
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long seleccionadas = 0;
+        long actualizadas = 0;
+        long conflictos = 0;
+        int lotes = 0;
+        long ultimoId = 0;
+        try {
+            while (true) {
+                Object[] parametros = filtros.toArray(new Object[filtros.size() + 1]);
+                parametros[filtros.size()] = ultimoId;
+                List<Long> ids = jdbcTemplate.queryForList(seleccion, Long.class, parametros);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                List<Object> valores = new ArrayList<>(ids.size() + 2);
+                valores.add(nuevo);
+                valores.add(actual);
+                valores.addAll(ids);
+                String sentencia = String.format(actualizacion, String.join(",", Collections.nCopies(ids.size(), "?")));
+                try {
+                    Integer filas = transaction.execute(status -> jdbcTemplate.update(sentencia, valores.toArray()));
+                    actualizadas += filas == null ? 0 : filas;
+                } catch (DataIntegrityViolationException e) {
+                    // El bloque se revirtió completo: se reintenta fila por fila para omitir solo las que chocan
+                    String individual = String.format(actualizacion, "?");
+                    for (Long id : ids) {
+                        try {
+                            Integer filas = transaction.execute(status -> jdbcTemplate.update(individual, nuevo, actual, id));
+                            actualizadas += filas == null ? 0 : filas;
+                        } catch (DataIntegrityViolationException conflicto) {
+                            conflictos++;
+                        }
+                    }
+                }
+
+                seleccionadas += ids.size();
+                lotes++;
+                ultimoId = ids.get(ids.size() - 1);
+                if (ids.size() < tamanoLote) {
+                    break;
+                }
+            }
+        } finally {
+            // Los bloques confirmados antes de un error también cambiaron la agenda y los recordatorios
+            if (actualizadas > 0) {
+                despuesDeActualizar.run();
+            }
+        }
+        return new ResultadoTransicionDto(seleccionadas, actualizadas, conflictos, lotes);
+    }
+
+    // Nombres de la tabla y de las columnas que intervienen en la transición
+    private record Tabla(String nombre, String id, String estado, String fechaHora, String lugar) {
+    }
+}
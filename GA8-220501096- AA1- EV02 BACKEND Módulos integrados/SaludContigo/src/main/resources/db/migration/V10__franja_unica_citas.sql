@@ -0,0 +1,15 @@
+-- -----------------------------------------------------
+-- V10: un médico no puede tener dos citas activas con la misma fecha y hora
+-- Las escrituras de citas de un médico se ordenan con bloqueos en cada instancia; este índice único
+-- decide entre instancias. Las citas canceladas (Estado_Cita = 2) no ocupan la franja: la columna
+-- generada vale NULL para ellas y el índice único admite varios NULL.
+--
+-- Si ya existen citas activas repetidas la migración falla; se pueden encontrar con:
+--   SELECT Medicos_IdMedico, Fecha_Hora_Cita, COUNT(*) FROM Citas_Medicas WHERE Estado_Cita <> 2
+--   GROUP BY Medicos_IdMedico, Fecha_Hora_Cita HAVING COUNT(*) > 1;
+-- -----------------------------------------------------
+
+ALTER TABLE Citas_Medicas ADD COLUMN Fecha_Hora_Ocupada DATETIME
+  GENERATED ALWAYS AS (CASE WHEN Estado_Cita <> 2 THEN Fecha_Hora_Cita END);
+
+CREATE UNIQUE INDEX uq_Citas_Medicas_Medico_Fecha_Hora_Ocupada ON Citas_Medicas (Medicos_IdMedico ASC, Fecha_Hora_Ocupada ASC);
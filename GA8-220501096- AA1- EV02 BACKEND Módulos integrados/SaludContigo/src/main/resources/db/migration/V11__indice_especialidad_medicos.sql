@@ -0,0 +1,5 @@
+-- -----------------------------------------------------
+-- V11: médicos activos por especialidad (búsqueda de la próxima hora disponible de una especialidad)
+-- -----------------------------------------------------
+
+CREATE INDEX idx_Medicos_Especialidad_Estado ON Medicos (Especialidad ASC, Estado ASC);
@@ -0,0 +1,22 @@
+-- -----------------------------------------------------
+-- V12: recordatorios de citas y exámenes (destino outbox)
+-- Cada instancia agrega aquí los recordatorios vencidos; el proceso que los entrega al paciente los
+-- lee por ID. La llave única descarta el mismo recordatorio agregado por varias instancias o reintentos.
+-- Las filas antiguas se eliminan periódicamente (saludcontigo.recordatorios.retencion).
+-- -----------------------------------------------------
+
+-- -----------------------------------------------------
+-- Table `Recordatorios`
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS Recordatorios (
+  IdRecordatorio BIGINT NOT NULL AUTO_INCREMENT,
+  Tipo TINYINT NOT NULL,
+  IdRegistro INT NOT NULL,
+  Fecha_Hora DATETIME NOT NULL,
+  Fecha_Recordatorio DATETIME NOT NULL,
+  Fecha_Emision DATETIME(3) NOT NULL,
+  PRIMARY KEY (IdRecordatorio))
+ENGINE = InnoDB;
+
+CREATE UNIQUE INDEX uq_Recordatorios_Tipo_Registro_Fecha_Hora ON Recordatorios (Tipo ASC, IdRegistro ASC, Fecha_Hora ASC);
+CREATE INDEX idx_Recordatorios_Fecha_Emision ON Recordatorios (Fecha_Emision ASC);
@@ -0,0 +1,41 @@
+-- -----------------------------------------------------
+-- V13: lista de espera de citas
+-- Un paciente pide una cita con un médico o con cualquier médico de una especialidad que empiece dentro
+-- de [Desde, Hasta]. Cuando se cancela o se elimina una cita agendada, la franja se asigna al primero de
+-- la lista que la acepta. Estado: 1 pendiente, 2 asignada, 3 retirada, 4 vencida (EstadoEspera).
+-- La cita asignada no tiene llave foránea: las citas se eliminan y se archivan.
+-- -----------------------------------------------------
+
+-- -----------------------------------------------------
+-- Table `Lista_Espera`
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS Lista_Espera (
+  IdEspera INT NOT NULL AUTO_INCREMENT,
+  Tipo_Cita VARCHAR(50) NOT NULL,
+  Especialidad VARCHAR(100) NULL DEFAULT NULL,
+  Desde DATETIME NOT NULL,
+  Hasta DATETIME NOT NULL,
+  Estado TINYINT NOT NULL,
+  Fecha_Registro DATETIME NOT NULL,
+  Citas_Medicas_IdCita INT NULL DEFAULT NULL,
+  Pacientes_IdPaciente INT NOT NULL,
+  Medicos_IdMedico INT NULL DEFAULT NULL,
+  PRIMARY KEY (IdEspera),
+  CONSTRAINT fk_Lista_Espera_Pacientes1
+    FOREIGN KEY (Pacientes_IdPaciente)
+    REFERENCES Pacientes (IdPaciente)
+    ON DELETE NO ACTION
+    ON UPDATE NO ACTION,
+  CONSTRAINT fk_Lista_Espera_Medicos1
+    FOREIGN KEY (Medicos_IdMedico)
+    REFERENCES Medicos (IdMedico)
+    ON DELETE NO ACTION
+    ON UPDATE NO ACTION)
+ENGINE = InnoDB;
+
+CREATE INDEX fk_Lista_Espera_Pacientes1_idx ON Lista_Espera (Pacientes_IdPaciente ASC);
+CREATE INDEX fk_Lista_Espera_Medicos1_idx ON Lista_Espera (Medicos_IdMedico ASC);
+-- Carga de las solicitudes pendientes y vencimiento de las que ya pasaron
+CREATE INDEX idx_Lista_Espera_Estado_Hasta ON Lista_Espera (Estado ASC, Hasta ASC);
+
+INSERT IGNORE INTO Secuencias (Nombre_Secuencia, Siguiente_Valor) VALUES ('Lista_Espera', 1);
@@ -0,0 +1,8 @@
+-- -----------------------------------------------------
+-- V14: cambios de la agenda de los médicos en el registro de cambios
+-- Cada cita creada, movida, cancelada o eliminada agrega una fila por día afectado de la agenda del médico:
+-- Entidad del médico, IdEntidad su ID y Fecha_Agenda el día. Las demás instancias descartan ese día de su
+-- disponibilidad en memoria. Las filas de pacientes, médicos y administradores dejan Fecha_Agenda en nulo.
+-- -----------------------------------------------------
+
+ALTER TABLE Registro_Cambios ADD COLUMN Fecha_Agenda DATE NULL DEFAULT NULL;
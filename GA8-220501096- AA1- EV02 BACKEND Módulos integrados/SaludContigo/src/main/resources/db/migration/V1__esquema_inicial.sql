@@ -0,0 +1,163 @@
+-- -----------------------------------------------------
+-- V1: esquema inicial de BaseDatosSaludContigo (SaludContigoDBScriptV1.sql sin datos)
+-- En bases existentes creadas con el script manual esta versión se toma como línea base.
+-- -----------------------------------------------------
+
+-- -----------------------------------------------------
+-- Table `Administradores`
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS Administradores (
+  IdAdministrador INT NOT NULL AUTO_INCREMENT,
+  Nombres VARCHAR(50) NOT NULL,
+  Apellidos VARCHAR(50) NOT NULL,
+  Tipo_Documento VARCHAR(20) NOT NULL,
+  Numero_Documento VARCHAR(20) NOT NULL,
+  Fecha_Nacimiento DATE NOT NULL,
+  Sexo VARCHAR(20) NOT NULL,
+  Telefono VARCHAR(20) NOT NULL,
+  Correo VARCHAR(100) NOT NULL,
+  Direccion VARCHAR(200) NOT NULL,
+  Ocupacion VARCHAR(100) NOT NULL,
+  Username VARCHAR(20) NOT NULL,
+  Password VARCHAR(20) NOT NULL,
+  Estado VARCHAR(10) NOT NULL,
+  Rol VARCHAR(10) NOT NULL,
+  Fecha_Creacion DATE NULL DEFAULT NULL,
+  Fecha_Modificacion DATE NULL DEFAULT NULL,
+  PRIMARY KEY (IdAdministrador))
+ENGINE = InnoDB;
+
+
+-- -----------------------------------------------------
+-- Table `Medicos`
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS Medicos (
+  IdMedico INT NOT NULL AUTO_INCREMENT,
+  Nombres VARCHAR(50) NOT NULL,
+  Apellidos VARCHAR(50) NOT NULL,
+  Tipo_Documento VARCHAR(20) NOT NULL,
+  Numero_Documento VARCHAR(20) NOT NULL,
+  Fecha_Nacimiento DATE NOT NULL,
+  Sexo VARCHAR(20) NOT NULL,
+  Telefono VARCHAR(20) NOT NULL,
+  Correo VARCHAR(100) NOT NULL,
+  Direccion VARCHAR(200) NOT NULL,
+  Especialidad VARCHAR(100) NOT NULL,
+  Username VARCHAR(20) NOT NULL,
+  Password VARCHAR(20) NOT NULL,
+  Estado VARCHAR(10) NOT NULL,
+  Fecha_Creacion DATE NULL DEFAULT NULL,
+  Fecha_Modificacion DATE NULL DEFAULT NULL,
+  PRIMARY KEY (IdMedico))
+ENGINE = InnoDB;
+
+
+-- -----------------------------------------------------
+-- Table `Pacientes`
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS Pacientes (
+  IdPaciente INT NOT NULL AUTO_INCREMENT,
+  Nombres VARCHAR(50) NOT NULL,
+  Apellidos VARCHAR(50) NOT NULL,
+  Tipo_Documento VARCHAR(20) NOT NULL,
+  Numero_Documento VARCHAR(20) NOT NULL,
+  Fecha_Nacimiento DATE NOT NULL,
+  Sexo VARCHAR(20) NOT NULL,
+  Telefono VARCHAR(20) NOT NULL,
+  Correo VARCHAR(100) NOT NULL,
+  Direccion VARCHAR(200) NOT NULL,
+  Ocupacion VARCHAR(100) NOT NULL,
+  Username VARCHAR(20) NOT NULL,
+  Password VARCHAR(20) NOT NULL,
+  Estado VARCHAR(10) NOT NULL,
+  Fecha_Creacion DATE NULL DEFAULT NULL,
+  Fecha_Modificacion DATE NULL DEFAULT NULL,
+  PRIMARY KEY (IdPaciente))
+ENGINE = InnoDB;
+
+
+-- -----------------------------------------------------
+-- Table `Citas_Medicas`
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS Citas_Medicas (
+  IdCita INT NOT NULL AUTO_INCREMENT,
+  Tipo_Cita VARCHAR(50) NOT NULL,
+  Fecha_Cita DATE NOT NULL,
+  Hora_Cita TIME NOT NULL,
+  Lugar_Cita VARCHAR(200) NOT NULL,
+  Estado_Cita VARCHAR(20) NOT NULL,
+  Observacion_Cita VARCHAR(200) NULL DEFAULT NULL,
+  Pacientes_IdPaciente INT NOT NULL,
+  Medicos_IdMedico INT NOT NULL,
+  PRIMARY KEY (IdCita),
+  CONSTRAINT fk_Citas_Medicas_Medicos1
+    FOREIGN KEY (Medicos_IdMedico)
+    REFERENCES Medicos (IdMedico)
+    ON DELETE NO ACTION
+    ON UPDATE NO ACTION,
+  CONSTRAINT fk_Citas_Medicas_Pacientes1
+    FOREIGN KEY (Pacientes_IdPaciente)
+    REFERENCES Pacientes (IdPaciente)
+    ON DELETE NO ACTION
+    ON UPDATE NO ACTION)
+ENGINE = InnoDB;
+
+CREATE INDEX fk_Citas_Medicas_Pacientes1_idx ON Citas_Medicas (Pacientes_IdPaciente ASC);
+CREATE INDEX fk_Citas_Medicas_Medicos1_idx ON Citas_Medicas (Medicos_IdMedico ASC);
+
+-- -----------------------------------------------------
+-- Table `Examenes_Medicos`
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS Examenes_Medicos (
+  IdExamen INT NOT NULL AUTO_INCREMENT,
+  Tipo_Examen VARCHAR(50) NOT NULL,
+  Fecha_Examen DATE NOT NULL,
+  Hora_Examen TIME NOT NULL,
+  Lugar_Examen VARCHAR(200) NOT NULL,
+  Estado_Examen VARCHAR(20) NOT NULL,
+  Observacion_Examen VARCHAR(200) NULL DEFAULT NULL,
+  Pacientes_IdPaciente INT NOT NULL,
+  Medicos_IdMedico INT NOT NULL,
+  PRIMARY KEY (IdExamen),
+  CONSTRAINT fk_Examenes_Medicos_Medicos1
+    FOREIGN KEY (Medicos_IdMedico)
+    REFERENCES Medicos (IdMedico)
+    ON DELETE NO ACTION
+    ON UPDATE NO ACTION,
+  CONSTRAINT fk_Examenes_Medicos_Pacientes1
+    FOREIGN KEY (Pacientes_IdPaciente)
+    REFERENCES Pacientes (IdPaciente)
+    ON DELETE NO ACTION
+    ON UPDATE NO ACTION)
+ENGINE = InnoDB;
+
+CREATE INDEX fk_Examenes_Medicos_Pacientes1_idx ON Examenes_Medicos (Pacientes_IdPaciente ASC);
+CREATE INDEX fk_Examenes_Medicos_Medicos1_idx ON Examenes_Medicos (Medicos_IdMedico ASC);
+
+-- -----------------------------------------------------
+-- Table `Historias_Clinicas`
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS Historias_Clinicas (
+  IdHistoria INT NOT NULL AUTO_INCREMENT,
+  Fecha_Historia DATE NOT NULL,
+  Antecedentes_Historia VARCHAR(500) NULL DEFAULT NULL,
+  Examenes_Historia VARCHAR(500) NULL DEFAULT NULL,
+  Diagnostico_Historia VARCHAR(500) NULL DEFAULT NULL,
+  Tratamiento_Historia VARCHAR(500) NULL DEFAULT NULL,
+  Pacientes_IdPaciente INT NOT NULL,
+  Medicos_IdMedico INT NOT NULL,
+  PRIMARY KEY (IdHistoria),
+  CONSTRAINT fk_Historias_Clinicas_Medicos1
+    FOREIGN KEY (Medicos_IdMedico)
+    REFERENCES Medicos (IdMedico)
+    ON DELETE NO ACTION
+    ON UPDATE NO ACTION,
+  CONSTRAINT fk_Historias_Clinicas_Pacientes1
+    FOREIGN KEY (Pacientes_IdPaciente)
+    REFERENCES Pacientes (IdPaciente)
+    ON DELETE NO ACTION
+    ON UPDATE NO ACTION)
+ENGINE = InnoDB;
+
+CREATE INDEX fk_Historias_Clinicas_Pacientes1_idx ON Historias_Clinicas (Pacientes_IdPaciente ASC);
+CREATE INDEX fk_Historias_Clinicas_Medicos1_idx ON Historias_Clinicas (Medicos_IdMedico ASC);
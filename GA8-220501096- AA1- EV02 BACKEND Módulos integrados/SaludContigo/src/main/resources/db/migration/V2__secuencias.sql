@@ -0,0 +1,21 @@
+-- -----------------------------------------------------
+-- V2: generador de IDs por bloques (pooled-lo), equivalente a SaludContigoDBScriptV2.sql
+-- Es idempotente: en bases donde ya se ejecutó el script manual no cambia nada.
+-- -----------------------------------------------------
+
+-- -----------------------------------------------------
+-- Table `Secuencias`
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS Secuencias (
+  Nombre_Secuencia VARCHAR(50) NOT NULL,
+  Siguiente_Valor BIGINT NOT NULL,
+  PRIMARY KEY (Nombre_Secuencia))
+ENGINE = InnoDB;
+
+-- El valor inicial continúa después del mayor ID existente
+INSERT IGNORE INTO Secuencias (Nombre_Secuencia, Siguiente_Valor) SELECT 'Administradores', COALESCE(MAX(IdAdministrador), 0) + 1 FROM Administradores;
+INSERT IGNORE INTO Secuencias (Nombre_Secuencia, Siguiente_Valor) SELECT 'Medicos', COALESCE(MAX(IdMedico), 0) + 1 FROM Medicos;
+INSERT IGNORE INTO Secuencias (Nombre_Secuencia, Siguiente_Valor) SELECT 'Pacientes', COALESCE(MAX(IdPaciente), 0) + 1 FROM Pacientes;
+INSERT IGNORE INTO Secuencias (Nombre_Secuencia, Siguiente_Valor) SELECT 'Citas_Medicas', COALESCE(MAX(IdCita), 0) + 1 FROM Citas_Medicas;
+INSERT IGNORE INTO Secuencias (Nombre_Secuencia, Siguiente_Valor) SELECT 'Examenes_Medicos', COALESCE(MAX(IdExamen), 0) + 1 FROM Examenes_Medicos;
+INSERT IGNORE INTO Secuencias (Nombre_Secuencia, Siguiente_Valor) SELECT 'Historias_Clinicas', COALESCE(MAX(IdHistoria), 0) + 1 FROM Historias_Clinicas;
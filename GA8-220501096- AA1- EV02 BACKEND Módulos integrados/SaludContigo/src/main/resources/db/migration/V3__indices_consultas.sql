@@ -0,0 +1,28 @@
+-- -----------------------------------------------------
+-- V3: índices para las rutas de consulta de los DAO
+-- Antes de aplicar en producción verifique que no existan documentos repetidos:
+--   SELECT Numero_Documento, COUNT(*) FROM Pacientes GROUP BY Numero_Documento HAVING COUNT(*) > 1;
+-- -----------------------------------------------------
+
+-- Búsqueda y eliminación por número de documento (findByDocument, deleteByDocument y los JOIN de las tablas clínicas)
+CREATE UNIQUE INDEX uk_Administradores_Numero_Documento ON Administradores (Numero_Documento ASC);
+CREATE UNIQUE INDEX uk_Medicos_Numero_Documento ON Medicos (Numero_Documento ASC);
+CREATE UNIQUE INDEX uk_Pacientes_Numero_Documento ON Pacientes (Numero_Documento ASC);
+
+-- Agenda del médico y del paciente por fecha y hora
+-- Los índices compuestos empiezan por la llave foránea, por lo que también sirven a la restricción
+-- y reemplazan a los índices simples creados en V1.
+CREATE INDEX idx_Citas_Medicas_Medico_Fecha ON Citas_Medicas (Medicos_IdMedico ASC, Fecha_Cita ASC, Hora_Cita ASC);
+CREATE INDEX idx_Citas_Medicas_Paciente_Fecha ON Citas_Medicas (Pacientes_IdPaciente ASC, Fecha_Cita ASC, Hora_Cita ASC);
+DROP INDEX fk_Citas_Medicas_Medicos1_idx ON Citas_Medicas;
+DROP INDEX fk_Citas_Medicas_Pacientes1_idx ON Citas_Medicas;
+
+CREATE INDEX idx_Examenes_Medicos_Medico_Fecha ON Examenes_Medicos (Medicos_IdMedico ASC, Fecha_Examen ASC, Hora_Examen ASC);
+CREATE INDEX idx_Examenes_Medicos_Paciente_Fecha ON Examenes_Medicos (Pacientes_IdPaciente ASC, Fecha_Examen ASC, Hora_Examen ASC);
+DROP INDEX fk_Examenes_Medicos_Medicos1_idx ON Examenes_Medicos;
+DROP INDEX fk_Examenes_Medicos_Pacientes1_idx ON Examenes_Medicos;
+
+CREATE INDEX idx_Historias_Clinicas_Medico_Fecha ON Historias_Clinicas (Medicos_IdMedico ASC, Fecha_Historia ASC);
+CREATE INDEX idx_Historias_Clinicas_Paciente_Fecha ON Historias_Clinicas (Pacientes_IdPaciente ASC, Fecha_Historia ASC);
+DROP INDEX fk_Historias_Clinicas_Medicos1_idx ON Historias_Clinicas;
+DROP INDEX fk_Historias_Clinicas_Pacientes1_idx ON Historias_Clinicas;
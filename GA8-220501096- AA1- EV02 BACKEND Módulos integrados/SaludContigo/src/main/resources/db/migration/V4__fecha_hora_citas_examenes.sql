@@ -0,0 +1,24 @@
+-- -----------------------------------------------------
+-- V4: fecha y hora combinadas en una sola columna para las consultas por rango
+-- La aplicación la mantiene sincronizada con Fecha_*/Hora_* al insertar y actualizar.
+-- -----------------------------------------------------
+
+ALTER TABLE Citas_Medicas ADD COLUMN Fecha_Hora_Cita DATETIME NULL;
+UPDATE Citas_Medicas SET Fecha_Hora_Cita = CAST(CONCAT(Fecha_Cita, ' ', Hora_Cita) AS DATETIME);
+ALTER TABLE Citas_Medicas MODIFY COLUMN Fecha_Hora_Cita DATETIME NOT NULL;
+
+ALTER TABLE Examenes_Medicos ADD COLUMN Fecha_Hora_Examen DATETIME NULL;
+UPDATE Examenes_Medicos SET Fecha_Hora_Examen = CAST(CONCAT(Fecha_Examen, ' ', Hora_Examen) AS DATETIME);
+ALTER TABLE Examenes_Medicos MODIFY COLUMN Fecha_Hora_Examen DATETIME NOT NULL;
+
+-- Agenda del médico y del paciente: un solo rango sobre (llave foránea, fecha y hora).
+-- Reemplazan a los índices (llave foránea, fecha, hora) de V3.
+CREATE INDEX idx_Citas_Medicas_Medico_Fecha_Hora ON Citas_Medicas (Medicos_IdMedico ASC, Fecha_Hora_Cita ASC);
+CREATE INDEX idx_Citas_Medicas_Paciente_Fecha_Hora ON Citas_Medicas (Pacientes_IdPaciente ASC, Fecha_Hora_Cita ASC);
+DROP INDEX idx_Citas_Medicas_Medico_Fecha ON Citas_Medicas;
+DROP INDEX idx_Citas_Medicas_Paciente_Fecha ON Citas_Medicas;
+
+CREATE INDEX idx_Examenes_Medicos_Medico_Fecha_Hora ON Examenes_Medicos (Medicos_IdMedico ASC, Fecha_Hora_Examen ASC);
+CREATE INDEX idx_Examenes_Medicos_Paciente_Fecha_Hora ON Examenes_Medicos (Pacientes_IdPaciente ASC, Fecha_Hora_Examen ASC);
+DROP INDEX idx_Examenes_Medicos_Medico_Fecha ON Examenes_Medicos;
+DROP INDEX idx_Examenes_Medicos_Paciente_Fecha ON Examenes_Medicos;
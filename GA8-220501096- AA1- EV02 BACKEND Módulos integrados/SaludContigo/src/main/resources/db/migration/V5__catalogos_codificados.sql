@@ -0,0 +1,48 @@
+-- -----------------------------------------------------
+-- V5: catálogos guardados como códigos enteros (TINYINT)
+-- Los códigos corresponden a los enums de org.sena.saludcontigo.models.enums.
+-- Un valor que no pertenezca al catálogo hace fallar la migración (la columna es NOT NULL);
+-- en ese caso corrija el dato, ejecute flyway repair y vuelva a iniciar la aplicación.
+-- MySQL confirma cada ALTER por separado, así que una ejecución fallida deja convertidas las tablas
+-- anteriores: cada CASE acepta también los códigos ya convertidos para que la migración se pueda repetir.
+-- -----------------------------------------------------
+
+-- Estado de las citas (EstadoCita)
+UPDATE Citas_Medicas SET Estado_Cita = CASE UPPER(TRIM(Estado_Cita)) WHEN 'AGENDADA' THEN '1' WHEN 'CANCELADA' THEN '2' WHEN 'EJECUTADA' THEN '3' WHEN '1' THEN '1' WHEN '2' THEN '2' WHEN '3' THEN '3' END;
+ALTER TABLE Citas_Medicas MODIFY COLUMN Estado_Cita TINYINT NOT NULL;
+
+-- Estado de los exámenes (EstadoExamen)
+UPDATE Examenes_Medicos SET Estado_Examen = CASE UPPER(TRIM(Estado_Examen)) WHEN 'AGENDADO' THEN '1' WHEN 'CANCELADO' THEN '2' WHEN 'EJECUTADO' THEN '3' WHEN '1' THEN '1' WHEN '2' THEN '2' WHEN '3' THEN '3' END;
+ALTER TABLE Examenes_Medicos MODIFY COLUMN Estado_Examen TINYINT NOT NULL;
+
+-- Estado de las cuentas (Estado)
+UPDATE Administradores SET Estado = CASE UPPER(TRIM(Estado)) WHEN 'ACTIVO' THEN '1' WHEN 'INACTIVO' THEN '2' WHEN '1' THEN '1' WHEN '2' THEN '2' END;
+ALTER TABLE Administradores MODIFY COLUMN Estado TINYINT NOT NULL;
+UPDATE Medicos SET Estado = CASE UPPER(TRIM(Estado)) WHEN 'ACTIVO' THEN '1' WHEN 'INACTIVO' THEN '2' WHEN '1' THEN '1' WHEN '2' THEN '2' END;
+ALTER TABLE Medicos MODIFY COLUMN Estado TINYINT NOT NULL;
+UPDATE Pacientes SET Estado = CASE UPPER(TRIM(Estado)) WHEN 'ACTIVO' THEN '1' WHEN 'INACTIVO' THEN '2' WHEN '1' THEN '1' WHEN '2' THEN '2' END;
+ALTER TABLE Pacientes MODIFY COLUMN Estado TINYINT NOT NULL;
+
+-- Tipo de documento (TipoDocumento)
+UPDATE Administradores SET Tipo_Documento = CASE UPPER(TRIM(Tipo_Documento)) WHEN 'CC' THEN '1' WHEN 'TI' THEN '2' WHEN 'CE' THEN '3' WHEN 'PA' THEN '4' WHEN 'RC' THEN '5' WHEN '1' THEN '1' WHEN '2' THEN '2' WHEN '3' THEN '3' WHEN '4' THEN '4' WHEN '5' THEN '5' END;
+ALTER TABLE Administradores MODIFY COLUMN Tipo_Documento TINYINT NOT NULL;
+UPDATE Medicos SET Tipo_Documento = CASE UPPER(TRIM(Tipo_Documento)) WHEN 'CC' THEN '1' WHEN 'TI' THEN '2' WHEN 'CE' THEN '3' WHEN 'PA' THEN '4' WHEN 'RC' THEN '5' WHEN '1' THEN '1' WHEN '2' THEN '2' WHEN '3' THEN '3' WHEN '4' THEN '4' WHEN '5' THEN '5' END;
+ALTER TABLE Medicos MODIFY COLUMN Tipo_Documento TINYINT NOT NULL;
+UPDATE Pacientes SET Tipo_Documento = CASE UPPER(TRIM(Tipo_Documento)) WHEN 'CC' THEN '1' WHEN 'TI' THEN '2' WHEN 'CE' THEN '3' WHEN 'PA' THEN '4' WHEN 'RC' THEN '5' WHEN '1' THEN '1' WHEN '2' THEN '2' WHEN '3' THEN '3' WHEN '4' THEN '4' WHEN '5' THEN '5' END;
+ALTER TABLE Pacientes MODIFY COLUMN Tipo_Documento TINYINT NOT NULL;
+
+-- Sexo (Sexo)
+UPDATE Administradores SET Sexo = CASE UPPER(TRIM(Sexo)) WHEN 'MASCULINO' THEN '1' WHEN 'FEMENINO' THEN '2' WHEN 'OTRO' THEN '3' WHEN '1' THEN '1' WHEN '2' THEN '2' WHEN '3' THEN '3' END;
+ALTER TABLE Administradores MODIFY COLUMN Sexo TINYINT NOT NULL;
+UPDATE Medicos SET Sexo = CASE UPPER(TRIM(Sexo)) WHEN 'MASCULINO' THEN '1' WHEN 'FEMENINO' THEN '2' WHEN 'OTRO' THEN '3' WHEN '1' THEN '1' WHEN '2' THEN '2' WHEN '3' THEN '3' END;
+ALTER TABLE Medicos MODIFY COLUMN Sexo TINYINT NOT NULL;
+UPDATE Pacientes SET Sexo = CASE UPPER(TRIM(Sexo)) WHEN 'MASCULINO' THEN '1' WHEN 'FEMENINO' THEN '2' WHEN 'OTRO' THEN '3' WHEN '1' THEN '1' WHEN '2' THEN '2' WHEN '3' THEN '3' END;
+ALTER TABLE Pacientes MODIFY COLUMN Sexo TINYINT NOT NULL;
+
+-- Rol de los administradores (Rol)
+UPDATE Administradores SET Rol = CASE UPPER(TRIM(Rol)) WHEN '0' THEN '0' WHEN '1' THEN '1' WHEN '2' THEN '2' END;
+ALTER TABLE Administradores MODIFY COLUMN Rol TINYINT NOT NULL;
+
+-- Filtros por estado de las citas: conteos por estado y agenda de un médico por estado
+CREATE INDEX idx_Citas_Medicas_Estado ON Citas_Medicas (Estado_Cita ASC);
+CREATE INDEX idx_Citas_Medicas_Medico_Estado ON Citas_Medicas (Medicos_IdMedico ASC, Estado_Cita ASC);
@@ -0,0 +1,11 @@
+-- -----------------------------------------------------
+-- V6: columna de versión para el bloqueo optimista de las entidades
+-- Se incrementa en cada actualización y forma parte de la ETag de los endpoints.
+-- -----------------------------------------------------
+
+ALTER TABLE Administradores ADD COLUMN Version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE Medicos ADD COLUMN Version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE Pacientes ADD COLUMN Version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE Citas_Medicas ADD COLUMN Version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE Examenes_Medicos ADD COLUMN Version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE Historias_Clinicas ADD COLUMN Version BIGINT NOT NULL DEFAULT 0;
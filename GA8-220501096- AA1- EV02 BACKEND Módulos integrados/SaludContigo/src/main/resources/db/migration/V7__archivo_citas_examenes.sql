@@ -0,0 +1,75 @@
+-- -----------------------------------------------------
+-- V7: tablas de archivo para las citas y los exámenes antiguos
+-- El proceso de archivo (saludcontigo.archivo.*) mueve por bloques las filas anteriores al corte;
+-- conservan el mismo ID, por lo que una fila está en la tabla activa o en la de archivo, nunca en ambas.
+-- -----------------------------------------------------
+
+-- -----------------------------------------------------
+-- Table `Citas_Medicas_Archivo`
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS Citas_Medicas_Archivo (
+  IdCita INT NOT NULL,
+  Tipo_Cita VARCHAR(50) NOT NULL,
+  Fecha_Cita DATE NOT NULL,
+  Hora_Cita TIME NOT NULL,
+  Fecha_Hora_Cita DATETIME NOT NULL,
+  Lugar_Cita VARCHAR(200) NOT NULL,
+  Estado_Cita TINYINT NOT NULL,
+  Observacion_Cita VARCHAR(200) NULL DEFAULT NULL,
+  Pacientes_IdPaciente INT NOT NULL,
+  Medicos_IdMedico INT NOT NULL,
+  Version BIGINT NOT NULL,
+  Fecha_Archivo DATETIME NOT NULL,
+  PRIMARY KEY (IdCita),
+  CONSTRAINT fk_Citas_Medicas_Archivo_Medicos
+    FOREIGN KEY (Medicos_IdMedico)
+    REFERENCES Medicos (IdMedico)
+    ON DELETE NO ACTION
+    ON UPDATE NO ACTION,
+  CONSTRAINT fk_Citas_Medicas_Archivo_Pacientes
+    FOREIGN KEY (Pacientes_IdPaciente)
+    REFERENCES Pacientes (IdPaciente)
+    ON DELETE NO ACTION
+    ON UPDATE NO ACTION)
+ENGINE = InnoDB;
+
+CREATE INDEX idx_Citas_Medicas_Archivo_Medico_Fecha_Hora ON Citas_Medicas_Archivo (Medicos_IdMedico ASC, Fecha_Hora_Cita ASC);
+CREATE INDEX idx_Citas_Medicas_Archivo_Paciente_Fecha_Hora ON Citas_Medicas_Archivo (Pacientes_IdPaciente ASC, Fecha_Hora_Cita ASC);
+CREATE INDEX idx_Citas_Medicas_Archivo_Estado ON Citas_Medicas_Archivo (Estado_Cita ASC);
+CREATE INDEX idx_Citas_Medicas_Archivo_Medico_Estado ON Citas_Medicas_Archivo (Medicos_IdMedico ASC, Estado_Cita ASC);
+
+-- -----------------------------------------------------
+-- Table `Examenes_Medicos_Archivo`
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS Examenes_Medicos_Archivo (
+  IdExamen INT NOT NULL,
+  Tipo_Examen VARCHAR(50) NOT NULL,
+  Fecha_Examen DATE NOT NULL,
+  Hora_Examen TIME NOT NULL,
+  Fecha_Hora_Examen DATETIME NOT NULL,
+  Lugar_Examen VARCHAR(200) NOT NULL,
+  Estado_Examen TINYINT NOT NULL,
+  Observacion_Examen VARCHAR(200) NULL DEFAULT NULL,
+  Pacientes_IdPaciente INT NOT NULL,
+  Medicos_IdMedico INT NOT NULL,
+  Version BIGINT NOT NULL,
+  Fecha_Archivo DATETIME NOT NULL,
+  PRIMARY KEY (IdExamen),
+  CONSTRAINT fk_Examenes_Medicos_Archivo_Medicos
+    FOREIGN KEY (Medicos_IdMedico)
+    REFERENCES Medicos (IdMedico)
+    ON DELETE NO ACTION
+    ON UPDATE NO ACTION,
+  CONSTRAINT fk_Examenes_Medicos_Archivo_Pacientes
+    FOREIGN KEY (Pacientes_IdPaciente)
+    REFERENCES Pacientes (IdPaciente)
+    ON DELETE NO ACTION
+    ON UPDATE NO ACTION)
+ENGINE = InnoDB;
+
+CREATE INDEX idx_Examenes_Medicos_Archivo_Medico_Fecha_Hora ON Examenes_Medicos_Archivo (Medicos_IdMedico ASC, Fecha_Hora_Examen ASC);
+CREATE INDEX idx_Examenes_Medicos_Archivo_Paciente_Fecha_Hora ON Examenes_Medicos_Archivo (Pacientes_IdPaciente ASC, Fecha_Hora_Examen ASC);
+
+-- Selección de los bloques a archivar: filas activas anteriores al corte, en orden de fecha y hora
+CREATE INDEX idx_Citas_Medicas_Fecha_Hora ON Citas_Medicas (Fecha_Hora_Cita ASC);
+CREATE INDEX idx_Examenes_Medicos_Fecha_Hora ON Examenes_Medicos (Fecha_Hora_Examen ASC);
@@ -0,0 +1,11 @@
+-- -----------------------------------------------------
+-- V8: índices para las transiciones masivas de estado y el vencimiento nocturno
+-- Se agregó el código 4 a los catálogos de estado (Vencida / Vencido); las columnas TINYINT no cambian.
+-- -----------------------------------------------------
+
+-- Filas en un estado con fecha y hora en un rango (por ejemplo, agendadas anteriores al corte).
+-- Reemplaza al índice por estado de V5, que es su prefijo.
+CREATE INDEX idx_Citas_Medicas_Estado_Fecha_Hora ON Citas_Medicas (Estado_Cita ASC, Fecha_Hora_Cita ASC);
+DROP INDEX idx_Citas_Medicas_Estado ON Citas_Medicas;
+
+CREATE INDEX idx_Examenes_Medicos_Estado_Fecha_Hora ON Examenes_Medicos (Estado_Examen ASC, Fecha_Hora_Examen ASC);
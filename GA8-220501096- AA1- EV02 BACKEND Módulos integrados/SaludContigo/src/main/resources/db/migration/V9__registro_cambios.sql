@@ -0,0 +1,21 @@
+-- -----------------------------------------------------
+-- V9: registro de cambios para invalidar las cachés de las demás instancias
+-- Cada escritura confirmada de un paciente, médico o administrador agrega una fila en la misma
+-- transacción; cada instancia lee las filas nuevas por ID y descarta sus copias en caché.
+-- Las filas antiguas se eliminan periódicamente (saludcontigo.cambios.retencion).
+-- -----------------------------------------------------
+
+-- -----------------------------------------------------
+-- Table `Registro_Cambios`
+-- -----------------------------------------------------
+CREATE TABLE IF NOT EXISTS Registro_Cambios (
+  IdCambio BIGINT NOT NULL AUTO_INCREMENT,
+  Entidad TINYINT NOT NULL,
+  IdEntidad INT NOT NULL,
+  Version BIGINT NULL DEFAULT NULL,
+  Nodo VARCHAR(64) NOT NULL,
+  Fecha_Cambio DATETIME(3) NOT NULL,
+  PRIMARY KEY (IdCambio))
+ENGINE = InnoDB;
+
+CREATE INDEX idx_Registro_Cambios_Fecha ON Registro_Cambios (Fecha_Cambio ASC);
@@ -0,0 +1,100 @@
+package org.sena.saludcontigo.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Enrutamiento con bases H2 en memoria: la primaria de las pruebas y cuatro réplicas, de las
+ * cuales una informa un retraso mayor al permitido y otra no acepta conexiones.
+ */
+@SpringBootTest(properties = {
+        "saludcontigo.datasource.consulta-retraso=SELECT 0",
+        "saludcontigo.datasource.tiempo-conexion=250ms",
+        "saludcontigo.datasource.replicas[0].url=jdbc:h2:mem:replica1;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "saludcontigo.datasource.replicas[0].username=sa",
+        "saludcontigo.datasource.replicas[1].url=jdbc:h2:mem:replica2;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "saludcontigo.datasource.replicas[1].username=sa",
+        "saludcontigo.datasource.replicas[2].url=jdbc:h2:mem:replica3;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "saludcontigo.datasource.replicas[2].username=sa",
+        "saludcontigo.datasource.replicas[2].consulta-retraso=SELECT 60",
+        "saludcontigo.datasource.replicas[3].url=jdbc:h2:tcp://localhost:1/replica4",
+        "saludcontigo.datasource.replicas[3].username=sa"
+})
+class DataSourceEnrutadoTests {
+
+    private static final String PRIMARIA = "saludcontigo";
+
+    @Autowired
+    private DataSourceEnrutado dataSourceEnrutado;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void verificar() {
+        dataSourceEnrutado.verificarReplicas();
+    }
+
+    @Test
+    void lecturasVanALasReplicasDisponibles() {
+        assertEquals(2, dataSourceEnrutado.replicasDisponibles());
+        Set<String> bases = new HashSet<>();
+        for (int i = 0; i < 8; i++) {
+            bases.add(base(true));
+        }
+        assertEquals(Set.of("replica1", "replica2"), bases);
+    }
+
+    @Test
+    void escriturasVanALaPrimaria() {
+        assertEquals(PRIMARIA, base(false));
+    }
+
+    @Test
+    void sinTransaccionSeUsaLaPrimaria() {
+        assertEquals(PRIMARIA, jdbcTemplate.queryForObject("SELECT DATABASE()", String.class));
+    }
+
+    @Test
+    void laSolicitudLeeSusPropiasEscrituras() {
+        ConsistenciaLectura.iniciar(false);
+        try {
+            assertEquals("replica", base(true).substring(0, 7));
+            assertEquals(PRIMARIA, base(false));
+            assertEquals(PRIMARIA, base(true));
+        } finally {
+            ConsistenciaLectura.finalizar();
+        }
+        assertEquals("replica", base(true).substring(0, 7));
+    }
+
+    @Test
+    void laCabeceraFuerzaLaPrimaria() {
+        ConsistenciaLectura.iniciar(true);
+        try {
+            assertEquals(PRIMARIA, base(true));
+        } finally {
+            ConsistenciaLectura.finalizar();
+        }
+    }
+
+    // Nombre de la base que atiende una transacción de solo lectura o de escritura
+    private String base(boolean soloLectura) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(soloLectura);
+        return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT DATABASE()", String.class));
+    }
+}
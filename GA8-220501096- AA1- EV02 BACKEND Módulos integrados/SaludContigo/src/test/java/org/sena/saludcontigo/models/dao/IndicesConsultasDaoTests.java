@@ -0,0 +1,221 @@
+package org.sena.saludcontigo.models.dao;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica que cada {@link Query} de los DAO filtre por columnas indexadas en el esquema
+ * creado por las migraciones (db/migration). Por cada tabla filtrada debe existir un índice
+ * (o la llave primaria) cuya primera columna sea una de las columnas comparadas por igualdad;
+ * si la consulta solo tiene rangos, basta con que el índice empiece por una columna del rango.
+ * Las consultas sin WHERE (exportaciones que recorren la tabla completa) no se evalúan.
+ */
+@SpringBootTest
+class IndicesConsultasDaoTests {
+
+    private static final String PAQUETE_DAO = "org.sena.saludcontigo.models.dao";
+
+    private static final Pattern ALIAS = Pattern.compile(
+            "\\b(?:FROM|JOIN(?:\\s+FETCH)?|UPDATE)\\s+(?!FETCH\\b)([\\w.]+)\\s+(?!(?:JOIN|WHERE|ORDER|GROUP|LEFT|INNER|ON|SET)\\b)(\\w+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern PREDICADO = Pattern.compile(
+            "\\b(\\w+)\\.(\\w+)(?:\\.(\\w+))?\\s*(>=|<=|<>|=|>|<|\\bIN\\b|\\bBETWEEN\\b|\\bLIKE\\b)",
+            Pattern.CASE_INSENSITIVE);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void todasLasConsultasUsanIndices() throws Exception {
+        List<String> faltantes = new ArrayList<>();
+        int evaluadas = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (Class<?> dao : daos()) {
+                for (Method method : dao.getDeclaredMethods()) {
+                    Query query = method.getAnnotation(Query.class);
+                    if (query == null) {
+                        continue;
+                    }
+                    Map<String, Filtro> filtros = query.nativeQuery()
+                            ? filtrosNativos(query.value())
+                            : filtrosJpql(query.value());
+                    if (filtros.isEmpty()) {
+                        continue;
+                    }
+                    evaluadas++;
+                    for (Map.Entry<String, Filtro> entry : filtros.entrySet()) {
+                        Set<String> indexadas = columnasIniciales(metaData, entry.getKey());
+                        Set<String> candidatas = entry.getValue().candidatas();
+                        if (candidatas.stream().noneMatch(indexadas::contains)) {
+                            faltantes.add(dao.getSimpleName() + "." + method.getName() + ": " + entry.getKey()
+                                    + " " + candidatas + " (índices: " + indexadas + ")");
+                        }
+                    }
+                }
+            }
+        }
+        assertTrue(evaluadas > 0, "No se encontraron consultas con filtros en " + PAQUETE_DAO);
+        assertTrue(faltantes.isEmpty(), "Consultas sin índice:\n" + String.join("\n", faltantes));
+    }
+
+    private List<Class<?>> daos() throws ClassNotFoundException {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return beanDefinition.getMetadata().isInterface();
+            }
+        };
+        scanner.addIncludeFilter(new AssignableTypeFilter(Repository.class));
+        List<Class<?>> daos = new ArrayList<>();
+        for (var candidato : scanner.findCandidateComponents(PAQUETE_DAO)) {
+            daos.add(Class.forName(candidato.getBeanClassName()));
+        }
+        assertFalse(daos.isEmpty(), "No se encontraron DAO en " + PAQUETE_DAO);
+        return daos;
+    }
+
+    // Columnas filtradas de una consulta JPQL, resueltas con el modelo de Hibernate
+    private Map<String, Filtro> filtrosJpql(String jpql) {
+        Map<String, Class<?>> alias = new HashMap<>();
+        Matcher matcher = ALIAS.matcher(jpql);
+        while (matcher.find()) {
+            String origen = matcher.group(1);
+            int punto = origen.indexOf('.');
+            Class<?> entidad = punto < 0
+                    ? entidad(origen)
+                    : tipoAtributo(alias.get(origen.substring(0, punto)), origen.substring(punto + 1));
+            alias.put(matcher.group(2), entidad);
+        }
+
+        Map<String, Filtro> filtros = new LinkedHashMap<>();
+        matcher = PREDICADO.matcher(clausulaWhere(jpql));
+        while (matcher.find()) {
+            Class<?> entidad = alias.get(matcher.group(1));
+            if (entidad == null) {
+                continue;
+            }
+            AbstractEntityPersister persister = persister(entidad);
+            String atributo = matcher.group(2);
+            String columna = atributo.equals(persister.getIdentifierPropertyName())
+                    ? persister.getIdentifierColumnNames()[0]
+                    : persister.getPropertyColumnNames(atributo)[0];
+            filtros.computeIfAbsent(persister.getTableName().toLowerCase(Locale.ROOT), t -> new Filtro())
+                    .agregar(columna, matcher.group(4));
+        }
+        return filtros;
+    }
+
+    // Columnas filtradas de una consulta SQL nativa
+    private Map<String, Filtro> filtrosNativos(String sql) {
+        Map<String, String> alias = new HashMap<>();
+        Matcher matcher = ALIAS.matcher(sql);
+        while (matcher.find()) {
+            alias.put(matcher.group(2), matcher.group(1));
+        }
+
+        Map<String, Filtro> filtros = new LinkedHashMap<>();
+        matcher = PREDICADO.matcher(clausulaWhere(sql));
+        while (matcher.find()) {
+            String tabla = alias.get(matcher.group(1));
+            if (tabla != null) {
+                filtros.computeIfAbsent(tabla.toLowerCase(Locale.ROOT), t -> new Filtro())
+                        .agregar(matcher.group(2), matcher.group(4));
+            }
+        }
+        return filtros;
+    }
+
+    private static String clausulaWhere(String consulta) {
+        int where = consulta.toUpperCase(Locale.ROOT).indexOf(" WHERE ");
+        return where < 0 ? "" : consulta.substring(where);
+    }
+
+    private Class<?> entidad(String nombre) {
+        return entityManagerFactory.getMetamodel().getEntities().stream()
+                .filter(e -> e.getName().equals(nombre))
+                .map(EntityType::getJavaType)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Entidad desconocida: " + nombre));
+    }
+
+    private Class<?> tipoAtributo(Class<?> entidad, String atributo) {
+        return entityManagerFactory.getMetamodel().entity(entidad).getAttribute(atributo).getJavaType();
+    }
+
+    private AbstractEntityPersister persister(Class<?> entidad) {
+        return (AbstractEntityPersister) entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel().getEntityDescriptor(entidad);
+    }
+
+    // Primera columna de cada índice de la tabla, incluida la llave primaria
+    private static Set<String> columnasIniciales(DatabaseMetaData metaData, String tabla) throws SQLException {
+        Set<String> columnas = new HashSet<>();
+        try (ResultSet rs = metaData.getIndexInfo(null, null, tabla, false, true)) {
+            while (rs.next()) {
+                if (rs.getShort("ORDINAL_POSITION") == 1) {
+                    columnas.add(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        try (ResultSet rs = metaData.getPrimaryKeys(null, null, tabla)) {
+            while (rs.next()) {
+                if (rs.getShort("KEY_SEQ") == 1) {
+                    columnas.add(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return columnas;
+    }
+
+    // Columnas comparadas sobre una tabla, separadas entre igualdad y rango
+    private static class Filtro {
+
+        private final Set<String> igualdad = new HashSet<>();
+
+        private final Set<String> rango = new HashSet<>();
+
+        void agregar(String columna, String operador) {
+            String op = operador.toUpperCase(Locale.ROOT);
+            (op.equals("=") || op.equals("IN") ? igualdad : rango).add(columna.toLowerCase(Locale.ROOT));
+        }
+
+        Set<String> candidatas() {
+            return igualdad.isEmpty() ? rango : igualdad;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package org.sena.saludcontigo.models.services;
+
+import org.junit.jupiter.api.Test;
+import org.sena.saludcontigo.models.dao.ICitaMedicaDao;
+import org.sena.saludcontigo.models.entity.CitaMedica;
+import org.sena.saludcontigo.models.entity.Medico;
+import org.sena.saludcontigo.models.entity.Paciente;
+import org.sena.saludcontigo.models.enums.EstadoCita;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.sena.saludcontigo.models.services.DatosPrueba.documento;
+import static org.sena.saludcontigo.models.services.DatosPrueba.medico;
+import static org.sena.saludcontigo.models.services.DatosPrueba.paciente;
+
+/**
+ * Muchas solicitudes simultáneas piden las mismas franjas de unos pocos médicos: cada franja
+ * se agenda una sola vez y las demás solicitudes reciben la cita que la ocupa.
+ */
+@SpringBootTest
+class CitaMedicaConcurrenciaTests {
+
+    private static final Logger log = LoggerFactory.getLogger(CitaMedicaConcurrenciaTests.class);
+
+    private static final int HILOS = 32;
+
+    private static final int MEDICOS = 4;
+
+    private static final int FRANJAS = 25;
+
+    private static final int INTENTOS_POR_FRANJA = 20;
+
+    private static final LocalDate FECHA = LocalDate.of(2099, 3, 2);
+
+    @Autowired
+    private ICitaMedicaService citaMedicaService;
+
+    @Autowired
+    private ICitaMedicaDao citaMedicaDao;
+
+    @Autowired
+    private IMedicoService medicoService;
+
+    @Autowired
+    private IPacienteService pacienteService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void cadaFranjaSeAgendaUnaSolaVez() throws Exception {
+        Paciente paciente = pacienteService.save(paciente(documento()));
+        List<Medico> medicos = new ArrayList<>();
+        for (int i = 0; i < MEDICOS; i++) {
+            medicos.add(medicoService.save(medico(documento())));
+        }
+
+        // Las solicitudes de cada franja se intercalan con las de las demás
+        List<CitaMedica> solicitudes = new ArrayList<>();
+        for (int intento = 0; intento < INTENTOS_POR_FRANJA; intento++) {
+            for (Medico medico : medicos) {
+                for (int franja = 0; franja < FRANJAS; franja++) {
+                    solicitudes.add(cita(paciente, medico, LocalTime.of(7, 0).plusMinutes(30L * franja), EstadoCita.AGENDADA));
+                }
+            }
+        }
+
+        AtomicInteger agendadas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        long inicio;
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (CitaMedica solicitud : solicitudes) {
+                tareas.add(executor.submit(() -> {
+                    salida.await();
+                    try {
+                        citaMedicaService.save(solicitud);
+                        agendadas.incrementAndGet();
+                    } catch (FranjaOcupadaException e) {
+                        assertEquals(1, e.getConflictos().size());
+                        rechazadas.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            inicio = System.nanoTime();
+            salida.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+        log.info("{} solicitudes en {} ms ({} por segundo): {} agendadas, {} rechazadas", solicitudes.size(), milisegundos,
+                solicitudes.size() * 1000L / Math.max(1, milisegundos), agendadas.get(), rechazadas.get());
+
+        assertEquals(MEDICOS * FRANJAS, agendadas.get());
+        assertEquals(solicitudes.size() - MEDICOS * FRANJAS, rechazadas.get());
+        Integer repetidas = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT Medicos_IdMedico FROM Citas_Medicas WHERE Estado_Cita <> 2 AND Fecha_Cita = ?"
+                        + " GROUP BY Medicos_IdMedico, Fecha_Hora_Cita HAVING COUNT(*) > 1) r", Integer.class, java.sql.Date.valueOf(FECHA));
+        assertEquals(0, repetidas);
+        // Límite holgado: las solicitudes de médicos distintos no se esperan entre sí
+        assertTrue(milisegundos < 60_000, "Las solicitudes tardaron " + milisegundos + " ms");
+    }
+
+    @Test
+    void elIndiceUnicoRechazaLaFranjaAunqueNoSeVerifique() {
+        Paciente paciente = pacienteService.save(paciente(documento()));
+        Medico medico = medicoService.save(medico(documento()));
+        LocalTime hora = LocalTime.of(9, 0);
+        CitaMedica primera = citaMedicaService.save(cita(paciente, medico, hora, EstadoCita.AGENDADA));
+
+        // Sin los bloqueos ni la verificación del servicio, como una escritura de otra instancia
+        assertThrows(DataIntegrityViolationException.class,
+                () -> citaMedicaDao.saveAndFlush(cita(paciente, medico, hora, EstadoCita.AGENDADA)));
+
+        FranjaOcupadaException e = assertThrows(FranjaOcupadaException.class,
+                () -> citaMedicaService.save(cita(paciente, medico, hora, EstadoCita.AGENDADA)));
+        assertEquals(primera.getIdcita(), e.getConflictos().get(0).idcita());
+
+        // Las citas canceladas no ocupan la franja
+        citaMedicaService.save(cita(paciente, medico, hora, EstadoCita.CANCELADA));
+        primera.setEstadoCita(EstadoCita.CANCELADA);
+        citaMedicaService.save(primera);
+        citaMedicaService.save(cita(paciente, medico, hora, EstadoCita.AGENDADA));
+    }
+
+    @Test
+    void unaCitaSinMedicoLaRechazaLaBaseDeDatos() {
+        Paciente paciente = pacienteService.save(paciente(documento()));
+
+        // Sin médico no hay franja que verificar: el error es el de la base de datos, no una franja ocupada
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> citaMedicaService.save(cita(paciente, null, LocalTime.of(10, 0), EstadoCita.AGENDADA)));
+        assertFalse(e instanceof FranjaOcupadaException);
+    }
+
+    private static CitaMedica cita(Paciente paciente, Medico medico, LocalTime hora, EstadoCita estado) {
+        return DatosPrueba.cita(paciente, medico, FECHA, hora, estado);
+    }
+}
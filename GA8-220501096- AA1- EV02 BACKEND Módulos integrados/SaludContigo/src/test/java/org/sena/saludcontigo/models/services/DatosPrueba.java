@@ -0,0 +1,82 @@
+package org.sena.saludcontigo.models.services;
+
+import org.sena.saludcontigo.models.entity.CitaMedica;
+import org.sena.saludcontigo.models.entity.Medico;
+import org.sena.saludcontigo.models.entity.Paciente;
+import org.sena.saludcontigo.models.enums.Estado;
+import org.sena.saludcontigo.models.enums.EstadoCita;
+import org.sena.saludcontigo.models.enums.Sexo;
+import org.sena.saludcontigo.models.enums.TipoDocumento;
+
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Entidades de prueba con los campos obligatorios llenos. Los documentos salen de un contador compartido,
+ * así las pruebas que usan la misma base de datos no repiten documentos ni usuarios.
+ */
+final class DatosPrueba {
+
+    private static final AtomicInteger DOCUMENTOS = new AtomicInteger(800000);
+
+    private DatosPrueba() {
+    }
+
+    static String documento() {
+        return String.valueOf(DOCUMENTOS.incrementAndGet());
+    }
+
+    static Paciente paciente(String documento) {
+        Paciente paciente = new Paciente();
+        paciente.setNombres("Nombre");
+        paciente.setApellidos("Apellido");
+        paciente.setTipoDocumento(TipoDocumento.CC);
+        paciente.setNumeroDocumento(documento);
+        paciente.setFechaNacimiento("1990-01-01");
+        paciente.setSexo(Sexo.MASCULINO);
+        paciente.setTelefono("3000000000");
+        paciente.setCorreo("paciente@saludcontigo.org");
+        paciente.setDireccion("Calle 1");
+        paciente.setOcupacion("Ninguna");
+        paciente.setUsername("paciente" + documento);
+        paciente.setPassword("clave");
+        paciente.setEstado(Estado.ACTIVO);
+        return paciente;
+    }
+
+    static Medico medico(String documento) {
+        return medico(documento, "General");
+    }
+
+    static Medico medico(String documento, String especialidad) {
+        Medico medico = new Medico();
+        medico.setNombres("Nombre");
+        medico.setApellidos("Apellido");
+        medico.setTipoDocumento(TipoDocumento.CC);
+        medico.setNumeroDocumento(documento);
+        medico.setFechaNacimiento("1980-01-01");
+        medico.setSexo(Sexo.FEMENINO);
+        medico.setTelefono("3000000000");
+        medico.setCorreo("medico@saludcontigo.org");
+        medico.setDireccion("Calle 1");
+        medico.setEspecialidad(especialidad);
+        medico.setUsername("medico" + documento);
+        medico.setPassword("clave");
+        medico.setEstado(Estado.ACTIVO);
+        return medico;
+    }
+
+    static CitaMedica cita(Paciente paciente, Medico medico, LocalDate fecha, LocalTime hora, EstadoCita estado) {
+        CitaMedica cita = new CitaMedica();
+        cita.setTipoCita("General");
+        cita.setFechaCita(java.sql.Date.valueOf(fecha));
+        cita.setHoraCita(Time.valueOf(hora));
+        cita.setLugarCita("Consultorio 1");
+        cita.setEstadoCita(estado);
+        cita.setPaciente(paciente);
+        cita.setMedico(medico);
+        return cita;
+    }
+}
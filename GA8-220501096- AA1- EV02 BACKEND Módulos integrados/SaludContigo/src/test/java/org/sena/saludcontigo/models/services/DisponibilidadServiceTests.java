@@ -0,0 +1,129 @@
+package org.sena.saludcontigo.models.services;
+
+import org.junit.jupiter.api.Test;
+import org.sena.saludcontigo.models.dao.ICitaMedicaDao;
+import org.sena.saludcontigo.models.dto.HoraDisponibleDto;
+import org.sena.saludcontigo.models.entity.CitaMedica;
+import org.sena.saludcontigo.models.entity.Medico;
+import org.sena.saludcontigo.models.entity.Paciente;
+import org.sena.saludcontigo.models.enums.EstadoCita;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.sql.Time;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.sena.saludcontigo.models.services.DatosPrueba.cita;
+import static org.sena.saludcontigo.models.services.DatosPrueba.documento;
+import static org.sena.saludcontigo.models.services.DatosPrueba.medico;
+import static org.sena.saludcontigo.models.services.DatosPrueba.paciente;
+
+/**
+ * Franjas de 15 minutos y citas de 30 minutos (los valores por defecto): una cita a las 9:00 impide
+ * empezar otra a las 8:45, 9:00 y 9:15.
+ */
+@SpringBootTest
+class DisponibilidadServiceTests {
+
+    private static final LocalDate FECHA = LocalDate.of(2099, 6, 1);
+
+    @Autowired
+    private IDisponibilidadService disponibilidadService;
+
+    @Autowired
+    private ICitaMedicaService citaMedicaService;
+
+    @Autowired
+    private ICitaMedicaDao citaMedicaDao;
+
+    @Autowired
+    private IMedicoService medicoService;
+
+    @Autowired
+    private IPacienteService pacienteService;
+
+    @Test
+    void lasCitasMarcanYLiberanLasFranjasDelMapa() {
+        Paciente paciente = pacienteService.save(paciente(documento()));
+        Medico medico = medicoService.save(medico(documento()));
+        String documento = medico.getNumeroDocumento();
+        // De 7:00 a 18:30: la jornada termina a las 19:00
+        List<LocalTime> disponibles = disponibilidadService.disponibles(documento, FECHA, null);
+        assertEquals(47, disponibles.size());
+
+        // Escrita sin el servicio, como desde otra instancia: el mapa ya cargado no la ve hasta volver a cargarse
+        citaMedicaDao.saveAndFlush(cita(paciente, medico, FECHA, LocalTime.of(14, 0), EstadoCita.AGENDADA));
+
+        // Una cita nueva marca sus franjas en el mapa cargado, sin volver a leer el día
+        CitaMedica cita = citaMedicaService.save(cita(paciente, medico, FECHA, LocalTime.of(9, 0), EstadoCita.AGENDADA));
+        disponibles = disponibilidadService.disponibles(documento, FECHA, null);
+        assertEquals(47 - 3, disponibles.size());
+        assertTrue(disponibles.contains(LocalTime.of(8, 30)));
+        assertFalse(disponibles.contains(LocalTime.of(8, 45)));
+        assertFalse(disponibles.contains(LocalTime.of(9, 0)));
+        assertFalse(disponibles.contains(LocalTime.of(9, 15)));
+        assertTrue(disponibles.contains(LocalTime.of(9, 30)));
+        assertTrue(disponibles.contains(LocalTime.of(14, 0)));
+
+        // Al mover la cita se descarta el mapa del día: la nueva carga libera las 9:00 y ve la cita de las 14:00
+        cita.setHoraCita(Time.valueOf(LocalTime.of(11, 0)));
+        cita = citaMedicaService.save(cita);
+        disponibles = disponibilidadService.disponibles(documento, FECHA, null);
+        assertTrue(disponibles.contains(LocalTime.of(9, 0)));
+        assertFalse(disponibles.contains(LocalTime.of(11, 0)));
+        assertFalse(disponibles.contains(LocalTime.of(14, 0)));
+        assertEquals(47 - 6, disponibles.size());
+
+        // Al cancelarla sus franjas quedan libres
+        cita.setEstadoCita(EstadoCita.CANCELADA);
+        citaMedicaService.save(cita);
+        disponibles = disponibilidadService.disponibles(documento, FECHA, null);
+        assertTrue(disponibles.contains(LocalTime.of(11, 0)));
+        assertEquals(47 - 3, disponibles.size());
+    }
+
+    @Test
+    void lasProximasHorasDeLaEspecialidadSeMezclanEnOrden() {
+        String especialidad = "Especialidad " + documento();
+        Paciente paciente = pacienteService.save(paciente(documento()));
+        List<Medico> medicos = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            medicos.add(medicoService.save(medico(documento(), especialidad)));
+        }
+        // Citas de 11 horas: en una jornada libre caben de 7:00 a 8:00. El primer médico no tiene ninguna el
+        // primer día, el segundo empieza desde las 7:30 y el tercero tiene el día libre
+        Duration duracion = Duration.ofHours(11);
+        citaMedicaService.save(cita(paciente, medicos.get(0), FECHA, LocalTime.of(12, 0), EstadoCita.AGENDADA));
+        citaMedicaService.save(cita(paciente, medicos.get(1), FECHA, LocalTime.of(7, 0), EstadoCita.AGENDADA));
+
+        List<HoraDisponibleDto> proximas = disponibilidadService.proximasDisponibles(especialidad, FECHA.atStartOfDay(), duracion, 12);
+
+        // Lo mismo recorriendo las agendas completas de cada médico, por fecha y hora y por ID de médico
+        List<HoraDisponibleDto> esperadas = new ArrayList<>();
+        for (LocalDate dia : List.of(FECHA, FECHA.plusDays(1))) {
+            for (Medico medico : medicos) {
+                for (LocalTime hora : disponibilidadService.disponibles(medico.getNumeroDocumento(), dia, duracion)) {
+                    esperadas.add(new HoraDisponibleDto(dia.atTime(hora), medico.getIdmedico(), medico.getNumeroDocumento(),
+                            medico.getNombres(), medico.getApellidos()));
+                }
+            }
+        }
+        esperadas.sort(Comparator.comparing(HoraDisponibleDto::fechaHora).thenComparing(HoraDisponibleDto::idMedico));
+        assertEquals(esperadas.subList(0, 12), proximas);
+        // Ocho horas del primer día (tres del segundo médico y cinco del tercero) y las primeras del día siguiente
+        assertEquals(new HoraDisponibleDto(FECHA.atTime(7, 0), medicos.get(2).getIdmedico(), medicos.get(2).getNumeroDocumento(),
+                "Nombre", "Apellido"), proximas.get(0));
+        assertEquals(FECHA.atTime(7, 30), proximas.get(2).fechaHora());
+        assertEquals(medicos.get(1).getIdmedico(), proximas.get(2).idMedico());
+        assertEquals(medicos.get(0).getIdmedico(), proximas.get(8).idMedico());
+        assertEquals(FECHA.plusDays(1).atTime(7, 0), proximas.get(8).fechaHora());
+    }
+}
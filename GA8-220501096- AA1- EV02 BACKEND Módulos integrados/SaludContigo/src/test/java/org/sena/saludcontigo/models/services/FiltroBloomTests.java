@@ -0,0 +1,52 @@
+package org.sena.saludcontigo.models.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FiltroBloomTests {
+
+    private static final int CAPACIDAD = 10_000;
+
+    @Test
+    void losDocumentosAgregadosSiemprePuedenEstar() {
+        FiltroBloom filtro = new FiltroBloom(CAPACIDAD, 0.01);
+        // Documentos consecutivos, como los que asigna la numeración nacional
+        for (int i = 0; i < CAPACIDAD; i++) {
+            filtro.agregar(String.valueOf(1_000_000_000L + i));
+        }
+        for (int i = 0; i < CAPACIDAD; i++) {
+            assertTrue(filtro.puedeContener(String.valueOf(1_000_000_000L + i)));
+        }
+    }
+
+    @Test
+    void losFalsosPositivosNoSuperanLaProbabilidadPrevista() {
+        FiltroBloom filtro = new FiltroBloom(CAPACIDAD, 0.01);
+        for (int i = 0; i < CAPACIDAD; i++) {
+            filtro.agregar(String.valueOf(1_000_000_000L + i));
+        }
+        int consultas = 100_000;
+        long falsos = IntStream.range(0, consultas)
+                .filter(i -> filtro.puedeContener(String.valueOf(2_000_000_000L + i)))
+                .count();
+        // Holgura sobre el 1 % para que la prueba no dependa de la distribución exacta de los hashes
+        assertTrue(falsos < consultas * 0.02, "Falsos positivos: " + falsos);
+    }
+
+    @Test
+    void losAgregadosEnParaleloNoSePierdenYAlSuperarLaCapacidadSeSatura() {
+        FiltroBloom filtro = new FiltroBloom(CAPACIDAD, 0.01);
+        IntStream.range(0, CAPACIDAD).parallel().forEach(i -> filtro.agregar("CC" + i));
+        assertFalse(filtro.saturado());
+        for (int i = 0; i < CAPACIDAD; i++) {
+            assertTrue(filtro.puedeContener("CC" + i));
+        }
+
+        filtro.agregar("CC" + CAPACIDAD);
+        assertTrue(filtro.saturado());
+    }
+}
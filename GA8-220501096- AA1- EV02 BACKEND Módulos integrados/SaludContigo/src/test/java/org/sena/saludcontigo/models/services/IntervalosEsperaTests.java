@@ -0,0 +1,80 @@
+package org.sena.saludcontigo.models.services;
+
+import org.junit.jupiter.api.Test;
+import org.sena.saludcontigo.models.dto.ListaEsperaDto;
+import org.sena.saludcontigo.models.enums.EstadoEspera;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntervalosEsperaTests {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2099, 1, 1, 0, 0);
+
+    @Test
+    void laPrimeraEsLaDeInicioMasTempranoQueAceptaLaFecha() {
+        IntervalosEspera intervalos = new IntervalosEspera();
+        // Empieza antes pero termina antes de la fecha: solo el mayor fin del subárbol la descarta
+        intervalos.agregar(espera(1, 0, 5));
+        intervalos.agregar(espera(2, 2, 30));
+        intervalos.agregar(espera(3, 2, 30));
+        intervalos.agregar(espera(4, 8, 12));
+        intervalos.agregar(espera(5, 20, 40));
+
+        assertEquals(1L, intervalos.primera(hora(3)).idespera());
+        // A igual inicio, la registrada primero
+        assertEquals(2L, intervalos.primera(hora(10)).idespera());
+        assertEquals(5L, intervalos.primera(hora(35)).idespera());
+        // Los extremos del rango se aceptan
+        assertEquals(5L, intervalos.primera(hora(40)).idespera());
+        assertNull(intervalos.primera(hora(41)));
+
+        assertTrue(intervalos.quitar(espera(2, 2, 30)));
+        assertFalse(intervalos.quitar(espera(2, 2, 30)));
+        assertEquals(3L, intervalos.primera(hora(10)).idespera());
+        assertEquals(4, intervalos.tamano());
+    }
+
+    @Test
+    void coincideConUnRecorridoDeTodasLasSolicitudes() {
+        SplittableRandom aleatorio = new SplittableRandom(25);
+        IntervalosEspera intervalos = new IntervalosEspera();
+        List<ListaEsperaDto> todas = new ArrayList<>();
+        long siguiente = 1;
+
+        for (int ronda = 0; ronda < 20_000; ronda++) {
+            if (todas.isEmpty() || aleatorio.nextInt(3) > 0) {
+                int desde = aleatorio.nextInt(500);
+                ListaEsperaDto espera = espera(siguiente++, desde, desde + aleatorio.nextInt(60));
+                intervalos.agregar(espera);
+                todas.add(espera);
+            } else {
+                ListaEsperaDto espera = todas.remove(aleatorio.nextInt(todas.size()));
+                assertTrue(intervalos.quitar(espera));
+            }
+
+            LocalDateTime fechaHora = hora(aleatorio.nextInt(560));
+            ListaEsperaDto esperada = todas.stream()
+                    .filter(espera -> !espera.desde().isAfter(fechaHora) && !espera.hasta().isBefore(fechaHora))
+                    .min(IntervalosEspera.ORDEN)
+                    .orElse(null);
+            assertEquals(esperada, intervalos.primera(fechaHora));
+            assertEquals(todas.size(), intervalos.tamano());
+        }
+    }
+
+    private static ListaEsperaDto espera(long id, int desde, int hasta) {
+        return new ListaEsperaDto(id, 1L, 1L, null, "General", hora(desde), hora(hasta), EstadoEspera.PENDIENTE, INICIO, null);
+    }
+
+    private static LocalDateTime hora(int horas) {
+        return INICIO.plusHours(horas);
+    }
+}
@@ -0,0 +1,108 @@
+package org.sena.saludcontigo.models.services;
+
+import org.junit.jupiter.api.Test;
+import org.sena.saludcontigo.models.dto.CitaMedicaDto;
+import org.sena.saludcontigo.models.dto.ListaEsperaDto;
+import org.sena.saludcontigo.models.entity.CitaMedica;
+import org.sena.saludcontigo.models.entity.Medico;
+import org.sena.saludcontigo.models.entity.Paciente;
+import org.sena.saludcontigo.models.enums.EstadoCita;
+import org.sena.saludcontigo.models.enums.EstadoEspera;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.sena.saludcontigo.models.services.DatosPrueba.cita;
+import static org.sena.saludcontigo.models.services.DatosPrueba.documento;
+import static org.sena.saludcontigo.models.services.DatosPrueba.medico;
+import static org.sena.saludcontigo.models.services.DatosPrueba.paciente;
+
+@SpringBootTest
+class ListaEsperaServiceTests {
+
+    private static final LocalDate FECHA = LocalDate.of(2099, 5, 4);
+
+    @Autowired
+    private IListaEsperaService listaEsperaService;
+
+    @Autowired
+    private ICitaMedicaService citaMedicaService;
+
+    @Autowired
+    private IMedicoService medicoService;
+
+    @Autowired
+    private IPacienteService pacienteService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void alCancelarUnaCitaSeAgendaALaPrimeraSolicitud() {
+        Medico medico = medicoService.save(medico(documento()));
+        Paciente titular = pacienteService.save(paciente(documento()));
+        Paciente temprana = pacienteService.save(paciente(documento()));
+        Paciente tardia = pacienteService.save(paciente(documento()));
+        CitaMedica cita = cita(titular, medico, FECHA, LocalTime.of(10, 0), EstadoCita.AGENDADA);
+        cita.setLugarCita("Consultorio 7");
+        cita = citaMedicaService.save(cita);
+        LocalDateTime franja = FECHA.atTime(10, 0);
+        listaEsperaService.registrar(tardia.getNumeroDocumento(), medico.getNumeroDocumento(), null, "Control",
+                franja.minusHours(1), franja.plusHours(1));
+        listaEsperaService.registrar(temprana.getNumeroDocumento(), medico.getNumeroDocumento(), null, "Control",
+                franja.minusHours(2), franja);
+
+        cita.setEstadoCita(EstadoCita.CANCELADA);
+        citaMedicaService.save(cita);
+
+        // La asignación corre en segundo plano al confirmarse la cancelación
+        await().atMost(Duration.ofSeconds(10)).until(() -> estado(temprana) == EstadoEspera.ASIGNADA);
+        ListaEsperaDto asignada = listaEsperaService.findByPacienteDocumento(temprana.getNumeroDocumento()).get(0);
+        List<CitaMedicaDto> citas = citaMedicaService.findByPacienteDocumento(temprana.getNumeroDocumento(), 0L, 10, false);
+        assertEquals(1, citas.size());
+        assertEquals(asignada.idcita(), citas.get(0).idcita());
+        assertEquals(franja, citas.get(0).fechaHoraCita());
+        assertEquals("Consultorio 7", citas.get(0).lugarCita());
+        assertEquals("Control", citas.get(0).tipoCita());
+        assertEquals(EstadoCita.AGENDADA, citas.get(0).estadoCita());
+        assertEquals(EstadoEspera.PENDIENTE, estado(tardia));
+    }
+
+    @Test
+    void unaSolicitudQueYaNoEstaPendienteNoSeAgenda() {
+        String especialidad = "Especialidad " + documento();
+        Medico medico = medicoService.save(medico(documento(), especialidad));
+        Paciente retirada = pacienteService.save(paciente(documento()));
+        Paciente siguiente = pacienteService.save(paciente(documento()));
+        LocalDateTime franja = FECHA.atTime(15, 0);
+        ListaEsperaDto primera = listaEsperaService.registrar(retirada.getNumeroDocumento(), null, especialidad, "General",
+                franja.minusHours(3), franja.plusHours(3));
+        listaEsperaService.registrar(siguiente.getNumeroDocumento(), null, especialidad, "General",
+                franja.minusHours(2), franja.plusHours(2));
+        // Retirada en otra instancia: la memoria de esta todavía la tiene pendiente
+        jdbcTemplate.update("UPDATE Lista_Espera SET Estado = ? WHERE IdEspera = ?", EstadoEspera.RETIRADA.getCodigo(), primera.idespera());
+
+        listaEsperaService.asignar(new FranjaLiberada(medico.getIdmedico(), franja, "Consultorio 2"));
+
+        // La cita de la solicitud retirada se revirtió junto con su asignación
+        assertTrue(citaMedicaService.findByPacienteDocumento(retirada.getNumeroDocumento(), 0L, 10, false).isEmpty());
+        assertEquals(EstadoEspera.RETIRADA, estado(retirada));
+        assertEquals(EstadoEspera.ASIGNADA, estado(siguiente));
+        List<CitaMedicaDto> citas = citaMedicaService.findByPacienteDocumento(siguiente.getNumeroDocumento(), 0L, 10, false);
+        assertEquals(1, citas.size());
+        assertEquals(franja, citas.get(0).fechaHoraCita());
+    }
+
+    private EstadoEspera estado(Paciente paciente) {
+        return listaEsperaService.findByPacienteDocumento(paciente.getNumeroDocumento()).get(0).estado();
+    }
+}
@@ -0,0 +1,180 @@
+package org.sena.saludcontigo.models.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sena.saludcontigo.SaludContigoApplication;
+import org.sena.saludcontigo.models.entity.CitaMedica;
+import org.sena.saludcontigo.models.entity.Medico;
+import org.sena.saludcontigo.models.entity.Paciente;
+import org.sena.saludcontigo.models.enums.EstadoCita;
+import org.sena.saludcontigo.models.services.IResolucionDocumentoService.Persona;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.sena.saludcontigo.models.services.DatosPrueba.cita;
+import static org.sena.saludcontigo.models.services.DatosPrueba.documento;
+import static org.sena.saludcontigo.models.services.DatosPrueba.medico;
+import static org.sena.saludcontigo.models.services.DatosPrueba.paciente;
+
+/**
+ * Dos instancias de la aplicación sobre la misma base H2 en memoria: la instancia "a" es el contexto
+ * de la prueba y la "b" se inicia aparte, con su propio administrador de cachés de segundo nivel.
+ * Las lecturas periódicas están espaciadas para que cada prueba decida cuándo se lee el registro.
+ */
+@SpringBootTest(properties = {
+        "saludcontigo.cambios.nodo=a",
+        "saludcontigo.cambios.intervalo=3600000"
+})
+class RegistroCambiosServiceTests {
+
+    private static ConfigurableApplicationContext nodoB;
+
+    @Autowired
+    private IMedicoService medicoService;
+
+    @Autowired
+    private IPacienteService pacienteService;
+
+    @Autowired
+    private ICitaMedicaService citaMedicaService;
+
+    @Autowired
+    private IRegistroCambiosService registroCambiosService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private IMedicoService medicoServiceB;
+
+    private IRegistroCambiosService registroCambiosServiceB;
+
+    @BeforeAll
+    static void iniciarNodoB() {
+        nodoB = new SpringApplicationBuilder(SaludContigoApplication.class)
+                .web(WebApplicationType.NONE)
+                // Como argumentos: las propiedades por defecto del builder no reemplazan las de application.properties
+                .run("--saludcontigo.cambios.nodo=b",
+                        "--saludcontigo.cambios.intervalo=3600000",
+                        // URI distinta: la instancia no comparte las regiones de caché con el contexto de la prueba
+                        "--spring.jpa.properties.hibernate.javax.cache.uri=application.conf");
+    }
+
+    @AfterAll
+    static void detenerNodoB() {
+        nodoB.close();
+    }
+
+    @BeforeEach
+    void sincronizar() {
+        medicoServiceB = nodoB.getBean(IMedicoService.class);
+        registroCambiosServiceB = nodoB.getBean(IRegistroCambiosService.class);
+        registroCambiosService.sondear();
+        registroCambiosServiceB.sondear();
+    }
+
+    @Test
+    void losCambiosInvalidanLasCachesDeLaOtraInstancia() {
+        String documento = documento();
+        Medico medico = medicoService.save(medico(documento));
+        assertEquals(1, registroCambiosServiceB.sondear());
+        String etag = nodoB.getBean(IDirectorioMedicoService.class).actual().getEtag();
+        assertEquals("Nombre", medicoServiceB.findByDocument(documento).getNombres());
+
+        String nuevoDocumento = documento();
+        medicoService.patch(medico.getIdmedico(), null, Map.of("numeroDocumento", nuevoDocumento, "nombres", "Cambiado"));
+        // Sin leer el registro, la instancia b sigue usando sus copias en caché
+        assertEquals("Nombre", medicoServiceB.findByDocument(documento).getNombres());
+
+        assertEquals(1, registroCambiosServiceB.sondear());
+        assertNull(medicoServiceB.findByDocument(documento));
+        assertEquals("Cambiado", medicoServiceB.findByDocument(nuevoDocumento).getNombres());
+        assertNotEquals(etag, nodoB.getBean(IDirectorioMedicoService.class).actual().getEtag());
+
+        MeterRegistry registry = nodoB.getBean(MeterRegistry.class);
+        assertEquals(0.0, registry.get("saludcontigo.cambios.pendientes").gauge().value());
+        assertTrue(registry.get("saludcontigo.cambios.retraso").timer().count() >= 2);
+
+        medicoService.deleteByDocument(nuevoDocumento);
+        assertEquals(1, registroCambiosServiceB.sondear());
+        assertNull(medicoServiceB.findByDocument(nuevoDocumento));
+    }
+
+    @Test
+    void lasCitasDescartanLaDisponibilidadDeLaOtraInstancia() {
+        LocalDate fecha = LocalDate.of(2099, 7, 1);
+        Medico medico = medicoService.save(medico(documento()));
+        Paciente paciente = pacienteService.save(paciente(documento()));
+        assertEquals(2, registroCambiosServiceB.sondear());
+        IDisponibilidadService disponibilidadB = nodoB.getBean(IDisponibilidadService.class);
+        assertEquals(47, disponibilidadB.disponibles(medico.getNumeroDocumento(), fecha, null).size());
+
+        CitaMedica cita = citaMedicaService.save(cita(paciente, medico, fecha, LocalTime.of(9, 0), EstadoCita.AGENDADA));
+        // Sin leer el registro, la instancia b sigue usando el mapa del día
+        assertEquals(47, disponibilidadB.disponibles(medico.getNumeroDocumento(), fecha, null).size());
+        assertEquals(1, registroCambiosServiceB.sondear());
+        assertFalse(disponibilidadB.disponibles(medico.getNumeroDocumento(), fecha, null).contains(LocalTime.of(9, 0)));
+        assertEquals(47 - 3, disponibilidadB.disponibles(medico.getNumeroDocumento(), fecha, null).size());
+
+        cita.setEstadoCita(EstadoCita.CANCELADA);
+        citaMedicaService.save(cita);
+        assertEquals(1, registroCambiosServiceB.sondear());
+        assertEquals(47, disponibilidadB.disponibles(medico.getNumeroDocumento(), fecha, null).size());
+    }
+
+    @Test
+    void losCambiosPropiosNoSePublican() {
+        medicoService.save(medico(documento()));
+        assertEquals(0, registroCambiosService.sondear());
+        assertEquals(1, registroCambiosServiceB.sondear());
+    }
+
+    @Test
+    void unCambioConfirmadoTardeSeLeeEnLaSiguienteLectura() throws Exception {
+        Medico medico = medicoService.save(medico(documento()));
+        registroCambiosServiceB.sondear();
+
+        try (Connection lenta = dataSource.getConnection()) {
+            lenta.setAutoCommit(false);
+            // La transacción lenta toma el ID menor, pero la rápida confirma primero
+            insertar(lenta, medico.getIdmedico());
+            try (Connection rapida = dataSource.getConnection()) {
+                insertar(rapida, medico.getIdmedico());
+            }
+            assertEquals(1, registroCambiosServiceB.sondear());
+            assertEquals(1.0, nodoB.getBean(MeterRegistry.class).get("saludcontigo.cambios.huecos").gauge().value());
+
+            lenta.commit();
+        }
+        assertEquals(1, registroCambiosServiceB.sondear());
+        assertEquals(0.0, nodoB.getBean(MeterRegistry.class).get("saludcontigo.cambios.huecos").gauge().value());
+    }
+
+    private static void insertar(Connection connection, Long idMedico) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO Registro_Cambios (Entidad, IdEntidad, Version, Nodo, Fecha_Cambio) VALUES (?, ?, NULL, 'c', ?)")) {
+            statement.setInt(1, Persona.MEDICO.getCodigo());
+            statement.setLong(2, idMedico);
+            statement.setObject(3, LocalDateTime.now());
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.sena.saludcontigo.models.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResolucionDocumentoCacheTests {
+
+    @Test
+    void alQuitarPorIdSeRetiraSuDocumentoVigente() {
+        ResolucionDocumentoServiceImpl.Documentos documentos = new ResolucionDocumentoServiceImpl.Documentos(100, Duration.ofMinutes(10));
+        assertEquals(1L, documentos.obtener("CC1", doc -> 1L));
+        documentos.guardar("CC2", 2L);
+
+        // Cambio de documento: el anterior deja de resolverse
+        documentos.guardar("CC1-B", 1L);
+        assertNull(documentos.obtener("CC1", doc -> null));
+        assertEquals(1L, documentos.obtener("CC1-B", doc -> null));
+
+        documentos.quitar(1L);
+        assertNull(documentos.obtener("CC1-B", doc -> null));
+        assertEquals(2L, documentos.obtener("CC2", doc -> null));
+
+        // Un documento retirado por llave también sale del índice: quitar su ID no afecta al que lo reemplaza
+        documentos.quitar("CC2");
+        documentos.guardar("CC2", 3L);
+        documentos.quitar(2L);
+        assertEquals(3L, documentos.obtener("CC2", doc -> null));
+    }
+}
@@ -0,0 +1,129 @@
+package org.sena.saludcontigo.models.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rueda de cuatro ranuras y tres niveles con pasos de 10 ms: abarca 64 pasos, así las pruebas cruzan
+ * todos los niveles y la lista de entradas lejanas con pocos pasos.
+ */
+class RuedaTemporalTests {
+
+    private static final long PASO = 10;
+
+    @Test
+    void cadaEntradaVenceEnSuPasoAunqueBajeDeVariosNiveles() {
+        RuedaTemporal<Integer> rueda = new RuedaTemporal<>(PASO, 2, 3, 0);
+        assertEquals(64 * PASO, rueda.alcanceMillis());
+        // Nivel 0, 1 y 2, más allá del alcance, y un vencimiento que no cae justo en un paso
+        long[] vencimientos = {3 * PASO, 9 * PASO, 40 * PASO, 63 * PASO, 64 * PASO, 150 * PASO, 301 * PASO + 1};
+        for (int i = 0; i < vencimientos.length; i++) {
+            rueda.agregar(vencimientos[i], i);
+        }
+
+        Map<Integer, Long> vencidas = new HashMap<>();
+        for (long ahora = 0; ahora <= 310 * PASO; ahora += PASO) {
+            long momento = ahora;
+            rueda.avanzar(ahora, valor -> vencidas.put(valor, momento));
+        }
+
+        assertEquals(vencimientos.length, vencidas.size());
+        for (int i = 0; i < vencimientos.length; i++) {
+            // Nunca antes de su vencimiento y a lo sumo un paso después
+            assertEquals(Math.ceilDiv(vencimientos[i], PASO) * PASO, vencidas.get(i), "Entrada " + i);
+        }
+        assertEquals(0, rueda.tamano());
+    }
+
+    @Test
+    void unAvanceLargoEntregaLasVencidasEnOrden() {
+        RuedaTemporal<Integer> rueda = new RuedaTemporal<>(PASO, 2, 3, 0);
+        rueda.agregar(200 * PASO, 3);
+        rueda.agregar(5 * PASO, 0);
+        rueda.agregar(70 * PASO, 2);
+        rueda.agregar(20 * PASO, 1);
+        rueda.agregar(500 * PASO, 4);
+
+        List<Integer> vencidas = new ArrayList<>();
+        rueda.avanzar(300 * PASO, vencidas::add);
+
+        assertEquals(List.of(0, 1, 2, 3), vencidas);
+        assertEquals(1, rueda.tamano());
+    }
+
+    @Test
+    void lasEntradasCanceladasOVaciadasNoVencen() {
+        RuedaTemporal<Integer> rueda = new RuedaTemporal<>(PASO, 2, 3, 0);
+        RuedaTemporal.Entrada<Integer> cancelada = rueda.agregar(30 * PASO, 0);
+        rueda.agregar(30 * PASO, 1);
+        RuedaTemporal.Entrada<Integer> lejana = rueda.agregar(100 * PASO, 2);
+        rueda.cancelar(cancelada);
+        rueda.cancelar(cancelada);
+        rueda.cancelar(lejana);
+        assertEquals(1, rueda.tamano());
+
+        List<Integer> vencidas = new ArrayList<>();
+        rueda.avanzar(200 * PASO, vencidas::add);
+        assertEquals(List.of(1), vencidas);
+
+        rueda.agregar(250 * PASO, 3);
+        RuedaTemporal.Entrada<Integer> vaciada = rueda.agregar(400 * PASO, 4);
+        rueda.vaciar();
+        assertEquals(0, rueda.tamano());
+        // Cancelar una entrada descartada no vuelve a descontarla
+        rueda.cancelar(vaciada);
+        assertEquals(0, rueda.tamano());
+        rueda.avanzar(500 * PASO, vencidas::add);
+        assertEquals(List.of(1), vencidas);
+
+        // Una entrada ya vencida al agregarla vence en el siguiente paso
+        rueda.agregar(10 * PASO, 5);
+        rueda.avanzar(501 * PASO, vencidas::add);
+        assertEquals(List.of(1, 5), vencidas);
+    }
+
+    @Test
+    void lasOperacionesAleatoriasVencenASuTiempo() {
+        SplittableRandom aleatorio = new SplittableRandom(24);
+        long inicio = 1_000_003;
+        RuedaTemporal<Integer> rueda = new RuedaTemporal<>(PASO, 2, 3, inicio);
+        Map<Integer, Long> pendientes = new HashMap<>();
+        Map<Integer, RuedaTemporal.Entrada<Integer>> entradas = new HashMap<>();
+        int siguiente = 0;
+
+        long ahora = inicio;
+        for (int ronda = 0; ronda < 5_000; ronda++) {
+            for (int i = aleatorio.nextInt(4); i > 0; i--) {
+                long vencimiento = ahora + 1 + aleatorio.nextLong(200 * PASO);
+                entradas.put(siguiente, rueda.agregar(vencimiento, siguiente));
+                pendientes.put(siguiente, vencimiento);
+                siguiente++;
+            }
+            if (!pendientes.isEmpty() && aleatorio.nextInt(3) == 0) {
+                Integer valor = new ArrayList<>(pendientes.keySet()).get(aleatorio.nextInt(pendientes.size()));
+                rueda.cancelar(entradas.remove(valor));
+                pendientes.remove(valor);
+            }
+
+            ahora += aleatorio.nextLong(3 * PASO);
+            long momento = ahora;
+            rueda.avanzar(ahora, valor -> {
+                Long vencimiento = pendientes.remove(valor);
+                entradas.remove(valor);
+                assertTrue(vencimiento != null && vencimiento <= momento, "Entrada " + valor + " vencida antes de tiempo o cancelada");
+            });
+            // Las que vencen hasta el último paso completo ya se entregaron
+            long ultimoPaso = Math.floorDiv(ahora, PASO);
+            pendientes.values().forEach(vencimiento -> assertTrue(Math.ceilDiv(vencimiento, PASO) > ultimoPaso));
+            assertEquals(pendientes.size(), rueda.tamano());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.sena.saludcontigo.models.services;
+
+import org.junit.jupiter.api.Test;
+import org.sena.saludcontigo.models.dto.ResultadoTransicionDto;
+import org.sena.saludcontigo.models.entity.Medico;
+import org.sena.saludcontigo.models.entity.Paciente;
+import org.sena.saludcontigo.models.enums.EstadoCita;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.sena.saludcontigo.models.services.DatosPrueba.cita;
+import static org.sena.saludcontigo.models.services.DatosPrueba.documento;
+import static org.sena.saludcontigo.models.services.DatosPrueba.medico;
+import static org.sena.saludcontigo.models.services.DatosPrueba.paciente;
+
+/**
+ * Bloques de dos filas para que la transición recorra varios bloques con pocas citas.
+ */
+@SpringBootTest(properties = "saludcontigo.transicion.tamano-lote=2")
+class TransicionEstadoServiceTests {
+
+    private static final LocalDate FECHA = LocalDate.of(2099, 4, 6);
+
+    @Autowired
+    private ITransicionEstadoService transicionEstadoService;
+
+    @Autowired
+    private ICitaMedicaService citaMedicaService;
+
+    @Autowired
+    private IDisponibilidadService disponibilidadService;
+
+    @Autowired
+    private IMedicoService medicoService;
+
+    @Autowired
+    private IPacienteService pacienteService;
+
+    @Test
+    void lasCitasQueChocanConUnaFranjaOcupadaSeOmiten() {
+        Paciente paciente = pacienteService.save(paciente(documento()));
+        Medico medico = medicoService.save(medico(documento()));
+        citaMedicaService.save(cita(paciente, medico, FECHA, LocalTime.of(9, 0), EstadoCita.AGENDADA));
+        // Primer bloque: la de las 9:00 choca con la agendada. Segundo bloque: la segunda de las 10:00 choca con
+        // la primera, que ya se confirmó en el bloque anterior
+        citaMedicaService.save(cita(paciente, medico, FECHA, LocalTime.of(9, 0), EstadoCita.CANCELADA));
+        citaMedicaService.save(cita(paciente, medico, FECHA, LocalTime.of(10, 0), EstadoCita.CANCELADA));
+        citaMedicaService.save(cita(paciente, medico, FECHA, LocalTime.of(11, 0), EstadoCita.CANCELADA));
+        citaMedicaService.save(cita(paciente, medico, FECHA, LocalTime.of(10, 0), EstadoCita.CANCELADA));
+        // Carga el mapa del día antes de la transición
+        assertTrue(disponibilidadService.disponibles(medico.getNumeroDocumento(), FECHA, null).contains(LocalTime.of(10, 0)));
+
+        ResultadoTransicionDto resultado = transicionEstadoService.transicionarCitas(EstadoCita.CANCELADA, EstadoCita.AGENDADA,
+                medico.getNumeroDocumento(), FECHA.atStartOfDay(), FECHA.plusDays(1).atStartOfDay(), null);
+
+        assertEquals(new ResultadoTransicionDto(4, 2, 2, 2), resultado);
+        // Las filas confirmadas invalidan la disponibilidad en memoria
+        List<LocalTime> disponibles = disponibilidadService.disponibles(medico.getNumeroDocumento(), FECHA, null);
+        assertFalse(disponibles.contains(LocalTime.of(10, 0)));
+        assertFalse(disponibles.contains(LocalTime.of(11, 0)));
+        assertTrue(disponibles.contains(LocalTime.of(12, 0)));
+    }
+}